@@ -0,0 +1,223 @@
+package com.digitalwallet.archive;
+
+import com.digitalwallet.config.Workload;
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkhead;
+import com.digitalwallet.jobs.JobBulkheads;
+import com.digitalwallet.partition.MonthlyPartition;
+import com.digitalwallet.partition.PartitionMaintenanceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves whole months of {@code transfers} and {@code ledger_entries} that ended more than
+ * {@code novapay.archive.hot-window} ago into the {@link ArchiveStore}, then removes them
+ * from the database: on PostgreSQL by dropping the month's partitions, elsewhere with a
+ * ranged delete.
+ *
+ * <p>A month is only archived once every transfer in it has reached a final status, so
+ * no row can change after its segment is written. Its rows leave the database on the run
+ * after the one that wrote its segments, which finds segments with the same row counts as
+ * the database and only removes the rows; by then every instance sharing the archive
+ * directory has listed the new segments and reads the month from them. The same makes a
+ * run that stops halfway safe to repeat, and two instances archiving at once write the
+ * same segments. A segment whose count disagrees with the database is left alone and
+ * reported.
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+
+    private static final String COUNT_UNSETTLED =
+            "SELECT COUNT(*) AS unsettled FROM transfers WHERE created_at >= :from AND created_at < :to " +
+            "AND status NOT IN ('COMPLETED', 'FAILED', 'CANCELLED', 'REVERSED')";
+
+    private final DatabaseClient databaseClient;
+    private final ArchiveStore archiveStore;
+    private final PartitionMaintenanceService partitionMaintenance;
+    private final JobBulkhead bulkhead;
+    private final Map<ArchivedTable, Counter> archivedRows = new EnumMap<>(ArchivedTable.class);
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final boolean enabled;
+    private final Duration hotWindow;
+    private final int lookbackMonths;
+    private final int blockRows;
+
+    public ArchiveService(DatabaseClient databaseClient,
+                          ArchiveStore archiveStore,
+                          PartitionMaintenanceService partitionMaintenance,
+                          JobBulkheads jobBulkheads,
+                          MeterRegistry meterRegistry,
+                          @Value("${novapay.archive.enabled:false}") boolean enabled,
+                          @Value("${novapay.archive.hot-window:90d}") Duration hotWindow,
+                          @Value("${novapay.archive.lookback-months:24}") int lookbackMonths,
+                          @Value("${novapay.archive.block-rows:4096}") int blockRows) {
+        this.databaseClient = databaseClient;
+        this.archiveStore = archiveStore;
+        this.partitionMaintenance = partitionMaintenance;
+        this.bulkhead = jobBulkheads.get(Job.SWEEPERS);
+        this.enabled = enabled;
+        this.hotWindow = hotWindow;
+        this.lookbackMonths = lookbackMonths;
+        this.blockRows = blockRows;
+        for (ArchivedTable table : ArchivedTable.values()) {
+            archivedRows.put(table, Counter.builder("novapay.archive.rows")
+                    .tag("table", table.tableName())
+                    .description("Rows moved from the database into archive segments")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Scheduled(cron = "${novapay.archive.cron:0 30 2 * * *}")
+    public void archiveColdMonths() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        Workload.BATCH.bind(archiveMonthsBefore(LocalDateTime.now().minus(hotWindow)))
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        month -> log.info("Archived {}", month),
+                        error -> log.error("Archiving failed", error),
+                        () -> log.info("Completed archiving"));
+    }
+
+    /**
+     * Archives, oldest first, the months within the lookback that ended before {@code cutoff}.
+     * Emits each month that was moved out of the database. Each month holds one permit of the
+     * sweepers' bulkhead while it is archived.
+     */
+    public Flux<YearMonth> archiveMonthsBefore(LocalDateTime cutoff) {
+        YearMonth newest = YearMonth.from(cutoff).minusMonths(1);
+        return Flux.range(0, lookbackMonths)
+                .map(offset -> newest.minusMonths(lookbackMonths - 1 - offset))
+                .concatMap(month -> bulkhead.run(archiveMonth(month)));
+    }
+
+    // Emits the month once its rows are in segments and gone from the database; empty if skipped
+    private Mono<YearMonth> archiveMonth(YearMonth month) {
+        MonthlyPartition partition = new MonthlyPartition(month);
+        // One after the other: the month holds one permit, so it may use one connection
+        return countRows(ArchivedTable.TRANSFERS, partition)
+                .zipWhen(transfers -> countRows(ArchivedTable.LEDGER_ENTRIES, partition))
+                .filter(counts -> counts.getT1() > 0 || counts.getT2() > 0)
+                .flatMap(counts -> countUnsettled(partition)
+                        .flatMap(unsettled -> {
+                            if (unsettled > 0) {
+                                log.warn("Not archiving {}: {} transfers have not reached a final status", month, unsettled);
+                                return Mono.just(false);
+                            }
+                            return archiveTable(ArchivedTable.TRANSFERS, partition, counts.getT1())
+                                    .flatMap(transfers -> transfers == SegmentState.MISMATCHED
+                                            ? Mono.just(false)
+                                            : archiveTable(ArchivedTable.LEDGER_ENTRIES, partition, counts.getT2())
+                                                    .map(ledgerEntries -> removable(month, transfers, ledgerEntries)));
+                        }))
+                .filter(removable -> removable)
+                .flatMap(removable -> removeFromDatabase(partition).thenReturn(month));
+    }
+
+    private static boolean removable(YearMonth month, SegmentState transfers, SegmentState ledgerEntries) {
+        if (transfers == SegmentState.MISMATCHED || ledgerEntries == SegmentState.MISMATCHED) {
+            return false;
+        }
+        if (transfers == SegmentState.WRITTEN || ledgerEntries == SegmentState.WRITTEN) {
+            log.info("Wrote the segments for {}; its rows leave the database on the next run", month);
+            return false;
+        }
+        return true;
+    }
+
+    private Mono<SegmentState> archiveTable(ArchivedTable table, MonthlyPartition partition, long databaseRows) {
+        if (databaseRows == 0) {
+            return Mono.just(SegmentState.ARCHIVED);
+        }
+        YearMonth month = partition.month();
+        return archiveStore.archivedRowCount(table, month).flatMap(existing -> {
+            if (existing.isPresent()) {
+                return Mono.just(matches(table, month, existing.get(), databaseRows)
+                        ? SegmentState.ARCHIVED : SegmentState.MISMATCHED);
+            }
+            Flux<Object[]> rows = databaseClient.sql(table.selectRange())
+                    .bind("from", partition.from())
+                    .bind("to", partition.to())
+                    .map(table::read)
+                    .all();
+            return archiveStore.write(table, month, rows, blockRows)
+                    .doOnNext(written -> archivedRows.get(table).increment(written))
+                    .map(written -> matches(table, month, written, databaseRows)
+                            ? SegmentState.WRITTEN : SegmentState.MISMATCHED);
+        });
+    }
+
+    private Mono<Void> removeFromDatabase(MonthlyPartition partition) {
+        return Flux.fromArray(ArchivedTable.values())
+                .concatMap(table -> partitionMaintenance.isPartitioned(table.tableName())
+                        // After the drop the delete only reaches the month's backdated rows in the default partition
+                        .flatMap(partitioned -> partitioned
+                                ? partitionMaintenance.dropPartition(table.tableName(), partition)
+                                        .then(deleteRows(table, partition))
+                                : deleteRows(table, partition)))
+                .then();
+    }
+
+    private Mono<Void> deleteRows(ArchivedTable table, MonthlyPartition partition) {
+        return databaseClient.sql("DELETE FROM " + table.tableName()
+                        + " WHERE created_at >= :from AND created_at < :to")
+                .bind("from", partition.from())
+                .bind("to", partition.to())
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private Mono<Long> countRows(ArchivedTable table, MonthlyPartition partition) {
+        return databaseClient.sql("SELECT COUNT(*) AS matching FROM " + table.tableName()
+                        + " WHERE created_at >= :from AND created_at < :to")
+                .bind("from", partition.from())
+                .bind("to", partition.to())
+                .map(row -> row.get("matching", Long.class))
+                .one();
+    }
+
+    private Mono<Long> countUnsettled(MonthlyPartition partition) {
+        return databaseClient.sql(COUNT_UNSETTLED)
+                .bind("from", partition.from())
+                .bind("to", partition.to())
+                .map(row -> row.get("unsettled", Long.class))
+                .one();
+    }
+
+    private static boolean matches(ArchivedTable table, YearMonth month, long archived, long databaseRows) {
+        if (archived != databaseRows) {
+            log.error("The {} segment for {} holds {} rows but the database has {}; leaving both in place",
+                    table.tableName(), month, archived, databaseRows);
+            return false;
+        }
+        return true;
+    }
+
+    // Where one table's rows of a month stand against its segment
+    private enum SegmentState {
+        /** In a segment found at the start of the run, or there are none. */
+        ARCHIVED,
+        /** In a segment written by this run. */
+        WRITTEN,
+        /** The segment's row count disagrees with the database. */
+        MISMATCHED
+    }
+}
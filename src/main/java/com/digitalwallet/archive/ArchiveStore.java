@@ -0,0 +1,250 @@
+package com.digitalwallet.archive;
+
+import com.digitalwallet.model.LedgerEntry;
+import com.digitalwallet.model.Transfer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Directory of archived months, one immutable segment file per table and month
+ * ({@code ledger_entries-2026-01.seg}). Archived rows exist nowhere else, so with more
+ * than one instance the directory must be on storage they all mount; each instance lists
+ * it at startup and again every {@code novapay.archive.refresh-interval} to pick up
+ * months archived elsewhere. Segments are memory-mapped on first use and stay mapped.
+ * File access runs on the bounded elastic scheduler, since reading a cold page of a
+ * mapped file blocks the thread.
+ */
+@Slf4j
+@Component
+public class ArchiveStore {
+
+    private final Path directory;
+    private final Map<ArchivedTable, NavigableSet<YearMonth>> months = new EnumMap<>(ArchivedTable.class);
+    private final Map<Path, Segment> segments = new ConcurrentHashMap<>();
+    private final int referenceIndex = ArchivedTable.TRANSFERS.indexOf("transfer_reference");
+
+    public ArchiveStore(@Value("${novapay.archive.directory:archive}") String directory) throws IOException {
+        this.directory = Path.of(directory).toAbsolutePath();
+        for (ArchivedTable table : ArchivedTable.values()) {
+            months.put(table, new ConcurrentSkipListSet<>());
+        }
+        if (Files.isDirectory(this.directory)) {
+            list();
+            log.info("Archive directory {} holds {}", this.directory, months);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${novapay.archive.refresh-interval:PT1M}",
+            initialDelayString = "${novapay.archive.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            list();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not list the archive directory {}", directory, e);
+        }
+    }
+
+    public boolean isArchived(ArchivedTable table, YearMonth month) {
+        return months.get(table).contains(month);
+    }
+
+    /**
+     * Number of rows in the segment for {@code month}, if there is one.
+     */
+    public Mono<Optional<Long>> archivedRowCount(ArchivedTable table, YearMonth month) {
+        if (!isArchived(table, month)) {
+            return Mono.just(Optional.empty());
+        }
+        return Mono.fromCallable(() -> Optional.of(segment(table, month).rowCount()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Writes {@code rows}, which must arrive in (wallet, created_at, id) order, as the
+     * segment for {@code month}, replacing any earlier one. Emits the number of rows.
+     */
+    public Mono<Long> write(ArchivedTable table, YearMonth month, Flux<Object[]> rows, int blockRows) {
+        Path path = directory.resolve(table.fileName(month));
+        return Mono.using(
+                        () -> new SegmentWriter(table, Files.createDirectories(directory).resolve(path.getFileName())),
+                        writer -> rows.buffer(blockRows)
+                                .publishOn(Schedulers.boundedElastic(), 2)
+                                .concatMap(block -> Mono.fromCallable(() -> {
+                                    writer.writeBlock(block);
+                                    return block.size();
+                                }))
+                                .then(Mono.fromCallable(writer::finish)),
+                        writer -> {
+                            try {
+                                writer.close();
+                            } catch (IOException e) {
+                                log.warn("Could not remove partial segment {}", path, e);
+                            }
+                        })
+                .doOnSuccess(count -> {
+                    segments.remove(path);
+                    months.get(table).add(month);
+                });
+    }
+
+    /**
+     * The archived transfer with {@code transferReference} created in [{@code from},
+     * {@code to}), if any. Transfers are filed by source wallet, so this reads every block
+     * of the months in range; ask only after the database has come up empty.
+     */
+    public Mono<Transfer> transfer(String transferReference, LocalDateTime from, LocalDateTime to) {
+        return Flux.fromIterable(monthsBetween(ArchivedTable.TRANSFERS, from, to))
+                .concatMap(month -> Mono.fromCallable(() -> segment(ArchivedTable.TRANSFERS, month)
+                                .rowsMatching(referenceIndex, transferReference))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapIterable(rows -> rows)
+                .map(ArchiveStore::toTransfer)
+                .filter(transfer -> !transfer.getCreatedAt().isBefore(from) && transfer.getCreatedAt().isBefore(to))
+                .next();
+    }
+
+    public Flux<LedgerEntry> ledgerEntries(long walletId, LocalDateTime from, LocalDateTime to) {
+        return rows(ArchivedTable.LEDGER_ENTRIES, walletId, from, to).map(ArchiveStore::toLedgerEntry);
+    }
+
+    /**
+     * Credits minus debits over all archived ledger entries of the wallet.
+     */
+    public Mono<BigDecimal> ledgerNetAmount(long walletId) {
+        return ledgerEntries(walletId, LocalDateTime.MIN, LocalDateTime.MAX)
+                .reduce(BigDecimal.ZERO, (sum, entry) -> LedgerEntry.EntryType.CREDIT.name().equals(entry.getEntryType())
+                        ? sum.add(entry.getAmount())
+                        : sum.subtract(entry.getAmount()));
+    }
+
+    private Flux<Object[]> rows(ArchivedTable table, long walletId, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<YearMonth> archived = monthsBetween(table, from, to);
+        if (archived.isEmpty()) {
+            return Flux.empty();
+        }
+        // Clamp to the archived months so that open-ended ranges stay within representable times
+        long fromMicros = ColumnCodec.toMicros(max(from, archived.first().atDay(1).atStartOfDay()));
+        long toMicros = ColumnCodec.toMicros(min(to, archived.last().plusMonths(1).atDay(1).atStartOfDay()));
+
+        return Flux.fromIterable(archived)
+                .concatMap(month -> Mono.fromCallable(() -> segment(table, month).rows(walletId, fromMicros, toMicros))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapIterable(rows -> rows);
+    }
+
+    // The archived months of the table that overlap [from, to)
+    private NavigableSet<YearMonth> monthsBetween(ArchivedTable table, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<YearMonth> archived = months.get(table);
+        if (archived.isEmpty()) {
+            return archived;
+        }
+        LocalDateTime lower = max(from, archived.first().atDay(1).atStartOfDay());
+        LocalDateTime upper = min(to, archived.last().plusMonths(1).atDay(1).atStartOfDay());
+        if (!lower.isBefore(upper)) {
+            return new TreeSet<>();
+        }
+        return archived.subSet(YearMonth.from(lower), true, YearMonth.from(upper.minusNanos(1)), true);
+    }
+
+    private Segment segment(ArchivedTable table, YearMonth month) {
+        return segments.computeIfAbsent(directory.resolve(table.fileName(month)), path -> {
+            try {
+                return Segment.open(table, path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(this::register);
+        }
+    }
+
+    private void register(Path file) {
+        String name = file.getFileName().toString();
+        for (ArchivedTable table : ArchivedTable.values()) {
+            String prefix = table.tableName() + "-";
+            if (name.startsWith(prefix) && name.endsWith(".seg")) {
+                try {
+                    months.get(table).add(YearMonth.parse(name.substring(prefix.length(), name.length() - 4)));
+                } catch (DateTimeParseException e) {
+                    log.warn("Ignoring unexpected file {} in the archive directory", file);
+                }
+            }
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime left, LocalDateTime right) {
+        return left.isAfter(right) ? left : right;
+    }
+
+    private static LocalDateTime min(LocalDateTime left, LocalDateTime right) {
+        return left.isBefore(right) ? left : right;
+    }
+
+    // Indexes follow the column order of ArchivedTable.TRANSFERS
+    private static Transfer toTransfer(Object[] row) {
+        return Transfer.builder()
+                .id((Long) row[0])
+                .transferReference((String) row[1])
+                .sourceWalletId((Long) row[2])
+                .destinationWalletId((Long) row[3])
+                .amount((BigDecimal) row[4])
+                .currency((String) row[5])
+                .status((String) row[6])
+                .transferType((String) row[7])
+                .description((String) row[8])
+                .initiatedBy((Long) row[9])
+                .createdAt((LocalDateTime) row[10])
+                .completedAt((LocalDateTime) row[11])
+                .parentReference((String) row[12])
+                .fxRate((BigDecimal) row[13])
+                .destinationAmount((BigDecimal) row[14])
+                .destinationCurrency((String) row[15])
+                .build();
+    }
+
+    // Indexes follow the column order of ArchivedTable.LEDGER_ENTRIES
+    private static LedgerEntry toLedgerEntry(Object[] row) {
+        return LedgerEntry.builder()
+                .id((Long) row[0])
+                .transferId((Long) row[1])
+                .walletId((Long) row[2])
+                .entryType((String) row[3])
+                .amount((BigDecimal) row[4])
+                .balanceBefore((BigDecimal) row[5])
+                .balanceAfter((BigDecimal) row[6])
+                .currency((String) row[7])
+                .description((String) row[8])
+                .createdAt((LocalDateTime) row[9])
+                .fxRate((BigDecimal) row[10])
+                .build();
+    }
+}
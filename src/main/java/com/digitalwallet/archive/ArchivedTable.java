@@ -0,0 +1,116 @@
+package com.digitalwallet.archive;
+
+import io.r2dbc.spi.Readable;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.digitalwallet.archive.ColumnType.DECIMAL;
+import static com.digitalwallet.archive.ColumnType.LONG;
+import static com.digitalwallet.archive.ColumnType.STRING;
+import static com.digitalwallet.archive.ColumnType.TIMESTAMP;
+
+/**
+ * Tables moved to the cold archive. Rows are written in (wallet, created_at, id) order,
+ * which is what the sparse index of a segment is built on. New columns go at the end of
+ * a table's list; segments written before a column was added read it as null.
+ */
+public enum ArchivedTable {
+
+    TRANSFERS("transfers", "source_wallet_id", List.of(
+            Column.of("id", LONG),
+            Column.of("transfer_reference", STRING),
+            Column.of("source_wallet_id", LONG),
+            Column.of("destination_wallet_id", LONG),
+            Column.of("amount", DECIMAL),
+            Column.of("currency", STRING),
+            Column.of("status", STRING),
+            Column.of("transfer_type", STRING),
+            Column.of("description", STRING),
+            Column.of("initiated_by", LONG),
+            Column.of("created_at", TIMESTAMP),
+            Column.of("completed_at", TIMESTAMP),
+            Column.of("parent_reference", STRING),
+            Column.of("fx_rate", DECIMAL),
+            Column.of("destination_amount", DECIMAL),
+            Column.of("destination_currency", STRING))),
+
+    LEDGER_ENTRIES("ledger_entries", "wallet_id", List.of(
+            Column.of("id", LONG),
+            Column.of("transfer_id", LONG),
+            Column.of("wallet_id", LONG),
+            Column.of("entry_type", STRING),
+            Column.of("amount", DECIMAL),
+            Column.of("balance_before", DECIMAL),
+            Column.of("balance_after", DECIMAL),
+            Column.of("currency", STRING),
+            Column.of("description", STRING),
+            Column.of("created_at", TIMESTAMP),
+            Column.of("fx_rate", DECIMAL)));
+
+    private final String tableName;
+    private final List<Column> columns;
+    private final int idIndex;
+    private final int walletIndex;
+    private final int createdAtIndex;
+    private final String selectRange;
+
+    ArchivedTable(String tableName, String walletColumn, List<Column> columns) {
+        this.tableName = tableName;
+        this.columns = columns;
+        this.idIndex = indexOf("id");
+        this.walletIndex = indexOf(walletColumn);
+        this.createdAtIndex = indexOf("created_at");
+        this.selectRange = "SELECT " + columns.stream().map(Column::name).collect(Collectors.joining(", "))
+                + " FROM " + tableName + " WHERE created_at >= :from AND created_at < :to"
+                + " ORDER BY " + walletColumn + ", created_at, id";
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    List<Column> columns() {
+        return columns;
+    }
+
+    int idIndex() {
+        return idIndex;
+    }
+
+    int walletIndex() {
+        return walletIndex;
+    }
+
+    int createdAtIndex() {
+        return createdAtIndex;
+    }
+
+    /** Selects one month of rows in segment order; binds {@code from} and {@code to}. */
+    String selectRange() {
+        return selectRange;
+    }
+
+    String fileName(YearMonth month) {
+        return tableName + "-" + month + ".seg";
+    }
+
+    Object[] read(Readable row) {
+        Object[] values = new Object[columns.size()];
+        for (int index = 0; index < values.length; index++) {
+            Column column = columns.get(index);
+            values[index] = row.get(column.name(), column.type().javaType());
+        }
+        return values;
+    }
+
+    int indexOf(String name) {
+        for (int index = 0; index < columns.size(); index++) {
+            if (columns.get(index).name().equals(name)) {
+                return index;
+            }
+        }
+        throw new IllegalArgumentException(tableName + " has no archived column " + name);
+    }
+}
@@ -0,0 +1,8 @@
+package com.digitalwallet.archive;
+
+record Column(String name, ColumnType type) {
+
+    static Column of(String name, ColumnType type) {
+        return new Column(name, type);
+    }
+}
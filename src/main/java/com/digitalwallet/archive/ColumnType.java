@@ -0,0 +1,25 @@
+package com.digitalwallet.archive;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Value types a segment column can hold, with the Java type used to read them from R2DBC rows.
+ */
+enum ColumnType {
+
+    LONG(Long.class),
+    DECIMAL(BigDecimal.class),
+    STRING(String.class),
+    TIMESTAMP(LocalDateTime.class);
+
+    private final Class<?> javaType;
+
+    ColumnType(Class<?> javaType) {
+        this.javaType = javaType;
+    }
+
+    Class<?> javaType() {
+        return javaType;
+    }
+}
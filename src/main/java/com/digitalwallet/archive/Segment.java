@@ -0,0 +1,170 @@
+package com.digitalwallet.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A memory-mapped, read-only segment written by {@link SegmentWriter}. Only the footer is
+ * parsed up front; a lookup binary-searches the per-block key ranges and inflates just the
+ * blocks that can hold the wallet and time range asked for, so the operating system pages
+ * in those blocks and nothing else.
+ */
+final class Segment {
+
+    private final ArchivedTable table;
+    private final List<Column> columns;
+    private final MappedByteBuffer data;
+    private final SegmentWriter.BlockInfo[] blocks;
+    private final long rowCount;
+
+    private Segment(ArchivedTable table, List<Column> columns, MappedByteBuffer data, SegmentWriter.BlockInfo[] blocks) {
+        this.table = table;
+        this.columns = columns;
+        this.data = data;
+        this.blocks = blocks;
+        this.rowCount = Arrays.stream(blocks).mapToLong(SegmentWriter.BlockInfo::rowCount).sum();
+    }
+
+    static Segment open(ArchivedTable table, Path path) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // A month of one table; larger files would need more than one mapping
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int magicLength = SegmentWriter.MAGIC.length;
+        if (data.capacity() < 2 * magicLength + 8 || !hasMagic(data, 0) || !hasMagic(data, data.capacity() - magicLength)) {
+            throw new IOException(path + " is not a complete segment");
+        }
+        ByteBuffer footer = data.duplicate().position((int) data.getLong(data.capacity() - magicLength - 8));
+
+        List<Column> columns = table.columns();
+        int columnCount = footer.getInt();
+        if (columnCount > columns.size()) {
+            throw new IOException(path + " has " + columnCount + " columns, expected at most " + columns.size());
+        }
+        for (Column column : columns.subList(0, columnCount)) {
+            byte[] name = new byte[footer.getShort()];
+            footer.get(name);
+            int type = footer.get();
+            if (!column.name().equals(new String(name, StandardCharsets.UTF_8)) || type != column.type().ordinal()) {
+                throw new IOException(path + " does not match the current layout of " + table.tableName());
+            }
+        }
+
+        SegmentWriter.BlockInfo[] blocks = new SegmentWriter.BlockInfo[footer.getInt()];
+        for (int index = 0; index < blocks.length; index++) {
+            blocks[index] = SegmentWriter.BlockInfo.readFrom(footer);
+        }
+        return new Segment(table, columns.subList(0, columnCount), data, blocks);
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Rows of {@code walletId} with {@code fromMicros <= created_at < toMicros}, in
+     * (created_at, id) order.
+     */
+    List<Object[]> rows(long walletId, long fromMicros, long toMicros) throws IOException {
+        List<Object[]> matches = new ArrayList<>();
+        int walletIndex = table.walletIndex();
+        int createdAtIndex = table.createdAtIndex();
+        for (int index = firstBlockEndingAtOrAfter(walletId, fromMicros); index < blocks.length; index++) {
+            SegmentWriter.BlockInfo block = blocks[index];
+            if (compare(block.firstWallet(), block.firstMicros(), walletId, toMicros) >= 0) {
+                break;
+            }
+            for (Object[] row : inflate(block)) {
+                long micros = ColumnCodec.toMicros((LocalDateTime) row[createdAtIndex]);
+                if ((Long) row[walletIndex] == walletId && micros >= fromMicros && micros < toMicros) {
+                    matches.add(row);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rows whose column {@code columnIndex} equals {@code value}. The index only covers
+     * (wallet, created_at), so this inflates every block.
+     */
+    List<Object[]> rowsMatching(int columnIndex, Object value) throws IOException {
+        List<Object[]> matches = new ArrayList<>();
+        for (SegmentWriter.BlockInfo block : blocks) {
+            for (Object[] row : inflate(block)) {
+                if (value.equals(row[columnIndex])) {
+                    matches.add(row);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private int firstBlockEndingAtOrAfter(long walletId, long micros) {
+        int low = 0;
+        int high = blocks.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            SegmentWriter.BlockInfo block = blocks[middle];
+            if (compare(block.lastWallet(), block.lastMicros(), walletId, micros) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Object[][] inflate(SegmentWriter.BlockInfo block) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data.slice((int) block.offset(), block.compressedLength()));
+            ByteBuffer raw = ByteBuffer.allocate(block.rawLength());
+            while (raw.hasRemaining() && !inflater.finished()) {
+                inflater.inflate(raw);
+            }
+            Object[][] rows = ColumnCodec.decode(columns, raw.flip(), block.rowCount());
+            int width = table.columns().size();
+            if (columns.size() < width) {
+                for (int row = 0; row < rows.length; row++) {
+                    rows[row] = Arrays.copyOf(rows[row], width);
+                }
+            }
+            return rows;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block at offset " + block.offset(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int compare(long leftWallet, long leftMicros, long rightWallet, long rightMicros) {
+        int byWallet = Long.compare(leftWallet, rightWallet);
+        return byWallet != 0 ? byWallet : Long.compare(leftMicros, rightMicros);
+    }
+
+    private static boolean hasMagic(ByteBuffer data, int position) {
+        for (int index = 0; index < SegmentWriter.MAGIC.length; index++) {
+            if (data.get(position + index) != SegmentWriter.MAGIC[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
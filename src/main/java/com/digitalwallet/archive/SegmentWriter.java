@@ -0,0 +1,147 @@
+package com.digitalwallet.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Writes one segment file. Layout:
+ * <pre>
+ * MAGIC
+ * block*            deflated {@link ColumnCodec} output, rows in (wallet, created_at, id) order
+ * footer            columns, then per block: offset, lengths, row count, first and last key
+ * footer offset     8 bytes
+ * MAGIC
+ * </pre>
+ * The file is built under a temporary name of its own, forced to disk and then renamed
+ * into place, and the rename is forced to disk with the directory. A segment therefore
+ * either exists complete or not at all, and once {@link #finish} returns it survives a
+ * crash, so the rows it holds may be removed from the database.
+ */
+final class SegmentWriter implements Closeable {
+
+    static final byte[] MAGIC = "NPSEG001".getBytes(StandardCharsets.US_ASCII);
+
+    private final ArchivedTable table;
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final List<BlockInfo> blocks = new ArrayList<>();
+    private long rows;
+    private boolean finished;
+
+    SegmentWriter(ArchivedTable table, Path target) throws IOException {
+        this.table = table;
+        this.target = target;
+        // Unique, so writers of the same segment on instances sharing the directory cannot mix their output
+        this.temporary = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        writeFully(ByteBuffer.wrap(MAGIC));
+    }
+
+    void writeBlock(List<Object[]> block) throws IOException {
+        byte[] raw = ColumnCodec.encode(table.columns(), block);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteBuffer compressed = ByteBuffer.allocate(raw.length + 64);
+        while (!deflater.finished()) {
+            if (!compressed.hasRemaining()) {
+                compressed = ByteBuffer.allocate(compressed.capacity() * 2).put(compressed.flip());
+            }
+            deflater.deflate(compressed);
+        }
+        compressed.flip();
+
+        Object[] first = block.get(0);
+        Object[] last = block.get(block.size() - 1);
+        blocks.add(new BlockInfo(channel.position(), compressed.remaining(), raw.length, block.size(),
+                (Long) first[table.walletIndex()], micros(first), (Long) last[table.walletIndex()], micros(last)));
+        writeFully(compressed);
+        rows += block.size();
+    }
+
+    /**
+     * Writes the footer and moves the file into place. Returns the number of rows written.
+     */
+    long finish() throws IOException {
+        List<Column> columns = table.columns();
+        ByteBuffer footer = ByteBuffer.allocate(16 + columns.size() * 64 + blocks.size() * BlockInfo.BYTES);
+        footer.putInt(columns.size());
+        for (Column column : columns) {
+            byte[] name = column.name().getBytes(StandardCharsets.UTF_8);
+            footer.putShort((short) name.length).put(name).put((byte) column.type().ordinal());
+        }
+        footer.putInt(blocks.size());
+        for (BlockInfo block : blocks) {
+            block.writeTo(footer);
+        }
+
+        long footerOffset = channel.position();
+        writeFully(footer.flip());
+        writeFully(ByteBuffer.allocate(8).putLong(0, footerOffset));
+        writeFully(ByteBuffer.wrap(MAGIC));
+        channel.force(true);
+        channel.close();
+        deflater.end();
+
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        finished = true;
+        forceDirectory(target.getParent());
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            channel.close();
+            deflater.end();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // A rename is only durable once the directory entry is on disk
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private long micros(Object[] row) {
+        return ColumnCodec.toMicros((LocalDateTime) row[table.createdAtIndex()]);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    record BlockInfo(long offset, int compressedLength, int rawLength, int rowCount,
+                     long firstWallet, long firstMicros, long lastWallet, long lastMicros) {
+
+        static final int BYTES = 8 + 4 + 4 + 4 + 8 * 4;
+
+        void writeTo(ByteBuffer out) {
+            out.putLong(offset).putInt(compressedLength).putInt(rawLength).putInt(rowCount)
+                    .putLong(firstWallet).putLong(firstMicros).putLong(lastWallet).putLong(lastMicros);
+        }
+
+        static BlockInfo readFrom(ByteBuffer in) {
+            return new BlockInfo(in.getLong(), in.getInt(), in.getInt(), in.getInt(),
+                    in.getLong(), in.getLong(), in.getLong(), in.getLong());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.digitalwallet.codec;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes JSON values straight into a {@link DataBuffer}, in exactly the form WebFlux's
+ * Jackson encoder produces: nulls included, {@code BigDecimal} as {@link BigDecimal#toString()},
+ * and dates as timestamp arrays ({@code [2026,1,15,10,30,1,500000000]}), seconds and
+ * nanoseconds left out when zero. On Netty buffers strings and numbers are encoded in
+ * place, without an intermediate {@code String} or {@code byte[]}.
+ */
+final class JsonOutput {
+
+    static final byte[] NULL = ascii("null");
+    static final byte[] END_OBJECT = ascii("}");
+
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    private JsonOutput() {
+    }
+
+    /** The opening of an object and its first member's name: {@code {"name":}. */
+    static byte[] firstField(String name) {
+        return ascii("{\"" + name + "\":");
+    }
+
+    /** A further member's name: {@code ,"name":}. */
+    static byte[] field(String name) {
+        return ascii(",\"" + name + "\":");
+    }
+
+    static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static void write(DataBuffer buffer, byte[] name, String value) {
+        buffer.write(name);
+        if (value == null) {
+            buffer.write(NULL);
+        } else {
+            string(buffer, value);
+        }
+    }
+
+    static void write(DataBuffer buffer, byte[] name, Long value) {
+        buffer.write(name);
+        if (value == null) {
+            buffer.write(NULL);
+        } else {
+            number(buffer, value);
+        }
+    }
+
+    static void write(DataBuffer buffer, byte[] name, Integer value) {
+        buffer.write(name);
+        if (value == null) {
+            buffer.write(NULL);
+        } else {
+            number(buffer, value);
+        }
+    }
+
+    static void write(DataBuffer buffer, byte[] name, BigDecimal value) {
+        buffer.write(name);
+        if (value == null) {
+            buffer.write(NULL);
+        } else {
+            // toString() is cached on the value and is what Jackson writes
+            text(buffer, value.toString());
+        }
+    }
+
+    static void write(DataBuffer buffer, byte[] name, LocalDateTime value) {
+        buffer.write(name);
+        if (value == null) {
+            buffer.write(NULL);
+            return;
+        }
+        buffer.write((byte) '[');
+        date(buffer, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        buffer.write(COMMA);
+        number(buffer, value.getHour());
+        buffer.write(COMMA);
+        number(buffer, value.getMinute());
+        if (value.getSecond() > 0 || value.getNano() > 0) {
+            buffer.write(COMMA);
+            number(buffer, value.getSecond());
+            if (value.getNano() > 0) {
+                buffer.write(COMMA);
+                number(buffer, value.getNano());
+            }
+        }
+        buffer.write((byte) ']');
+    }
+
+    static void write(DataBuffer buffer, byte[] name, LocalDate value) {
+        buffer.write(name);
+        if (value == null) {
+            buffer.write(NULL);
+            return;
+        }
+        buffer.write((byte) '[');
+        date(buffer, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        buffer.write((byte) ']');
+    }
+
+    static void number(DataBuffer buffer, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                text(buffer, Long.toString(value));
+                return;
+            }
+            buffer.write((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.write((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    // Escapes as Jackson does: quotes, backslashes, control characters and each half of a
+    // surrogate pair; everything else is UTF-8
+    static void string(DataBuffer buffer, String value) {
+        buffer.write(QUOTE);
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\' || Character.isSurrogate(c)) {
+                if (i > start) {
+                    text(buffer, value.subSequence(start, i));
+                }
+                escape(buffer, c);
+                start = i + 1;
+            }
+        }
+        if (start == 0) {
+            text(buffer, value);
+        } else if (start < value.length()) {
+            text(buffer, value.subSequence(start, value.length()));
+        }
+        buffer.write(QUOTE);
+    }
+
+    // Netty encodes in place; the generic DataBuffer route is not reliable across buffer kinds
+    private static void text(DataBuffer buffer, CharSequence text) {
+        if (buffer instanceof NettyDataBuffer) {
+            buffer.write(text, StandardCharsets.UTF_8);
+        } else {
+            buffer.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void escape(DataBuffer buffer, char c) {
+        buffer.write((byte) '\\');
+        switch (c) {
+            case '"', '\\' -> buffer.write((byte) c);
+            case '\b' -> buffer.write((byte) 'b');
+            case '\t' -> buffer.write((byte) 't');
+            case '\n' -> buffer.write((byte) 'n');
+            case '\f' -> buffer.write((byte) 'f');
+            case '\r' -> buffer.write((byte) 'r');
+            default -> {
+                buffer.write((byte) 'u');
+                buffer.write(HEX[c >> 12]);
+                buffer.write(HEX[(c >> 8) & 0xF]);
+                buffer.write(HEX[(c >> 4) & 0xF]);
+                buffer.write(HEX[c & 0xF]);
+            }
+        }
+    }
+
+    private static void date(DataBuffer buffer, int year, int month, int day) {
+        number(buffer, year);
+        buffer.write(COMMA);
+        number(buffer, month);
+        buffer.write(COMMA);
+        number(buffer, day);
+    }
+}
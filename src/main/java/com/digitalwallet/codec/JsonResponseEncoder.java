@@ -0,0 +1,121 @@
+package com.digitalwallet.codec;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes one response type as JSON by writing its members straight into the response
+ * buffer, with each member's name, quotes and separators precomputed. Registered ahead of
+ * the Jackson encoder, it produces the same bytes without reflection or the generator's
+ * intermediate buffers. A {@code Flux} is written as a JSON array, or one object per line
+ * for {@code application/x-ndjson}. Other types, and charsets other than UTF-8, are left
+ * to Jackson.
+ */
+abstract class JsonResponseEncoder<T> implements HttpMessageEncoder<T> {
+
+    private static final List<MimeType> MIME_TYPES = List.of(
+            MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), MediaType.APPLICATION_NDJSON);
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.APPLICATION_NDJSON);
+
+    private static final byte[] EMPTY_ARRAY = JsonOutput.ascii("[]");
+
+    private final Class<T> type;
+    private final int initialCapacity;
+
+    /**
+     * @param initialCapacity buffer size to start with: enough for a typical response, so
+     *                        the buffer rarely has to grow while it is written
+     */
+    JsonResponseEncoder(Class<T> type, int initialCapacity) {
+        this.type = type;
+        this.initialCapacity = initialCapacity;
+    }
+
+    /** Writes {@code value} as one JSON object. */
+    protected abstract void writeObject(T value, DataBuffer buffer);
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return elementType.toClass() == type && (mimeType == null || supports(mimeType));
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends T> input, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (input instanceof Mono) {
+            return Mono.from(input).map(value -> encode(value, bufferFactory, 0, 0)).flux();
+        }
+        if (mimeType != null && MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(mimeType)) {
+            return Flux.from(input).map(value -> encode(value, bufferFactory, 0, '\n'));
+        }
+        return Flux.defer(() -> {
+            boolean[] first = {true};
+            return Flux.from(input)
+                    .map(value -> {
+                        byte opening = first[0] ? (byte) '[' : (byte) ',';
+                        first[0] = false;
+                        return encode(value, bufferFactory, opening, 0);
+                    })
+                    .concatWith(Mono.fromCallable(() -> first[0]
+                            ? bufferFactory.wrap(EMPTY_ARRAY)
+                            : bufferFactory.allocateBuffer(1).write((byte) ']')));
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(T value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        return encode(value, bufferFactory, 0, 0);
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return STREAMING_MEDIA_TYPES;
+    }
+
+    // prefix and suffix are written around the object unless 0
+    private DataBuffer encode(T value, DataBufferFactory bufferFactory, int prefix, int suffix) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(initialCapacity);
+        boolean release = true;
+        try {
+            if (prefix != 0) {
+                buffer.write((byte) prefix);
+            }
+            writeObject(value, buffer);
+            if (suffix != 0) {
+                buffer.write((byte) suffix);
+            }
+            release = false;
+            return buffer;
+        } finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    private static boolean supports(MimeType mimeType) {
+        if (mimeType.getCharset() != null && !StandardCharsets.UTF_8.equals(mimeType.getCharset())) {
+            return false;
+        }
+        return MIME_TYPES.stream().anyMatch(supported -> supported.isCompatibleWith(mimeType));
+    }
+}
@@ -0,0 +1,56 @@
+package com.digitalwallet.codec;
+
+import com.digitalwallet.dto.SavingsGoalResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import static com.digitalwallet.codec.JsonOutput.field;
+import static com.digitalwallet.codec.JsonOutput.firstField;
+import static com.digitalwallet.codec.JsonOutput.write;
+
+/**
+ * {@link SavingsGoalResponse} as JSON, for single goals and goal lists.
+ */
+public final class SavingsGoalResponseEncoder extends JsonResponseEncoder<SavingsGoalResponse> {
+
+    private static final byte[] GOAL_ID = firstField("goalId");
+    private static final byte[] GOAL_NAME = field("goalName");
+    private static final byte[] DESCRIPTION = field("description");
+    private static final byte[] SAVINGS_WALLET_NUMBER = field("savingsWalletNumber");
+    private static final byte[] TARGET_AMOUNT = field("targetAmount");
+    private static final byte[] CURRENT_AMOUNT = field("currentAmount");
+    private static final byte[] CURRENCY = field("currency");
+    private static final byte[] PROGRESS_PERCENTAGE = field("progressPercentage");
+    private static final byte[] TARGET_DATE = field("targetDate");
+    private static final byte[] STATUS = field("status");
+    private static final byte[] DAYS_REMAINING = field("daysRemaining");
+    private static final byte[] AMOUNT_NEEDED = field("amountNeeded");
+    private static final byte[] SUGGESTED_MONTHLY_CONTRIBUTION = field("suggestedMonthlyContribution");
+    private static final byte[] PROJECTED_COMPLETION_DATE = field("projectedCompletionDate");
+    private static final byte[] CREATED_AT = field("createdAt");
+    private static final byte[] ACHIEVED_AT = field("achievedAt");
+
+    public SavingsGoalResponseEncoder() {
+        super(SavingsGoalResponse.class, 512);
+    }
+
+    @Override
+    protected void writeObject(SavingsGoalResponse response, DataBuffer buffer) {
+        write(buffer, GOAL_ID, response.getGoalId());
+        write(buffer, GOAL_NAME, response.getGoalName());
+        write(buffer, DESCRIPTION, response.getDescription());
+        write(buffer, SAVINGS_WALLET_NUMBER, response.getSavingsWalletNumber());
+        write(buffer, TARGET_AMOUNT, response.getTargetAmount());
+        write(buffer, CURRENT_AMOUNT, response.getCurrentAmount());
+        write(buffer, CURRENCY, response.getCurrency());
+        write(buffer, PROGRESS_PERCENTAGE, response.getProgressPercentage());
+        write(buffer, TARGET_DATE, response.getTargetDate());
+        write(buffer, STATUS, response.getStatus());
+        write(buffer, DAYS_REMAINING, response.getDaysRemaining());
+        write(buffer, AMOUNT_NEEDED, response.getAmountNeeded());
+        write(buffer, SUGGESTED_MONTHLY_CONTRIBUTION, response.getSuggestedMonthlyContribution());
+        write(buffer, PROJECTED_COMPLETION_DATE, response.getProjectedCompletionDate());
+        write(buffer, CREATED_AT, response.getCreatedAt());
+        write(buffer, ACHIEVED_AT, response.getAchievedAt());
+        buffer.write(JsonOutput.END_OBJECT);
+    }
+}
@@ -0,0 +1,52 @@
+package com.digitalwallet.codec;
+
+import com.digitalwallet.dto.TransferResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import static com.digitalwallet.codec.JsonOutput.field;
+import static com.digitalwallet.codec.JsonOutput.firstField;
+import static com.digitalwallet.codec.JsonOutput.write;
+
+/**
+ * {@link TransferResponse} as JSON, for transfer initiation and status lookups.
+ */
+public final class TransferResponseEncoder extends JsonResponseEncoder<TransferResponse> {
+
+    private static final byte[] TRANSFER_ID = firstField("transferId");
+    private static final byte[] TRANSFER_REFERENCE = field("transferReference");
+    private static final byte[] SOURCE_WALLET_NUMBER = field("sourceWalletNumber");
+    private static final byte[] DESTINATION_WALLET_NUMBER = field("destinationWalletNumber");
+    private static final byte[] AMOUNT = field("amount");
+    private static final byte[] CURRENCY = field("currency");
+    private static final byte[] FX_RATE = field("fxRate");
+    private static final byte[] DESTINATION_AMOUNT = field("destinationAmount");
+    private static final byte[] DESTINATION_CURRENCY = field("destinationCurrency");
+    private static final byte[] STATUS = field("status");
+    private static final byte[] DESCRIPTION = field("description");
+    private static final byte[] INITIATED_AT = field("initiatedAt");
+    private static final byte[] COMPLETED_AT = field("completedAt");
+    private static final byte[] MESSAGE = field("message");
+
+    public TransferResponseEncoder() {
+        super(TransferResponse.class, 512);
+    }
+
+    @Override
+    protected void writeObject(TransferResponse response, DataBuffer buffer) {
+        write(buffer, TRANSFER_ID, response.getTransferId());
+        write(buffer, TRANSFER_REFERENCE, response.getTransferReference());
+        write(buffer, SOURCE_WALLET_NUMBER, response.getSourceWalletNumber());
+        write(buffer, DESTINATION_WALLET_NUMBER, response.getDestinationWalletNumber());
+        write(buffer, AMOUNT, response.getAmount());
+        write(buffer, CURRENCY, response.getCurrency());
+        write(buffer, FX_RATE, response.getFxRate());
+        write(buffer, DESTINATION_AMOUNT, response.getDestinationAmount());
+        write(buffer, DESTINATION_CURRENCY, response.getDestinationCurrency());
+        write(buffer, STATUS, response.getStatus());
+        write(buffer, DESCRIPTION, response.getDescription());
+        write(buffer, INITIATED_AT, response.getInitiatedAt());
+        write(buffer, COMPLETED_AT, response.getCompletedAt());
+        write(buffer, MESSAGE, response.getMessage());
+        buffer.write(JsonOutput.END_OBJECT);
+    }
+}
@@ -0,0 +1,40 @@
+package com.digitalwallet.codec;
+
+import com.digitalwallet.dto.WalletBalanceResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import static com.digitalwallet.codec.JsonOutput.field;
+import static com.digitalwallet.codec.JsonOutput.firstField;
+import static com.digitalwallet.codec.JsonOutput.write;
+
+/**
+ * {@link WalletBalanceResponse} as JSON, for balance reads and a user's wallet list.
+ */
+public final class WalletBalanceResponseEncoder extends JsonResponseEncoder<WalletBalanceResponse> {
+
+    private static final byte[] WALLET_ID = firstField("walletId");
+    private static final byte[] WALLET_NUMBER = field("walletNumber");
+    private static final byte[] BALANCE = field("balance");
+    private static final byte[] CURRENCY = field("currency");
+    private static final byte[] STATUS = field("status");
+    private static final byte[] DAILY_LIMIT = field("dailyLimit");
+    private static final byte[] AVAILABLE_BALANCE = field("availableBalance");
+    private static final byte[] LAST_UPDATED = field("lastUpdated");
+
+    public WalletBalanceResponseEncoder() {
+        super(WalletBalanceResponse.class, 256);
+    }
+
+    @Override
+    protected void writeObject(WalletBalanceResponse response, DataBuffer buffer) {
+        write(buffer, WALLET_ID, response.getWalletId());
+        write(buffer, WALLET_NUMBER, response.getWalletNumber());
+        write(buffer, BALANCE, response.getBalance());
+        write(buffer, CURRENCY, response.getCurrency());
+        write(buffer, STATUS, response.getStatus());
+        write(buffer, DAILY_LIMIT, response.getDailyLimit());
+        write(buffer, AVAILABLE_BALANCE, response.getAvailableBalance());
+        write(buffer, LAST_UPDATED, response.getLastUpdated());
+        buffer.write(JsonOutput.END_OBJECT);
+    }
+}
@@ -0,0 +1,45 @@
+package com.digitalwallet.config;
+
+import com.digitalwallet.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+/**
+ * Runs after Spring Security. Drops the authenticated user's cached dashboard when one of
+ * their write requests completes, so the next dashboard they load includes the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardInvalidationFilter implements WebFilter {
+
+    private final DashboardService dashboardService;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+            return chain.filter(exchange);
+        }
+        // Before the response commits, so the client's next request cannot read the old entry,
+        // and again when the handler finishes: streamed responses such as payouts keep
+        // writing after their headers are sent
+        exchange.getResponse().beforeCommit(() -> invalidate(exchange));
+        return chain.filter(exchange)
+                .then(Mono.defer(() -> invalidate(exchange)))
+                .onErrorResume(error -> invalidate(exchange).then(Mono.error(error)));
+    }
+
+    private Mono<Void> invalidate(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .doOnNext(dashboardService::invalidate)
+                .then();
+    }
+}
@@ -1,30 +1,191 @@
 package com.digitalwallet.config;
 
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
-import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
-import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One connection pool per {@link Workload}, so background jobs, client-paced streams and
+ * audit writes cannot starve interactive transfers of connections. Repositories use the routing
+ * factory, which picks a pool from the workload bound in the Reactor context.
+ *
+ * <p>When {@code novapay.r2dbc.replica.url} is set, a further pool points at a read
+ * replica and reads marked with {@link ReadReplica#prefer} are routed there.
+ */
+@Slf4j
 @Configuration
 public class R2dbcConfig extends AbstractR2dbcConfiguration {
 
-    @Bean
-    public ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory) {
-        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
-        initializer.setConnectionFactory(connectionFactory);
+    @Value("${spring.r2dbc.url}")
+    private String url;
 
-        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
-        populator.addScript(new ClassPathResource("schema.sql"));
+    @Value("${spring.r2dbc.username}")
+    private String username;
 
-        initializer.setDatabasePopulator(populator);
-        return initializer;
-    }
+    @Value("${spring.r2dbc.password}")
+    private String password;
+
+    @Value("${spring.r2dbc.pool.max-idle-time:30m}")
+    private Duration maxIdleTime;
+
+    @Value("${novapay.r2dbc.pool.oltp.initial-size:10}")
+    private int oltpInitialSize;
+
+    @Value("${novapay.r2dbc.pool.oltp.max-size:20}")
+    private int oltpMaxSize;
+
+    @Value("${novapay.r2dbc.pool.oltp.max-acquire-time:2s}")
+    private Duration oltpMaxAcquireTime;
+
+    @Value("${novapay.r2dbc.pool.batch.initial-size:2}")
+    private int batchInitialSize;
+
+    @Value("${novapay.r2dbc.pool.batch.max-size:5}")
+    private int batchMaxSize;
+
+    @Value("${novapay.r2dbc.pool.batch.max-acquire-time:30s}")
+    private Duration batchMaxAcquireTime;
+
+    @Value("${novapay.r2dbc.pool.audit.initial-size:2}")
+    private int auditInitialSize;
+
+    @Value("${novapay.r2dbc.pool.audit.max-size:5}")
+    private int auditMaxSize;
+
+    @Value("${novapay.r2dbc.pool.audit.max-acquire-time:5s}")
+    private Duration auditMaxAcquireTime;
+
+    @Value("${novapay.r2dbc.pool.streaming.initial-size:1}")
+    private int streamingInitialSize;
+
+    @Value("${novapay.r2dbc.pool.streaming.max-size:5}")
+    private int streamingMaxSize;
+
+    @Value("${novapay.r2dbc.pool.streaming.max-acquire-time:10s}")
+    private Duration streamingMaxAcquireTime;
+
+    @Value("${novapay.r2dbc.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${novapay.r2dbc.replica.username:${spring.r2dbc.username}}")
+    private String replicaUsername;
+
+    @Value("${novapay.r2dbc.replica.password:${spring.r2dbc.password}}")
+    private String replicaPassword;
+
+    @Value("${novapay.r2dbc.pool.replica.initial-size:10}")
+    private int replicaInitialSize;
+
+    @Value("${novapay.r2dbc.pool.replica.max-size:20}")
+    private int replicaMaxSize;
+
+    @Value("${novapay.r2dbc.pool.replica.max-acquire-time:2s}")
+    private Duration replicaMaxAcquireTime;
 
+    @Autowired
+    private ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    @Bean
+    @Primary
     @Override
     public ConnectionFactory connectionFactory() {
-        return null;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Workload.OLTP, oltpConnectionFactory());
+        targets.put(Workload.BATCH, batchConnectionFactory());
+        targets.put(Workload.AUDIT, auditConnectionFactory());
+        targets.put(Workload.STREAMING, streamingConnectionFactory());
+
+        ReadYourWritesTracker tracker = null;
+        if (StringUtils.hasText(replicaUrl)) {
+            targets.put(WorkloadRoutingConnectionFactory.REPLICA, replicaConnectionFactory());
+            tracker = readYourWritesTracker.getObject();
+        }
+
+        WorkloadRoutingConnectionFactory routing = new WorkloadRoutingConnectionFactory(tracker);
+        routing.setTargetConnectionFactories(targets);
+        routing.setDefaultTargetConnectionFactory(oltpConnectionFactory());
+        return routing;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool oltpConnectionFactory() {
+        return pool("oltp", url, username, password, oltpInitialSize, oltpMaxSize, oltpMaxAcquireTime);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool batchConnectionFactory() {
+        return pool("batch", url, username, password, batchInitialSize, batchMaxSize, batchMaxAcquireTime);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool auditConnectionFactory() {
+        return pool("audit", url, username, password, auditInitialSize, auditMaxSize, auditMaxAcquireTime);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool streamingConnectionFactory() {
+        return pool("streaming", url, username, password,
+                streamingInitialSize, streamingMaxSize, streamingMaxAcquireTime);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnExpression(ReadReplica.ENABLED)
+    public ConnectionPool replicaConnectionFactory() {
+        return pool("replica", replicaUrl, replicaUsername, replicaPassword,
+                replicaInitialSize, replicaMaxSize, replicaMaxAcquireTime);
+    }
+
+    // Opens each pool's initial connections before traffic arrives instead of on the first requests.
+    // A pool that already served a connection (oltp runs the schema migrations) warmed itself on that first acquire.
+    @Bean
+    public ApplicationRunner connectionPoolWarmup(Map<String, ConnectionPool> pools) {
+        return args -> Flux.fromIterable(pools.entrySet())
+                .filter(pool -> pool.getValue().getMetrics().map(metrics -> metrics.allocatedSize() == 0).orElse(true))
+                .flatMap(pool -> pool.getValue().warmup()
+                        .doOnNext(connections -> log.info("Warmed up {} connections in {}", connections, pool.getKey()))
+                        .onErrorResume(error -> {
+                            log.warn("Could not warm up {}", pool.getKey(), error);
+                            return Mono.empty();
+                        }))
+                .blockLast(Duration.ofSeconds(30));
+    }
+
+    public static boolean isPostgres(ConnectionFactory connectionFactory) {
+        return "PostgreSQL".equals(connectionFactory.getMetadata().getName());
+    }
+
+    private ConnectionPool pool(String name, String url, String username, String password,
+                                int initialSize, int maxSize, Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name(name)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.digitalwallet.config;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Marks database reads that may be served by the read replica. Like {@link Workload},
+ * the mark travels in the Reactor context. A marked read still goes to the primary when
+ * no replica is configured, when it runs inside a transaction, or when the current user
+ * wrote within the read-your-writes window (see {@link ReadYourWritesTracker}).
+ */
+public final class ReadReplica {
+
+    /** Condition for beans that only exist when {@code novapay.r2dbc.replica.url} is set. */
+    public static final String ENABLED = "'${novapay.r2dbc.replica.url:}' != ''";
+
+    static final String PREFERRED_KEY = "novapay.read-replica.preferred";
+    static final String USER_KEY = "novapay.read-replica.user";
+
+    private ReadReplica() {
+    }
+
+    public static <T> Mono<T> prefer(Mono<T> source) {
+        return source.contextWrite(context -> context.put(PREFERRED_KEY, Boolean.TRUE));
+    }
+
+    public static <T> Flux<T> prefer(Flux<T> source) {
+        return source.contextWrite(context -> context.put(PREFERRED_KEY, Boolean.TRUE));
+    }
+
+    static boolean isPreferred(ContextView context) {
+        return context.hasKey(PREFERRED_KEY);
+    }
+
+    static String currentUser(ContextView context) {
+        return context.getOrDefault(USER_KEY, null);
+    }
+}
@@ -0,0 +1,48 @@
+package com.digitalwallet.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+/**
+ * Runs after Spring Security. Puts the authenticated username into the Reactor context
+ * for replica routing, and records a write for any non-GET request just before its
+ * response commits, so the client's next read already sees the pin.
+ */
+@Component
+@ConditionalOnExpression(ReadReplica.ENABLED)
+@RequiredArgsConstructor
+public class ReadYourWritesFilter implements WebFilter {
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .flatMap(username -> {
+                    if (isWrite(exchange.getRequest().getMethod())) {
+                        exchange.getResponse().beforeCommit(() -> {
+                            readYourWritesTracker.recordWrite(username);
+                            return Mono.empty();
+                        });
+                    }
+                    return chain.filter(exchange)
+                            .contextWrite(context -> context.put(ReadReplica.USER_KEY, username))
+                            .thenReturn(Boolean.TRUE);
+                })
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(Boolean.TRUE)))
+                .then();
+    }
+
+    private static boolean isWrite(HttpMethod method) {
+        return !HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method);
+    }
+}
@@ -0,0 +1,52 @@
+package com.digitalwallet.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per user and in memory only, when they last wrote. For the configured
+ * window afterwards their replica-eligible reads stay on the primary, so they never see
+ * data older than their own change. Each instance tracks only the requests it served,
+ * which is enough behind a load balancer with sticky sessions and otherwise bounds
+ * staleness by replica lag as before.
+ */
+@Component
+@ConditionalOnExpression(ReadReplica.ENABLED)
+public class ReadYourWritesTracker {
+
+    @Value("${novapay.r2dbc.replica.read-your-writes-window:5s}")
+    private Duration window;
+
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public void recordWrite(String username) {
+        if (!window.isZero()) {
+            pinnedUntil.put(username, System.nanoTime() + window.toNanos());
+        }
+    }
+
+    public boolean isPinnedToPrimary(String username) {
+        Long until = pinnedUntil.get(username);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(username, until);
+        return false;
+    }
+
+    // Drops users who have not written since their window closed
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+}
@@ -0,0 +1,49 @@
+package com.digitalwallet.config;
+
+import com.digitalwallet.metrics.ServerTimingFilter;
+import com.digitalwallet.metrics.StatementListener;
+import com.digitalwallet.metrics.TimingConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Server-Timing support: a filter that runs before Spring Security and a post-processor
+ * that wraps the application's R2DBC connection factory (the routing factory in front of
+ * the workload pools) so statements report into the current request. The pools
+ * themselves stay unwrapped for pool metrics and shutdown.
+ * Disable with {@code novapay.server-timing.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "novapay.server-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class ServerTimingConfig {
+
+    private static final String APPLICATION_CONNECTION_FACTORY = "connectionFactory";
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public ServerTimingFilter serverTimingFilter() {
+        return new ServerTimingFilter();
+    }
+
+    @Bean
+    public static BeanPostProcessor timingConnectionFactoryPostProcessor(
+            ObjectProvider<StatementListener> statementListeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (APPLICATION_CONNECTION_FACTORY.equals(beanName)
+                        && bean instanceof ConnectionFactory connectionFactory
+                        && !(bean instanceof TimingConnectionFactory)) {
+                    return new TimingConnectionFactory(connectionFactory, statementListeners.orderedStream().toList());
+                }
+                return bean;
+            }
+        };
+    }
+}
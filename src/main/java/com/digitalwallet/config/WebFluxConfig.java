@@ -1,6 +1,10 @@
 package com.digitalwallet.config;
 
+import com.digitalwallet.codec.SavingsGoalResponseEncoder;
+import com.digitalwallet.codec.TransferResponseEncoder;
+import com.digitalwallet.codec.WalletBalanceResponseEncoder;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.config.CorsRegistry;
 import org.springframework.web.reactive.config.EnableWebFlux;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
@@ -17,4 +21,12 @@ public class WebFluxConfig implements WebFluxConfigurer {
                 .allowedHeaders("*")
                 .maxAge(3600);
     }
-}
\ No newline at end of file
+
+    // The busiest response types skip Jackson; their encoders write the same JSON by hand
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new TransferResponseEncoder());
+        configurer.customCodecs().register(new WalletBalanceResponseEncoder());
+        configurer.customCodecs().register(new SavingsGoalResponseEncoder());
+    }
+}
@@ -0,0 +1,44 @@
+package com.digitalwallet.config;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Connection pool a piece of database work should run on. The choice travels in the
+ * Reactor context, so binding the outermost publisher of a job routes every repository
+ * call inside it. The binding closest to a query wins, which lets audit writes made
+ * from a batch job still use the audit pool. Work inside a transaction keeps using the
+ * transaction's connection whatever it is bound to.
+ */
+public enum Workload {
+
+    /** Interactive API traffic. Used when nothing else is bound. */
+    OLTP,
+
+    /** Background jobs, always run through their {@link com.digitalwallet.jobs.JobBulkhead}. */
+    BATCH,
+
+    /**
+     * Requests whose database work is paced by the client: statement exports, which read
+     * for as long as the download takes, and bulk payouts, which run while lines arrive.
+     */
+    STREAMING,
+
+    /** Audit log and outbox writes. */
+    AUDIT;
+
+    static final Class<Workload> CONTEXT_KEY = Workload.class;
+
+    public <T> Mono<T> bind(Mono<T> source) {
+        return source.contextWrite(context -> context.put(CONTEXT_KEY, this));
+    }
+
+    public <T> Flux<T> bind(Flux<T> source) {
+        return source.contextWrite(context -> context.put(CONTEXT_KEY, this));
+    }
+
+    public static Workload current(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, OLTP);
+    }
+}
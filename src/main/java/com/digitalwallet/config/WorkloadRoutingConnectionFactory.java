@@ -0,0 +1,46 @@
+package com.digitalwallet.config;
+
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Picks the pool for each new connection from the Reactor context. Reads marked with
+ * {@link ReadReplica#prefer} go to the replica pool when one is configured, unless they
+ * run inside a transaction or the current user is within their read-your-writes window.
+ * Everything else uses the pool of the bound {@link Workload}, falling back to OLTP.
+ */
+public class WorkloadRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    static final String REPLICA = "replica";
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    /**
+     * @param readYourWritesTracker tracker for the replica, or {@code null} when there is
+     *                              no replica and every read uses its workload pool
+     */
+    public WorkloadRoutingConnectionFactory(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            Workload workload = Workload.current(context);
+            if (readYourWritesTracker == null || !ReadReplica.isPreferred(context)) {
+                return Mono.just(workload);
+            }
+
+            String username = ReadReplica.currentUser(context);
+            if (username != null && readYourWritesTracker.isPinnedToPrimary(username)) {
+                return Mono.just(workload);
+            }
+
+            return TransactionSynchronizationManager.forCurrentTransaction()
+                    .<Object>map(synchronization -> synchronization.isActualTransactionActive() ? workload : REPLICA)
+                    .onErrorReturn(NoTransactionException.class, REPLICA);
+        });
+    }
+}
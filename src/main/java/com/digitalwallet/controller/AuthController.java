@@ -1,17 +1,26 @@
 package com.digitalwallet.controller;
 
+import com.digitalwallet.dto.AvailabilityResponse;
 import com.digitalwallet.dto.LoginRequest;
 import com.digitalwallet.dto.LoginResponse;
 import com.digitalwallet.dto.RegisterRequest;
 import com.digitalwallet.dto.RegisterResponse;
+import com.digitalwallet.exception.ConcurrencyLimitExceededException;
+import com.digitalwallet.exception.LoginThrottledException;
+import com.digitalwallet.ratelimit.RateLimitFilter;
+import com.digitalwallet.ratelimit.RateLimiter;
 import com.digitalwallet.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
@@ -24,9 +33,20 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/login")
-    public Mono<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request) {
-        return authService.login(request)
+    public Mono<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                     ServerWebExchange exchange) {
+        return authService.login(request, RateLimitFilter.clientAddress(exchange.getRequest()))
                 .map(ResponseEntity::ok)
+                .onErrorResume(LoginThrottledException.class, error ->
+                        Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, RateLimiter.retryAfterSeconds(error.getRetryAfterNanos()))
+                                .build())
+                )
+                .onErrorResume(ConcurrencyLimitExceededException.class, error ->
+                        Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .build())
+                )
                 .onErrorResume(error ->
                         Mono.just(ResponseEntity.badRequest().build())
                 );
@@ -36,6 +56,14 @@ public class AuthController {
     public Mono<ResponseEntity<RegisterResponse>> register(@Valid @RequestBody RegisterRequest request) {
         return authService.register(request)
                 .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .onErrorResume(ConcurrencyLimitExceededException.class, error ->
+                        Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .body(RegisterResponse.builder()
+                                        .message(error.getMessage())
+                                        .status("FAILED")
+                                        .build()))
+                )
                 .onErrorResume(error ->
                         Mono.just(ResponseEntity.badRequest()
                                 .body(RegisterResponse.builder()
@@ -44,4 +72,11 @@ public class AuthController {
                                         .build()))
                 );
     }
+
+    @GetMapping("/availability")
+    public Mono<ResponseEntity<AvailabilityResponse>> availability(
+            @RequestParam String username) {
+        return authService.checkAvailability(username)
+                .map(ResponseEntity::ok);
+    }
 }
\ No newline at end of file
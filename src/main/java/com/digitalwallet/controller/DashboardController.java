@@ -0,0 +1,48 @@
+package com.digitalwallet.controller;
+
+import com.digitalwallet.dto.DashboardResponse;
+import com.digitalwallet.security.JwtUtil;
+import com.digitalwallet.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * The caller's wallets, active savings goals, active recurring transfers and recent
+     * transactions in one response, served from a short-lived per-user cache.
+     */
+    @GetMapping
+    public Mono<DashboardResponse> getDashboard(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .zipWith(extractUserId(exchange))
+                .flatMap(user -> dashboardService.getDashboard(user.getT1(), user.getT2()));
+    }
+
+    private Mono<Long> extractUserId(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            try {
+                Long userId = jwtUtil.getUserIdFromToken(token);
+                return Mono.just(userId);
+            } catch (Exception e) {
+                return Mono.error(new RuntimeException("Invalid token"));
+            }
+        }
+        return Mono.error(new RuntimeException("No authorization token found"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.digitalwallet.controller;
+
+import com.digitalwallet.dto.CaptureHoldRequest;
+import com.digitalwallet.dto.ExtendHoldRequest;
+import com.digitalwallet.dto.HoldRequest;
+import com.digitalwallet.dto.HoldResponse;
+import com.digitalwallet.exception.HoldNotFoundException;
+import com.digitalwallet.exception.WalletNotFoundException;
+import com.digitalwallet.security.JwtUtil;
+import com.digitalwallet.service.HoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+public class HoldController {
+
+    private final HoldService holdService;
+    private final JwtUtil jwtUtil;
+
+    @PostMapping
+    public Mono<ResponseEntity<HoldResponse>> placeHold(
+            @Valid @RequestBody HoldRequest request,
+            ServerWebExchange exchange) {
+        return extractUserId(exchange)
+                .flatMap(userId -> holdService.placeHold(request, userId))
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED)
+                        .header(HttpHeaders.LOCATION, "/api/holds/" + response.getHoldReference())
+                        .body(response))
+                .onErrorResume(HoldController::failure);
+    }
+
+    @GetMapping("/{holdReference}")
+    public Mono<ResponseEntity<HoldResponse>> getHold(
+            @PathVariable String holdReference,
+            ServerWebExchange exchange) {
+        return extractUserId(exchange)
+                .flatMap(userId -> holdService.getHold(holdReference, userId))
+                .map(ResponseEntity::ok)
+                .onErrorResume(error ->
+                        Mono.just(ResponseEntity.notFound().build())
+                );
+    }
+
+    /** Captures the whole hold, or the amount in the body and releases the rest. */
+    @PostMapping("/{holdReference}/capture")
+    public Mono<ResponseEntity<HoldResponse>> captureHold(
+            @PathVariable String holdReference,
+            @Valid @RequestBody(required = false) CaptureHoldRequest request,
+            ServerWebExchange exchange) {
+        return extractUserId(exchange)
+                .flatMap(userId -> holdService.captureHold(holdReference,
+                        request != null ? request.getAmount() : null, userId))
+                .map(ResponseEntity::ok)
+                .onErrorResume(HoldController::failure);
+    }
+
+    @PostMapping("/{holdReference}/release")
+    public Mono<ResponseEntity<HoldResponse>> releaseHold(
+            @PathVariable String holdReference,
+            ServerWebExchange exchange) {
+        return extractUserId(exchange)
+                .flatMap(userId -> holdService.releaseHold(holdReference, userId))
+                .map(ResponseEntity::ok)
+                .onErrorResume(HoldController::failure);
+    }
+
+    @PutMapping("/{holdReference}/expiry")
+    public Mono<ResponseEntity<HoldResponse>> extendHold(
+            @PathVariable String holdReference,
+            @Valid @RequestBody ExtendHoldRequest request,
+            ServerWebExchange exchange) {
+        return extractUserId(exchange)
+                .flatMap(userId -> holdService.extendHold(holdReference, request.getExpiresAt(), userId))
+                .map(ResponseEntity::ok)
+                .onErrorResume(HoldController::failure);
+    }
+
+    private static Mono<ResponseEntity<HoldResponse>> failure(Throwable error) {
+        HttpStatus status = error instanceof HoldNotFoundException || error instanceof WalletNotFoundException
+                ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST;
+        return Mono.just(ResponseEntity.status(status)
+                .body(HoldResponse.builder()
+                        .message(error.getMessage())
+                        .status("FAILED")
+                        .build()));
+    }
+
+    private Mono<Long> extractUserId(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            try {
+                Long userId = jwtUtil.getUserIdFromToken(token);
+                return Mono.just(userId);
+            } catch (Exception e) {
+                return Mono.error(new RuntimeException("Invalid token"));
+            }
+        }
+        return Mono.error(new RuntimeException("No authorization token found"));
+    }
+}
@@ -1,15 +1,26 @@
 package com.digitalwallet.controller;
 
+import com.digitalwallet.dto.PayoutLine;
+import com.digitalwallet.dto.PayoutLineResult;
+import com.digitalwallet.dto.PayoutResponse;
 import com.digitalwallet.dto.TransferRequest;
 import com.digitalwallet.dto.TransferResponse;
+import com.digitalwallet.exception.WalletNotFoundException;
+import com.digitalwallet.model.Transfer;
+import com.digitalwallet.ratelimit.RateLimitGroup;
+import com.digitalwallet.ratelimit.RateLimiter;
 import com.digitalwallet.security.JwtUtil;
+import com.digitalwallet.service.PayoutService;
 import com.digitalwallet.service.TransferService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
@@ -20,7 +31,9 @@ import jakarta.validation.Valid;
 public class TransferController {
 
     private final TransferService transferService;
+    private final PayoutService payoutService;
     private final JwtUtil jwtUtil;
+    private final RateLimiter rateLimiter;
 
     @PostMapping("/initiate")
     public Mono<ResponseEntity<TransferResponse>> initiateTransfer(
@@ -28,8 +41,22 @@ public class TransferController {
             ServerWebExchange exchange) {
 
         return extractUserId(exchange)
-                .flatMap(userId -> transferService.initiateTransfer(request, userId))
-                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .flatMap(userId -> {
+                    // Per-user limits are applied by RateLimitFilter; this one caps a single source wallet
+                    long waitNanos = rateLimiter.tryAcquire(RateLimitGroup.SOURCE_WALLET,
+                            sourceWalletKey(userId, request.getSourceWalletNumber()));
+                    if (waitNanos > 0) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, RateLimiter.retryAfterSeconds(waitNanos))
+                                .body(TransferResponse.builder()
+                                        .message(RateLimiter.REJECTED_MESSAGE)
+                                        .status("FAILED")
+                                        .build()));
+                    }
+                    return transferService.initiateTransfer(request, userId)
+                            .map(response -> ResponseEntity.status(Transfer.Status.QUEUED.name().equals(response.getStatus())
+                                    ? HttpStatus.ACCEPTED : HttpStatus.CREATED).body(response));
+                })
                 .onErrorResume(error ->
                         Mono.just(ResponseEntity.badRequest()
                                 .body(TransferResponse.builder()
@@ -50,6 +77,65 @@ public class TransferController {
                 );
     }
 
+    /**
+     * Pays the lines in the body (a JSON array or NDJSON of {@link PayoutLine}) from one
+     * source wallet. Lines are read and paid as they arrive, and the response streams one
+     * NDJSON result per line. Problems with the payout as a whole, such as an unknown
+     * source wallet, are reported as a single result with line number 0.
+     */
+    @PostMapping(value = "/payouts",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<PayoutLineResult>>> initiatePayout(
+            @RequestParam String sourceWalletNumber,
+            @RequestParam(required = false) String description,
+            @RequestBody Flux<PayoutLine> lines,
+            ServerWebExchange exchange) {
+
+        return extractUserId(exchange)
+                .flatMap(userId -> {
+                    long waitNanos = rateLimiter.tryAcquire(RateLimitGroup.SOURCE_WALLET,
+                            sourceWalletKey(userId, sourceWalletNumber));
+                    if (waitNanos > 0) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                                .header(HttpHeaders.RETRY_AFTER, RateLimiter.retryAfterSeconds(waitNanos))
+                                .body(payoutFailure(RateLimiter.REJECTED_MESSAGE)));
+                    }
+                    return payoutService.initiatePayout(sourceWalletNumber, description, lines, userId)
+                            .map(run -> ResponseEntity.status(HttpStatus.CREATED)
+                                    .header(HttpHeaders.LOCATION, "/api/transfers/payouts/" + run.payout().getPayoutReference())
+                                    .body(run.results()));
+                })
+                .onErrorResume(error ->
+                        Mono.just(ResponseEntity.status(error instanceof WalletNotFoundException
+                                        ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST)
+                                .body(payoutFailure(error.getMessage())))
+                );
+    }
+
+    @GetMapping("/payouts/{payoutReference}")
+    public Mono<ResponseEntity<PayoutResponse>> getPayout(@PathVariable String payoutReference) {
+        return payoutService.getPayout(payoutReference)
+                .map(ResponseEntity::ok)
+                .onErrorResume(error ->
+                        Mono.just(ResponseEntity.notFound().build())
+                );
+    }
+
+    // Only the owner can move money out of a wallet, so this is the wallet's bucket for its
+    // owner; anyone else fills a bucket of their own and is then refused by the ownership check
+    private static String sourceWalletKey(Long userId, String walletNumber) {
+        return userId + ":" + walletNumber;
+    }
+
+    private static Flux<PayoutLineResult> payoutFailure(String message) {
+        return Flux.just(PayoutLineResult.builder()
+                .lineNumber(0)
+                .status("FAILED")
+                .message(message)
+                .build());
+    }
+
     private Mono<Long> extractUserId(ServerWebExchange exchange) {
         String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -1,20 +1,36 @@
 package com.digitalwallet.controller;
 
 import com.digitalwallet.dto.WalletBalanceResponse;
+import com.digitalwallet.dto.WalletHistoryEntry;
+import com.digitalwallet.security.JwtUtil;
+import com.digitalwallet.service.StatementExportService;
+import com.digitalwallet.service.StatementFormat;
+import com.digitalwallet.service.WalletHistoryService;
 import com.digitalwallet.service.WalletService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/api/wallets")
 @RequiredArgsConstructor
 public class WalletController {
 
     private final WalletService walletService;
+    private final WalletHistoryService walletHistoryService;
+    private final StatementExportService statementExportService;
+    private final JwtUtil jwtUtil;
 
     @GetMapping("/{walletNumber}/balance")
     public Mono<ResponseEntity<WalletBalanceResponse>> getWalletBalance(
@@ -29,16 +45,76 @@ public class WalletController {
 
     @GetMapping("/user/{userId}")
     public Flux<WalletBalanceResponse> getUserWallets(@PathVariable Long userId) {
-        return walletService.getUserWallets(userId)
-                .map(wallet -> WalletBalanceResponse.builder()
-                        .walletId(wallet.getId())
-                        .walletNumber(wallet.getWalletNumber())
-                        .balance(wallet.getBalance())
-                        .currency(wallet.getCurrency())
-                        .status(wallet.getStatus())
-                        .dailyLimit(wallet.getDailyLimit())
-                        .availableBalance(wallet.getBalance())
-                        .lastUpdated(wallet.getUpdatedAt())
-                        .build());
+        return walletService.getUserWalletBalances(userId);
+    }
+
+    /**
+     * Ledger entries between {@code from} (inclusive) and {@code to} (exclusive), newest
+     * first, including archived ones. Defaults to the last 30 days. Only the wallet's owner
+     * gets them; anyone else gets 404.
+     */
+    @GetMapping("/{walletNumber}/history")
+    public Flux<WalletHistoryEntry> getWalletHistory(
+            @PathVariable String walletNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            ServerWebExchange exchange) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return extractUserId(exchange)
+                .flatMapMany(userId -> walletHistoryService.getWalletHistory(walletNumber, userId, start, end));
+    }
+
+    /**
+     * Streams the ledger entries between {@code from} (inclusive) and {@code to} (exclusive)
+     * as CSV or NDJSON, oldest first, gzipped when the client accepts it. Defaults to the
+     * last 30 days. Only the wallet's owner gets it; anyone else gets 404.
+     */
+    @GetMapping("/{walletNumber}/statement")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportStatement(
+            @PathVariable String walletNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format,
+            ServerWebExchange exchange) {
+        StatementFormat statementFormat = StatementFormat.fromParameter(format).orElse(null);
+        if (statementFormat == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        boolean gzip = StatementExportService.acceptsGzip(
+                exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING));
+
+        return extractUserId(exchange)
+                .flatMap(userId -> walletService.getOwnedWallet(walletNumber, userId))
+                .map(wallet -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .contentType(MediaType.parseMediaType(statementFormat.getContentType()))
+                            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                    .filename("statement-" + walletNumber + "-" + start.toLocalDate() + "-"
+                                            + end.toLocalDate() + "." + statementFormat.getFileExtension())
+                                    .build().toString())
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    if (gzip) {
+                        response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                    return response.body(statementExportService.export(wallet, start, end, statementFormat, gzip,
+                            exchange.getResponse().bufferFactory()));
+                });
+    }
+
+    private Mono<Long> extractUserId(ServerWebExchange exchange) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            try {
+                Long userId = jwtUtil.getUserIdFromToken(token);
+                return Mono.just(userId);
+            } catch (Exception e) {
+                return Mono.error(new RuntimeException("Invalid token"));
+            }
+        }
+        return Mono.error(new RuntimeException("No authorization token found"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.digitalwallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+
+    private List<WalletBalanceResponse> wallets;
+    private List<SavingsGoalResponse> activeGoals;
+    private List<RecurringTransferResponse> activeRecurringTransfers;
+    private List<WalletHistoryEntry> recentTransactions;
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,19 @@
+package com.digitalwallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExtendHoldRequest {
+
+    @NotNull(message = "Expiry time is required")
+    private LocalDateTime expiresAt;
+}
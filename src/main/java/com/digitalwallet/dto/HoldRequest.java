@@ -0,0 +1,38 @@
+package com.digitalwallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldRequest {
+
+    @NotBlank(message = "Wallet number is required")
+    private String walletNumber;
+
+    // Where the funds go when the hold is captured
+    @NotBlank(message = "Destination wallet number is required")
+    private String destinationWalletNumber;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    @NotBlank(message = "Currency is required")
+    private String currency;
+
+    private String description;
+
+    // novapay.holds.default-ttl from now when absent
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,23 @@
+package com.digitalwallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a payout file. Lines are checked one by one while the payout runs, so an
+ * invalid line fails on its own instead of rejecting the whole file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutLine {
+
+    private String destinationWalletNumber;
+    private BigDecimal amount;
+    private String description;
+}
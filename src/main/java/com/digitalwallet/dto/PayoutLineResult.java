@@ -0,0 +1,23 @@
+package com.digitalwallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutLineResult {
+
+    private String payoutReference;
+    private int lineNumber;
+    private String destinationWalletNumber;
+    private BigDecimal amount;
+    private String transferReference;
+    private String status;
+    private String message;
+}
@@ -0,0 +1,27 @@
+package com.digitalwallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutResponse {
+
+    private String payoutReference;
+    private String status;
+    private String currency;
+    private int lineCount;
+    private int completedCount;
+    private int failedCount;
+    private BigDecimal completedAmount;
+    private String description;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -9,6 +9,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/** Serialized by {@link com.digitalwallet.codec.SavingsGoalResponseEncoder}; a new field must be added there too. */
 @Data
 @Builder
 @NoArgsConstructor
@@ -28,6 +29,7 @@ public class SavingsGoalResponse {
     private Integer daysRemaining;
     private BigDecimal amountNeeded;
     private BigDecimal suggestedMonthlyContribution;
+    private LocalDate projectedCompletionDate;
     private LocalDateTime createdAt;
     private LocalDateTime achievedAt;
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import java.math.BigDecimal;
 
 @Data
@@ -30,4 +31,8 @@ public class TransferRequest {
     private String currency;
 
     private String description;
-}
\ No newline at end of file
+
+    // IMMEDIATE when absent; DEFERRED queues the transfer for the next netting window
+    @Pattern(regexp = "IMMEDIATE|DEFERRED", message = "Settlement must be IMMEDIATE or DEFERRED")
+    private String settlement;
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/** Serialized by {@link com.digitalwallet.codec.TransferResponseEncoder}; a new field must be added there too. */
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,6 +21,10 @@ public class TransferResponse {
     private String destinationWalletNumber;
     private BigDecimal amount;
     private String currency;
+    // Cross-currency transfers only: the rate applied and what the destination received
+    private BigDecimal fxRate;
+    private BigDecimal destinationAmount;
+    private String destinationCurrency;
     private String status;
     private String description;
     private LocalDateTime initiatedAt;
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/** Serialized by {@link com.digitalwallet.codec.WalletBalanceResponseEncoder}; a new field must be added there too. */
 @Data
 @Builder
 @NoArgsConstructor
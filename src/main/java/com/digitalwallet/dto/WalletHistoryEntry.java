@@ -0,0 +1,26 @@
+package com.digitalwallet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletHistoryEntry {
+
+    private Long entryId;
+    private Long transferId;
+    private String entryType;
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private String currency;
+    private String description;
+    private LocalDateTime createdAt;
+    private boolean archived;
+}
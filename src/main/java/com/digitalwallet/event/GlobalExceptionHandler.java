@@ -1,5 +1,6 @@
 package com.digitalwallet.event;
 
+import com.digitalwallet.exception.ConcurrencyLimitExceededException;
 import com.digitalwallet.exception.InsufficientBalanceException;
 import com.digitalwallet.exception.WalletNotFoundException;
 import lombok.AllArgsConstructor;
@@ -37,6 +38,16 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
     
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyLimitExceeded(ConcurrencyLimitExceededException ex) {
+        ErrorResponse error = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(error);
+    }
+    
     @ExceptionHandler(WebExchangeBindException.class)
     public ResponseEntity<Map<String, Object>> handleValidationException(WebExchangeBindException ex) {
         Map<String, Object> errors = new HashMap<>();
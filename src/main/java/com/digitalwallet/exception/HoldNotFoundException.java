@@ -0,0 +1,8 @@
+package com.digitalwallet.exception;
+
+public class HoldNotFoundException extends RuntimeException {
+
+    public HoldNotFoundException(String message) {
+        super(message);
+    }
+}
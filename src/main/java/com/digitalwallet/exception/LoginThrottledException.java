@@ -0,0 +1,15 @@
+package com.digitalwallet.exception;
+
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterNanos;
+
+    public LoginThrottledException(String message, long retryAfterNanos) {
+        super(message);
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+}
@@ -0,0 +1,15 @@
+package com.digitalwallet.exception;
+
+public class RiskCheckFailedException extends RuntimeException {
+
+    private final String rule;
+
+    public RiskCheckFailedException(String rule, String message) {
+        super(message);
+        this.rule = rule;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+}
@@ -0,0 +1,132 @@
+package com.digitalwallet.fx;
+
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkhead;
+import com.digitalwallet.jobs.JobBulkheads;
+import com.digitalwallet.model.FxRate;
+import com.digitalwallet.repository.FxRateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The exchange rates used by cross-currency transfers, held in memory so that a transfer
+ * never queries for its rate. Rates are loaded at startup and every
+ * {@code novapay.fx.refresh-interval}, from {@code novapay.fx.rates-file} when it is set
+ * (lines of {@code BASE,QUOTE,RATE}; blank lines and lines starting with {@code #} are
+ * skipped) or from the {@code fx_rates} table otherwise.
+ *
+ * <p>Each load builds a new {@link FxRates} and publishes it with a single volatile
+ * write, so readers never lock and always see one complete set of rates. A load that
+ * fails keeps the previous rates. Until the first load finishes there are none, and
+ * cross-currency transfers are refused.
+ */
+@Slf4j
+@Component
+public class FxRateTable {
+
+    private final FxRateRepository fxRateRepository;
+    private final JobBulkhead bulkhead;
+    private final String ratesFile;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile FxRates rates = FxRates.EMPTY;
+
+    public FxRateTable(FxRateRepository fxRateRepository,
+                       JobBulkheads jobBulkheads,
+                       MeterRegistry meterRegistry,
+                       @Value("${novapay.fx.rates-file:}") String ratesFile) {
+        this.fxRateRepository = fxRateRepository;
+        this.bulkhead = jobBulkheads.get(Job.SWEEPERS);
+        this.ratesFile = ratesFile;
+        Gauge.builder("novapay.fx.pairs", this, table -> table.rates.pairs())
+                .description("Currency pairs with an exchange rate, counting each direction")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    // Skipped while a previous load, the initial one included, is still reading
+    @Scheduled(fixedDelayString = "${novapay.fx.refresh-interval:PT1M}",
+            initialDelayString = "${novapay.fx.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        loadQuotes()
+                .map(FxRates::of)
+                .doFinally(signal -> refreshing.set(false))
+                .subscribe(loaded -> {
+                    rates = loaded;
+                    log.debug("Loaded {} exchange rates", loaded.pairs());
+                }, error -> log.error("Could not refresh exchange rates; keeping the previous ones", error));
+    }
+
+    /** The rates in use right now; a snapshot that later refreshes do not change. */
+    public FxRates current() {
+        return rates;
+    }
+
+    /**
+     * Destination units per source unit, {@link BigDecimal#ONE} for the same currency, or
+     * null when there is no rate between the two.
+     */
+    public BigDecimal rate(String from, String to) {
+        return rates.rate(from, to);
+    }
+
+    private Mono<List<FxRate>> loadQuotes() {
+        if (ratesFile.isBlank()) {
+            return bulkhead.run(fxRateRepository.findAll().collectList());
+        }
+        return Mono.fromCallable(() -> readFile(Path.of(ratesFile)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    static List<FxRate> readFile(Path file) throws IOException {
+        List<FxRate> quotes = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = trimmed.split(",");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException(
+                        file + ":" + lineNumber + ": expected BASE,QUOTE,RATE but got " + trimmed);
+            }
+            try {
+                quotes.add(FxRate.builder()
+                        .baseCurrency(fields[0].trim().toUpperCase(Locale.ROOT))
+                        .quoteCurrency(fields[1].trim().toUpperCase(Locale.ROOT))
+                        .rate(new BigDecimal(fields[2].trim()))
+                        .build());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(file + ":" + lineNumber + ": invalid rate " + fields[2], e);
+            }
+        }
+        return quotes;
+    }
+}
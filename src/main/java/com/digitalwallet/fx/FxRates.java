@@ -0,0 +1,116 @@
+package com.digitalwallet.fx;
+
+import com.digitalwallet.model.FxRate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable set of exchange rates: a currency index plus a flat matrix of rates, so a
+ * lookup is two hash probes and an array read with nothing allocated. Each pair is stored
+ * in both directions; a direction that was not given is derived as the inverse of the
+ * other one.
+ */
+public final class FxRates {
+
+    /** Decimal places of a stored rate, as in the {@code fx_rate} columns. */
+    public static final int RATE_SCALE = 10;
+    /** Decimal places of a converted amount, as in the amount columns. */
+    public static final int AMOUNT_SCALE = 4;
+
+    static final FxRates EMPTY = new FxRates(Map.of(), new BigDecimal[0]);
+
+    private final Map<String, Integer> indexByCurrency;
+    private final BigDecimal[] rates;
+    private final int currencies;
+
+    private FxRates(Map<String, Integer> indexByCurrency, BigDecimal[] rates) {
+        this.indexByCurrency = indexByCurrency;
+        this.rates = rates;
+        this.currencies = indexByCurrency.size();
+    }
+
+    /**
+     * Builds a snapshot from base/quote/rate rows. A pair given in both directions keeps
+     * both as given. Rejects non-positive rates and a currency quoted against itself.
+     */
+    public static FxRates of(List<FxRate> quotes) {
+        Map<String, Integer> index = new HashMap<>();
+        for (FxRate quote : quotes) {
+            if (quote.getRate() == null || quote.getRate().signum() <= 0) {
+                throw new IllegalArgumentException("Rate must be positive: " + describe(quote));
+            }
+            if (quote.getBaseCurrency().equals(quote.getQuoteCurrency())) {
+                throw new IllegalArgumentException("Currency quoted against itself: " + describe(quote));
+            }
+            index.putIfAbsent(quote.getBaseCurrency(), index.size());
+            index.putIfAbsent(quote.getQuoteCurrency(), index.size());
+        }
+
+        int size = index.size();
+        BigDecimal[] rates = new BigDecimal[size * size];
+        for (int currency = 0; currency < size; currency++) {
+            rates[currency * size + currency] = BigDecimal.ONE;
+        }
+        for (FxRate quote : quotes) {
+            int base = index.get(quote.getBaseCurrency());
+            int target = index.get(quote.getQuoteCurrency());
+            rates[base * size + target] = normalize(quote.getRate());
+        }
+        for (FxRate quote : quotes) {
+            int base = index.get(quote.getBaseCurrency());
+            int target = index.get(quote.getQuoteCurrency());
+            if (rates[target * size + base] == null) {
+                rates[target * size + base] = normalize(
+                        BigDecimal.ONE.divide(rates[base * size + target], RATE_SCALE, RoundingMode.HALF_EVEN));
+            }
+        }
+        return new FxRates(Map.copyOf(index), rates);
+    }
+
+    /**
+     * Destination units per source unit, {@link BigDecimal#ONE} for the same currency, or
+     * null when there is no rate between the two.
+     */
+    public BigDecimal rate(String from, String to) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        Integer source = indexByCurrency.get(from);
+        Integer target = indexByCurrency.get(to);
+        if (source == null || target == null) {
+            return null;
+        }
+        return rates[source * currencies + target];
+    }
+
+    /** Converts at the given rate, rounded half-even to the scale amounts are stored with. */
+    public static BigDecimal convert(BigDecimal amount, BigDecimal rate) {
+        return amount.multiply(rate).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /** Number of currency pairs with a rate, counting each direction. */
+    public int pairs() {
+        int pairs = 0;
+        for (BigDecimal rate : rates) {
+            if (rate != null) {
+                pairs++;
+            }
+        }
+        return pairs - currencies;
+    }
+
+    // Rounded to the stored scale, and without trailing zeros so that multiplying a typical
+    // amount by it stays within a long instead of spilling into a BigInteger
+    private static BigDecimal normalize(BigDecimal rate) {
+        BigDecimal rounded = rate.setScale(RATE_SCALE, RoundingMode.HALF_EVEN).stripTrailingZeros();
+        return rounded.scale() < 0 ? rounded.setScale(0) : rounded;
+    }
+
+    private static String describe(FxRate quote) {
+        return quote.getBaseCurrency() + "/" + quote.getQuoteCurrency() + " " + quote.getRate();
+    }
+}
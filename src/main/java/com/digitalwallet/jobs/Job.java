@@ -0,0 +1,33 @@
+package com.digitalwallet.jobs;
+
+/**
+ * Kinds of background work, each with its own {@link JobBulkhead}, configured under
+ * {@code novapay.jobs.<key>.threads} and {@code .pool-share}.
+ */
+public enum Job {
+
+    /** Executions of due recurring transfers. */
+    RECURRING("recurring"),
+
+    /** Ledger reconciliation, whether started by the API or by an operator. */
+    RECONCILIATION("reconciliation"),
+
+    /**
+     * Periodic upkeep: hold expiry, savings goal sweeps, archiving, partition maintenance
+     * and the exchange rate and user filter refreshes.
+     */
+    SWEEPERS("sweepers"),
+
+    /** Netting windows of deferred transfers. */
+    SETTLEMENT("settlement");
+
+    private final String key;
+
+    Job(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
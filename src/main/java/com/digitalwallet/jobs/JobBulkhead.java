@@ -0,0 +1,162 @@
+package com.digitalwallet.jobs;
+
+import com.digitalwallet.config.Workload;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The threads and database share one kind of job may use. Work run through the bulkhead
+ * is bound to the {@link Workload#BATCH} pool, subscribed on the job's own bounded
+ * scheduler instead of Spring's scheduling thread or a request thread, and delivers its
+ * results there, so the job's own processing never runs on threads that serve requests.
+ *
+ * <p>At most {@link #permits()} units of work run at once across every run of the job;
+ * the rest wait, without blocking a thread, in arrival order. A unit must not wait for
+ * another unit of the same bulkhead, or the two can wait on each other forever.
+ */
+public final class JobBulkhead {
+
+    private final Job job;
+    private final Scheduler scheduler;
+    private final int permits;
+    private final AtomicInteger available;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    JobBulkhead(Job job, Scheduler scheduler, int permits) {
+        this.job = job;
+        this.scheduler = scheduler;
+        this.permits = permits;
+        this.available = new AtomicInteger(permits);
+    }
+
+    public Job job() {
+        return job;
+    }
+
+    public int permits() {
+        return permits;
+    }
+
+    /** Units running now. */
+    public int active() {
+        return permits - available.get();
+    }
+
+    /** Units waiting for a permit. */
+    public int waiting() {
+        return waiting.get();
+    }
+
+    /** Runs {@code work} as one unit once a permit is free. */
+    public <T> Mono<T> run(Mono<T> work) {
+        return Workload.BATCH.bind(Mono.usingWhen(acquire(),
+                permit -> work.subscribeOn(scheduler),
+                Permit::release)
+                .publishOn(scheduler));
+    }
+
+    /** Runs {@code work} as one unit once a permit is free; the permit is held until it completes. */
+    public <T> Flux<T> run(Flux<T> work) {
+        return Workload.BATCH.bind(Flux.usingWhen(acquire(),
+                permit -> work.subscribeOn(scheduler),
+                Permit::release)
+                .publishOn(scheduler));
+    }
+
+    /**
+     * Runs {@code work} for each item as its own unit, at most {@link #permits()} of them at
+     * once, and emits their results as they finish.
+     */
+    public <T, R> Flux<R> flatMap(Flux<T> items, Function<? super T, Mono<R>> work) {
+        return Workload.BATCH.bind(items.publishOn(scheduler)
+                .flatMap(item -> run(work.apply(item)), permits));
+    }
+
+    void dispose() {
+        scheduler.dispose();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(waiter::cancel);
+            waiting.incrementAndGet();
+            waiters.offer(waiter);
+            drain();
+        });
+    }
+
+    // Hands free permits to waiters; every change to either side is followed by a drain
+    private void drain() {
+        while (!waiters.isEmpty()) {
+            int free = available.get();
+            if (free == 0) {
+                return;
+            }
+            if (!available.compareAndSet(free, free - 1)) {
+                continue;
+            }
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.grant(new Permit())) {
+                available.incrementAndGet();
+            }
+        }
+    }
+
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        // Reached from the unit's end and from a cancellation racing the grant; only the first counts
+        Mono<Void> release() {
+            if (released.compareAndSet(false, true)) {
+                available.incrementAndGet();
+                drain();
+            }
+            return Mono.empty();
+        }
+    }
+
+    private final class Waiter {
+
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final MonoSink<Permit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile Permit permit;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant(Permit granted) {
+            permit = granted;
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            waiting.decrementAndGet();
+            sink.success(granted);
+            return true;
+        }
+
+        // A waiter cancelled while queued is skipped by drain; one cancelled as it was granted gives the permit back
+        void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                waiting.decrementAndGet();
+            } else {
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.digitalwallet.jobs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link JobBulkhead} per {@link Job}. Each gets a bounded elastic scheduler of
+ * {@code novapay.jobs.<key>.threads} threads (named {@code job-<key>}) and
+ * {@code novapay.jobs.<key>.pool-share} of the batch connection pool as its permits,
+ * rounded down but at least one. Jobs draw only on the batch pool, so the OLTP pool is
+ * left to interactive traffic. All work on the batch pool runs as bulkhead units, and a
+ * unit uses one connection at a time, so when the permits add up to no more than the
+ * pool's size the jobs together cannot queue on it either; startup warns when they do
+ * not. Client-paced work, statement exports and payouts, has a pool of its own.
+ *
+ * <p>Each bulkhead reports {@code novapay.jobs.permits}, {@code novapay.jobs.active} and
+ * {@code novapay.jobs.waiting}, tagged with the job.
+ */
+@Slf4j
+@Component
+public class JobBulkheads implements DisposableBean {
+
+    private static final String PROPERTY_PREFIX = "novapay.jobs.";
+
+    private final Map<Job, JobBulkhead> bulkheads = new EnumMap<>(Job.class);
+
+    public JobBulkheads(Environment environment, MeterRegistry meterRegistry) {
+        int batchConnections = environment.getProperty("novapay.r2dbc.pool.batch.max-size", Integer.class, 5);
+        int totalPermits = 0;
+        int queueCapacity = environment.getProperty(PROPERTY_PREFIX + "queue-capacity", Integer.class, 10_000);
+
+        for (Job job : Job.values()) {
+            String prefix = PROPERTY_PREFIX + job.getKey();
+            int threads = environment.getRequiredProperty(prefix + ".threads", Integer.class);
+            double poolShare = environment.getRequiredProperty(prefix + ".pool-share", Double.class);
+            if (threads < 1 || poolShare <= 0 || poolShare > 1) {
+                throw new IllegalArgumentException(prefix + " needs threads >= 1 and 0 < pool-share <= 1");
+            }
+
+            int permits = Math.max(1, (int) (batchConnections * poolShare));
+            JobBulkhead bulkhead = new JobBulkhead(job,
+                    Schedulers.newBoundedElastic(threads, queueCapacity, "job-" + job.getKey()), permits);
+            bulkheads.put(job, bulkhead);
+            totalPermits += permits;
+            register(meterRegistry, bulkhead);
+            log.info("Job {} runs on {} threads with {} of {} batch connections",
+                    job.getKey(), threads, permits, batchConnections);
+        }
+        if (totalPermits > batchConnections) {
+            log.warn("Jobs may hold {} batch connections at once but the pool has {}; jobs will queue on it",
+                    totalPermits, batchConnections);
+        }
+    }
+
+    public JobBulkhead get(Job job) {
+        return bulkheads.get(job);
+    }
+
+    @Override
+    public void destroy() {
+        bulkheads.values().forEach(JobBulkhead::dispose);
+    }
+
+    private static void register(MeterRegistry meterRegistry, JobBulkhead bulkhead) {
+        String job = bulkhead.job().getKey();
+        Gauge.builder("novapay.jobs.permits", bulkhead, JobBulkhead::permits)
+                .tag("job", job)
+                .description("Units of the job allowed to run at once")
+                .register(meterRegistry);
+        Gauge.builder("novapay.jobs.active", bulkhead, JobBulkhead::active)
+                .tag("job", job)
+                .description("Units of the job running now")
+                .register(meterRegistry);
+        Gauge.builder("novapay.jobs.waiting", bulkhead, JobBulkhead::waiting)
+                .tag("job", job)
+                .description("Units of the job waiting for a permit")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,118 @@
+package com.digitalwallet.metrics;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request accumulator behind the {@code Server-Timing} response header.
+ *
+ * <p>{@link ServerTimingFilter} creates one instance per exchange and puts it in the
+ * Reactor context. Anything subscribed inside the request pipeline can add time to it
+ * through {@link #record(Phase, Mono)}. Work started with a detached {@code subscribe()}
+ * does not see the context and is not counted. Durations are summed per phase, so
+ * overlapping calls (for example two wallet lookups zipped together) can add up to
+ * more than the wall-clock time of the request.
+ */
+public final class RequestTimings {
+
+    public static final Class<RequestTimings> CONTEXT_KEY = RequestTimings.class;
+
+    public enum Phase { AUTH, DB, KAFKA }
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong authNanos = new AtomicLong();
+    private final AtomicLong dbNanos = new AtomicLong();
+    private final AtomicLong kafkaNanos = new AtomicLong();
+    private final AtomicLong dbStatements = new AtomicLong();
+
+    public static RequestTimings current(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    /**
+     * Adds the time from subscription to termination of {@code source} to the given
+     * phase of the current request. Outside a request the source is returned as is.
+     * The time is taken before the signal travels downstream; {@code doFinally} would
+     * only run once the rest of the pipeline had finished and so would measure it too.
+     */
+    public static <T> Mono<T> record(Phase phase, Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            RequestTimings timings = current(context);
+            if (timings == null) {
+                return source;
+            }
+            Stopwatch stopwatch = new Stopwatch(timings, phase);
+            return source.doOnTerminate(stopwatch).doOnCancel(stopwatch);
+        });
+    }
+
+    public void add(Phase phase, long nanos) {
+        switch (phase) {
+            case AUTH -> authNanos.addAndGet(nanos);
+            case DB -> dbNanos.addAndGet(nanos);
+            case KAFKA -> kafkaNanos.addAndGet(nanos);
+        }
+    }
+
+    public void statementExecuted() {
+        dbStatements.incrementAndGet();
+    }
+
+    public long getDbStatements() {
+        return dbStatements.get();
+    }
+
+    /**
+     * Renders the header value, e.g.
+     * {@code auth;dur=0.412, db;dur=3.108;desc="5 statements", kafka;dur=0.000, total;dur=7.903}.
+     */
+    public String toHeaderValue() {
+        long totalNanos = System.nanoTime() - startNanos;
+        long statements = dbStatements.get();
+
+        StringBuilder header = new StringBuilder(112);
+        appendMetric(header, "auth", authNanos.get()).append(", ");
+        appendMetric(header, "db", dbNanos.get())
+                .append(";desc=\"").append(statements).append(statements == 1 ? " statement\", " : " statements\", ");
+        appendMetric(header, "kafka", kafkaNanos.get()).append(", ");
+        return appendMetric(header, "total", totalNanos).toString();
+    }
+
+    private static StringBuilder appendMetric(StringBuilder header, String name, long nanos) {
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        return header.append(fraction);
+    }
+
+    /**
+     * Charges the elapsed time once, whichever of terminate or cancel comes first.
+     */
+    private static final class Stopwatch extends AtomicLong implements Runnable {
+
+        private final RequestTimings timings;
+        private final Phase phase;
+
+        Stopwatch(RequestTimings timings, Phase phase) {
+            super(System.nanoTime());
+            this.timings = timings;
+            this.phase = phase;
+        }
+
+        @Override
+        public void run() {
+            long start = getAndSet(0);
+            if (start != 0) {
+                timings.add(phase, System.nanoTime() - start);
+            }
+        }
+    }
+}
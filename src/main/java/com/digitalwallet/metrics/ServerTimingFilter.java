@@ -0,0 +1,29 @@
+package com.digitalwallet.metrics;
+
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adds a {@code Server-Timing} header with auth, DB, Kafka and total time to every
+ * response. Registered ahead of the security filter chain by {@code ServerTimingConfig}
+ * so that token validation is part of the measured request.
+ */
+public class ServerTimingFilter implements WebFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        RequestTimings timings = new RequestTimings();
+
+        exchange.getResponse().beforeCommit(() -> {
+            exchange.getResponse().getHeaders().set(SERVER_TIMING, timings.toHeaderValue());
+            return Mono.empty();
+        });
+
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(RequestTimings.CONTEXT_KEY, timings));
+    }
+}
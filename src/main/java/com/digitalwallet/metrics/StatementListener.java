@@ -0,0 +1,14 @@
+package com.digitalwallet.metrics;
+
+import reactor.util.context.ContextView;
+
+/**
+ * Callback for every SQL statement executed through {@link TimingConnectionFactory}.
+ * Listener beans are picked up by {@code ServerTimingConfig}. The context is the
+ * subscriber's Reactor context, so a listener can tell request work (which carries
+ * {@link RequestTimings}) from background work.
+ */
+public interface StatementListener {
+
+    void beforeExecute(String sql, ContextView context);
+}
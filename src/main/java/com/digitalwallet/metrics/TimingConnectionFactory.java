@@ -0,0 +1,42 @@
+package com.digitalwallet.metrics;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Wraps a {@link ConnectionFactory} so every executed statement is counted and timed
+ * against the {@link RequestTimings} of the request it runs in, and reported to any
+ * {@link StatementListener}s. The wrapped factory
+ * stays reachable through {@link Wrapped#unwrap()}, so pool metrics still find the pool.
+ */
+public class TimingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+    private final List<StatementListener> listeners;
+
+    public TimingConnectionFactory(ConnectionFactory delegate, List<StatementListener> listeners) {
+        this.delegate = delegate;
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(delegate.create()).map(connection -> new TimingConnection(connection, listeners));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+}
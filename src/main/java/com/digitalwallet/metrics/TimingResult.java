@@ -0,0 +1,62 @@
+package com.digitalwallet.metrics;
+
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Result whose consumption (rows, update counts or segments) reports back to the
+ * owning {@link TimingStatement} when it terminates.
+ */
+class TimingResult implements Result, Wrapped<Result> {
+
+    private final Result delegate;
+    private final Runnable onConsumed;
+
+    TimingResult(Result delegate, Runnable onConsumed) {
+        this.delegate = delegate;
+        this.onConsumed = onConsumed;
+    }
+
+    @Override
+    public Publisher<Long> getRowsUpdated() {
+        return consumed(delegate.getRowsUpdated());
+    }
+
+    @Override
+    public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+        return consumed(delegate.map(mappingFunction));
+    }
+
+    @Override
+    public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+        return consumed(delegate.map(mappingFunction));
+    }
+
+    @Override
+    public Result filter(Predicate<Segment> filter) {
+        return new TimingResult(delegate.filter(filter), onConsumed);
+    }
+
+    @Override
+    public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+        return consumed(delegate.flatMap(mappingFunction));
+    }
+
+    @Override
+    public Result unwrap() {
+        return delegate;
+    }
+
+    private <T> Flux<T> consumed(Publisher<T> source) {
+        return Flux.from(source).doOnTerminate(onConsumed).doOnCancel(onConsumed);
+    }
+}
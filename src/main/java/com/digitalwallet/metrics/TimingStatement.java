@@ -0,0 +1,118 @@
+package com.digitalwallet.metrics;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts one statement per {@link #execute()} and adds the time from execution until the
+ * last of its results has been consumed to {@link RequestTimings.Phase#DB}. Rows are
+ * streamed lazily by most drivers, so stopping at {@code execute()} would miss most of
+ * a query's time.
+ */
+class TimingStatement implements Statement, Wrapped<Statement> {
+
+    private final Statement delegate;
+    private final String sql;
+    private final List<StatementListener> listeners;
+
+    TimingStatement(Statement delegate, String sql, List<StatementListener> listeners) {
+        this.delegate = delegate;
+        this.sql = sql;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        return Flux.<Result>deferContextual(context -> {
+            for (StatementListener listener : listeners) {
+                listener.beforeExecute(sql, context);
+            }
+            RequestTimings timings = RequestTimings.current(context);
+            if (timings == null) {
+                return Flux.from(delegate.execute());
+            }
+            timings.statementExecuted();
+            Clock clock = new Clock(timings);
+            return Flux.from(delegate.execute())
+                    .<Result>map(result -> new TimingResult(result, clock::lap))
+                    .doOnError(error -> clock.lap());
+        });
+    }
+
+    @Override
+    public Statement add() {
+        delegate.add();
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        delegate.bind(index, value);
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        delegate.bind(name, value);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        delegate.bindNull(index, type);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        delegate.bindNull(name, type);
+        return this;
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        delegate.fetchSize(rows);
+        return this;
+    }
+
+    @Override
+    public Statement unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    /**
+     * Adds the time since the previous lap, so a statement with several results is
+     * charged once for its whole span rather than once per result.
+     */
+    private static final class Clock {
+
+        private final RequestTimings timings;
+        private final AtomicLong mark = new AtomicLong(System.nanoTime());
+
+        Clock(RequestTimings timings) {
+            this.timings = timings;
+        }
+
+        void lap() {
+            long now = System.nanoTime();
+            timings.add(RequestTimings.Phase.DB, now - mark.getAndSet(now));
+        }
+    }
+}
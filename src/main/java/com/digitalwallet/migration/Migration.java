@@ -0,0 +1,93 @@
+package com.digitalwallet.migration;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One script under {@code db/migration}, named {@code V<version>__<description>.sql}. A
+ * script of the same name under {@code db/migration/<vendor>} replaces it on that
+ * database. The checksum covers the script with line endings normalised, so a checkout
+ * with different line endings does not count as a change.
+ */
+record Migration(int version, String description, Resource script, String checksum, boolean transactional) {
+
+    static final String LOCATION = "classpath:db/migration/";
+
+    /** First-comment directive for scripts that cannot run in a transaction, such as {@code CREATE INDEX CONCURRENTLY}. */
+    static final String NO_TRANSACTION = "-- novapay:no-transaction";
+
+    private static final Pattern NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    /** The scripts for {@code vendor} (null for none), in version order. */
+    static List<Migration> load(ResourcePatternResolver resolver, String vendor) {
+        Map<String, Resource> scripts = new TreeMap<>();
+        try {
+            for (Resource script : resolver.getResources(LOCATION + "*.sql")) {
+                scripts.put(script.getFilename(), script);
+            }
+            if (vendor != null) {
+                for (Resource script : resolver.getResources(LOCATION + vendor + "/*.sql")) {
+                    scripts.put(script.getFilename(), script);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list migrations in " + LOCATION, e);
+        }
+
+        Map<Integer, Migration> migrations = new TreeMap<>();
+        for (Map.Entry<String, Resource> script : scripts.entrySet()) {
+            Migration migration = of(script.getKey(), script.getValue());
+            Migration clash = migrations.put(migration.version(), migration);
+            if (clash != null) {
+                throw new IllegalStateException("Migrations " + script.getKey() + " and "
+                        + clash.script().getFilename() + " share version " + migration.version());
+            }
+        }
+        return new ArrayList<>(migrations.values());
+    }
+
+    private static Migration of(String filename, Resource script) {
+        Matcher name = NAME.matcher(filename);
+        if (!name.matches()) {
+            throw new IllegalStateException("Migration " + filename + " is not named V<version>__<description>.sql");
+        }
+        String content;
+        try {
+            content = script.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read migration " + filename, e);
+        }
+        boolean transactional = content.lines()
+                .takeWhile(line -> line.isBlank() || line.startsWith("--"))
+                .noneMatch(line -> line.strip().equals(NO_TRANSACTION));
+        return new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '),
+                script, sha256(content), transactional);
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "V" + version + " (" + description + ")";
+    }
+}
@@ -0,0 +1,198 @@
+package com.digitalwallet.migration;
+
+import com.digitalwallet.config.R2dbcConfig;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcBadGrammarException;
+import io.r2dbc.spi.Result;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Brings the schema up to date during startup, before anything else touches the
+ * database. Applied versions and their checksums are kept in {@code schema_migrations};
+ * when every {@link Migration} is already there, startup costs one query. A migration
+ * that changed after it was applied stops startup rather than leaving the database and
+ * the scripts disagreeing, so applied scripts are never edited: add a new version.
+ *
+ * <p>Pending migrations run in version order, each in its own transaction with its row
+ * in {@code schema_migrations}. Scripts marked {@value Migration#NO_TRANSACTION} run
+ * statement by statement instead and are recorded once they all succeed; they must
+ * therefore be safe to run again after failing halfway. On PostgreSQL an advisory lock
+ * keeps instances that start together from applying the same migration twice. Waiting
+ * instances poll for it rather than block in {@code pg_advisory_lock}: a statement left
+ * waiting holds a snapshot, which {@code CREATE INDEX CONCURRENTLY} in the instance that
+ * has the lock would wait for in turn.
+ *
+ * <p>Versions in the table that this build does not know, left by a newer build during a
+ * rolling deploy, are ignored.
+ */
+@Slf4j
+@Component
+public class SchemaMigrator implements InitializingBean {
+
+    private static final String SELECT_APPLIED = "SELECT version, checksum FROM schema_migrations";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS schema_migrations ("
+            + "version INTEGER PRIMARY KEY, "
+            + "description VARCHAR(200) NOT NULL, "
+            + "checksum VARCHAR(64) NOT NULL, "
+            + "execution_ms BIGINT NOT NULL, "
+            + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private static final String INSERT_APPLIED =
+            "INSERT INTO schema_migrations (version, description, checksum, execution_ms) VALUES ($1, $2, $3, $4)";
+
+    // Arbitrary; shared by every instance of the application
+    private static final long LOCK_KEY = 7_300_204_049L;
+
+    private static final Duration LOCK_POLL_INTERVAL = Duration.ofMillis(500);
+
+    private final ConnectionFactory connectionFactory;
+    private final List<Migration> migrations;
+    private final boolean postgres;
+    private final Duration timeout;
+
+    public SchemaMigrator(ConnectionFactory connectionFactory,
+                          @Value("${novapay.migrations.timeout:PT30M}") Duration timeout) {
+        this.connectionFactory = connectionFactory;
+        this.postgres = R2dbcConfig.isPostgres(connectionFactory);
+        this.migrations = Migration.load(new PathMatchingResourcePatternResolver(), postgres ? "postgresql" : null);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate().block(timeout);
+    }
+
+    public Mono<Void> migrate() {
+        return Mono.usingWhen(Mono.from(connectionFactory.create()),
+                connection -> Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    return applied(connection).flatMap(applied -> {
+                        if (pending(applied).isEmpty()) {
+                            log.info("Schema is up to date at version {}, checked in {} ms",
+                                    latest(), elapsedMillis(started));
+                            return Mono.<Integer>empty();
+                        }
+                        return Mono.usingWhen(lock(connection).thenReturn(connection),
+                                this::applyPending,
+                                this::unlock)
+                                .doOnSuccess(count -> log.info("Schema migrated to version {}: {} migrations applied in {} ms",
+                                        latest(), count, elapsedMillis(started)));
+                    });
+                }),
+                Connection::close)
+                .then();
+    }
+
+    private Mono<Integer> applyPending(Connection connection) {
+        // Another instance may have applied some of them while this one waited for the lock
+        return execute(connection, CREATE_TABLE)
+                .then(applied(connection))
+                .flatMapMany(applied -> Flux.fromIterable(pending(applied)))
+                .concatMap(migration -> apply(connection, migration))
+                .count()
+                .map(Long::intValue);
+    }
+
+    private Mono<Migration> apply(Connection connection, Migration migration) {
+        log.info("Applying migration {}{}", migration, migration.transactional() ? "" : " outside a transaction");
+        long started = System.nanoTime();
+        Mono<Void> script = new ResourceDatabasePopulator(migration.script()).populate(connection);
+        Mono<Void> run = migration.transactional()
+                ? Mono.from(connection.beginTransaction())
+                        .then(script)
+                        .then(Mono.defer(() -> record(connection, migration, elapsedMillis(started))))
+                        .then(Mono.from(connection.commitTransaction()))
+                        .onErrorResume(error -> Mono.from(connection.rollbackTransaction()).then(Mono.error(error)))
+                : script.then(Mono.defer(() -> record(connection, migration, elapsedMillis(started))));
+        return run
+                .doOnSuccess(done -> log.info("Applied migration {} in {} ms", migration, elapsedMillis(started)))
+                .thenReturn(migration);
+    }
+
+    private Mono<Void> record(Connection connection, Migration migration, long executionMillis) {
+        return Flux.from(connection.createStatement(INSERT_APPLIED)
+                        .bind(0, migration.version())
+                        .bind(1, migration.description())
+                        .bind(2, migration.checksum())
+                        .bind(3, executionMillis)
+                        .execute())
+                .flatMap(Result::getRowsUpdated)
+                .then();
+    }
+
+    /** Checksums by version; empty when the table does not exist yet. */
+    private Mono<Map<Integer, String>> applied(Connection connection) {
+        return Flux.from(connection.createStatement(SELECT_APPLIED).execute())
+                .flatMap(result -> result.map((row, metadata) -> Map.entry(
+                        Objects.requireNonNull(row.get("version", Integer.class)),
+                        Objects.requireNonNull(row.get("checksum", String.class)))))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
+                .onErrorResume(R2dbcBadGrammarException.class, missing -> Mono.just(Map.of()));
+    }
+
+    private List<Migration> pending(Map<Integer, String> applied) {
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum != null && !checksum.equals(migration.checksum())) {
+                throw new IllegalStateException("Migration " + migration + " has changed since it was applied;"
+                        + " put the change in a new version instead");
+            }
+        }
+        return migrations.stream()
+                .filter(migration -> !applied.containsKey(migration.version()))
+                .toList();
+    }
+
+    private Mono<Void> lock(Connection connection) {
+        if (!postgres) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> Flux.from(connection.createStatement(
+                                "SELECT pg_try_advisory_lock(" + LOCK_KEY + ") AS acquired").execute())
+                        .flatMap(result -> result.map((row, metadata) -> Boolean.TRUE.equals(row.get("acquired", Boolean.class))))
+                        .next())
+                .filter(acquired -> acquired)
+                .repeatWhenEmpty(attempts -> attempts
+                        .doOnNext(attempt -> {
+                            if (attempt == 0) {
+                                log.info("Waiting for another instance to finish migrating the schema");
+                            }
+                        })
+                        .delayElements(LOCK_POLL_INTERVAL))
+                .then();
+    }
+
+    private Mono<Void> unlock(Connection connection) {
+        return postgres ? execute(connection, "SELECT pg_advisory_unlock(" + LOCK_KEY + ")") : Mono.empty();
+    }
+
+    private int latest() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(result -> result.map((row, metadata) -> row))
+                .then();
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return Duration.ofNanos(System.nanoTime() - startedNanos).toMillis();
+    }
+}
@@ -0,0 +1,27 @@
+package com.digitalwallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("fx_rates")
+public class FxRate {
+
+    @Id
+    private Long id;
+
+    private String baseCurrency;
+    private String quoteCurrency;
+    private BigDecimal rate;
+    private LocalDateTime updatedAt;
+}
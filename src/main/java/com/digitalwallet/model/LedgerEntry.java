@@ -29,6 +29,8 @@ public class LedgerEntry {
     private String currency;
     private String description;
     private LocalDateTime createdAt;
+    // Rate of a cross-currency transfer, null otherwise; amount is in the wallet's currency
+    private BigDecimal fxRate;
 
     public enum EntryType {
         DEBIT, CREDIT
@@ -0,0 +1,39 @@
+package com.digitalwallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("payouts")
+public class Payout {
+
+    @Id
+    private Long id;
+
+    private String payoutReference;
+    private Long sourceWalletId;
+    private String currency;
+    private String status;
+    private Integer lineCount;
+    private Integer completedCount;
+    private Integer failedCount;
+    private BigDecimal completedAmount;
+    private String description;
+    private Long initiatedBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        PROCESSING, COMPLETED, PARTIALLY_COMPLETED, FAILED
+    }
+}
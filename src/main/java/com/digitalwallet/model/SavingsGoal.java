@@ -34,6 +34,9 @@ public class SavingsGoal {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime achievedAt;
+    private BigDecimal suggestedMonthlyContribution;
+    private LocalDate projectedCompletionDate;
+    private LocalDate projectedOn;
     
     public enum Status {
         ACTIVE, PAUSED, ACHIEVED, CANCELLED, EXPIRED
@@ -31,12 +31,31 @@ public class Transfer {
     private Long initiatedBy;
     private LocalDateTime createdAt;
     private LocalDateTime completedAt;
+    private String parentReference;
+
+    // Set only when the wallets hold different currencies: the rate applied to amount and
+    // what the destination wallet receives, in its own currency
+    private BigDecimal fxRate;
+    private BigDecimal destinationAmount;
+    private String destinationCurrency;
 
     public enum Status {
-        PENDING, PROCESSING, COMPLETED, FAILED, CANCELLED, REVERSED
+        PENDING, PROCESSING, COMPLETED, FAILED, CANCELLED, REVERSED,
+        /** Accepted for deferred settlement and waiting for the next netting window. */
+        QUEUED
+    }
+
+    /**
+     * When the balances move: straight away, or in the next netting window together with
+     * every other queued transfer.
+     */
+    public enum Settlement {
+        IMMEDIATE, DEFERRED
     }
 
     public enum TransferType {
-        P2P, DEPOSIT, WITHDRAWAL, REFUND
+        P2P, DEPOSIT, WITHDRAWAL, REFUND, PAYOUT,
+        /** Funds taken from a wallet hold; parentReference is the hold reference. */
+        HOLD_CAPTURE
     }
 }
\ No newline at end of file
@@ -29,6 +29,8 @@ public class Wallet {
     private BigDecimal dailyLimit;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Sum of the wallet's active holds; what can be spent is balance minus this
+    private BigDecimal heldBalance;
     
     public enum Status {
         ACTIVE, INACTIVE, FROZEN, CLOSED
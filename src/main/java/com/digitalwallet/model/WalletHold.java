@@ -0,0 +1,40 @@
+package com.digitalwallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("wallet_holds")
+public class WalletHold {
+
+    @Id
+    private Long id;
+
+    private String holdReference;
+    private Long walletId;
+    private Long destinationWalletId;
+    private BigDecimal amount;
+    private String currency;
+    private String status;
+    private BigDecimal capturedAmount;
+    private String transferReference;
+    private String description;
+    private Long createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime closedAt;
+
+    public enum Status {
+        ACTIVE, CAPTURED, RELEASED, EXPIRED
+    }
+}
@@ -0,0 +1,31 @@
+package com.digitalwallet.partition;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * One month of a table range partitioned on {@code created_at}. Queries against
+ * {@code transfers} and {@code ledger_entries} pass {@link #from()} and {@link #to()} as
+ * their time predicate so that PostgreSQL only visits the partition holding the row.
+ */
+public record MonthlyPartition(YearMonth month) {
+
+    public static MonthlyPartition of(LocalDateTime createdAt) {
+        return new MonthlyPartition(YearMonth.from(createdAt));
+    }
+
+    /** Inclusive lower bound, the first instant of the month. */
+    public LocalDateTime from() {
+        return month.atDay(1).atStartOfDay();
+    }
+
+    /** Exclusive upper bound, the first instant of the next month. */
+    public LocalDateTime to() {
+        return month.plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    /** Name of this month's partition of {@code table}, e.g. {@code transfers_p2026_01}. */
+    public String name(String table) {
+        return String.format("%s_p%04d_%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
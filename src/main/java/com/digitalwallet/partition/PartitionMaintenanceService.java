@@ -0,0 +1,145 @@
+package com.digitalwallet.partition;
+
+import com.digitalwallet.config.R2dbcConfig;
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkheads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Creates the monthly partitions of {@code transfers} and {@code ledger_entries} on
+ * PostgreSQL, from the current month to {@code novapay.partitions.months-ahead} months
+ * ahead. The first pass runs during startup, before the web server accepts requests, and
+ * later passes keep the window moving.
+ *
+ * <p>Each table also gets a default partition ({@code <table>_default}) for rows outside
+ * that window, such as backdated imports, so that they are stored rather than rejected.
+ * It is meant to stay small: a month's partition cannot be created while the default
+ * partition holds rows of that month, and that failure is logged for the rows to be
+ * moved by hand. Rows dated before the window never need a partition of their own.
+ *
+ * <p>Tables created before partitioning was introduced are plain tables and are left
+ * alone with a warning. On other databases (H2 locally) there is nothing to do.
+ */
+@Slf4j
+@Service
+@DependsOn("schemaMigrator")
+public class PartitionMaintenanceService implements InitializingBean {
+
+    static final List<String> PARTITIONED_TABLES = List.of("transfers", "ledger_entries");
+
+    private static final String IS_PARTITIONED =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(:table)) AS partitioned";
+
+    private final DatabaseClient databaseClient;
+    private final JobBulkheads jobBulkheads;
+    private final int monthsAhead;
+
+    public PartitionMaintenanceService(DatabaseClient databaseClient,
+                                       JobBulkheads jobBulkheads,
+                                       @Value("${novapay.partitions.months-ahead:3}") int monthsAhead) {
+        this.databaseClient = databaseClient;
+        this.jobBulkheads = jobBulkheads;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jobBulkheads.get(Job.SWEEPERS).run(ensurePartitions()).block(Duration.ofMinutes(1));
+    }
+
+    @Scheduled(fixedDelayString = "${novapay.partitions.maintenance-interval:PT6H}",
+            initialDelayString = "${novapay.partitions.maintenance-interval:PT6H}")
+    public void maintain() {
+        jobBulkheads.get(Job.SWEEPERS).run(ensurePartitions())
+                .subscribe(null, error -> log.error("Partition maintenance failed", error));
+    }
+
+    public Mono<Void> ensurePartitions() {
+        if (!R2dbcConfig.isPostgres(databaseClient.getConnectionFactory())) {
+            return Mono.empty();
+        }
+        YearMonth current = YearMonth.now();
+        return Flux.fromIterable(PARTITIONED_TABLES)
+                        .filterWhen(this::isPartitionedOrWarn)
+                        .concatMap(table -> createDefaultPartition(table)
+                                .thenMany(Flux.range(0, monthsAhead + 1))
+                                .map(offset -> new MonthlyPartition(current.plusMonths(offset)))
+                                .concatMap(partition -> createPartition(table, partition)))
+                .then()
+                .doOnSuccess(done -> log.info("Partitions of {} exist through {}",
+                        PARTITIONED_TABLES, current.plusMonths(monthsAhead)));
+    }
+
+    /**
+     * Whether {@code table} is a partitioned table. Always false outside PostgreSQL.
+     */
+    public Mono<Boolean> isPartitioned(String table) {
+        if (!R2dbcConfig.isPostgres(databaseClient.getConnectionFactory())) {
+            return Mono.just(false);
+        }
+        return databaseClient.sql(IS_PARTITIONED)
+                .bind("table", table)
+                .map(row -> row.get("partitioned", Boolean.class))
+                .one();
+    }
+
+    /**
+     * Drops one month of a partitioned table, rows and indexes included. Much cheaper than
+     * deleting the rows and leaves nothing behind for vacuum. Rows of that month in the
+     * default partition are not touched.
+     */
+    public Mono<Void> dropPartition(String table, MonthlyPartition partition) {
+        return databaseClient.sql("DROP TABLE IF EXISTS " + partition.name(table))
+                .then()
+                .doOnSuccess(done -> log.info("Dropped partition {}", partition.name(table)));
+    }
+
+    private Mono<Boolean> isPartitionedOrWarn(String table) {
+        return isPartitioned(table)
+                .doOnNext(partitioned -> {
+                    if (!partitioned) {
+                        log.warn("{} is not partitioned; it predates partitioning and must be migrated by hand",
+                                table);
+                    }
+                });
+    }
+
+    // Bounds are formatted by MonthlyPartition, never taken from input, so inlining them is safe
+    private Mono<Void> createPartition(String table, MonthlyPartition partition) {
+        String ddl = "CREATE TABLE IF NOT EXISTS " + partition.name(table) + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + partition.from() + "') TO ('" + partition.to() + "')";
+        return databaseClient.sql(ddl)
+                .then()
+                .doOnSuccess(done -> log.debug("Ensured partition {}", partition.name(table)))
+                // Until it exists the month's rows go to the default partition, so inserts keep working
+                .onErrorResume(DataIntegrityViolationException.class, conflict -> {
+                    log.error("Could not create partition {}: the default partition already holds rows of {};"
+                            + " move them out of {} and maintenance will create it",
+                            partition.name(table), partition.month(), defaultPartitionName(table), conflict);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> createDefaultPartition(String table) {
+        return databaseClient.sql("CREATE TABLE IF NOT EXISTS " + defaultPartitionName(table)
+                        + " PARTITION OF " + table + " DEFAULT")
+                .then();
+    }
+
+    private static String defaultPartitionName(String table) {
+        return table + "_default";
+    }
+}
@@ -0,0 +1,52 @@
+package com.digitalwallet.ratelimit;
+
+import com.digitalwallet.exception.ConcurrencyLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Puts every write request under {@code /api} (other than login and registration)
+ * through {@link ConcurrencyLimiter}, and answers shed requests with 503 and
+ * {@code Retry-After: 1}. Reconciliation runs are batch priority; the rest are
+ * interactive. Runs after {@link RateLimitFilter}, so one client's burst is cut down
+ * to its own rate before it can take up concurrency that others need.
+ */
+@Component
+@Order(10)
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        String path = exchange.getRequest().getPath().value();
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)
+                || !path.startsWith("/api/") || path.startsWith("/api/auth/")) {
+            return chain.filter(exchange);
+        }
+
+        Priority priority = path.startsWith("/api/reconciliation/") ? Priority.BATCH : Priority.INTERACTIVE;
+        return concurrencyLimiter.run(priority, chain.filter(exchange))
+                .onErrorResume(ConcurrencyLimitExceededException.class, error -> shed(exchange.getResponse()));
+    }
+
+    private static Mono<Void> shed(ServerHttpResponse response) {
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+}
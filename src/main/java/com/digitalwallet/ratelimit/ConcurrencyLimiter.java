@@ -0,0 +1,173 @@
+package com.digitalwallet.ratelimit;
+
+import com.digitalwallet.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit on concurrent write work, so that under overload excess requests are
+ * refused at once instead of queueing for a database connection until everyone times out.
+ *
+ * <p>The limit follows the gradient between a long-term latency average and each new
+ * sample, as in Netflix's Gradient2: while latency stays within {@code tolerance} of
+ * the average the limit grows by about its square root, and once requests slow down
+ * because they queue, it shrinks in proportion. Samples taken while less than half the
+ * limit was in use carry no information about capacity and are only used for the
+ * average. Admission is a compare-and-set on the in-flight count; only the limit update
+ * after each request is synchronized.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    public static final String LIMIT_GAUGE = "novapay.concurrency.limit";
+    public static final String IN_FLIGHT_GAUGE = "novapay.concurrency.in_flight";
+    public static final String SHED_COUNTER = "novapay.concurrency.shed";
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double batchShare;
+    private final double averageWeight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    public ConcurrencyLimiter(
+            @Value("${novapay.concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${novapay.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${novapay.concurrency-limit.min-limit:4}") int minLimit,
+            @Value("${novapay.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${novapay.concurrency-limit.tolerance:1.5}") double tolerance,
+            @Value("${novapay.concurrency-limit.smoothing:0.2}") double smoothing,
+            @Value("${novapay.concurrency-limit.long-window:600}") int longWindow,
+            @Value("${novapay.concurrency-limit.batch-share:0.5}") double batchShare,
+            MeterRegistry meterRegistry) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("novapay.concurrency-limit needs 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.batchShare = batchShare;
+        this.averageWeight = 2.0 / (longWindow + 1);
+        this.limit = initialLimit;
+
+        Gauge.builder(LIMIT_GAUGE, this, ConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for write requests")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                .description("Write requests currently admitted by the concurrency limiter")
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder(SHED_COUNTER)
+                    .tag("priority", priority.getTag())
+                    .description("Requests refused by the concurrency limiter")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Runs {@code work} if the limit for {@code priority} allows it, otherwise fails at
+     * subscription with {@link ConcurrencyLimitExceededException} without running it.
+     */
+    public <T> Mono<T> run(Priority priority, Mono<T> work) {
+        if (!enabled) {
+            return work;
+        }
+        return Mono.defer(() -> {
+            Permit permit = tryAcquire(priority);
+            if (permit == null) {
+                return Mono.error(new ConcurrencyLimitExceededException(
+                        "Server is at its concurrency limit, " + priority.getTag() + " request shed"));
+            }
+            return work.doOnTerminate(permit::complete).doOnCancel(permit::abandon);
+        });
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    private Permit tryAcquire(Priority priority) {
+        int ceiling = priority == Priority.INTERACTIVE
+                ? (int) limit
+                : Math.max(1, (int) (limit * batchShare));
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= ceiling) {
+                shed.get(priority).increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * averageWeight;
+        }
+
+        // After a period of overload the average lags far behind; let it catch up
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * One admitted request. Released once, by completion or cancellation; only
+     * completed requests, successful or not, contribute a latency sample.
+     */
+    private final class Permit extends AtomicBoolean {
+
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+
+        Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        void complete() {
+            if (compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                onSample(System.nanoTime() - startNanos, inFlightAtStart);
+            }
+        }
+
+        void abandon() {
+            if (compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.digitalwallet.ratelimit;
+
+/**
+ * Admission classes for {@link ConcurrencyLimiter}. Interactive work may use the whole
+ * limit; batch work only a share of it, so it is shed first as the limit shrinks.
+ */
+public enum Priority {
+
+    /** Requests made by a user who is waiting for the response. */
+    INTERACTIVE("interactive"),
+
+    /** Scheduled jobs and operator-triggered bulk runs. */
+    BATCH("batch");
+
+    private final String tag;
+
+    Priority(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
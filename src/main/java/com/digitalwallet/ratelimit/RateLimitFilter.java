@@ -0,0 +1,101 @@
+package com.digitalwallet.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+
+/**
+ * Applies {@link RateLimiter} per route group. Runs after Spring Security (order -100)
+ * so that authenticated requests are keyed by user, and before any controller, so a
+ * rejected request costs no database work. Rejections get 429 with {@code Retry-After}
+ * and the same JSON {@code message} and {@code status} the controllers answer with.
+ * Unauthenticated requests outside the auth routes pass through and are refused by
+ * security as before.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class RateLimitFilter implements WebFilter {
+
+    private static final byte[] REJECTED_BODY = ("{\"message\":\"" + RateLimiter.REJECTED_MESSAGE
+            + "\",\"status\":\"FAILED\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        RateLimitGroup group = groupOf(request.getMethod(), request.getPath().value());
+        if (group == null) {
+            return chain.filter(exchange);
+        }
+
+        if (group == RateLimitGroup.AUTH) {
+            return admit(exchange, chain, group, clientAddress(request));
+        }
+
+        return exchange.getPrincipal()
+                .map(Principal::getName)
+                .flatMap(username -> admit(exchange, chain, group, username).thenReturn(Boolean.TRUE))
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(Boolean.TRUE)))
+                .then();
+    }
+
+    private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain, RateLimitGroup group, String key) {
+        long waitNanos = rateLimiter.tryAcquire(group, key);
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+        return reject(exchange.getResponse(), waitNanos);
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, long waitNanos) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, RateLimiter.retryAfterSeconds(waitNanos));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(REJECTED_BODY)));
+    }
+
+    private static RateLimitGroup groupOf(HttpMethod method, String path) {
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return RateLimitGroup.AUTH;
+        }
+        if (HttpMethod.GET.equals(method)) {
+            return RateLimitGroup.READS;
+        }
+        if (path.startsWith("/api/transfers/") || path.startsWith("/api/recurring-transfers")
+                || path.startsWith("/api/savings-goals") || path.startsWith("/api/holds")) {
+            return RateLimitGroup.TRANSFERS;
+        }
+        return null;
+    }
+
+    /**
+     * Client IP used as the key for unauthenticated limits. Honours forwarded headers only
+     * when {@code server.forward-headers-strategy} is set.
+     */
+    public static String clientAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.digitalwallet.ratelimit;
+
+/**
+ * Route groups with their own limits, configured under
+ * {@code novapay.rate-limit.<key>.requests-per-second} and {@code .burst}.
+ */
+public enum RateLimitGroup {
+
+    /** Login and registration, keyed by client IP since there is no user yet. */
+    AUTH("auth"),
+
+    /** Money-moving writes (transfers, recurring transfers, savings goals), keyed by user. */
+    TRANSFERS("transfers"),
+
+    /** Authenticated GET requests, keyed by user. */
+    READS("reads"),
+
+    /**
+     * Transfers and payouts out of one wallet, keyed by caller and source wallet number, so
+     * that other users cannot use up the owner's allowance.
+     */
+    SOURCE_WALLET("source-wallet"),
+
+    /** Failed logins for one username, from any address. Checked, not consumed, per login. */
+    FAILED_LOGIN_USERNAME("failed-login-username"),
+
+    /** Failed logins from one client IP, for any username. Checked, not consumed, per login. */
+    FAILED_LOGIN_IP("failed-login-ip");
+
+    private final String key;
+
+    RateLimitGroup(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
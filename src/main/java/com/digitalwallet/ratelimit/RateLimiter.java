@@ -0,0 +1,190 @@
+package com.digitalwallet.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets, one per group and key, implemented as GCRA (the generic cell
+ * rate algorithm). A bucket is a single {@link AtomicLong} holding the theoretical
+ * arrival time of the next request, so admitting a request is one compare-and-set and
+ * never blocks. Buckets live in a {@link ConcurrentHashMap} per group, whose bins are
+ * independently locked only on insert; updates to existing buckets do not lock at all.
+ *
+ * <p>A bucket whose arrival time has passed is full again and indistinguishable from a
+ * new one, so the periodic sweep drops it. Limits apply per instance.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    public static final String REJECTED_COUNTER = "novapay.rate_limit.rejected";
+
+    /** Message of every 429 response, from the filter and from the controllers alike. */
+    public static final String REJECTED_MESSAGE = "Too many requests, retry later";
+
+    private static final String PROPERTY_PREFIX = "novapay.rate-limit.";
+
+    private final boolean enabled;
+    private final Map<RateLimitGroup, Limit> limits = new EnumMap<>(RateLimitGroup.class);
+    private final Map<RateLimitGroup, Map<String, Bucket>> buckets = new EnumMap<>(RateLimitGroup.class);
+    private final Map<RateLimitGroup, Counter> rejections = new EnumMap<>(RateLimitGroup.class);
+
+    public RateLimiter(Environment environment, MeterRegistry meterRegistry) {
+        this.enabled = environment.getProperty(PROPERTY_PREFIX + "enabled", Boolean.class, true);
+
+        for (RateLimitGroup group : RateLimitGroup.values()) {
+            String prefix = PROPERTY_PREFIX + group.getKey();
+            double requestsPerSecond = environment.getRequiredProperty(prefix + ".requests-per-second", Double.class);
+            int burst = environment.getRequiredProperty(prefix + ".burst", Integer.class);
+            if (requestsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException(prefix + " needs requests-per-second > 0 and burst >= 1");
+            }
+
+            limits.put(group, new Limit(requestsPerSecond, burst));
+            buckets.put(group, new ConcurrentHashMap<>());
+            rejections.put(group, Counter.builder(REJECTED_COUNTER)
+                    .tag("group", group.getKey())
+                    .description("Requests rejected with 429 by the rate limiter")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Takes one token from the bucket of {@code key} in {@code group}.
+     *
+     * @return 0 when the request is admitted, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(RateLimitGroup group, String key) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        long wait = buckets.get(group)
+                .computeIfAbsent(key, ignored -> new Bucket(now))
+                .tryAcquire(limits.get(group), now);
+        if (wait > 0) {
+            rejections.get(group).increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Returns how long until a request would be admitted, without taking a token. With
+     * {@link #consume} this counts events other than requests, such as failed logins.
+     *
+     * @return 0 when a token is available, otherwise the nanoseconds until one is
+     */
+    public long peek(RateLimitGroup group, String key) {
+        if (!enabled) {
+            return 0;
+        }
+
+        Bucket bucket = buckets.get(group).get(key);
+        long wait = bucket == null ? 0 : bucket.waitNanos(limits.get(group), System.nanoTime());
+        if (wait > 0) {
+            rejections.get(group).increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Takes one token from the bucket of {@code key} in {@code group} even if it is empty.
+     */
+    public void consume(RateLimitGroup group, String key) {
+        if (enabled) {
+            long now = System.nanoTime();
+            buckets.get(group)
+                    .computeIfAbsent(key, ignored -> new Bucket(now))
+                    .consume(limits.get(group), now);
+        }
+    }
+
+    /**
+     * Refills the bucket of {@code key} in {@code group}.
+     */
+    public void reset(RateLimitGroup group, String key) {
+        buckets.get(group).remove(key);
+    }
+
+    /**
+     * Formats a wait from {@link #tryAcquire} as a {@code Retry-After} value: whole
+     * seconds, rounded up, at least 1.
+     */
+    public static String retryAfterSeconds(long waitNanos) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        return Long.toString(Math.max(1, (waitNanos + second - 1) / second));
+    }
+
+    // Drops buckets that have refilled completely
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Map<String, Bucket> groupBuckets : buckets.values()) {
+            int before = groupBuckets.size();
+            groupBuckets.values().removeIf(bucket -> bucket.isFull(now));
+            evicted += before - groupBuckets.size();
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    /**
+     * Emission interval and burst tolerance in nanoseconds.
+     */
+    private record Limit(long intervalNanos, long toleranceNanos) {
+
+        Limit(double requestsPerSecond, int burst) {
+            this((long) (1_000_000_000L / requestsPerSecond), (long) ((burst - 1) * (1_000_000_000L / requestsPerSecond)));
+        }
+    }
+
+    /**
+     * Holds the theoretical arrival time: the moment the bucket will be full again.
+     */
+    private static final class Bucket extends AtomicLong {
+
+        Bucket(long now) {
+            super(now);
+        }
+
+        long tryAcquire(Limit limit, long now) {
+            while (true) {
+                long arrival = get();
+                long start = arrival - now < 0 ? now : arrival;
+                long ahead = start - now;
+                if (ahead > limit.toleranceNanos()) {
+                    return ahead - limit.toleranceNanos();
+                }
+                if (compareAndSet(arrival, start + limit.intervalNanos())) {
+                    return 0;
+                }
+            }
+        }
+
+        long waitNanos(Limit limit, long now) {
+            long ahead = get() - now;
+            return ahead > limit.toleranceNanos() ? ahead - limit.toleranceNanos() : 0;
+        }
+
+        void consume(Limit limit, long now) {
+            getAndUpdate(arrival -> (arrival - now < 0 ? now : arrival) + limit.intervalNanos());
+        }
+
+        boolean isFull(long now) {
+            return get() - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.digitalwallet.reference;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Keeps {@link SnowflakeReferenceGenerator} from issuing a reference twice when an instance
+ * restarts on a clock that is behind the one it ran on before, after an NTP step or on
+ * another host. The last timestamp each node id issued is saved in {@code reference_nodes}
+ * every {@code novapay.reference.checkpoint-interval}; at startup the generator resumes
+ * after the saved one plus two intervals, which covers whatever was issued after the last
+ * save.
+ */
+@Slf4j
+@Component
+@DependsOn("schemaMigrator")
+public class ReferenceCheckpoint implements InitializingBean, DisposableBean {
+
+    private static final String SELECT_SAVED =
+            "SELECT last_millis FROM reference_nodes WHERE node_id = :node";
+
+    private static final String INSERT_NODE =
+            "INSERT INTO reference_nodes (node_id, last_millis) VALUES (:node, 0)";
+
+    private static final String UPDATE_SAVED = "UPDATE reference_nodes"
+            + " SET last_millis = :millis, updated_at = CURRENT_TIMESTAMP"
+            + " WHERE node_id = :node AND last_millis < :millis";
+
+    private final DatabaseClient databaseClient;
+    private final SnowflakeReferenceGenerator generator;
+    private final Duration interval;
+
+    private volatile long savedMillis;
+
+    public ReferenceCheckpoint(DatabaseClient databaseClient,
+                               SnowflakeReferenceGenerator generator,
+                               @Value("${novapay.reference.checkpoint-interval:PT5S}") Duration interval) {
+        this.databaseClient = databaseClient;
+        this.generator = generator;
+        this.interval = interval;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        resume().block(Duration.ofMinutes(1));
+    }
+
+    @Override
+    public void destroy() {
+        save().block(Duration.ofSeconds(5));
+    }
+
+    @Scheduled(fixedDelayString = "${novapay.reference.checkpoint-interval:PT5S}",
+            initialDelayString = "${novapay.reference.checkpoint-interval:PT5S}")
+    public void checkpoint() {
+        save().subscribe(null, error -> log.warn("Could not save the last reference timestamp", error));
+    }
+
+    private Mono<Void> resume() {
+        long node = generator.nodeId();
+        return databaseClient.sql(SELECT_SAVED)
+                .bind("node", node)
+                .map(row -> row.get("last_millis", Long.class))
+                .one()
+                .map(saved -> {
+                    savedMillis = saved;
+                    long behind = saved - System.currentTimeMillis();
+                    if (behind > 0) {
+                        log.warn("Clock is {} ms behind the last reference node {} issued;"
+                                + " references continue from that time", behind, node);
+                    }
+                    generator.resumeAfter(saved + 2 * interval.toMillis());
+                    return true;
+                })
+                // First start of this node id
+                .switchIfEmpty(databaseClient.sql(INSERT_NODE)
+                        .bind("node", node)
+                        .then()
+                        .thenReturn(false))
+                .then();
+    }
+
+    private Mono<Void> save() {
+        long millis = generator.lastIssuedMillis();
+        if (millis <= savedMillis) {
+            return Mono.empty();
+        }
+        return databaseClient.sql(UPDATE_SAVED)
+                .bind("millis", millis)
+                .bind("node", generator.nodeId())
+                .then()
+                .doOnSuccess(done -> savedMillis = millis);
+    }
+}
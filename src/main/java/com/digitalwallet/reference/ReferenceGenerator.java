@@ -0,0 +1,25 @@
+package com.digitalwallet.reference;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Source of unique, human-readable business references such as transfer references
+ * ({@code TXN-...}) and wallet numbers. Implementations must be safe to call from any
+ * thread and must never hand out the same reference twice within the cluster.
+ */
+public interface ReferenceGenerator {
+
+    /**
+     * Returns a new reference made of {@code prefix} followed by a unique suffix.
+     */
+    String next(String prefix);
+
+    /**
+     * Returns when {@code reference} was issued, if that can be read from the reference
+     * itself. Lets lookups by reference narrow the time range they search.
+     */
+    default Optional<Instant> issuedAt(String reference) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,150 @@
+package com.digitalwallet.reference;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style {@link ReferenceGenerator}: a 64-bit id made of 41 bits of milliseconds
+ * since 2024-01-01, a 10-bit node id and a 12-bit per-millisecond sequence, written as 13
+ * Crockford base32 characters after the prefix ({@code TXN-01HZX5T3K0G7A}).
+ *
+ * <p>References from one node are strictly increasing, and because the encoding is fixed
+ * width they also sort in that order as strings, so inserts land at the right-hand edge
+ * of the unique index instead of all over it. Nodes differ in the node id
+ * ({@code novapay.reference.node-id}, 0-1023), which must be unique per running instance
+ * and has no default: startup fails without one.
+ *
+ * <p>The timestamp and sequence live together in one {@link AtomicLong} and are advanced
+ * with a compare-and-set, so there is no lock. Running out of sequence within a
+ * millisecond carries into the next millisecond, and a clock that steps backwards is
+ * ignored until it catches up with the last issued timestamp, so ids never repeat or go
+ * backwards on a node. {@link ReferenceCheckpoint} extends that across restarts.
+ */
+@Slf4j
+@Component
+public class SnowflakeReferenceGenerator implements ReferenceGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeId;
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeReferenceGenerator(@Value("${novapay.reference.node-id:#{null}}") Long nodeId) {
+        this(requireNodeId(nodeId), System::currentTimeMillis);
+    }
+
+    SnowflakeReferenceGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException(
+                    "novapay.reference.node-id must be between 0 and " + MAX_NODE_ID + " but was " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        log.info("Reference generator using node id {}", nodeId);
+    }
+
+    @Override
+    public String next(String prefix) {
+        long id = nextId();
+        int length = prefix.length();
+        char[] reference = new char[length + ENCODED_LENGTH];
+        prefix.getChars(0, length, reference, 0);
+        for (int index = reference.length - 1; index >= length; index--) {
+            reference[index] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(reference);
+    }
+
+    /**
+     * Reads the timestamp back out of a reference issued by this generator on any node.
+     * Anything that is not prefix plus 13 base32 characters, such as the eight-character
+     * UUID references issued before, yields empty.
+     */
+    @Override
+    public Optional<Instant> issuedAt(String reference) {
+        int start = reference.length() - ENCODED_LENGTH;
+        // 13 characters hold 65 bits; the id has 63, so the first one is at most 7
+        if (start < 0 || reference.charAt(start) > '7') {
+            return Optional.empty();
+        }
+        long id = 0;
+        for (int index = start; index < reference.length(); index++) {
+            int value = Arrays.binarySearch(ALPHABET, reference.charAt(index));
+            if (value < 0) {
+                return Optional.empty();
+            }
+            id = (id << 5) | value;
+        }
+        return Optional.of(Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS));
+    }
+
+    public long nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Milliseconds since the Unix epoch of the last id issued, or 0 before the first.
+     */
+    public long lastIssuedMillis() {
+        long state = lastState.get();
+        return state == 0 ? 0 : (state >>> SEQUENCE_BITS) + EPOCH_MILLIS;
+    }
+
+    /**
+     * Makes every later id come after {@code epochMillis}, whatever the clock says. Ids
+     * use that millisecond's sequence and carry on from it until the clock passes it.
+     */
+    public void resumeAfter(long epochMillis) {
+        long floor = ((epochMillis - EPOCH_MILLIS) << SEQUENCE_BITS) | ((1L << SEQUENCE_BITS) - 1);
+        lastState.accumulateAndGet(floor, Math::max);
+    }
+
+    /**
+     * Returns the next raw id for this node.
+     */
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = lastState.get();
+            // Same or earlier millisecond: take the next sequence, which carries into the
+            // timestamp once the 12 sequence bits are used up.
+            next = now > previous ? now : previous + 1;
+        } while (!lastState.compareAndSet(previous, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    private static long requireNodeId(Long nodeId) {
+        if (nodeId == null) {
+            throw new IllegalStateException("novapay.reference.node-id is not set; give every running instance"
+                    + " its own id between 0 and " + MAX_NODE_ID);
+        }
+        return nodeId;
+    }
+}
@@ -0,0 +1,9 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.FxRate;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FxRateRepository extends ReactiveCrudRepository<FxRate, Long> {
+}
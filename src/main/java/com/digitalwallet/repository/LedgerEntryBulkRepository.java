@@ -0,0 +1,20 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.LedgerEntry;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Multi-row insert for ledger entries written together. Mixed into
+ * {@link LedgerEntryRepository}.
+ */
+public interface LedgerEntryBulkRepository {
+
+    /**
+     * Inserts {@code entries} in one statement.
+     *
+     * @return the number of entries inserted
+     */
+    Mono<Long> insertAll(List<LedgerEntry> entries);
+}
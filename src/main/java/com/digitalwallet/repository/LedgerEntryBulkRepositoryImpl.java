@@ -0,0 +1,57 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.LedgerEntry;
+import io.r2dbc.spi.Parameters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class LedgerEntryBulkRepositoryImpl implements LedgerEntryBulkRepository {
+
+    private static final String INSERT_ENTRIES =
+            "INSERT INTO ledger_entries (transfer_id, wallet_id, entry_type, amount, balance_before, balance_after, " +
+            "currency, description, created_at, fx_rate) VALUES ";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Long> insertAll(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        StringBuilder sql = new StringBuilder(INSERT_ENTRIES);
+        for (int index = 0; index < entries.size(); index++) {
+            sql.append(index == 0 ? "" : ", ")
+                    .append("(:transfer").append(index).append(", :wallet").append(index)
+                    .append(", :type").append(index).append(", :amount").append(index)
+                    .append(", :before").append(index).append(", :after").append(index)
+                    .append(", :currency").append(index).append(", :description").append(index)
+                    .append(", :createdAt").append(index).append(", :fxRate").append(index).append(')');
+        }
+
+        Map<String, Object> values = new HashMap<>(entries.size() * 16);
+        for (int index = 0; index < entries.size(); index++) {
+            LedgerEntry entry = entries.get(index);
+            values.put("transfer" + index, entry.getTransferId());
+            values.put("wallet" + index, entry.getWalletId());
+            values.put("type" + index, entry.getEntryType());
+            values.put("amount" + index, entry.getAmount());
+            values.put("before" + index, entry.getBalanceBefore());
+            values.put("after" + index, entry.getBalanceAfter());
+            values.put("currency" + index, entry.getCurrency());
+            values.put("description" + index,
+                    entry.getDescription() != null ? entry.getDescription() : Parameters.in(String.class));
+            values.put("createdAt" + index, entry.getCreatedAt());
+            values.put("fxRate" + index,
+                    entry.getFxRate() != null ? entry.getFxRate() : Parameters.in(BigDecimal.class));
+        }
+        return databaseClient.sql(sql.toString()).bindValues(values).fetch().rowsUpdated();
+    }
+}
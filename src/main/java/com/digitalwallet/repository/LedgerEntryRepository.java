@@ -8,22 +8,39 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 
+/**
+ * Like {@link TransferRepository}, every query bounds {@code created_at} so that PostgreSQL
+ * can prune the monthly partitions of {@code ledger_entries}.
+ */
 @Repository
-public interface LedgerEntryRepository extends ReactiveCrudRepository<LedgerEntry, Long> {
+public interface LedgerEntryRepository extends ReactiveCrudRepository<LedgerEntry, Long>, LedgerEntryBulkRepository {
 
-    Flux<LedgerEntry> findByTransferId(Long transferId);
+    @Query("SELECT * FROM ledger_entries WHERE transfer_id = :transferId " +
+            "AND created_at >= :from AND created_at < :to")
+    Flux<LedgerEntry> findByTransferId(Long transferId, LocalDateTime from, LocalDateTime to);
 
-    Flux<LedgerEntry> findByWalletId(Long walletId);
+    @Query("SELECT * FROM ledger_entries WHERE wallet_id = :walletId " +
+            "AND created_at >= :from AND created_at < :to ORDER BY created_at DESC")
+    Flux<LedgerEntry> findByWalletId(Long walletId, LocalDateTime from, LocalDateTime to);
 
-    @Query("SELECT * FROM ledger_entries WHERE wallet_id = :walletId ORDER BY created_at DESC LIMIT :limit")
-    Flux<LedgerEntry> findRecentEntriesByWalletId(Long walletId, int limit);
+    @Query("SELECT * FROM ledger_entries WHERE wallet_id = :walletId AND created_at >= :since " +
+            "ORDER BY created_at DESC LIMIT :limit")
+    Flux<LedgerEntry> findRecentEntriesByWalletId(Long walletId, LocalDateTime since, int limit);
 
+    @Query("SELECT * FROM ledger_entries WHERE wallet_id IN (:walletIds) AND created_at >= :since " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<LedgerEntry> findRecentEntriesByWalletIds(Collection<Long> walletIds, LocalDateTime since, int limit);
+
+    // Covers the wallet's whole history, so it reads every partition up to asOf
     @Query("SELECT SUM(CASE WHEN entry_type = 'CREDIT' THEN amount ELSE -amount END) " +
-            "FROM ledger_entries WHERE wallet_id = :walletId")
-    Mono<BigDecimal> calculateWalletBalance(Long walletId);
+            "FROM ledger_entries WHERE wallet_id = :walletId AND created_at < :asOf")
+    Mono<BigDecimal> calculateWalletBalance(Long walletId, LocalDateTime asOf);
 
     @Query("SELECT * FROM ledger_entries WHERE wallet_id = :walletId AND entry_type = :entryType " +
-            "ORDER BY created_at DESC")
-    Flux<LedgerEntry> findByWalletIdAndEntryType(Long walletId, String entryType);
-}
\ No newline at end of file
+            "AND created_at >= :from AND created_at < :to ORDER BY created_at DESC")
+    Flux<LedgerEntry> findByWalletIdAndEntryType(Long walletId, String entryType,
+                                                 LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,26 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.Payout;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface PayoutRepository extends ReactiveCrudRepository<Payout, Long> {
+
+    Mono<Payout> findByPayoutReference(String payoutReference);
+
+    @Modifying
+    @Query("UPDATE payouts SET line_count = line_count + :lines, completed_count = completed_count + :completed, " +
+            "failed_count = failed_count + :failed, completed_amount = completed_amount + :amount WHERE id = :payoutId")
+    Mono<Integer> recordProgress(Long payoutId, int lines, int completed, int failed, BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE payouts SET status = :status, completed_at = :completedAt WHERE id = :payoutId")
+    Mono<Integer> markFinished(Long payoutId, String status, LocalDateTime completedAt);
+}
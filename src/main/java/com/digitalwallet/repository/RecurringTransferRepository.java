@@ -10,6 +10,7 @@ import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 @Repository
 public interface RecurringTransferRepository extends ReactiveCrudRepository<RecurringTransfer, Long> {
@@ -22,6 +23,9 @@ public interface RecurringTransferRepository extends ReactiveCrudRepository<Recu
     @Query("SELECT * FROM recurring_transfers WHERE savings_goal_id = :goalId AND status = 'ACTIVE'")
     Flux<RecurringTransfer> findByGoalId(Long goalId);
     
+    @Query("SELECT * FROM recurring_transfers WHERE savings_goal_id IN (:goalIds) AND status = 'ACTIVE'")
+    Flux<RecurringTransfer> findByGoalIds(Collection<Long> goalIds);
+    
     @Query("SELECT * FROM recurring_transfers WHERE status = 'ACTIVE' " +
            "AND next_execution_date <= :date ORDER BY next_execution_date")
     Flux<RecurringTransfer> findDueForExecution(LocalDate date);
@@ -0,0 +1,24 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.SavingsGoal;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Stores the projections of many goals in one statement. Mixed into
+ * {@link SavingsGoalRepository}.
+ */
+public interface SavingsGoalBulkRepository {
+
+    /**
+     * Writes each goal's suggested monthly contribution and projected completion date as
+     * set on the entity, and marks them projected on {@code projectedOn}. Goals already
+     * projected on that day, for instance by a contribution since they were read, are left
+     * as they are.
+     *
+     * @return the number of goals updated
+     */
+    Mono<Long> updateProjections(List<SavingsGoal> goals, LocalDate projectedOn);
+}
@@ -0,0 +1,54 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.SavingsGoal;
+import io.r2dbc.spi.Parameters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class SavingsGoalBulkRepositoryImpl implements SavingsGoalBulkRepository {
+
+    private final DatabaseClient databaseClient;
+
+    // One CASE per column, as in WalletBulkRepositoryImpl; the casts type parameters that may be null
+    @Override
+    public Mono<Long> updateProjections(List<SavingsGoal> goals, LocalDate projectedOn) {
+        if (goals.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE savings_goals SET suggested_monthly_contribution = CASE id");
+        StringBuilder completion = new StringBuilder(" END, projected_completion_date = CASE id");
+        StringBuilder ids = new StringBuilder(" END, projected_on = :projectedOn, updated_at = CURRENT_TIMESTAMP " +
+                "WHERE id IN (");
+        Map<String, Object> values = new HashMap<>(goals.size() * 4);
+        values.put("projectedOn", projectedOn);
+        for (int index = 0; index < goals.size(); index++) {
+            SavingsGoal goal = goals.get(index);
+            sql.append(" WHEN :goal").append(index)
+                    .append(" THEN CAST(:suggested").append(index).append(" AS DECIMAL(19, 4))");
+            completion.append(" WHEN :goal").append(index)
+                    .append(" THEN CAST(:completion").append(index).append(" AS DATE)");
+            ids.append(index == 0 ? ":goal" : ", :goal").append(index);
+
+            values.put("goal" + index, goal.getId());
+            values.put("suggested" + index, goal.getSuggestedMonthlyContribution() != null
+                    ? goal.getSuggestedMonthlyContribution() : Parameters.in(BigDecimal.class));
+            values.put("completion" + index, goal.getProjectedCompletionDate() != null
+                    ? goal.getProjectedCompletionDate() : Parameters.in(LocalDate.class));
+        }
+        ids.append(") AND (projected_on IS NULL OR projected_on < :projectedOn)");
+
+        return databaseClient.sql(sql.append(completion).append(ids).toString())
+                .bindValues(values)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -12,7 +12,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Repository
-public interface SavingsGoalRepository extends ReactiveCrudRepository<SavingsGoal, Long> {
+public interface SavingsGoalRepository extends ReactiveCrudRepository<SavingsGoal, Long>, SavingsGoalBulkRepository {
     
     Flux<SavingsGoal> findByUserId(Long userId);
     
@@ -25,11 +25,36 @@ public interface SavingsGoalRepository extends ReactiveCrudRepository<SavingsGoa
     @Query("SELECT * FROM savings_goals WHERE status = 'ACTIVE' AND target_date < :date")
     Flux<SavingsGoal> findOverdueGoals(LocalDate date);
     
+    // Goals whose projection was computed before today, in id order from afterId
+    @Query("SELECT * FROM savings_goals WHERE status IN ('ACTIVE', 'PAUSED') " +
+           "AND (projected_on IS NULL OR projected_on < :today) AND id > :afterId ORDER BY id LIMIT :limit")
+    Flux<SavingsGoal> findStaleProjections(LocalDate today, Long afterId, int limit);
+    
+    @Modifying
+    @Query("UPDATE savings_goals SET current_amount = :amount, progress_percentage = :progressPercentage, " +
+           "suggested_monthly_contribution = :suggestedMonthlyContribution, " +
+           "projected_completion_date = :projectedCompletionDate, projected_on = :projectedOn, " +
+           "updated_at = CURRENT_TIMESTAMP WHERE id = :goalId")
+    Mono<Integer> updateProgress(Long goalId, BigDecimal amount, BigDecimal progressPercentage,
+                                 BigDecimal suggestedMonthlyContribution, LocalDate projectedCompletionDate,
+                                 LocalDate projectedOn);
+    
     @Modifying
-    @Query("UPDATE savings_goals SET current_amount = :amount, " +
-           "progress_percentage = (:amount / target_amount * 100), " +
+    @Query("UPDATE savings_goals SET suggested_monthly_contribution = :suggestedMonthlyContribution, " +
+           "projected_completion_date = :projectedCompletionDate, projected_on = :projectedOn, " +
            "updated_at = CURRENT_TIMESTAMP WHERE id = :goalId")
-    Mono<Integer> updateProgress(Long goalId, BigDecimal amount);
+    Mono<Integer> updateProjection(Long goalId, BigDecimal suggestedMonthlyContribution,
+                                   LocalDate projectedCompletionDate, LocalDate projectedOn);
+    
+    /**
+     * Expires up to {@code limit} active goals whose target date is before {@code today}.
+     *
+     * @return the number of goals expired; fewer than {@code limit} once none are left
+     */
+    @Modifying
+    @Query("UPDATE savings_goals SET status = 'EXPIRED', updated_at = CURRENT_TIMESTAMP WHERE id IN (" +
+           "SELECT id FROM savings_goals WHERE status = 'ACTIVE' AND target_date < :today ORDER BY id LIMIT :limit)")
+    Mono<Integer> expireOverdueGoals(LocalDate today, int limit);
     
     @Modifying
     @Query("UPDATE savings_goals SET status = 'ACHIEVED', achieved_at = CURRENT_TIMESTAMP, " +
@@ -0,0 +1,21 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.Transfer;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Multi-row insert for transfers created together, such as the lines of a payout.
+ * Mixed into {@link TransferRepository}.
+ */
+public interface TransferBulkRepository {
+
+    /**
+     * Registers the references of {@code transfers} and inserts the transfers, one
+     * statement each, and sets the generated ids on them.
+     *
+     * @return the number of transfers inserted
+     */
+    Mono<Long> insertAll(List<Transfer> transfers);
+}
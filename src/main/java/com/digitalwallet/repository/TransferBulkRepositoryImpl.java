@@ -0,0 +1,90 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.Transfer;
+import io.r2dbc.spi.Parameters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class TransferBulkRepositoryImpl implements TransferBulkRepository {
+
+    private static final String INSERT_REFERENCES =
+            "INSERT INTO transfer_references (transfer_reference, created_at) VALUES ";
+
+    // Generated keys are requested through the driver, which adds RETURNING on PostgreSQL
+    private static final String INSERT_TRANSFERS =
+            "INSERT INTO transfers (transfer_reference, source_wallet_id, destination_wallet_id, amount, currency, " +
+            "status, transfer_type, description, initiated_by, created_at, completed_at, parent_reference) VALUES ";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Long> insertAll(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        StringBuilder referencesSql = new StringBuilder(INSERT_REFERENCES);
+        StringBuilder transfersSql = new StringBuilder(INSERT_TRANSFERS);
+        for (int index = 0; index < transfers.size(); index++) {
+            String separator = index == 0 ? "" : ", ";
+            referencesSql.append(separator).append("(:reference").append(index).append(", :createdAt").append(index).append(')');
+            transfersSql.append(separator)
+                    .append("(:reference").append(index).append(", :source").append(index)
+                    .append(", :destination").append(index).append(", :amount").append(index)
+                    .append(", :currency").append(index).append(", :status").append(index)
+                    .append(", :type").append(index).append(", :description").append(index)
+                    .append(", :initiatedBy").append(index).append(", :createdAt").append(index)
+                    .append(", :completedAt").append(index).append(", :parent").append(index).append(')');
+        }
+
+        // One map per statement: bind(name, value) copies every binding so far, quadratic at this size
+        Map<String, Object> referenceValues = new HashMap<>(transfers.size() * 4);
+        Map<String, Object> transferValues = new HashMap<>(transfers.size() * 16);
+        Map<String, Transfer> byReference = new HashMap<>(transfers.size() * 2);
+        for (int index = 0; index < transfers.size(); index++) {
+            Transfer transfer = transfers.get(index);
+            byReference.put(transfer.getTransferReference(), transfer);
+            referenceValues.put("reference" + index, transfer.getTransferReference());
+            referenceValues.put("createdAt" + index, transfer.getCreatedAt());
+            transferValues.put("reference" + index, transfer.getTransferReference());
+            transferValues.put("source" + index, transfer.getSourceWalletId());
+            transferValues.put("destination" + index, transfer.getDestinationWalletId());
+            transferValues.put("amount" + index, transfer.getAmount());
+            transferValues.put("currency" + index, transfer.getCurrency());
+            transferValues.put("status" + index, transfer.getStatus());
+            transferValues.put("type" + index, transfer.getTransferType());
+            transferValues.put("description" + index, nullable(transfer.getDescription(), String.class));
+            transferValues.put("initiatedBy" + index, transfer.getInitiatedBy());
+            transferValues.put("createdAt" + index, transfer.getCreatedAt());
+            transferValues.put("completedAt" + index, nullable(transfer.getCompletedAt(), LocalDateTime.class));
+            transferValues.put("parent" + index, nullable(transfer.getParentReference(), String.class));
+        }
+
+        DatabaseClient.GenericExecuteSpec registerReferences = databaseClient.sql(referencesSql.toString())
+                .bindValues(referenceValues);
+        DatabaseClient.GenericExecuteSpec insertTransfers = databaseClient.sql(transfersSql.toString())
+                .filter(statement -> statement.returnGeneratedValues("id", "transfer_reference"))
+                .bindValues(transferValues);
+
+        return registerReferences.fetch().rowsUpdated()
+                .then(insertTransfers
+                        .map(row -> {
+                            Transfer transfer = byReference.get(row.get("transfer_reference", String.class));
+                            transfer.setId(row.get("id", Long.class));
+                            return transfer;
+                        })
+                        .all()
+                        .count());
+    }
+
+    private static Object nullable(Object value, Class<?> type) {
+        return value != null ? value : Parameters.in(type);
+    }
+}
@@ -1,6 +1,7 @@
 package com.digitalwallet.repository;
 
 import com.digitalwallet.model.Transfer;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -9,29 +10,110 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
+/**
+ * {@code transfers} is range partitioned by month on {@code created_at} on PostgreSQL, so
+ * every query here bounds {@code created_at} to let the planner skip other months. Prefer
+ * these methods over the inherited {@code findById}, which has no such bound.
+ */
 @Repository
-public interface TransferRepository extends ReactiveCrudRepository<Transfer, Long> {
+public interface TransferRepository extends ReactiveCrudRepository<Transfer, Long>, TransferBulkRepository {
 
-    Mono<Transfer> findByTransferReference(String transferReference);
+    @Query("SELECT * FROM transfers WHERE transfer_reference = :transferReference " +
+            "AND created_at >= :from AND created_at < :to")
+    Mono<Transfer> findByTransferReference(String transferReference, LocalDateTime from, LocalDateTime to);
 
-    Flux<Transfer> findBySourceWalletId(Long sourceWalletId);
+    // For references that do not encode their creation time; the join narrows transfers to one created_at
+    @Query("SELECT t.* FROM transfer_references r JOIN transfers t " +
+            "ON t.transfer_reference = r.transfer_reference AND t.created_at = r.created_at " +
+            "WHERE r.transfer_reference = :transferReference")
+    Mono<Transfer> findByRegisteredReference(String transferReference);
 
-    Flux<Transfer> findByDestinationWalletId(Long destinationWalletId);
+    // Outlives the transfer's partition, so it still dates an archived transfer
+    @Query("SELECT created_at FROM transfer_references WHERE transfer_reference = :transferReference")
+    Mono<LocalDateTime> findRegisteredCreatedAt(String transferReference);
 
-    @Query("SELECT * FROM transfers WHERE source_wallet_id = :walletId OR destination_wallet_id = :walletId ORDER BY created_at DESC LIMIT :limit")
-    Flux<Transfer> findTransfersByWalletId(Long walletId, int limit);
+    @Query("SELECT * FROM transfers WHERE source_wallet_id = :sourceWalletId " +
+            "AND created_at >= :from AND created_at < :to ORDER BY created_at DESC")
+    Flux<Transfer> findBySourceWalletId(Long sourceWalletId, LocalDateTime from, LocalDateTime to);
 
-    @Query("SELECT * FROM transfers WHERE status = :status ORDER BY created_at DESC")
-    Flux<Transfer> findByStatus(String status);
+    @Query("SELECT * FROM transfers WHERE destination_wallet_id = :destinationWalletId " +
+            "AND created_at >= :from AND created_at < :to ORDER BY created_at DESC")
+    Flux<Transfer> findByDestinationWalletId(Long destinationWalletId, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT * FROM transfers WHERE (source_wallet_id = :walletId OR destination_wallet_id = :walletId) " +
+            "AND created_at >= :since ORDER BY created_at DESC LIMIT :limit")
+    Flux<Transfer> findTransfersByWalletId(Long walletId, LocalDateTime since, int limit);
+
+    @Query("SELECT * FROM transfers WHERE status = :status " +
+            "AND created_at >= :from AND created_at < :to ORDER BY created_at DESC")
+    Flux<Transfer> findByStatus(String status, LocalDateTime from, LocalDateTime to);
 
     @Query("SELECT SUM(amount) FROM transfers WHERE source_wallet_id = :walletId " +
-            "AND status = 'COMPLETED' AND created_at >= :startDate AND created_at < :endDate")
+            "AND status IN ('COMPLETED', 'QUEUED') AND created_at >= :startDate AND created_at < :endDate")
     Mono<BigDecimal> getTotalDebitForPeriod(Long walletId, LocalDateTime startDate, LocalDateTime endDate);
 
+    @Query("SELECT EXISTS (SELECT 1 FROM transfers WHERE source_wallet_id = :sourceWalletId " +
+            "AND destination_wallet_id = :destinationWalletId " +
+            "AND status IN ('COMPLETED', 'QUEUED') AND created_at >= :since)")
+    Mono<Boolean> existsBetween(Long sourceWalletId, Long destinationWalletId, LocalDateTime since);
+
     @Query("SELECT COUNT(*) FROM transfers WHERE source_wallet_id = :walletId " +
-            "AND status IN ('PENDING', 'PROCESSING')")
-    Mono<Long> countPendingTransfersByWallet(Long walletId);
+            "AND status IN ('PENDING', 'PROCESSING') AND created_at >= :since")
+    Mono<Long> countPendingTransfersByWallet(Long walletId, LocalDateTime since);
 
+    @Query("SELECT EXISTS (SELECT 1 FROM transfer_references WHERE transfer_reference = :transferReference)")
     Mono<Boolean> existsByTransferReference(String transferReference);
-}
\ No newline at end of file
+
+    /**
+     * Claims {@code transferReference}; fails with a duplicate key error if it was taken.
+     */
+    @Modifying
+    @Query("INSERT INTO transfer_references (transfer_reference, created_at) VALUES (:transferReference, :createdAt)")
+    Mono<Integer> registerReference(String transferReference, LocalDateTime createdAt);
+
+    @Modifying
+    @Query("UPDATE transfers SET status = :status " +
+            "WHERE id = :id AND created_at >= :from AND created_at < :to")
+    Mono<Integer> updateStatus(Long id, LocalDateTime from, LocalDateTime to, String status);
+
+    @Modifying
+    @Query("UPDATE transfers SET status = 'COMPLETED', completed_at = :completedAt " +
+            "WHERE id = :id AND created_at >= :from AND created_at < :to")
+    Mono<Integer> markCompleted(Long id, LocalDateTime from, LocalDateTime to, LocalDateTime completedAt);
+
+    @Modifying
+    @Query("UPDATE transfers SET status = 'FAILED', description = :description " +
+            "WHERE id = :id AND created_at >= :from AND created_at < :to")
+    Mono<Integer> markFailed(Long id, LocalDateTime from, LocalDateTime to, String description);
+
+    /**
+     * Locks the oldest queued transfers created since {@code since} for a netting window.
+     * Rows another instance has locked are skipped, so concurrent windows settle disjoint
+     * transfers.
+     */
+    @Query("SELECT * FROM transfers WHERE status = 'QUEUED' AND created_at >= :since " +
+            "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    Flux<Transfer> lockQueued(LocalDateTime since, int limit);
+
+    /**
+     * Locks queued transfers created in {@code [from, to)}, which the netting engine fails as
+     * expired. Rows another instance has locked are skipped, like {@link #lockQueued}.
+     */
+    @Query("SELECT * FROM transfers WHERE status = 'QUEUED' AND created_at >= :from AND created_at < :to " +
+            "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    Flux<Transfer> lockQueuedBetween(LocalDateTime from, LocalDateTime to, int limit);
+
+    @Modifying
+    @Query("UPDATE transfers SET status = 'COMPLETED', completed_at = :completedAt " +
+            "WHERE id IN (:ids) AND created_at >= :from AND created_at < :to")
+    Mono<Integer> markAllCompleted(Collection<Long> ids, LocalDateTime from, LocalDateTime to,
+                                   LocalDateTime completedAt);
+
+    @Modifying
+    @Query("UPDATE transfers SET status = 'FAILED', " +
+            "description = COALESCE(description || ' | ', '') || 'Failure reason: ' || :reason " +
+            "WHERE id IN (:ids) AND created_at >= :from AND created_at < :to")
+    Mono<Integer> markAllFailed(Collection<Long> ids, LocalDateTime from, LocalDateTime to, String reason);
+}
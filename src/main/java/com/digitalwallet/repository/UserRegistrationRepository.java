@@ -0,0 +1,18 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registration insert that cannot race with a concurrent signup for the same username
+ * or email. Mixed into {@link UserRepository}.
+ */
+public interface UserRegistrationRepository {
+
+    /**
+     * Inserts {@code user} unless its username or email is taken, in one statement.
+     *
+     * @return the user with its generated id, or empty when a unique constraint matched
+     */
+    Mono<User> insertIfAbsent(User user);
+}
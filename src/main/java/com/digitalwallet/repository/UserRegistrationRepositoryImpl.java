@@ -0,0 +1,45 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+class UserRegistrationRepositoryImpl implements UserRegistrationRepository {
+
+    // Generated keys are requested through the driver, which adds RETURNING id on PostgreSQL
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO users (username, password, email, first_name, last_name, status, created_at, updated_at) " +
+            "VALUES (:username, :password, :email, :firstName, :lastName, :status, :createdAt, :updatedAt) " +
+            "ON CONFLICT DO NOTHING";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<User> insertIfAbsent(User user) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_IF_ABSENT)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("username", user.getUsername())
+                .bind("password", user.getPassword())
+                .bind("email", user.getEmail())
+                .bind("status", user.getStatus())
+                .bind("createdAt", user.getCreatedAt())
+                .bind("updatedAt", user.getUpdatedAt());
+        insert = bindNullable(insert, "firstName", user.getFirstName());
+        insert = bindNullable(insert, "lastName", user.getLastName());
+
+        return insert
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    user.setId(id);
+                    return user;
+                });
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+}
@@ -1,13 +1,17 @@
 package com.digitalwallet.repository;
 
 import com.digitalwallet.model.User;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Repository
-public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+public interface UserRepository extends ReactiveCrudRepository<User, Long>, UserRegistrationRepository {
 
     Mono<User> findByUsername(String username);
 
@@ -19,4 +23,16 @@ public interface UserRepository extends ReactiveCrudRepository<User, Long> {
     Mono<Boolean> existsByUsername(String username);
 
     Mono<Boolean> existsByEmail(String email);
+
+    Flux<User> findByUsernameOrEmail(String username, String email);
+
+    @Query("SELECT id, username, email, created_at FROM users")
+    Flux<User> findAllUsernamesAndEmails();
+
+    @Query("SELECT id, username, email, created_at FROM users WHERE created_at >= :since")
+    Flux<User> findUsernamesAndEmailsCreatedSince(LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE users SET password = :password, updated_at = CURRENT_TIMESTAMP WHERE id = :id")
+    Mono<Integer> updatePassword(Long id, String password);
 }
\ No newline at end of file
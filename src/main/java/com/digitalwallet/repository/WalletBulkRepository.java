@@ -0,0 +1,28 @@
+package com.digitalwallet.repository;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Balance updates that touch many wallets in one statement. Mixed into
+ * {@link WalletRepository}.
+ */
+public interface WalletBulkRepository {
+
+    /**
+     * Adds each amount to its wallet's balance, for active wallets only. Amounts may be
+     * negative, as they are for net settlement positions.
+     *
+     * @return the number of wallets credited, fewer than the map's size when one is not active
+     */
+    Mono<Long> creditAll(Map<Long, BigDecimal> amountsByWalletId);
+
+    /**
+     * Takes each amount out of its wallet's held balance, as when holds expire.
+     *
+     * @return the number of wallets updated
+     */
+    Mono<Long> releaseAllHeld(Map<Long, BigDecimal> amountsByWalletId);
+}
@@ -0,0 +1,57 @@
+package com.digitalwallet.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class WalletBulkRepositoryImpl implements WalletBulkRepository {
+
+    private final DatabaseClient databaseClient;
+
+    // A CASE over the ids instead of UPDATE ... FROM (VALUES ...), which H2 does not support
+    @Override
+    public Mono<Long> creditAll(Map<Long, BigDecimal> amountsByWalletId) {
+        return updateAll("balance", amountsByWalletId, " AND status = 'ACTIVE'");
+    }
+
+    @Override
+    public Mono<Long> releaseAllHeld(Map<Long, BigDecimal> amountsByWalletId) {
+        return updateAll("held_balance", amountsByWalletId.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, amount -> amount.getValue().negate())), "");
+    }
+
+    private Mono<Long> updateAll(String column, Map<Long, BigDecimal> amountsByWalletId, String condition) {
+        if (amountsByWalletId.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        // Ids in ascending order, the order lockByIds takes. Callers that lock their wallets with it
+        // first (netting, hold capture, payouts) cannot deadlock here; a single transfer still
+        // updates its source before its destination, so it can, and the database aborts one side
+        Map<Long, BigDecimal> amounts = new TreeMap<>(amountsByWalletId);
+        StringBuilder caseSql = new StringBuilder("UPDATE wallets SET ").append(column).append(" = ")
+                .append(column).append(" + CASE id");
+        StringBuilder inSql = new StringBuilder(" END, updated_at = CURRENT_TIMESTAMP WHERE id IN (");
+        for (int index = 0; index < amounts.size(); index++) {
+            caseSql.append(" WHEN :wallet").append(index).append(" THEN :amount").append(index);
+            inSql.append(index == 0 ? ":wallet" : ", :wallet").append(index);
+        }
+        inSql.append(')').append(condition);
+
+        Map<String, Object> values = new HashMap<>(amounts.size() * 4);
+        int index = 0;
+        for (Map.Entry<Long, BigDecimal> amount : amounts.entrySet()) {
+            values.put("wallet" + index, amount.getKey());
+            values.put("amount" + index, amount.getValue());
+            index++;
+        }
+        return databaseClient.sql(caseSql.append(inSql).toString()).bindValues(values).fetch().rowsUpdated();
+    }
+}
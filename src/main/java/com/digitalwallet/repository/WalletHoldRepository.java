@@ -0,0 +1,53 @@
+package com.digitalwallet.repository;
+
+import com.digitalwallet.model.WalletHold;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Holds change state only from {@code ACTIVE}, and only while the row is locked, so a
+ * hold is captured, released or expired exactly once however many instances race for it.
+ */
+@Repository
+public interface WalletHoldRepository extends ReactiveCrudRepository<WalletHold, Long> {
+
+    Mono<WalletHold> findByHoldReference(String holdReference);
+
+    @Query("SELECT * FROM wallet_holds WHERE hold_reference = :holdReference FOR UPDATE")
+    Mono<WalletHold> lockByReference(String holdReference);
+
+    @Query("SELECT * FROM wallet_holds WHERE id IN (:holdIds) AND status = 'ACTIVE' AND expires_at <= :now " +
+            "ORDER BY id FOR UPDATE SKIP LOCKED")
+    Flux<WalletHold> lockExpired(Collection<Long> holdIds, LocalDateTime now);
+
+    @Query("SELECT id FROM wallet_holds WHERE status = 'ACTIVE' AND expires_at <= :now " +
+            "ORDER BY expires_at LIMIT :limit")
+    Flux<Long> findExpiredIds(LocalDateTime now, int limit);
+
+    @Modifying
+    @Query("UPDATE wallet_holds SET status = 'CAPTURED', captured_amount = :capturedAmount, " +
+            "transfer_reference = :transferReference, closed_at = :closedAt WHERE id = :holdId AND status = 'ACTIVE'")
+    Mono<Integer> markCaptured(Long holdId, BigDecimal capturedAmount, String transferReference, LocalDateTime closedAt);
+
+    @Modifying
+    @Query("UPDATE wallet_holds SET status = 'RELEASED', closed_at = :closedAt WHERE id = :holdId AND status = 'ACTIVE'")
+    Mono<Integer> markReleased(Long holdId, LocalDateTime closedAt);
+
+    @Modifying
+    @Query("UPDATE wallet_holds SET status = 'EXPIRED', closed_at = :closedAt " +
+            "WHERE id IN (:holdIds) AND status = 'ACTIVE'")
+    Mono<Integer> markAllExpired(Collection<Long> holdIds, LocalDateTime closedAt);
+
+    @Modifying
+    @Query("UPDATE wallet_holds SET expires_at = :expiresAt " +
+            "WHERE hold_reference = :holdReference AND status = 'ACTIVE' AND expires_at > :now")
+    Mono<Integer> extend(String holdReference, LocalDateTime expiresAt, LocalDateTime now);
+}
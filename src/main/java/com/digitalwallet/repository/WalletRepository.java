@@ -9,28 +9,60 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 
 @Repository
-public interface WalletRepository extends ReactiveCrudRepository<Wallet, Long> {
+public interface WalletRepository extends ReactiveCrudRepository<Wallet, Long>, WalletBulkRepository {
 
     Mono<Wallet> findByWalletNumber(String walletNumber);
 
     Flux<Wallet> findByUserId(Long userId);
 
+    @Query("SELECT * FROM wallets WHERE wallet_number IN (:walletNumbers)")
+    Flux<Wallet> findByWalletNumbers(Collection<String> walletNumbers);
+
     @Query("SELECT * FROM wallets WHERE user_id = :userId AND status = 'ACTIVE'")
     Flux<Wallet> findActiveWalletsByUserId(Long userId);
 
     @Query("SELECT * FROM wallets WHERE id = :walletId AND status = 'ACTIVE'")
     Mono<Wallet> findActiveWalletById(Long walletId);
 
+    @Query("SELECT * FROM wallets WHERE id IN (:walletIds) AND status = 'ACTIVE'")
+    Flux<Wallet> findActiveWalletsByIds(Collection<Long> walletIds);
+
+    // Every wallet in id order from afterId, a page at a time
+    @Query("SELECT * FROM wallets WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Wallet> findPageAfter(Long afterId, int limit);
+
+    @Query("SELECT * FROM wallets WHERE id IN (:walletIds) ORDER BY id FOR UPDATE")
+    Flux<Wallet> lockByIds(Collection<Long> walletIds);
+
     @Modifying
     @Query("UPDATE wallets SET balance = balance + :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :walletId")
     Mono<Integer> creditWallet(Long walletId, BigDecimal amount);
 
+    // Debits may only spend what is not held
     @Modifying
-    @Query("UPDATE wallets SET balance = balance - :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :walletId AND balance >= :amount")
+    @Query("UPDATE wallets SET balance = balance - :amount, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :walletId AND balance - held_balance >= :amount")
     Mono<Integer> debitWallet(Long walletId, BigDecimal amount);
 
+    @Modifying
+    @Query("UPDATE wallets SET held_balance = held_balance + :amount, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :walletId AND status = 'ACTIVE' AND balance - held_balance >= :amount")
+    Mono<Integer> holdFunds(Long walletId, BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE wallets SET held_balance = held_balance - :amount, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :walletId AND held_balance >= :amount")
+    Mono<Integer> releaseHeldFunds(Long walletId, BigDecimal amount);
+
+    // Takes the captured amount out of the balance and the whole hold out of held_balance
+    @Modifying
+    @Query("UPDATE wallets SET balance = balance - :captured, held_balance = held_balance - :held, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = :walletId AND held_balance >= :held AND balance >= :captured")
+    Mono<Integer> captureHeldFunds(Long walletId, BigDecimal held, BigDecimal captured);
+
     @Query("SELECT SUM(balance) FROM wallets WHERE currency = :currency")
     Mono<BigDecimal> getTotalBalanceByCurrency(String currency);
 
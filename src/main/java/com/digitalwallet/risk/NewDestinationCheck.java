@@ -0,0 +1,57 @@
+package com.digitalwallet.risk;
+
+import com.digitalwallet.exception.RiskCheckFailedException;
+import com.digitalwallet.repository.TransferRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Stops a wallet's first transfer to a destination when it is above
+ * {@code novapay.risk.new-destination.max-amount} (in the source wallet's currency; 0
+ * turns the rule off). "First" means no transfer between the two within
+ * {@code novapay.risk.new-destination.memory}.
+ *
+ * <p>Small transfers and pairs {@link TransferCounters} remembers pass without a query.
+ * Only a large transfer to a pair memory does not know, which after a restart or an
+ * eviction may still have history, looks in the {@code transfers} table.
+ */
+@Component
+@Order(200)
+public class NewDestinationCheck implements RiskCheck {
+
+    private final TransferCounters counters;
+    private final TransferRepository transferRepository;
+    private final BigDecimal maxAmount;
+    private final Duration memory;
+
+    public NewDestinationCheck(TransferCounters counters,
+                               TransferRepository transferRepository,
+                               @Value("${novapay.risk.new-destination.max-amount:1000.00}") BigDecimal maxAmount,
+                               @Value("${novapay.risk.new-destination.memory:30d}") Duration memory) {
+        this.counters = counters;
+        this.transferRepository = transferRepository;
+        this.maxAmount = maxAmount;
+        this.memory = memory;
+    }
+
+    @Override
+    public Mono<Void> check(TransferAttempt attempt) {
+        if (maxAmount.signum() <= 0 || attempt.amount().compareTo(maxAmount) <= 0) {
+            return Mono.empty();
+        }
+        long lastSeen = counters.pairLastSeen(attempt.sourceWalletId(), attempt.destinationWalletId());
+        if (lastSeen != Long.MIN_VALUE && lastSeen >= attempt.atMillis() - memory.toMillis()) {
+            return Mono.empty();
+        }
+        return transferRepository.existsBetween(attempt.sourceWalletId(), attempt.destinationWalletId(),
+                        LocalDateTime.now().minus(memory))
+                .flatMap(seen -> seen ? Mono.<Void>empty() : Mono.error(new RiskCheckFailedException(
+                        "new-destination", "First transfer to this destination may not exceed " + maxAmount)));
+    }
+}
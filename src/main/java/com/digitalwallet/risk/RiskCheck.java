@@ -0,0 +1,21 @@
+package com.digitalwallet.risk;
+
+import com.digitalwallet.exception.RiskCheckFailedException;
+import reactor.core.publisher.Mono;
+
+/**
+ * One rule of the {@link RiskCheckStage}. Every bean implementing this runs on each
+ * transfer, in {@link org.springframework.core.annotation.Order} order, until one fails.
+ *
+ * <p>The stage sits on the transfer's request path, so a check should decide from memory
+ * (such as {@link TransferCounters}) and return {@link Mono#empty()} or
+ * {@link Mono#error} directly; a query is for the rare case memory cannot settle.
+ */
+public interface RiskCheck {
+
+    /**
+     * Completes empty to let the transfer through, or with a
+     * {@link RiskCheckFailedException} naming the rule that stopped it.
+     */
+    Mono<Void> check(TransferAttempt attempt);
+}
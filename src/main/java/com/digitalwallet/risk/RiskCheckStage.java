@@ -0,0 +1,65 @@
+package com.digitalwallet.risk;
+
+import com.digitalwallet.exception.RiskCheckFailedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Runs every {@link RiskCheck} on a transfer before it is recorded, stopping at the first
+ * that fails. Callers {@link #record} a transfer in {@link TransferCounters} once it has
+ * gone through, so transfers rejected later, by the daily limit or for want of funds,
+ * neither use up a velocity limit nor make a destination known. Counting happens after
+ * the checks have read the counters, so concurrent transfers from one wallet may each
+ * pass a limit that only one of them should have; the overshoot is at most the number
+ * in flight at once.
+ *
+ * <p>Rejections are counted in {@code novapay.risk.rejected}, tagged with the rule.
+ * {@code novapay.risk.enabled=false} skips the stage, and nothing is counted.
+ */
+@Slf4j
+@Component
+public class RiskCheckStage {
+
+    private final List<RiskCheck> checks;
+    private final TransferCounters counters;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public RiskCheckStage(List<RiskCheck> checks,
+                          TransferCounters counters,
+                          MeterRegistry meterRegistry,
+                          @Value("${novapay.risk.enabled:true}") boolean enabled) {
+        this.checks = List.copyOf(checks);
+        this.counters = counters;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /** Completes empty when the transfer may go ahead, or with the first check's error. */
+    public Mono<Void> evaluate(TransferAttempt attempt) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(checks)
+                .concatMap(check -> check.check(attempt))
+                .then()
+                .doOnError(RiskCheckFailedException.class, rejection -> {
+                    log.info("Transfer from wallet {} stopped by risk rule {}",
+                            attempt.sourceWalletId(), rejection.getRule());
+                    meterRegistry.counter("novapay.risk.rejected", "rule", rejection.getRule()).increment();
+                });
+    }
+
+    /** Counts a transfer that passed {@link #evaluate} and has been made. */
+    public void record(TransferAttempt attempt) {
+        if (enabled) {
+            counters.record(attempt);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.digitalwallet.risk;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Event count, and optionally an amount total, over the last {@code buckets} ticks. Each
+ * bucket is a single long holding the tick it was last written in (its low 24 bits) and
+ * the value for that tick, so adding is one compare-and-set that also clears a bucket
+ * left over from an earlier revolution, and reading skips such buckets without writing.
+ * Nothing locks, and readers never wait for writers.
+ *
+ * <p>The window slides a bucket at a time, so sums cover the current tick and the
+ * {@code buckets - 1} before it. Values saturate rather than overflow.
+ */
+final class SlidingWindow {
+
+    private static final int STAMP_BITS = 24;
+    private static final int VALUE_BITS = Long.SIZE - STAMP_BITS;
+    private static final long STAMP_MASK = (1L << STAMP_BITS) - 1;
+    private static final long VALUE_MAX = (1L << VALUE_BITS) - 1;
+
+    private final AtomicLongArray counts;
+    private final AtomicLongArray totals;
+
+    // Time of the latest add; read by eviction and by rules that ask when a key was last seen
+    private volatile long lastMillis;
+
+    SlidingWindow(int buckets, boolean withTotals) {
+        this.counts = new AtomicLongArray(buckets);
+        this.totals = withTotals ? new AtomicLongArray(buckets) : null;
+    }
+
+    void add(long tick, long amount, long nowMillis) {
+        int slot = slot(tick, counts.length());
+        increment(counts, slot, tick, 1);
+        if (totals != null) {
+            increment(totals, slot, tick, amount);
+        }
+        lastMillis = nowMillis;
+    }
+
+    long count(long tick) {
+        return sum(counts, tick);
+    }
+
+    long total(long tick) {
+        return totals == null ? 0 : sum(totals, tick);
+    }
+
+    long lastMillis() {
+        return lastMillis;
+    }
+
+    private static void increment(AtomicLongArray buckets, int slot, long tick, long delta) {
+        long stamp = tick & STAMP_MASK;
+        while (true) {
+            long current = buckets.get(slot);
+            long value = (current >>> VALUE_BITS) == stamp ? current & VALUE_MAX : 0;
+            long next = (stamp << VALUE_BITS) | Math.min(VALUE_MAX, value + delta);
+            if (buckets.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long sum(AtomicLongArray buckets, long tick) {
+        int length = buckets.length();
+        long sum = 0;
+        for (int age = 0; age < length; age++) {
+            long bucketTick = tick - age;
+            long current = buckets.get(slot(bucketTick, length));
+            if ((current >>> VALUE_BITS) == (bucketTick & STAMP_MASK)) {
+                sum += current & VALUE_MAX;
+            }
+        }
+        return sum;
+    }
+
+    private static int slot(long tick, int length) {
+        return (int) Math.floorMod(tick, (long) length);
+    }
+}
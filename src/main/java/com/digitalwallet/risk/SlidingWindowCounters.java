@@ -0,0 +1,97 @@
+package com.digitalwallet.risk;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SlidingWindow} per key, all with the same window length and bucket count.
+ * Lookups of existing keys never lock; adding a key locks only its bin of the map.
+ *
+ * <p>At most {@code maxKeys} keys are tracked. When the map is full a new key is not
+ * added, and reads for it see nothing, until {@link #evict} makes room: it drops keys
+ * not seen within the retention period and, if that is not enough, the least recently
+ * seen ones down to nine tenths of the bound.
+ */
+final class SlidingWindowCounters<K> {
+
+    private final Duration window;
+    private final long bucketMillis;
+    private final int buckets;
+    private final long retentionMillis;
+    private final int maxKeys;
+    private final boolean withTotals;
+    private final Map<K, SlidingWindow> windows = new ConcurrentHashMap<>();
+
+    SlidingWindowCounters(Duration window, int buckets, Duration retention, int maxKeys, boolean withTotals) {
+        if (buckets < 1 || maxKeys < 1 || window.toMillis() < buckets) {
+            throw new IllegalArgumentException("Need at least one bucket of at least 1ms and one key, got "
+                    + buckets + " buckets over " + window + " for " + maxKeys + " keys");
+        }
+        this.window = window;
+        this.bucketMillis = window.toMillis() / buckets;
+        this.buckets = buckets;
+        this.retentionMillis = Math.max(window.toMillis(), retention.toMillis());
+        this.maxKeys = maxKeys;
+        this.withTotals = withTotals;
+    }
+
+    Duration window() {
+        return window;
+    }
+
+    long count(K key, long nowMillis) {
+        SlidingWindow counter = windows.get(key);
+        return counter == null ? 0 : counter.count(nowMillis / bucketMillis);
+    }
+
+    long total(K key, long nowMillis) {
+        SlidingWindow counter = windows.get(key);
+        return counter == null ? 0 : counter.total(nowMillis / bucketMillis);
+    }
+
+    /** When {@code key} was last added to, or {@link Long#MIN_VALUE} if it is not tracked. */
+    long lastMillis(K key) {
+        SlidingWindow counter = windows.get(key);
+        return counter == null ? Long.MIN_VALUE : counter.lastMillis();
+    }
+
+    /**
+     * Counts one event of {@code amount} for {@code key}. Returns false when the key is new
+     * and there is no room for it.
+     */
+    boolean add(K key, long amount, long nowMillis) {
+        SlidingWindow counter = windows.get(key);
+        if (counter == null) {
+            if (windows.size() >= maxKeys) {
+                return false;
+            }
+            counter = windows.computeIfAbsent(key, ignored -> new SlidingWindow(buckets, withTotals));
+        }
+        counter.add(nowMillis / bucketMillis, amount, nowMillis);
+        return true;
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    /** Drops idle keys, then the least recently seen while above nine tenths of the bound. */
+    int evict(long nowMillis) {
+        int before = windows.size();
+        long idleBefore = nowMillis - retentionMillis;
+        windows.values().removeIf(counter -> counter.lastMillis() < idleBefore);
+
+        int target = maxKeys - maxKeys / 10;
+        if (windows.size() > target) {
+            long[] seen = windows.values().stream().mapToLong(SlidingWindow::lastMillis).toArray();
+            if (seen.length > target) {
+                Arrays.sort(seen);
+                long cutoff = seen[seen.length - target - 1];
+                windows.values().removeIf(counter -> counter.lastMillis() <= cutoff);
+            }
+        }
+        return before - windows.size();
+    }
+}
@@ -0,0 +1,30 @@
+package com.digitalwallet.risk;
+
+import java.math.BigDecimal;
+
+/**
+ * A transfer that has passed validation and is about to be recorded, as seen by the
+ * {@link RiskCheck}s. The amount is in the source wallet's currency; {@code userId} is
+ * null when nobody initiated it directly. {@code payoutLine} marks one line of a bulk
+ * payout, which pays many destinations from one wallet by design.
+ */
+public record TransferAttempt(Long userId,
+                              long sourceWalletId,
+                              long destinationWalletId,
+                              BigDecimal amount,
+                              long atMillis,
+                              boolean payoutLine) {
+
+    public TransferAttempt(Long userId, long sourceWalletId, long destinationWalletId, BigDecimal amount,
+                           long atMillis) {
+        this(userId, sourceWalletId, destinationWalletId, amount, atMillis, false);
+    }
+
+    WalletPair pair() {
+        return new WalletPair(sourceWalletId, destinationWalletId);
+    }
+
+    /** Source and destination of a transfer, as a counter key. */
+    record WalletPair(long sourceWalletId, long destinationWalletId) {
+    }
+}
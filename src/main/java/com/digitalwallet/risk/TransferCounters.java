@@ -0,0 +1,123 @@
+package com.digitalwallet.risk;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+
+/**
+ * Recent transfers admitted by the {@link RiskCheckStage}, counted in memory per source
+ * wallet, per initiating user and per wallet pair over sliding windows. Wallet counters
+ * also total the amounts, in hundredths of the wallet's currency. Pairs are kept for at
+ * least {@code novapay.risk.new-destination.memory} so that rules can ask whether a
+ * wallet has paid a destination before.
+ *
+ * <p>Counts are per instance and start empty on restart. Each dimension tracks at most
+ * {@code novapay.risk.max-keys} keys; a key that finds no room is not counted (and
+ * {@code novapay.risk.untracked} goes up) until the next eviction frees some.
+ */
+@Slf4j
+@Component
+public class TransferCounters {
+
+    private final SlidingWindowCounters<Long> byWallet;
+    private final SlidingWindowCounters<Long> byUser;
+    private final SlidingWindowCounters<TransferAttempt.WalletPair> byPair;
+    private final Counter untracked;
+
+    public TransferCounters(MeterRegistry meterRegistry,
+                            @Value("${novapay.risk.buckets:12}") int buckets,
+                            @Value("${novapay.risk.max-keys:100000}") int maxKeys,
+                            @Value("${novapay.risk.wallet.window:PT1M}") Duration walletWindow,
+                            @Value("${novapay.risk.user.window:PT1M}") Duration userWindow,
+                            @Value("${novapay.risk.pair.window:PT10M}") Duration pairWindow,
+                            @Value("${novapay.risk.new-destination.memory:30d}") Duration pairMemory) {
+        this.byWallet = new SlidingWindowCounters<>(walletWindow, buckets, walletWindow, maxKeys, true);
+        this.byUser = new SlidingWindowCounters<>(userWindow, buckets, userWindow, maxKeys, false);
+        this.byPair = new SlidingWindowCounters<>(pairWindow, buckets, pairMemory, maxKeys, false);
+        this.untracked = Counter.builder("novapay.risk.untracked")
+                .description("Transfers not counted because a risk counter was full")
+                .register(meterRegistry);
+        register(meterRegistry, "wallet", byWallet);
+        register(meterRegistry, "user", byUser);
+        register(meterRegistry, "pair", byPair);
+    }
+
+    private static void register(MeterRegistry meterRegistry, String dimension, SlidingWindowCounters<?> counters) {
+        Gauge.builder("novapay.risk.tracked", counters, SlidingWindowCounters::size)
+                .tag("dimension", dimension)
+                .description("Keys with a risk counter on this instance")
+                .register(meterRegistry);
+    }
+
+    public Duration walletWindow() {
+        return byWallet.window();
+    }
+
+    public Duration userWindow() {
+        return byUser.window();
+    }
+
+    public Duration pairWindow() {
+        return byPair.window();
+    }
+
+    public long walletTransfers(long walletId, long nowMillis) {
+        return byWallet.count(walletId, nowMillis);
+    }
+
+    /** Amount sent from the wallet within its window, in hundredths. */
+    public long walletTotal(long walletId, long nowMillis) {
+        return byWallet.total(walletId, nowMillis);
+    }
+
+    public long userTransfers(long userId, long nowMillis) {
+        return byUser.count(userId, nowMillis);
+    }
+
+    public long pairTransfers(long sourceWalletId, long destinationWalletId, long nowMillis) {
+        return byPair.count(new TransferAttempt.WalletPair(sourceWalletId, destinationWalletId), nowMillis);
+    }
+
+    /**
+     * When the source last sent to the destination as far as this instance remembers, or
+     * {@link Long#MIN_VALUE} if it does not.
+     */
+    public long pairLastSeen(long sourceWalletId, long destinationWalletId) {
+        return byPair.lastMillis(new TransferAttempt.WalletPair(sourceWalletId, destinationWalletId));
+    }
+
+    /** Counts an admitted transfer in every dimension. */
+    public void record(TransferAttempt attempt) {
+        long now = attempt.atMillis();
+        boolean tracked = byWallet.add(attempt.sourceWalletId(), hundredths(attempt.amount()), now);
+        if (attempt.userId() != null) {
+            tracked &= byUser.add(attempt.userId(), 0, now);
+        }
+        tracked &= byPair.add(attempt.pair(), 0, now);
+        if (!tracked) {
+            untracked.increment();
+        }
+    }
+
+    /** An amount in hundredths, rounded up, as wallet totals are kept. */
+    public static long hundredths(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValue();
+    }
+
+    @Scheduled(fixedDelayString = "${novapay.risk.eviction-interval:PT10S}")
+    public void evict() {
+        long now = System.currentTimeMillis();
+        int evicted = byWallet.evict(now) + byUser.evict(now) + byPair.evict(now);
+        if (evicted > 0) {
+            log.debug("Evicted {} idle risk counters", evicted);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.digitalwallet.risk;
+
+import com.digitalwallet.exception.RiskCheckFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Stops bursts: more than {@code max-transfers} transfers from one wallet, by one user or
+ * between one pair of wallets within that dimension's window, or more than
+ * {@code novapay.risk.wallet.max-amount} sent from one wallet within its window. A limit
+ * of 0 turns its rule off. Decided from {@link TransferCounters} alone.
+ *
+ * <p>Lines of a bulk payout are exempt from the two transfer-count rules, as a payout is a
+ * burst from one wallet by design; they still count towards them once paid, and the amount
+ * and pair rules apply to every line.
+ */
+@Component
+@Order(100)
+public class VelocityCheck implements RiskCheck {
+
+    private final TransferCounters counters;
+    private final long walletMaxTransfers;
+    private final long walletMaxHundredths;
+    private final long userMaxTransfers;
+    private final long pairMaxTransfers;
+
+    public VelocityCheck(TransferCounters counters,
+                         @Value("${novapay.risk.wallet.max-transfers:20}") long walletMaxTransfers,
+                         @Value("${novapay.risk.wallet.max-amount:0}") BigDecimal walletMaxAmount,
+                         @Value("${novapay.risk.user.max-transfers:60}") long userMaxTransfers,
+                         @Value("${novapay.risk.pair.max-transfers:10}") long pairMaxTransfers) {
+        this.counters = counters;
+        this.walletMaxTransfers = walletMaxTransfers;
+        this.walletMaxHundredths = TransferCounters.hundredths(walletMaxAmount);
+        this.userMaxTransfers = userMaxTransfers;
+        this.pairMaxTransfers = pairMaxTransfers;
+    }
+
+    @Override
+    public Mono<Void> check(TransferAttempt attempt) {
+        long now = attempt.atMillis();
+        if (walletMaxTransfers > 0 && !attempt.payoutLine()
+                && counters.walletTransfers(attempt.sourceWalletId(), now) >= walletMaxTransfers) {
+            return reject("wallet-velocity", "Too many transfers from this wallet in the last "
+                    + counters.walletWindow().toSeconds() + "s, retry later");
+        }
+        if (walletMaxHundredths > 0 && counters.walletTotal(attempt.sourceWalletId(), now)
+                + TransferCounters.hundredths(attempt.amount()) > walletMaxHundredths) {
+            return reject("wallet-amount", "Amount sent from this wallet in the last "
+                    + counters.walletWindow().toSeconds() + "s would exceed its limit, retry later");
+        }
+        if (userMaxTransfers > 0 && attempt.userId() != null && !attempt.payoutLine()
+                && counters.userTransfers(attempt.userId(), now) >= userMaxTransfers) {
+            return reject("user-velocity", "Too many transfers by this user in the last "
+                    + counters.userWindow().toSeconds() + "s, retry later");
+        }
+        if (pairMaxTransfers > 0 && counters.pairTransfers(
+                attempt.sourceWalletId(), attempt.destinationWalletId(), now) >= pairMaxTransfers) {
+            return reject("pair-velocity", "Too many transfers to this destination in the last "
+                    + counters.pairWindow().toSeconds() + "s, retry later");
+        }
+        return Mono.empty();
+    }
+
+    private static Mono<Void> reject(String rule, String message) {
+        return Mono.error(new RiskCheckFailedException(rule, message));
+    }
+}
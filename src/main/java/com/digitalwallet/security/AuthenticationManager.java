@@ -1,6 +1,7 @@
 package com.digitalwallet.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -8,18 +9,31 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Collections;
 
 @Component
 public class AuthenticationManager implements ReactiveAuthenticationManager {
 
+    private static final String METRICS_SCRAPER = "metrics-scraper";
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Bearer token of the Prometheus scraper; without one nobody can read the metrics
+    @Value("${novapay.metrics.scrape-token:}")
+    private String scrapeToken;
+
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) {
         String authToken = authentication.getCredentials().toString();
 
+        if (isScrapeToken(authToken)) {
+            return Mono.just(new UsernamePasswordAuthenticationToken(METRICS_SCRAPER, null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_METRICS"))));
+        }
+
         String username;
         try {
             username = jwtUtil.getUsernameFromToken(authToken);
@@ -38,4 +52,9 @@ public class AuthenticationManager implements ReactiveAuthenticationManager {
 
         return Mono.empty();
     }
-}
\ No newline at end of file
+
+    private boolean isScrapeToken(String authToken) {
+        return !scrapeToken.isEmpty() && MessageDigest.isEqual(
+                scrapeToken.getBytes(StandardCharsets.UTF_8), authToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,133 @@
+package com.digitalwallet.security;
+
+import com.digitalwallet.exception.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link PasswordEncoder} work on a small dedicated pool instead of the Netty event
+ * loop. A BCrypt call takes tens of milliseconds of CPU, so a burst of logins on the loop
+ * would stall every other request sharing it. The pool has a bounded queue; when it is
+ * full the call fails at once with {@link ConcurrencyLimitExceededException} rather than
+ * piling up work that would finish after the client has given up. Results are handed
+ * back on the parallel scheduler, so the hashing threads only ever hash.
+ */
+@Slf4j
+@Component
+public class PasswordHasher implements DisposableBean {
+
+    public static final String QUEUE_WAIT_TIMER = "novapay.password.queue_wait";
+    public static final String HASH_TIMER = "novapay.password.hash";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWait;
+    private final Timer encodeTime;
+    private final Timer matchTime;
+    private final Counter rejected;
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${novapay.security.hashing.threads:0}") int threads,
+            @Value("${novapay.security.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWait = Timer.builder(QUEUE_WAIT_TIMER)
+                .description("Time password hashing work waits for a hashing thread")
+                .register(meterRegistry);
+        this.encodeTime = Timer.builder(HASH_TIMER)
+                .tag("operation", "encode")
+                .description("Time spent hashing or verifying passwords")
+                .register(meterRegistry);
+        this.matchTime = Timer.builder(HASH_TIMER)
+                .tag("operation", "matches")
+                .description("Time spent hashing or verifying passwords")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("novapay.password.rejected")
+                .description("Password hashing calls refused because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("novapay.password.queue_size", queue, BlockingQueue::size)
+                .description("Password hashing calls waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(encodeTime, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchTime, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when {@code encodedPassword} was hashed with weaker settings than the encoder
+     * now uses, e.g. a lower BCrypt strength. Only parses the hash, so it is cheap.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> Mono<T> submit(Timer hashTimer, Callable<T> work) {
+        Mono<T> hashed = Mono.create(sink -> {
+            long queuedAt = System.nanoTime();
+            Future<?> task;
+            try {
+                task = executor.submit(() -> {
+                    long startedAt = System.nanoTime();
+                    queueWait.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                    T result;
+                    try {
+                        result = work.call();
+                    } catch (Exception e) {
+                        sink.error(e);
+                        return;
+                    } finally {
+                        hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    }
+                    sink.success(result);
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                sink.error(new ConcurrencyLimitExceededException("Password hashing queue is full"));
+                return;
+            }
+            // A queued call whose client has gone away is dropped before it burns CPU
+            sink.onCancel(() -> task.cancel(false));
+        });
+        // What follows (queries, token signing) must not hold up a hashing thread
+        return hashed.publishOn(Schedulers.parallel());
+    }
+}
@@ -1,6 +1,7 @@
 package com.digitalwallet.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -35,7 +36,11 @@ public class SecurityConfig {
                 .authorizeExchange(exchanges -> exchanges
                         .pathMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                         .pathMatchers("/api/auth/register").permitAll()
-                        .anyExchange().authenticated()
+                        .pathMatchers(HttpMethod.GET, "/api/auth/availability").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        // Metrics name wallets, users and traffic: only the scraper's token reads them
+                        .pathMatchers(HttpMethod.GET, "/actuator/prometheus").hasRole("METRICS")
+                        .anyExchange().hasRole("USER")
                 )
                 .exceptionHandling(exceptionHandling -> exceptionHandling
                         .authenticationEntryPoint((exchange, ex) ->
@@ -48,8 +53,12 @@ public class SecurityConfig {
                 .build();
     }
 
+    // Raising the strength takes effect for existing users at their next login
+    @Value("${novapay.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.digitalwallet.security;
 
+import com.digitalwallet.metrics.RequestTimings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -13,6 +14,10 @@ import reactor.core.publisher.Mono;
 @Component
 public class SecurityContextRepository implements ServerSecurityContextRepository {
 
+    // Spring Security loads the context again for every getPrincipal() and
+    // ReactiveSecurityContextHolder lookup; keep one result per exchange
+    private static final String CONTEXT_ATTRIBUTE = SecurityContextRepository.class.getName() + ".CONTEXT";
+
     @Autowired
     private AuthenticationManager authenticationManager;
 
@@ -23,12 +28,23 @@ public class SecurityContextRepository implements ServerSecurityContextRepositor
 
     @Override
     public Mono<SecurityContext> load(ServerWebExchange exchange) {
+        Mono<SecurityContext> context = exchange.getAttribute(CONTEXT_ATTRIBUTE);
+        if (context == null) {
+            context = authenticate(exchange).cache();
+            exchange.getAttributes().put(CONTEXT_ATTRIBUTE, context);
+        }
+        return context;
+    }
+
+    private Mono<SecurityContext> authenticate(ServerWebExchange exchange) {
         String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String authToken = authHeader.substring(7);
             UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(authToken, authToken);
-            return authenticationManager.authenticate(auth).map(SecurityContextImpl::new);
+            return RequestTimings.record(RequestTimings.Phase.AUTH,
+                            Mono.defer(() -> authenticationManager.authenticate(auth)))
+                    .map(SecurityContextImpl::new);
         }
 
         return Mono.empty();
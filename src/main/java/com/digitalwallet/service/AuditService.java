@@ -1,5 +1,7 @@
 package com.digitalwallet.service;
 
+import com.digitalwallet.config.Workload;
+import com.digitalwallet.metrics.StageMetrics;
 import com.digitalwallet.model.AuditLog;
 import com.digitalwallet.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,7 @@ import java.time.LocalDateTime;
 public class AuditService {
 
     private final AuditLogRepository auditLogRepository;
+    private final StageMetrics stageMetrics;
 
     public Mono<AuditLog> logAction(String entityType, Long entityId, String action,
                                     Long performedBy, String oldValue, String newValue) {
@@ -28,7 +31,7 @@ public class AuditService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        return auditLogRepository.save(auditLog)
+        return stageMetrics.time("audit", "write", Workload.AUDIT.bind(auditLogRepository.save(auditLog)))
                 .doOnSuccess(auditLogEntry -> log.info("Audit log created: {} - {} - {}", entityType, entityId, action))
                 .doOnError(error -> log.error("Failed to create audit log", error));
     }
@@ -1,16 +1,20 @@
 package com.digitalwallet.service;
 
+import com.digitalwallet.dto.AvailabilityResponse;
 import com.digitalwallet.dto.LoginRequest;
 import com.digitalwallet.dto.LoginResponse;
 import com.digitalwallet.dto.RegisterRequest;
 import com.digitalwallet.dto.RegisterResponse;
+import com.digitalwallet.exception.LoginThrottledException;
 import com.digitalwallet.model.User;
+import com.digitalwallet.ratelimit.RateLimitGroup;
+import com.digitalwallet.ratelimit.RateLimiter;
 import com.digitalwallet.repository.UserRepository;
 import com.digitalwallet.security.JwtUtil;
+import com.digitalwallet.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import java.time.LocalDateTime;
@@ -21,19 +25,35 @@ import java.time.LocalDateTime;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
     private final AuditService auditService;
+    private final RateLimiter rateLimiter;
+    private final UserExistenceFilter userExistenceFilter;
 
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
 
-    public Mono<LoginResponse> login(LoginRequest request) {
-        return userRepository.findActiveUserByUsername(request.getUsername())
-                .switchIfEmpty(Mono.error(new RuntimeException("Invalid username or password")))
-                .filter(user -> passwordEncoder.matches(request.getPassword(), user.getPassword()))
-                .switchIfEmpty(Mono.error(new RuntimeException("Invalid username or password")))
+    public Mono<LoginResponse> login(LoginRequest request, String clientAddress) {
+        String username = request.getUsername();
+
+        // Refused before any database or hashing work while either key has failed too often
+        long waitNanos = Math.max(
+                rateLimiter.peek(RateLimitGroup.FAILED_LOGIN_USERNAME, username),
+                rateLimiter.peek(RateLimitGroup.FAILED_LOGIN_IP, clientAddress));
+        if (waitNanos > 0) {
+            return Mono.error(new LoginThrottledException("Too many failed login attempts", waitNanos));
+        }
+
+        return userRepository.findActiveUserByUsername(username)
+                .filterWhen(user -> passwordHasher.matches(request.getPassword(), user.getPassword()))
+                .switchIfEmpty(Mono.defer(() -> {
+                    rateLimiter.consume(RateLimitGroup.FAILED_LOGIN_USERNAME, username);
+                    rateLimiter.consume(RateLimitGroup.FAILED_LOGIN_IP, clientAddress);
+                    return Mono.error(new RuntimeException("Invalid username or password"));
+                }))
                 .flatMap(user -> {
+                    rateLimiter.reset(RateLimitGroup.FAILED_LOGIN_USERNAME, username);
                     String token = jwtUtil.generateToken(user.getUsername(), user.getId());
 
                     LoginResponse response = LoginResponse.builder()
@@ -44,11 +64,28 @@ public class AuthService {
                             .expiresIn(jwtExpiration)
                             .build();
 
-                    return auditService.logUserAction(user.getId(), "LOGIN", user.getId())
+                    return rehashIfOutdated(user, request.getPassword())
+                            .then(auditService.logUserAction(user.getId(), "LOGIN", user.getId()))
                             .thenReturn(response);
                 })
-                .doOnSuccess(response -> log.info("User logged in successfully: {}", request.getUsername()))
-                .doOnError(error -> log.error("Login failed for user: {}", request.getUsername(), error));
+                .doOnSuccess(response -> log.info("User logged in successfully: {}", username))
+                .doOnError(error -> log.error("Login failed for user: {}", username, error));
+    }
+
+    // The plain password is only available at login, so that is when a hash made with
+    // older encoder settings is replaced. A failure here must not fail the login.
+    private Mono<Void> rehashIfOutdated(User user, String rawPassword) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return Mono.empty();
+        }
+        return passwordHasher.encode(rawPassword)
+                .flatMap(encoded -> userRepository.updatePassword(user.getId(), encoded))
+                .doOnSuccess(updated -> log.info("Rehashed password for user: {}", user.getUsername()))
+                .onErrorResume(error -> {
+                    log.warn("Could not rehash password for user: {}", user.getUsername(), error);
+                    return Mono.empty();
+                })
+                .then();
     }
 
     public Mono<User> getUserFromToken(String token) {
@@ -61,49 +98,82 @@ public class AuthService {
     }
 
     public Mono<RegisterResponse> register(RegisterRequest request) {
-        // Check if username already exists
-        return userRepository.existsByUsername(request.getUsername())
-                .flatMap(usernameExists -> {
-                    if (usernameExists) {
+        String username = request.getUsername();
+        String email = request.getEmail();
+
+        // Only look for a conflict up front when the filter cannot rule one out; that way
+        // a taken name costs no password hashing and a fresh one costs no extra query
+        Mono<Void> precheck = userExistenceFilter.mightHaveUsername(username) || userExistenceFilter.mightHaveEmail(email)
+                ? rejectIfTaken(username, email)
+                : Mono.empty();
+
+        return precheck
+                .then(Mono.defer(() -> passwordHasher.encode(request.getPassword())))
+                .flatMap(encodedPassword -> {
+                    // Create new user
+                    User newUser = User.builder()
+                            .username(username)
+                            .email(email)
+                            .password(encodedPassword)
+                            .firstName(request.getFirstName())
+                            .lastName(request.getLastName())
+                            .status(User.Status.ACTIVE.name())
+                            .createdAt(LocalDateTime.now())
+                            .updatedAt(LocalDateTime.now())
+                            .build();
+
+                    // Empty when a concurrent registration took the username or email first
+                    return userRepository.insertIfAbsent(newUser)
+                            .switchIfEmpty(Mono.defer(() -> rejectIfTaken(username, email)
+                                    .then(Mono.error(new RuntimeException("Username or email already exists")))));
+                })
+                .flatMap(savedUser -> {
+                    userExistenceFilter.add(savedUser.getUsername(), savedUser.getEmail());
+
+                    // Log the registration action
+                    return auditService.logUserAction(savedUser.getId(), "REGISTER", savedUser.getId())
+                            .thenReturn(RegisterResponse.builder()
+                                    .userId(savedUser.getId())
+                                    .username(savedUser.getUsername())
+                                    .email(savedUser.getEmail())
+                                    .firstName(savedUser.getFirstName())
+                                    .lastName(savedUser.getLastName())
+                                    .message("User registered successfully")
+                                    .status("SUCCESS")
+                                    .build());
+                })
+                .doOnSuccess(response -> log.info("User registered successfully: {}", username))
+                .doOnError(error -> log.error("Registration failed for user: {}", username, error));
+    }
+
+    private Mono<Void> rejectIfTaken(String username, String email) {
+        return userRepository.findByUsernameOrEmail(username, email)
+                .collectList()
+                .flatMap(existing -> {
+                    if (existing.stream().anyMatch(user -> user.getUsername().equals(username))) {
                         return Mono.error(new RuntimeException("Username already exists"));
                     }
-                    // Check if email already exists
-                    return userRepository.existsByEmail(request.getEmail())
-                            .flatMap(emailExists -> {
-                                if (emailExists) {
-                                    return Mono.error(new RuntimeException("Email already exists"));
-                                }
-
-                                // Create new user
-                                User newUser = User.builder()
-                                        .username(request.getUsername())
-                                        .email(request.getEmail())
-                                        .password(passwordEncoder.encode(request.getPassword()))
-                                        .firstName(request.getFirstName())
-                                        .lastName(request.getLastName())
-                                        .status(User.Status.ACTIVE.name())
-                                        .createdAt(LocalDateTime.now())
-                                        .updatedAt(LocalDateTime.now())
-                                        .build();
-
-                                return userRepository.save(newUser)
-                                        .flatMap(savedUser -> {
-                                            // Log the registration action
-                                            return auditService.logUserAction(savedUser.getId(), "REGISTER", savedUser.getId())
-                                                    .thenReturn(RegisterResponse.builder()
-                                                            .userId(savedUser.getId())
-                                                            .username(savedUser.getUsername())
-                                                            .email(savedUser.getEmail())
-                                                            .firstName(savedUser.getFirstName())
-                                                            .lastName(savedUser.getLastName())
-                                                            .message("User registered successfully")
-                                                            .status("SUCCESS")
-                                                            .build());
-                                        });
-                            });
-                })
-                .doOnSuccess(response -> log.info("User registered successfully: {}", request.getUsername()))
-                .doOnError(error -> log.error("Registration failed for user: {}", request.getUsername(), error));
+                    if (!existing.isEmpty()) {
+                        return Mono.error(new RuntimeException("Email already exists"));
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Answers the signup form's "is this username taken?" check. Names the filter has
+     * never seen are reported available without a query; only possible matches go to the
+     * database. Emails are not offered here: anyone could use the check to learn who has
+     * an account, and registration reports a taken email anyway.
+     */
+    public Mono<AvailabilityResponse> checkAvailability(String username) {
+        Mono<Boolean> available = userExistenceFilter.mightHaveUsername(username)
+                ? userRepository.existsByUsername(username).map(exists -> !exists)
+                : Mono.just(true);
+        return available.map(usernameAvailable -> AvailabilityResponse.builder()
+                .username(username)
+                .usernameAvailable(usernameAvailable)
+                .build());
     }
 }
 
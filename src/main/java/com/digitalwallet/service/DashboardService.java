@@ -0,0 +1,135 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.dto.DashboardResponse;
+import com.digitalwallet.dto.WalletBalanceResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything the app's home screen shows, loaded with one query per section: wallets,
+ * active goals and active recurring transfers in parallel, then the recent transactions
+ * of those wallets.
+ *
+ * <p>Each user's dashboard is cached in memory for {@code novapay.dashboard.ttl}.
+ * Concurrent requests for the same user share one load, and {@link #invalidate} drops the
+ * entry after each of the user's own writes. Changes made by someone else, such as an
+ * incoming transfer, show up once the entry expires.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    private final WalletService walletService;
+    private final SavingsGoalService savingsGoalService;
+    private final RecurringTransferService recurringTransferService;
+    private final WalletHistoryService walletHistoryService;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Map<String, CachedDashboard> cache = new ConcurrentHashMap<>();
+
+    private final Duration ttl;
+    private final Duration recentWindow;
+    private final int recentTransactions;
+
+    public DashboardService(WalletService walletService,
+                            SavingsGoalService savingsGoalService,
+                            RecurringTransferService recurringTransferService,
+                            WalletHistoryService walletHistoryService,
+                            MeterRegistry meterRegistry,
+                            @Value("${novapay.dashboard.ttl:5s}") Duration ttl,
+                            @Value("${novapay.dashboard.recent-window:30d}") Duration recentWindow,
+                            @Value("${novapay.dashboard.recent-transactions:10}") int recentTransactions) {
+        this.walletService = walletService;
+        this.savingsGoalService = savingsGoalService;
+        this.recurringTransferService = recurringTransferService;
+        this.walletHistoryService = walletHistoryService;
+        this.ttl = ttl;
+        this.recentWindow = recentWindow;
+        this.recentTransactions = recentTransactions;
+        this.cacheHits = Counter.builder("novapay.dashboard.cache")
+                .tag("result", "hit")
+                .description("Dashboard requests served from the per-user cache")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("novapay.dashboard.cache")
+                .tag("result", "miss")
+                .description("Dashboard requests that loaded from the database")
+                .register(meterRegistry);
+    }
+
+    public Mono<DashboardResponse> getDashboard(String username, Long userId) {
+        if (ttl.isZero()) {
+            return load(userId);
+        }
+        long now = System.nanoTime();
+        CachedDashboard cached = cache.get(username);
+        if (cached != null && cached.isFresh(now)) {
+            cacheHits.increment();
+            return cached.dashboard();
+        }
+
+        CachedDashboard loading = cache.compute(username, (key, existing) ->
+                existing != null && existing.isFresh(now) ? existing
+                        : new CachedDashboard(load(userId).cache(), now + ttl.toNanos()));
+        if (loading == cached) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+        // A failed load is not kept, so the next request tries again
+        return loading.dashboard()
+                .doOnError(error -> cache.remove(username, loading));
+    }
+
+    /**
+     * Drops the user's cached dashboard. A load already in progress still completes for the
+     * requests waiting on it, but is not served to later ones.
+     */
+    public void invalidate(String username) {
+        cache.remove(username);
+    }
+
+    private Mono<DashboardResponse> load(Long userId) {
+        Mono<List<WalletBalanceResponse>> walletsMono = walletService.getUserWalletBalances(userId).collectList();
+
+        return Mono.zip(
+                        walletsMono.flatMap(wallets -> walletHistoryService.getRecentEntries(
+                                        wallets.stream().map(WalletBalanceResponse::getWalletId).toList(),
+                                        LocalDateTime.now().minus(recentWindow), recentTransactions)
+                                .collectList()
+                                .map(recent -> DashboardResponse.builder()
+                                        .wallets(wallets)
+                                        .recentTransactions(recent))),
+                        savingsGoalService.getActiveUserGoals(userId).collectList(),
+                        recurringTransferService.getActiveRecurringTransfers(userId).collectList())
+                .map(sections -> sections.getT1()
+                        .activeGoals(sections.getT2())
+                        .activeRecurringTransfers(sections.getT3())
+                        .generatedAt(LocalDateTime.now())
+                        .build());
+    }
+
+    // Drops entries that expired without being replaced
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        cache.values().removeIf(cached -> !cached.isFresh(now));
+    }
+
+    private record CachedDashboard(Mono<DashboardResponse> dashboard, long expiresAt) {
+
+        boolean isFresh(long now) {
+            return expiresAt - now > 0;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.digitalwallet.service;
 
 import com.digitalwallet.event.TransferEvent;
 import com.digitalwallet.event.TransferEventType;
+import com.digitalwallet.metrics.RequestTimings;
+import com.digitalwallet.metrics.StageMetrics;
 import com.digitalwallet.model.Transfer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +19,7 @@ import java.time.LocalDateTime;
 public class EventPublisherService {
 
     private final ReactiveKafkaProducerTemplate<String, TransferEvent> kafkaTemplate;
+    private final StageMetrics stageMetrics;
 
     private static final String TRANSFER_TOPIC = "wallet-transfers";
 
@@ -35,7 +38,8 @@ public class EventPublisherService {
                 .message(message)
                 .build();
 
-        return kafkaTemplate.send(TRANSFER_TOPIC, transfer.getTransferReference(), event)
+        return RequestTimings.record(RequestTimings.Phase.KAFKA, stageMetrics.time("events", "kafka_publish",
+                        kafkaTemplate.send(TRANSFER_TOPIC, transfer.getTransferReference(), event)))
                 .doOnSuccess(result -> log.info("Published event: {} for transfer: {}",
                         eventType, transfer.getTransferReference()))
                 .doOnError(error -> log.error("Failed to publish event for transfer: {}",
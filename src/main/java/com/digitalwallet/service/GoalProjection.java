@@ -0,0 +1,85 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.model.RecurringTransfer;
+import com.digitalwallet.model.SavingsGoal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * The derived figures stored with a savings goal, so that reading goals does no
+ * arithmetic. They are computed when the goal is created, whenever a contribution lands
+ * or a linked recurring transfer changes, and once a day by {@link SavingsGoalSweeper} as
+ * the target date draws nearer.
+ *
+ * @param progressPercentage           current amount as a percentage of the target, at most 100
+ * @param suggestedMonthlyContribution what is still needed spread over the whole months left,
+ *                                     zero when less than a month is left or nothing is needed
+ * @param projectedCompletionDate      when the active recurring transfers into the goal reach the
+ *                                     target, or null if there are none
+ */
+record GoalProjection(BigDecimal progressPercentage,
+                      BigDecimal suggestedMonthlyContribution,
+                      LocalDate projectedCompletionDate) {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+
+    static GoalProjection of(SavingsGoal goal, List<RecurringTransfer> activeRecurringTransfers, LocalDate today) {
+        BigDecimal target = goal.getTargetAmount();
+        BigDecimal current = goal.getCurrentAmount();
+
+        BigDecimal progress = current
+                .divide(target, 4, RoundingMode.HALF_UP)
+                .multiply(HUNDRED)
+                .min(HUNDRED)
+                .setScale(2, RoundingMode.HALF_UP);
+
+        BigDecimal amountNeeded = target.subtract(current);
+        if (amountNeeded.signum() <= 0) {
+            return new GoalProjection(progress, BigDecimal.ZERO, null);
+        }
+
+        BigDecimal suggestedMonthly = BigDecimal.ZERO;
+        long monthsRemaining = ChronoUnit.DAYS.between(today, goal.getTargetDate()) / 30;
+        if (monthsRemaining > 0) {
+            suggestedMonthly = amountNeeded.divide(BigDecimal.valueOf(monthsRemaining), 2, RoundingMode.HALF_UP);
+        }
+
+        BigDecimal yearlyContributions = BigDecimal.ZERO;
+        for (RecurringTransfer recurring : activeRecurringTransfers) {
+            yearlyContributions = yearlyContributions.add(
+                    recurring.getAmount().multiply(BigDecimal.valueOf(timesPerYear(recurring.getFrequency()))));
+        }
+        LocalDate projectedCompletion = null;
+        if (yearlyContributions.signum() > 0) {
+            long days = amountNeeded.multiply(DAYS_PER_YEAR)
+                    .divide(yearlyContributions, 0, RoundingMode.CEILING)
+                    .longValueExact();
+            projectedCompletion = today.plusDays(days);
+        }
+
+        return new GoalProjection(progress, suggestedMonthly, projectedCompletion);
+    }
+
+    void applyTo(SavingsGoal goal, LocalDate today) {
+        goal.setProgressPercentage(progressPercentage);
+        goal.setSuggestedMonthlyContribution(suggestedMonthlyContribution);
+        goal.setProjectedCompletionDate(projectedCompletionDate);
+        goal.setProjectedOn(today);
+    }
+
+    private static int timesPerYear(String frequency) {
+        return switch (RecurringTransfer.Frequency.valueOf(frequency)) {
+            case DAILY -> 365;
+            case WEEKLY -> 52;
+            case BIWEEKLY -> 26;
+            case MONTHLY -> 12;
+            case QUARTERLY -> 4;
+            case YEARLY -> 1;
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.config.Workload;
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkhead;
+import com.digitalwallet.jobs.JobBulkheads;
+import com.digitalwallet.model.WalletHold;
+import com.digitalwallet.repository.WalletHoldRepository;
+import com.digitalwallet.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Expires holds that were neither captured nor released in time, giving their funds back
+ * to the wallet. Holds placed or extended on this instance go on a {@link TimingWheel}
+ * that ticks every {@code novapay.holds.expiry-tick}, so they expire within about a tick
+ * of their deadline without any polling. Holds the wheel does not know about, such as
+ * those placed on another instance or before a restart, are found by a sweep of the
+ * table every {@code novapay.holds.sweep-interval}.
+ *
+ * <p>Each batch is one transaction that locks the due holds with {@code SKIP LOCKED},
+ * lowers the held balances with one statement and marks the holds expired; a hold being
+ * captured or released at the same moment is left to that request. Batches run on the
+ * sweepers' {@link JobBulkhead}, one permit each.
+ */
+@Slf4j
+@Service
+public class HoldExpirySweeper {
+
+    private static final int WHEEL_SLOTS = 512;
+
+    private final WalletHoldRepository walletHoldRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final JobBulkhead bulkhead;
+    private final TimingWheel wheel;
+    private final Counter expiredHolds;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final int chunkSize;
+
+    public HoldExpirySweeper(WalletHoldRepository walletHoldRepository,
+                             WalletRepository walletRepository,
+                             TransactionalOperator transactionalOperator,
+                             JobBulkheads jobBulkheads,
+                             MeterRegistry meterRegistry,
+                             @Value("${novapay.holds.expiry-tick:PT1S}") Duration expiryTick,
+                             @Value("${novapay.holds.max-tracked:100000}") int maxTracked,
+                             @Value("${novapay.holds.sweep-chunk-size:500}") int chunkSize) {
+        this.walletHoldRepository = walletHoldRepository;
+        this.walletRepository = walletRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.bulkhead = jobBulkheads.get(Job.SWEEPERS);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.wheel = new TimingWheel(expiryTick, WHEEL_SLOTS, maxTracked, System.currentTimeMillis());
+        this.expiredHolds = Counter.builder("novapay.holds.expired")
+                .description("Holds expired and their funds released")
+                .register(meterRegistry);
+        Gauge.builder("novapay.holds.tracked", wheel, TimingWheel::size)
+                .description("Holds waiting on this instance's expiry wheel")
+                .register(meterRegistry);
+    }
+
+    /** Puts the hold on the wheel to expire at its current expiry time, replacing any earlier one. */
+    public void track(WalletHold hold) {
+        long deadline = hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!wheel.schedule(hold.getId(), deadline)) {
+            log.debug("Expiry wheel is full; hold {} is left to the sweep", hold.getHoldReference());
+        }
+    }
+
+    /** Takes a captured or released hold off the wheel. */
+    public void untrack(WalletHold hold) {
+        wheel.cancel(hold.getId());
+    }
+
+    // Holds settled on another instance since they were tracked are skipped by expire()
+    @Scheduled(fixedDelayString = "${novapay.holds.expiry-tick:PT1S}")
+    public void expireDueHolds() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        bulkhead.run(expire(due, LocalDateTime.now()))
+                .subscribe(
+                        expired -> log.debug("Expired {} of {} due holds", expired, due.size()),
+                        error -> log.error("Hold expiry failed; the sweep will retry", error));
+    }
+
+    @Scheduled(fixedDelayString = "${novapay.holds.sweep-interval:PT1M}")
+    public void sweepExpiredHolds() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        Workload.BATCH.bind(sweep(LocalDateTime.now()))
+                .doFinally(signal -> sweeping.set(false))
+                .subscribe(
+                        expired -> {
+                            if (expired > 0) {
+                                log.info("Swept {} expired holds", expired);
+                            }
+                        },
+                        error -> log.error("Hold sweep failed", error));
+    }
+
+    /**
+     * Expires every hold due at {@code now}, in chunks. Stops early when a chunk contains
+     * holds locked by a capture or release, which settle them either way.
+     */
+    public Mono<Integer> sweep(LocalDateTime now) {
+        return sweepChunk(now)
+                .expand(expired -> expired < chunkSize ? Mono.empty() : sweepChunk(now))
+                .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> sweepChunk(LocalDateTime now) {
+        return bulkhead.run(walletHoldRepository.findExpiredIds(now, chunkSize)
+                .collectList()
+                .flatMap(holdIds -> holdIds.isEmpty() ? Mono.just(0) : expire(holdIds, now)));
+    }
+
+    Mono<Integer> expire(Collection<Long> holdIds, LocalDateTime now) {
+        return transactionalOperator.transactional(walletHoldRepository.lockExpired(holdIds, now)
+                        .collectList()
+                        .flatMap(holds -> {
+                            if (holds.isEmpty()) {
+                                return Mono.just(0);
+                            }
+                            Map<Long, BigDecimal> heldByWallet = new HashMap<>();
+                            for (WalletHold hold : holds) {
+                                heldByWallet.merge(hold.getWalletId(), hold.getAmount(), BigDecimal::add);
+                            }
+                            return walletRepository.releaseAllHeld(heldByWallet)
+                                    .then(walletHoldRepository.markAllExpired(
+                                            holds.stream().map(WalletHold::getId).toList(), now));
+                        }))
+                .doOnNext(expiredHolds::increment);
+    }
+}
@@ -0,0 +1,365 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.dto.HoldRequest;
+import com.digitalwallet.dto.HoldResponse;
+import com.digitalwallet.exception.HoldNotFoundException;
+import com.digitalwallet.exception.InsufficientBalanceException;
+import com.digitalwallet.model.LedgerEntry;
+import com.digitalwallet.model.Transfer;
+import com.digitalwallet.model.Wallet;
+import com.digitalwallet.model.WalletHold;
+import com.digitalwallet.reference.ReferenceGenerator;
+import com.digitalwallet.repository.LedgerEntryRepository;
+import com.digitalwallet.repository.TransferRepository;
+import com.digitalwallet.repository.WalletHoldRepository;
+import com.digitalwallet.repository.WalletRepository;
+import com.digitalwallet.risk.RiskCheckStage;
+import com.digitalwallet.risk.TransferAttempt;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Card-style holds: funds are reserved on a wallet now and captured to a destination
+ * wallet later, or released. Reserving adds the amount to the wallet's
+ * {@code held_balance} with one conditional update, so no lock is held between placing
+ * and capturing a hold, and every debit, on any instance, only spends the balance less
+ * what is held. The available balance is read off the same row as the balance.
+ *
+ * <p>A capture is a {@code HOLD_CAPTURE} transfer from the held wallet, with the usual
+ * ledger entries; capturing less than the hold releases the rest. It goes through the
+ * {@link RiskCheckStage} and the daily limit like any other transfer. Holds that are
+ * neither captured nor released by their expiry time are released by
+ * {@link HoldExpirySweeper}.
+ *
+ * <p>Holds are placed on the caller's own wallets, and only the user who placed a hold,
+ * while they still own the held wallet, can see, capture, release or extend it.
+ */
+@Slf4j
+@Service
+public class HoldService {
+
+    private static final String HOLD_REFERENCE_PREFIX = "HLD-";
+
+    private final WalletService walletService;
+    private final WalletRepository walletRepository;
+    private final WalletHoldRepository walletHoldRepository;
+    private final TransferRepository transferRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final EventPublisherService eventPublisher;
+    private final ReferenceGenerator referenceGenerator;
+    private final TransactionalOperator transactionalOperator;
+    private final HoldExpirySweeper holdExpirySweeper;
+    private final TransferService transferService;
+    private final RiskCheckStage riskCheckStage;
+
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+
+    public HoldService(WalletService walletService,
+                       WalletRepository walletRepository,
+                       WalletHoldRepository walletHoldRepository,
+                       TransferRepository transferRepository,
+                       LedgerEntryRepository ledgerEntryRepository,
+                       EventPublisherService eventPublisher,
+                       ReferenceGenerator referenceGenerator,
+                       TransactionalOperator transactionalOperator,
+                       HoldExpirySweeper holdExpirySweeper,
+                       TransferService transferService,
+                       RiskCheckStage riskCheckStage,
+                       @Value("${wallet.transfer.min-amount}") BigDecimal minAmount,
+                       @Value("${wallet.transfer.max-amount}") BigDecimal maxAmount,
+                       @Value("${novapay.holds.default-ttl:7d}") Duration defaultTtl,
+                       @Value("${novapay.holds.max-ttl:30d}") Duration maxTtl) {
+        this.walletService = walletService;
+        this.walletRepository = walletRepository;
+        this.walletHoldRepository = walletHoldRepository;
+        this.transferRepository = transferRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.eventPublisher = eventPublisher;
+        this.referenceGenerator = referenceGenerator;
+        this.transactionalOperator = transactionalOperator;
+        this.holdExpirySweeper = holdExpirySweeper;
+        this.transferService = transferService;
+        this.riskCheckStage = riskCheckStage;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.defaultTtl = defaultTtl;
+        this.maxTtl = maxTtl;
+    }
+
+    public Mono<HoldResponse> placeHold(HoldRequest request, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = request.getExpiresAt() != null ? request.getExpiresAt() : now.plus(defaultTtl);
+        if (request.getAmount().compareTo(minAmount) < 0) {
+            return Mono.error(new IllegalArgumentException("Amount must be at least " + minAmount));
+        }
+        if (request.getAmount().compareTo(maxAmount) > 0) {
+            return Mono.error(new IllegalArgumentException("Amount exceeds maximum transfer limit of " + maxAmount));
+        }
+        if (request.getWalletNumber().equals(request.getDestinationWalletNumber())) {
+            return Mono.error(new IllegalArgumentException("Source and destination wallets cannot be the same"));
+        }
+        String expiryProblem = expiryProblem(expiresAt, now);
+        if (expiryProblem != null) {
+            return Mono.error(new IllegalArgumentException(expiryProblem));
+        }
+
+        return walletService.getWalletByNumber(request.getWalletNumber())
+                .zipWith(walletService.getWalletByNumber(request.getDestinationWalletNumber()))
+                .flatMap(wallets -> {
+                    Wallet source = wallets.getT1();
+                    Wallet destination = wallets.getT2();
+                    if (!source.getUserId().equals(userId)) {
+                        return Mono.error(new IllegalArgumentException("Source wallet does not belong to user"));
+                    }
+                    if (!"ACTIVE".equals(source.getStatus())) {
+                        return Mono.error(new IllegalStateException("Source wallet is not active"));
+                    }
+                    if (!"ACTIVE".equals(destination.getStatus())) {
+                        return Mono.error(new IllegalStateException("Destination wallet is not active"));
+                    }
+                    if (!source.getCurrency().equals(request.getCurrency())
+                            || !destination.getCurrency().equals(request.getCurrency())) {
+                        return Mono.error(new IllegalArgumentException(
+                                "Currency mismatch: holds are in the currency of both wallets"));
+                    }
+
+                    WalletHold hold = WalletHold.builder()
+                            .holdReference(referenceGenerator.next(HOLD_REFERENCE_PREFIX))
+                            .walletId(source.getId())
+                            .destinationWalletId(destination.getId())
+                            .amount(request.getAmount())
+                            .currency(request.getCurrency())
+                            .status(WalletHold.Status.ACTIVE.name())
+                            .description(request.getDescription())
+                            .createdBy(userId)
+                            .createdAt(now)
+                            .expiresAt(expiresAt)
+                            .build();
+
+                    return transactionalOperator.transactional(walletRepository.holdFunds(source.getId(), hold.getAmount())
+                            .flatMap(updated -> updated == 0
+                                    ? Mono.error(new InsufficientBalanceException(
+                                            "Insufficient available balance in source wallet"))
+                                    : walletHoldRepository.save(hold)));
+                })
+                .doOnNext(holdExpirySweeper::track)
+                .map(hold -> toResponse(hold, "Hold placed"))
+                .doOnSuccess(response -> log.info("Hold placed: {}", response.getHoldReference()));
+    }
+
+    /**
+     * Captures {@code amount} of the hold, or all of it when null, and releases the rest.
+     * Both wallets are locked for the capture, in id order like every other balance update.
+     */
+    public Mono<HoldResponse> captureHold(String holdReference, BigDecimal amount, Long userId) {
+        return transactionalOperator.transactional(lockActive(holdReference)
+                        .flatMap(hold -> userId.equals(hold.getCreatedBy()) ? Mono.just(hold) : Mono.error(notOwned()))
+                        .flatMap(hold -> walletRepository.lockByIds(List.of(hold.getWalletId(), hold.getDestinationWalletId()))
+                                .collectMap(Wallet::getId, Function.identity())
+                                .flatMap(wallets -> {
+                                    Wallet source = wallets.get(hold.getWalletId());
+                                    if (source == null || !userId.equals(source.getUserId())) {
+                                        return Mono.error(notOwned());
+                                    }
+                                    BigDecimal captured = amount != null ? amount : hold.getAmount();
+                                    if (captured.signum() <= 0 || captured.compareTo(hold.getAmount()) > 0) {
+                                        return Mono.error(new IllegalArgumentException(
+                                                "Capture amount must be more than 0 and at most " + hold.getAmount()));
+                                    }
+                                    TransferAttempt attempt = new TransferAttempt(userId, hold.getWalletId(),
+                                            hold.getDestinationWalletId(), captured, System.currentTimeMillis());
+                                    return riskCheckStage.evaluate(attempt)
+                                            .then(transferService.checkDailyLimit(source.getId(), captured))
+                                            .then(capture(hold, captured, wallets, userId))
+                                            .map(transfer -> {
+                                                hold.setStatus(WalletHold.Status.CAPTURED.name());
+                                                hold.setCapturedAmount(captured);
+                                                hold.setTransferReference(transfer.getTransferReference());
+                                                hold.setClosedAt(transfer.getCompletedAt());
+                                                return new Capture(hold, transfer, attempt);
+                                            });
+                                })))
+                // Published once the capture has committed
+                .doOnNext(capture -> eventPublisher.publishTransferCompleted(capture.transfer()).subscribe())
+                .doOnNext(capture -> holdExpirySweeper.untrack(capture.hold()))
+                .doOnNext(capture -> riskCheckStage.record(capture.attempt()))
+                .map(capture -> toResponse(capture.hold(), "Hold captured"))
+                .doOnSuccess(response -> log.info("Hold captured: {} as {}",
+                        holdReference, response.getTransferReference()));
+    }
+
+    private Mono<Transfer> capture(WalletHold hold, BigDecimal captured, Map<Long, Wallet> wallets, Long userId) {
+        Wallet source = wallets.get(hold.getWalletId());
+        Wallet destination = wallets.get(hold.getDestinationWalletId());
+        if (destination == null || !"ACTIVE".equals(destination.getStatus())) {
+            return Mono.error(new IllegalStateException("Destination wallet is not active"));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Transfer transfer = Transfer.builder()
+                .transferReference(referenceGenerator.next(TransferService.TRANSFER_REFERENCE_PREFIX))
+                .sourceWalletId(source.getId())
+                .destinationWalletId(destination.getId())
+                .amount(captured)
+                .currency(hold.getCurrency())
+                .status(Transfer.Status.COMPLETED.name())
+                .transferType(Transfer.TransferType.HOLD_CAPTURE.name())
+                .description(hold.getDescription())
+                .initiatedBy(userId)
+                .createdAt(now)
+                .completedAt(now)
+                .parentReference(hold.getHoldReference())
+                .build();
+
+        return walletRepository.captureHeldFunds(source.getId(), hold.getAmount(), captured)
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new IllegalStateException("Held funds are no longer on the source wallet"))
+                        : walletRepository.creditWallet(destination.getId(), captured))
+                .then(transferRepository.registerReference(transfer.getTransferReference(), now))
+                .then(transferRepository.save(transfer))
+                .flatMap(saved -> ledgerEntryRepository.insertAll(List.of(
+                                ledgerEntry(saved, source, LedgerEntry.EntryType.DEBIT, captured.negate()),
+                                ledgerEntry(saved, destination, LedgerEntry.EntryType.CREDIT, captured)))
+                        .then(walletHoldRepository.markCaptured(hold.getId(), captured,
+                                saved.getTransferReference(), now))
+                        .thenReturn(saved));
+    }
+
+    public Mono<HoldResponse> releaseHold(String holdReference, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionalOperator.transactional(lockActive(holdReference)
+                        .flatMap(hold -> owned(hold, userId))
+                        .flatMap(hold -> walletRepository.releaseHeldFunds(hold.getWalletId(), hold.getAmount())
+                                .flatMap(updated -> updated == 0
+                                        ? Mono.error(new IllegalStateException("Held funds are no longer on the wallet"))
+                                        : walletHoldRepository.markReleased(hold.getId(), now))
+                                .map(updated -> {
+                                    hold.setStatus(WalletHold.Status.RELEASED.name());
+                                    hold.setClosedAt(now);
+                                    return hold;
+                                })))
+                .doOnNext(holdExpirySweeper::untrack)
+                .map(hold -> toResponse(hold, "Hold released"))
+                .doOnSuccess(response -> log.info("Hold released: {}", holdReference));
+    }
+
+    /** Moves the expiry of an active hold that has not expired yet, earlier or later. */
+    public Mono<HoldResponse> extendHold(String holdReference, LocalDateTime expiresAt, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        String expiryProblem = expiryProblem(expiresAt, now);
+        if (expiryProblem != null) {
+            return Mono.error(new IllegalArgumentException(expiryProblem));
+        }
+        return findOwned(holdReference, userId)
+                .flatMap(hold -> walletHoldRepository.extend(holdReference, expiresAt, now)
+                        .flatMap(updated -> updated == 0
+                                // Settled since it was read, so read it again for the reason
+                                ? walletHoldRepository.findByHoldReference(holdReference)
+                                        .flatMap(current -> Mono.<WalletHold>error(notActive(current, now)))
+                                : Mono.just(hold)))
+                .doOnNext(hold -> {
+                    hold.setExpiresAt(expiresAt);
+                    holdExpirySweeper.track(hold);
+                })
+                .map(hold -> toResponse(hold, "Hold expiry changed"));
+    }
+
+    public Mono<HoldResponse> getHold(String holdReference, Long userId) {
+        return findOwned(holdReference, userId)
+                .map(hold -> toResponse(hold, "Hold " + hold.getStatus().toLowerCase()));
+    }
+
+    private Mono<WalletHold> findOwned(String holdReference, Long userId) {
+        return walletHoldRepository.findByHoldReference(holdReference)
+                .switchIfEmpty(Mono.error(new HoldNotFoundException("Hold not found: " + holdReference)))
+                .flatMap(hold -> owned(hold, userId));
+    }
+
+    // The user who placed the hold, as long as they still own the held wallet
+    private Mono<WalletHold> owned(WalletHold hold, Long userId) {
+        if (!userId.equals(hold.getCreatedBy())) {
+            return Mono.error(notOwned());
+        }
+        return walletRepository.findById(hold.getWalletId())
+                .filter(source -> userId.equals(source.getUserId()))
+                .switchIfEmpty(Mono.error(notOwned()))
+                .thenReturn(hold);
+    }
+
+    // An active hold past its expiry time is treated as expired; the sweeper releases it
+    private Mono<WalletHold> lockActive(String holdReference) {
+        LocalDateTime now = LocalDateTime.now();
+        return walletHoldRepository.lockByReference(holdReference)
+                .switchIfEmpty(Mono.error(new HoldNotFoundException("Hold not found: " + holdReference)))
+                .flatMap(hold -> WalletHold.Status.ACTIVE.name().equals(hold.getStatus()) && hold.getExpiresAt().isAfter(now)
+                        ? Mono.just(hold) : Mono.error(notActive(hold, now)));
+    }
+
+    private String expiryProblem(LocalDateTime expiresAt, LocalDateTime now) {
+        if (!expiresAt.isAfter(now)) {
+            return "Expiry time must be in the future";
+        }
+        if (expiresAt.isAfter(now.plus(maxTtl))) {
+            return "Expiry time must be within " + maxTtl.toDays() + " days";
+        }
+        return null;
+    }
+
+    private static IllegalArgumentException notOwned() {
+        return new IllegalArgumentException("Hold does not belong to user");
+    }
+
+    private static IllegalStateException notActive(WalletHold hold, LocalDateTime now) {
+        String status = WalletHold.Status.ACTIVE.name().equals(hold.getStatus()) && !hold.getExpiresAt().isAfter(now)
+                ? WalletHold.Status.EXPIRED.name() : hold.getStatus();
+        return new IllegalStateException("Hold is " + status.toLowerCase());
+    }
+
+    // The wallet rows are locked, so the balance before the capture is the one read
+    private static LedgerEntry ledgerEntry(Transfer transfer, Wallet wallet, LedgerEntry.EntryType entryType,
+                                           BigDecimal change) {
+        return LedgerEntry.builder()
+                .transferId(transfer.getId())
+                .walletId(wallet.getId())
+                .entryType(entryType.name())
+                .amount(transfer.getAmount())
+                .balanceBefore(wallet.getBalance())
+                .balanceAfter(wallet.getBalance().add(change))
+                .currency(transfer.getCurrency())
+                .description(entryType.name() + " for transfer " + transfer.getTransferReference())
+                .createdAt(transfer.getCreatedAt())
+                .build();
+    }
+
+    private record Capture(WalletHold hold, Transfer transfer, TransferAttempt attempt) {
+    }
+
+    private static HoldResponse toResponse(WalletHold hold, String message) {
+        return HoldResponse.builder()
+                .holdReference(hold.getHoldReference())
+                .amount(hold.getAmount())
+                .currency(hold.getCurrency())
+                .status(hold.getStatus())
+                .capturedAmount(hold.getCapturedAmount())
+                .transferReference(hold.getTransferReference())
+                .description(hold.getDescription())
+                .createdAt(hold.getCreatedAt())
+                .expiresAt(hold.getExpiresAt())
+                .closedAt(hold.getClosedAt())
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,499 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.config.Workload;
+import com.digitalwallet.dto.PayoutLine;
+import com.digitalwallet.dto.PayoutLineResult;
+import com.digitalwallet.dto.PayoutResponse;
+import com.digitalwallet.exception.InsufficientBalanceException;
+import com.digitalwallet.exception.RiskCheckFailedException;
+import com.digitalwallet.metrics.StageMetrics;
+import com.digitalwallet.model.LedgerEntry;
+import com.digitalwallet.model.Payout;
+import com.digitalwallet.model.Transfer;
+import com.digitalwallet.model.Wallet;
+import com.digitalwallet.reference.ReferenceGenerator;
+import com.digitalwallet.repository.LedgerEntryRepository;
+import com.digitalwallet.repository.PayoutRepository;
+import com.digitalwallet.repository.TransferRepository;
+import com.digitalwallet.repository.WalletRepository;
+import com.digitalwallet.risk.RiskCheckStage;
+import com.digitalwallet.risk.TransferAttempt;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pays many destination wallets from one source wallet. Lines are processed in chunks of
+ * {@code novapay.payout.chunk-size}, each in its own transaction: the source is debited
+ * once for the chunk's total, the destinations are credited with one multi-row update,
+ * and the chunk's transfers and ledger entries are each written with one insert. A chunk
+ * that fails rolls back as a whole and its lines are reported failed; chunks before it
+ * stay committed. Every line becomes a {@code PAYOUT} transfer whose parent reference is
+ * the payout reference.
+ *
+ * <p>Each line passes the {@link RiskCheckStage} like a single transfer, except for the
+ * rules that count transfers from the wallet or user, and is counted by it once its chunk
+ * has committed. Lines of one chunk are checked against the counts from before the chunk.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PayoutService {
+
+    private final PayoutRepository payoutRepository;
+    private final TransferRepository transferRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final WalletRepository walletRepository;
+    private final WalletService walletService;
+    private final AuditService auditService;
+    private final EventPublisherService eventPublisher;
+    private final StageMetrics stageMetrics;
+    private final RiskCheckStage riskCheckStage;
+    private final ReferenceGenerator referenceGenerator;
+    private final TransactionalOperator transactionalOperator;
+
+    private static final String METRICS_COMPONENT = "payout";
+    private static final String PAYOUT_REFERENCE_PREFIX = "PAY-";
+
+    // Bounds the bind parameters of the ledger insert (two entries of nine columns per line)
+    private static final int MAX_CHUNK_SIZE = 2_000;
+
+    @Value("${wallet.transfer.max-amount}")
+    private BigDecimal maxTransferAmount;
+
+    @Value("${wallet.transfer.min-amount}")
+    private BigDecimal minTransferAmount;
+
+    @Value("${wallet.transfer.daily-limit}")
+    private BigDecimal dailyLimit;
+
+    @Value("${novapay.payout.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * A payout that has been recorded but not run yet. Subscribing to {@code results}
+     * processes the lines and emits one result per line, in line order.
+     */
+    public record PayoutRun(Payout payout, Flux<PayoutLineResult> results) {
+    }
+
+    public Mono<PayoutRun> initiatePayout(String sourceWalletNumber, String description,
+                                          Flux<PayoutLine> lines, Long initiatedBy) {
+        log.info("Initiating payout from {}", sourceWalletNumber);
+
+        LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
+        LocalDateTime endOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
+
+        return walletService.getWalletByNumber(sourceWalletNumber)
+                .flatMap(source -> {
+                    if (!source.getUserId().equals(initiatedBy)) {
+                        return Mono.error(new IllegalArgumentException("Source wallet does not belong to user"));
+                    }
+                    if (!"ACTIVE".equals(source.getStatus())) {
+                        return Mono.error(new IllegalStateException("Source wallet is not active"));
+                    }
+                    // Read once per payout; each chunk then draws down what is left
+                    return transferRepository.getTotalDebitForPeriod(source.getId(), startOfDay, endOfDay)
+                            .defaultIfEmpty(BigDecimal.ZERO)
+                            .flatMap(debitedToday -> createPayout(source, description, initiatedBy)
+                                    .map(payout -> new PayoutRun(payout, Workload.STREAMING.bind(
+                                            processLines(payout, source, lines, debitedToday)))));
+                })
+                .doOnError(error -> log.error("Payout initiation failed", error));
+    }
+
+    public Mono<PayoutResponse> getPayout(String payoutReference) {
+        return payoutRepository.findByPayoutReference(payoutReference)
+                .map(this::buildPayoutResponse)
+                .switchIfEmpty(Mono.error(new RuntimeException("Payout not found: " + payoutReference)));
+    }
+
+    private Mono<Payout> createPayout(Wallet source, String description, Long initiatedBy) {
+        Payout payout = Payout.builder()
+                .payoutReference(referenceGenerator.next(PAYOUT_REFERENCE_PREFIX))
+                .sourceWalletId(source.getId())
+                .currency(source.getCurrency())
+                .status(Payout.Status.PROCESSING.name())
+                .lineCount(0)
+                .completedCount(0)
+                .failedCount(0)
+                .completedAmount(BigDecimal.ZERO)
+                .description(description)
+                .initiatedBy(initiatedBy)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        return payoutRepository.save(payout)
+                .doOnSuccess(saved -> auditService.logAction("PAYOUT", saved.getId(), "PAYOUT_INITIATED",
+                        initiatedBy, null, "Payout from wallet " + source.getWalletNumber()).subscribe());
+    }
+
+    private Flux<PayoutLineResult> processLines(Payout payout, Wallet source, Flux<PayoutLine> lines,
+                                                BigDecimal debitedToday) {
+        BigDecimal limit = source.getDailyLimit() != null ? source.getDailyLimit() : dailyLimit;
+        PayoutProgress progress = new PayoutProgress(WalletService.availableBalance(source), limit.subtract(debitedToday));
+
+        return lines.buffer(Math.min(chunkSize, MAX_CHUNK_SIZE))
+                .concatMap(chunk -> stageMetrics.time(METRICS_COMPONENT, "chunk",
+                        processChunk(payout, source, chunk, progress)))
+                .flatMapIterable(results -> results)
+                .concatWith(Mono.defer(() -> finishPayout(payout, progress)).then(Mono.empty()))
+                // Chunks committed before a disconnect stay paid; the payout still gets its final status
+                .doOnCancel(() -> finishPayout(payout, progress).subscribe());
+    }
+
+    private Mono<List<PayoutLineResult>> processChunk(Payout payout, Wallet source, List<PayoutLine> lines,
+                                                      PayoutProgress progress) {
+        int firstLineNumber = progress.nextLineNumber(lines.size());
+
+        Set<String> walletNumbers = new HashSet<>();
+        for (PayoutLine line : lines) {
+            if (line.getDestinationWalletNumber() != null) {
+                walletNumbers.add(line.getDestinationWalletNumber());
+            }
+        }
+
+        Mono<Map<String, Wallet>> destinationLookup = walletNumbers.isEmpty()
+                ? Mono.just(Map.of())
+                : walletRepository.findByWalletNumbers(walletNumbers).collectMap(Wallet::getWalletNumber);
+
+        PayoutLineResult[] results = new PayoutLineResult[lines.size()];
+        List<Transfer> transfers = new ArrayList<>(lines.size());
+        List<Integer> transferLines = new ArrayList<>(lines.size());
+        List<TransferAttempt> attempts = new ArrayList<>(lines.size());
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = System.currentTimeMillis();
+
+        // Lines are checked one after another, as each may only spend what earlier lines left
+        Mono<Void> checkLines = destinationLookup
+                .flatMapMany(destinations -> Flux.range(0, lines.size())
+                        .concatMap(index -> {
+                            PayoutLine line = lines.get(index);
+                            Wallet destination = destinations.get(line.getDestinationWalletNumber());
+                            String rejection = validateLine(line, source, destination, progress);
+                            if (rejection != null) {
+                                results[index] = lineResult(payout, firstLineNumber + index, line, null,
+                                        Transfer.Status.FAILED, rejection);
+                                return Mono.empty();
+                            }
+                            TransferAttempt attempt = new TransferAttempt(payout.getInitiatedBy(), source.getId(),
+                                    destination.getId(), line.getAmount(), nowMillis, true);
+                            return riskCheckStage.evaluate(attempt)
+                                    .then(Mono.fromRunnable(() -> {
+                                        progress.reserve(line.getAmount());
+                                        transfers.add(createTransfer(payout, source, destination, line, now));
+                                        transferLines.add(index);
+                                        attempts.add(attempt);
+                                    }))
+                                    .onErrorResume(RiskCheckFailedException.class, rejected -> {
+                                        results[index] = lineResult(payout, firstLineNumber + index, line, null,
+                                                Transfer.Status.FAILED, rejected.getMessage());
+                                        return Mono.empty();
+                                    });
+                        }))
+                .then();
+
+        return stageMetrics.time(METRICS_COMPONENT, "risk_checks", checkLines)
+                .then(Mono.defer(() -> {
+                    BigDecimal total = transfers.stream().map(Transfer::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+                    int rejected = lines.size() - transfers.size();
+                    String[] chunkFailure = new String[1];
+
+                    Mono<Void> chunk = transfers.isEmpty()
+                            ? payoutRepository.recordProgress(payout.getId(), lines.size(), 0, rejected, BigDecimal.ZERO).then()
+                            : transactionalOperator.transactional(moveFunds(source, transfers, total)
+                                            .flatMap(debitedSource -> payoutRepository.recordProgress(payout.getId(),
+                                                            lines.size(), transfers.size(), rejected, total)
+                                                    .thenReturn(debitedSource)))
+                                    // Committed: only now is the debited balance the one to spend from
+                                    .doOnSuccess(debitedSource -> {
+                                        progress.balance = WalletService.availableBalance(debitedSource);
+                                        progress.completed(transfers.size(), total);
+                                        auditService.logWalletAction(source.getId(), "WALLET_DEBITED", payout.getInitiatedBy(),
+                                                debitedSource.getBalance().add(total).toString(),
+                                                debitedSource.getBalance().toString()).subscribe();
+                                        Flux.fromIterable(transfers)
+                                                .flatMap(eventPublisher::publishTransferCompleted)
+                                                .subscribe();
+                                        attempts.forEach(riskCheckStage::record);
+                                    })
+                                    .then()
+                                    .onErrorResume(error -> {
+                                        log.error("Payout {} lines {}-{} failed", payout.getPayoutReference(),
+                                                firstLineNumber, firstLineNumber + lines.size() - 1, error);
+                                        chunkFailure[0] = error.getMessage();
+                                        progress.release(total);
+                                        for (Transfer transfer : transfers) {
+                                            transfer.setStatus(Transfer.Status.FAILED.name());
+                                        }
+                                        return payoutRepository.recordProgress(payout.getId(), lines.size(),
+                                                0, lines.size(), BigDecimal.ZERO).then();
+                                    });
+
+                    return chunk.then(Mono.fromSupplier(() -> {
+                        progress.failed(lines.size() - countCompleted(transfers));
+                        for (int index = 0; index < transfers.size(); index++) {
+                            Transfer transfer = transfers.get(index);
+                            int lineIndex = transferLines.get(index);
+                            boolean completed = Transfer.Status.COMPLETED.name().equals(transfer.getStatus());
+                            results[lineIndex] = lineResult(payout, firstLineNumber + lineIndex, lines.get(lineIndex),
+                                    completed ? transfer.getTransferReference() : null,
+                                    completed ? Transfer.Status.COMPLETED : Transfer.Status.FAILED,
+                                    completed ? "Transfer completed" : "Chunk rolled back: " + chunkFailure[0]);
+                        }
+                        return List.of(results);
+                    }));
+                }));
+    }
+
+    // Same checks as a single transfer before its risk checks, plus the running balance and daily limit of this payout
+    private String validateLine(PayoutLine line, Wallet source, Wallet destination, PayoutProgress progress) {
+        if (line.getDestinationWalletNumber() == null || line.getDestinationWalletNumber().isBlank()) {
+            return "Destination wallet number is required";
+        }
+        if (line.getAmount() == null || line.getAmount().compareTo(minTransferAmount) < 0) {
+            return "Amount must be at least " + minTransferAmount;
+        }
+        if (line.getAmount().compareTo(maxTransferAmount) > 0) {
+            return "Amount exceeds maximum transfer limit of " + maxTransferAmount;
+        }
+        if (destination == null) {
+            return "Wallet not found: " + line.getDestinationWalletNumber();
+        }
+        if (destination.getId().equals(source.getId())) {
+            return "Source and destination wallets cannot be the same";
+        }
+        if (!"ACTIVE".equals(destination.getStatus())) {
+            return "Destination wallet is not active";
+        }
+        if (!source.getCurrency().equals(destination.getCurrency())) {
+            return "Currency mismatch: source " + source.getCurrency() +
+                    " vs destination " + destination.getCurrency();
+        }
+        if (line.getAmount().compareTo(progress.dailyLimitLeft) > 0) {
+            return "Daily transfer limit exceeded";
+        }
+        if (line.getAmount().compareTo(progress.balance) > 0) {
+            return "Insufficient balance in source wallet";
+        }
+        return null;
+    }
+
+    private Transfer createTransfer(Payout payout, Wallet source, Wallet destination, PayoutLine line,
+                                    LocalDateTime now) {
+        return Transfer.builder()
+                .transferReference(referenceGenerator.next(TransferService.TRANSFER_REFERENCE_PREFIX))
+                .sourceWalletId(source.getId())
+                .destinationWalletId(destination.getId())
+                .amount(line.getAmount())
+                .currency(source.getCurrency())
+                .status(Transfer.Status.COMPLETED.name())
+                .transferType(Transfer.TransferType.PAYOUT.name())
+                .description(line.getDescription() != null ? line.getDescription() : payout.getDescription())
+                .initiatedBy(payout.getInitiatedBy())
+                .createdAt(now)
+                .completedAt(now)
+                .parentReference(payout.getPayoutReference())
+                .build();
+    }
+
+    /**
+     * Locks the source and every destination in id order, as netting and hold capture do,
+     * so a chunk cannot deadlock against them. Then debits the source once, inserts the
+     * transfers, credits every destination in one update and writes both sides of each
+     * transfer to the ledger. Balances for the
+     * ledger are read back once for the source and once for all destinations. Returns the
+     * source as read back after the debit.
+     */
+    private Mono<Wallet> moveFunds(Wallet source, List<Transfer> transfers, BigDecimal total) {
+        Map<Long, BigDecimal> creditsByWallet = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            creditsByWallet.merge(transfer.getDestinationWalletId(), transfer.getAmount(), BigDecimal::add);
+        }
+
+        Set<Long> walletIds = new HashSet<>(creditsByWallet.keySet());
+        walletIds.add(source.getId());
+
+        return stageMetrics.time(METRICS_COMPONENT, "lock", walletRepository.lockByIds(walletIds).then())
+                .then(stageMetrics.time(METRICS_COMPONENT, "debit", walletRepository.debitWallet(source.getId(), total)))
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new InsufficientBalanceException("Insufficient balance in source wallet"))
+                        : walletRepository.findById(source.getId()))
+                .flatMap(debitedSource -> stageMetrics.time(METRICS_COMPONENT, "transfer_insert",
+                                transferRepository.insertAll(transfers))
+                        .then(stageMetrics.time(METRICS_COMPONENT, "credit", walletRepository.creditAll(creditsByWallet)))
+                        .flatMap(credited -> credited < creditsByWallet.size()
+                                ? Mono.error(new IllegalStateException("A destination wallet is no longer active"))
+                                : walletRepository.findAllById(creditsByWallet.keySet())
+                                        .collectMap(Wallet::getId, Wallet::getBalance))
+                        .flatMap(destinationBalances -> stageMetrics.time(METRICS_COMPONENT, "ledger_insert",
+                                ledgerEntryRepository.insertAll(ledgerEntries(transfers, debitedSource.getBalance(),
+                                        destinationBalances, creditsByWallet))))
+                        .thenReturn(debitedSource));
+    }
+
+    // Replays each wallet's balance forward from what it was before the chunk
+    private List<LedgerEntry> ledgerEntries(List<Transfer> transfers, BigDecimal sourceBalanceAfter,
+                                            Map<Long, BigDecimal> destinationBalancesAfter,
+                                            Map<Long, BigDecimal> creditsByWallet) {
+        BigDecimal sourceBalance = transfers.stream().map(Transfer::getAmount).reduce(sourceBalanceAfter, BigDecimal::add);
+        Map<Long, BigDecimal> destinationBalances = new HashMap<>();
+        destinationBalancesAfter.forEach((walletId, balance) ->
+                destinationBalances.put(walletId, balance.subtract(creditsByWallet.get(walletId))));
+
+        List<LedgerEntry> entries = new ArrayList<>(transfers.size() * 2);
+        for (Transfer transfer : transfers) {
+            BigDecimal sourceBefore = sourceBalance;
+            sourceBalance = sourceBalance.subtract(transfer.getAmount());
+            entries.add(ledgerEntry(transfer, transfer.getSourceWalletId(), LedgerEntry.EntryType.DEBIT,
+                    sourceBefore, sourceBalance));
+
+            BigDecimal destinationBefore = destinationBalances.get(transfer.getDestinationWalletId());
+            BigDecimal destinationAfter = destinationBefore.add(transfer.getAmount());
+            destinationBalances.put(transfer.getDestinationWalletId(), destinationAfter);
+            entries.add(ledgerEntry(transfer, transfer.getDestinationWalletId(), LedgerEntry.EntryType.CREDIT,
+                    destinationBefore, destinationAfter));
+        }
+        return entries;
+    }
+
+    private LedgerEntry ledgerEntry(Transfer transfer, Long walletId, LedgerEntry.EntryType entryType,
+                                    BigDecimal balanceBefore, BigDecimal balanceAfter) {
+        return LedgerEntry.builder()
+                .transferId(transfer.getId())
+                .walletId(walletId)
+                .entryType(entryType.name())
+                .amount(transfer.getAmount())
+                .balanceBefore(balanceBefore)
+                .balanceAfter(balanceAfter)
+                .currency(transfer.getCurrency())
+                .description(entryType.name() + " for transfer " + transfer.getTransferReference())
+                .createdAt(transfer.getCreatedAt())
+                .build();
+    }
+
+    private Mono<Void> finishPayout(Payout payout, PayoutProgress progress) {
+        if (!progress.finish()) {
+            return Mono.empty();
+        }
+        Payout.Status status = progress.failedCount == 0 ? Payout.Status.COMPLETED
+                : progress.completedCount == 0 ? Payout.Status.FAILED
+                : Payout.Status.PARTIALLY_COMPLETED;
+
+        return payoutRepository.markFinished(payout.getId(), status.name(), LocalDateTime.now())
+                .doOnSuccess(updated -> {
+                    log.info("Payout {} {}: {} lines completed, {} failed, {} paid", payout.getPayoutReference(),
+                            status, progress.completedCount, progress.failedCount, progress.completedAmount);
+                    auditService.logAction("PAYOUT", payout.getId(), "PAYOUT_" + status.name(), payout.getInitiatedBy(),
+                            null, progress.completedCount + " completed, " + progress.failedCount + " failed").subscribe();
+                })
+                .then();
+    }
+
+    private static int countCompleted(List<Transfer> transfers) {
+        int completed = 0;
+        for (Transfer transfer : transfers) {
+            if (Transfer.Status.COMPLETED.name().equals(transfer.getStatus())) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    private static PayoutLineResult lineResult(Payout payout, int lineNumber, PayoutLine line,
+                                               String transferReference, Transfer.Status status, String message) {
+        return PayoutLineResult.builder()
+                .payoutReference(payout.getPayoutReference())
+                .lineNumber(lineNumber)
+                .destinationWalletNumber(line.getDestinationWalletNumber())
+                .amount(line.getAmount())
+                .transferReference(transferReference)
+                .status(status.name())
+                .message(message)
+                .build();
+    }
+
+    private PayoutResponse buildPayoutResponse(Payout payout) {
+        return PayoutResponse.builder()
+                .payoutReference(payout.getPayoutReference())
+                .status(payout.getStatus())
+                .currency(payout.getCurrency())
+                .lineCount(payout.getLineCount())
+                .completedCount(payout.getCompletedCount())
+                .failedCount(payout.getFailedCount())
+                .completedAmount(payout.getCompletedAmount())
+                .description(payout.getDescription())
+                .createdAt(payout.getCreatedAt())
+                .completedAt(payout.getCompletedAt())
+                .build();
+    }
+
+    /**
+     * Running state of one payout. Chunks run one after another, so it is never updated
+     * concurrently; only the final status can race with a cancelled stream.
+     */
+    private static final class PayoutProgress {
+
+        // What the source can still spend: its balance less its holds
+        private BigDecimal balance;
+        private BigDecimal dailyLimitLeft;
+        private int nextLineNumber = 1;
+        private int completedCount;
+        private int failedCount;
+        private BigDecimal completedAmount = BigDecimal.ZERO;
+        private boolean finished;
+
+        PayoutProgress(BigDecimal balance, BigDecimal dailyLimitLeft) {
+            this.balance = balance;
+            this.dailyLimitLeft = dailyLimitLeft;
+        }
+
+        int nextLineNumber(int lines) {
+            int first = nextLineNumber;
+            nextLineNumber += lines;
+            return first;
+        }
+
+        void reserve(BigDecimal amount) {
+            balance = balance.subtract(amount);
+            dailyLimitLeft = dailyLimitLeft.subtract(amount);
+        }
+
+        void release(BigDecimal amount) {
+            balance = balance.add(amount);
+            dailyLimitLeft = dailyLimitLeft.add(amount);
+        }
+
+        void completed(int lines, BigDecimal amount) {
+            completedCount += lines;
+            completedAmount = completedAmount.add(amount);
+        }
+
+        void failed(int lines) {
+            failedCount += lines;
+        }
+
+        synchronized boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.digitalwallet.service;
 
+import com.digitalwallet.archive.ArchiveStore;
+import com.digitalwallet.config.ReadReplica;
+import com.digitalwallet.config.Workload;
 import com.digitalwallet.dto.ReconciliationReport;
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkhead;
+import com.digitalwallet.jobs.JobBulkheads;
 import com.digitalwallet.model.Wallet;
 import com.digitalwallet.repository.LedgerEntryRepository;
 import com.digitalwallet.repository.WalletRepository;
@@ -20,29 +26,48 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ReconciliationService {
 
+    private static final int WALLET_PAGE_SIZE = 500;
+
     private final WalletRepository walletRepository;
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final ArchiveStore archiveStore;
     private final AuditService auditService;
+    private final JobBulkheads jobBulkheads;
 
     public Mono<ReconciliationReport> runDailyReconciliation() {
         log.info("Starting daily reconciliation process");
 
-        return walletRepository.findAll()
-                .flatMap(this::reconcileWallet)
+        // Wallets are read and reconciled, and the report built, on the reconciliation job's threads and permits
+        JobBulkhead bulkhead = jobBulkheads.get(Job.RECONCILIATION);
+        return Workload.BATCH.bind(ReadReplica.prefer(bulkhead.flatMap(allWallets(bulkhead), this::reconcileWallet))
                 .collectList()
                 .flatMap(this::generateReport)
                 .flatMap(report ->
                         auditService.logAction("RECONCILIATION", report.getReconciliationId(),
                                         "RECONCILIATION_RUN", null, null, report.getSummary())
                                 .thenReturn(report)
-                )
+                ))
                 .doOnSuccess(report -> log.info("Reconciliation completed: {}", report.getSummary()))
                 .doOnError(error -> log.error("Reconciliation failed", error));
     }
 
+    // A page per unit, so the scan holds no connection while the wallets are reconciled
+    private Flux<Wallet> allWallets(JobBulkhead bulkhead) {
+        return walletPage(bulkhead, 0L)
+                .expand(page -> page.size() < WALLET_PAGE_SIZE ? Mono.empty()
+                        : walletPage(bulkhead, page.get(page.size() - 1).getId()))
+                .flatMapIterable(page -> page);
+    }
+
+    private Mono<List<Wallet>> walletPage(JobBulkhead bulkhead, Long afterId) {
+        return bulkhead.run(walletRepository.findPageAfter(afterId, WALLET_PAGE_SIZE).collectList());
+    }
+
     private Mono<ReconciliationReport.WalletDiscrepancy> reconcileWallet(Wallet wallet) {
-        return ledgerEntryRepository.calculateWalletBalance(wallet.getId())
+        // Archived months are no longer in the database, so their entries are added from the archive
+        return ledgerEntryRepository.calculateWalletBalance(wallet.getId(), LocalDateTime.now())
                 .defaultIfEmpty(BigDecimal.ZERO)
+                .zipWith(archiveStore.ledgerNetAmount(wallet.getId()), BigDecimal::add)
                 .map(ledgerBalance -> {
                     BigDecimal walletBalance = wallet.getBalance();
                     BigDecimal difference = walletBalance.subtract(ledgerBalance);
@@ -96,8 +121,9 @@ public class ReconciliationService {
     }
 
     public Mono<ReconciliationReport.WalletDiscrepancy> reconcileSingleWallet(String walletNumber) {
-        return walletRepository.findByWalletNumber(walletNumber)
-                .flatMap(this::reconcileWallet)
+        return jobBulkheads.get(Job.RECONCILIATION)
+                .run(ReadReplica.prefer(walletRepository.findByWalletNumber(walletNumber)
+                        .flatMap(this::reconcileWallet)))
                 .doOnSuccess(result -> log.info("Single wallet reconciliation completed for: {}", walletNumber));
     }
 }
\ No newline at end of file
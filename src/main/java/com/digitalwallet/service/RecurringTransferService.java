@@ -1,11 +1,18 @@
 package com.digitalwallet.service;
 
+import com.digitalwallet.config.ReadReplica;
 import com.digitalwallet.dto.RecurringTransferRequest;
 import com.digitalwallet.dto.RecurringTransferResponse;
 import com.digitalwallet.dto.TransferRequest;
+import com.digitalwallet.exception.ConcurrencyLimitExceededException;
+import com.digitalwallet.exception.WalletNotFoundException;
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkheads;
 import com.digitalwallet.model.RecurringTransfer;
 import com.digitalwallet.model.SavingsGoal;
 import com.digitalwallet.model.Wallet;
+import com.digitalwallet.ratelimit.ConcurrencyLimiter;
+import com.digitalwallet.ratelimit.Priority;
 import com.digitalwallet.repository.RecurringTransferRepository;
 import com.digitalwallet.repository.SavingsGoalRepository;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +28,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.TemporalAdjusters;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -33,6 +43,8 @@ public class RecurringTransferService {
     private final TransferService transferService;
     private final SavingsGoalService savingsGoalService;
     private final AuditService auditService;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final JobBulkheads jobBulkheads;
     
     @Transactional
     public Mono<RecurringTransferResponse> createRecurringTransfer(RecurringTransferRequest request, Long userId) {
@@ -79,6 +91,7 @@ public class RecurringTransferService {
                     auditService.logAction("RECURRING_TRANSFER", savedRecurring.getId(), 
                             "RECURRING_CREATED", userId, null, 
                             "Created recurring transfer: " + savedRecurring.getFrequency())
+                            .then(refreshGoalProjection(savedRecurring))
                             .thenReturn(savedRecurring)
                 )
                 .flatMap(this::buildRecurringResponse)
@@ -131,8 +144,8 @@ public class RecurringTransferService {
                 });
     }
     
-    private LocalDate calculateNextExecutionDate(LocalDate startDate, String frequency, 
-                                                 Integer dayOfWeek, Integer dayOfMonth) {
+    LocalDate calculateNextExecutionDate(LocalDate startDate, String frequency, 
+                                         Integer dayOfWeek, Integer dayOfMonth) {
         LocalDate baseDate = startDate.isBefore(LocalDate.now()) ? LocalDate.now() : startDate;
         
         return switch (frequency) {
@@ -164,13 +177,14 @@ public class RecurringTransferService {
         };
     }
     
-    // Scheduled job to execute recurring transfers - runs every hour
+    // Scheduled job to execute recurring transfers - runs every hour, on the recurring job's bulkhead
     @Scheduled(cron = "0 0 * * * *") // Every hour
     public void processRecurringTransfers() {
         log.info("Processing recurring transfers scheduled task");
         
-        recurringTransferRepository.findDueForExecution(LocalDate.now())
-                .flatMap(this::executeRecurringTransfer)
+        jobBulkheads.get(Job.RECURRING)
+                .flatMap(recurringTransferRepository.findDueForExecution(LocalDate.now()),
+                        this::executeWithinConcurrencyLimit)
                 .subscribe(
                         result -> log.info("Recurring transfer executed: {}", result),
                         error -> log.error("Error executing recurring transfer", error),
@@ -178,6 +192,16 @@ public class RecurringTransferService {
                 );
     }
     
+    // Shed executions stay due and are picked up again by the next run; they complete empty,
+    // so only executions that happened reach the subscriber
+    private Mono<String> executeWithinConcurrencyLimit(RecurringTransfer recurring) {
+        return concurrencyLimiter.run(Priority.BATCH, executeRecurringTransfer(recurring))
+                .onErrorResume(ConcurrencyLimitExceededException.class, error -> {
+                    log.info("Recurring transfer deferred under load: {}", recurring.getId());
+                    return Mono.empty();
+                });
+    }
+    
     @Transactional
     private Mono<String> executeRecurringTransfer(RecurringTransfer recurring) {
         log.info("Executing recurring transfer: {}", recurring.getId());
@@ -263,13 +287,11 @@ public class RecurringTransferService {
     }
     
     public Flux<RecurringTransferResponse> getUserRecurringTransfers(Long userId) {
-        return recurringTransferRepository.findByUserId(userId)
-                .flatMap(this::buildRecurringResponse);
+        return ReadReplica.prefer(buildRecurringResponses(recurringTransferRepository.findByUserId(userId)));
     }
     
     public Flux<RecurringTransferResponse> getActiveRecurringTransfers(Long userId) {
-        return recurringTransferRepository.findActiveByUserId(userId)
-                .flatMap(this::buildRecurringResponse);
+        return ReadReplica.prefer(buildRecurringResponses(recurringTransferRepository.findActiveByUserId(userId)));
     }
     
     public Mono<RecurringTransferResponse> pauseRecurringTransfer(Long recurringId, Long userId) {
@@ -297,11 +319,18 @@ public class RecurringTransferService {
                 .flatMap(updatedRecurring -> 
                     auditService.logAction("RECURRING_TRANSFER", recurringId, "STATUS_CHANGED", 
                             userId, null, "Status changed to: " + status)
+                            .then(refreshGoalProjection(updatedRecurring))
                             .thenReturn(updatedRecurring)
                 )
                 .flatMap(this::buildRecurringResponse);
     }
     
+    // The goal's projected completion date depends on its active recurring transfers
+    private Mono<Void> refreshGoalProjection(RecurringTransfer recurring) {
+        return recurring.getSavingsGoalId() == null ? Mono.empty()
+                : savingsGoalService.refreshProjection(recurring.getSavingsGoalId());
+    }
+    
     private Mono<RecurringTransferResponse> buildRecurringResponse(RecurringTransfer recurring) {
         Mono<String> goalNameMono = Mono.just("");
         
@@ -315,12 +344,58 @@ public class RecurringTransferService {
                 walletService.getActiveWalletById(recurring.getSourceWalletId()),
                 walletService.getActiveWalletById(recurring.getDestinationWalletId()),
                 goalNameMono
-        ).map(tuple -> RecurringTransferResponse.builder()
+        ).map(tuple -> toRecurringResponse(recurring, tuple.getT1(), tuple.getT2(), tuple.getT3()));
+    }
+    
+    // Listings load all referenced wallets and goals in one query each, so the
+    // number of statements does not grow with the number of recurring transfers
+    private Flux<RecurringTransferResponse> buildRecurringResponses(Flux<RecurringTransfer> recurringTransfers) {
+        return recurringTransfers.collectList()
+                .flatMapMany(recurrings -> {
+                    if (recurrings.isEmpty()) {
+                        return Flux.empty();
+                    }
+                    
+                    Set<Long> walletIds = new HashSet<>();
+                    Set<Long> goalIds = new HashSet<>();
+                    for (RecurringTransfer recurring : recurrings) {
+                        walletIds.add(recurring.getSourceWalletId());
+                        walletIds.add(recurring.getDestinationWalletId());
+                        if (recurring.getSavingsGoalId() != null) {
+                            goalIds.add(recurring.getSavingsGoalId());
+                        }
+                    }
+                    
+                    Mono<Map<Long, String>> goalNamesMono = goalIds.isEmpty() ? Mono.just(Map.of()) :
+                            savingsGoalRepository.findAllById(goalIds)
+                                    .collectMap(SavingsGoal::getId, SavingsGoal::getGoalName);
+                    
+                    return Mono.zip(walletService.getActiveWalletsByIds(walletIds), goalNamesMono)
+                            .flatMapMany(tuple -> Flux.fromIterable(recurrings)
+                                    .concatMap(recurring -> {
+                                        Wallet source = tuple.getT1().get(recurring.getSourceWalletId());
+                                        Wallet destination = tuple.getT1().get(recurring.getDestinationWalletId());
+                                        if (source == null || destination == null) {
+                                            Long missingId = source == null ? 
+                                                    recurring.getSourceWalletId() : recurring.getDestinationWalletId();
+                                            return Mono.error(new WalletNotFoundException(
+                                                    "Active wallet not found with ID: " + missingId));
+                                        }
+                                        String goalName = recurring.getSavingsGoalId() == null ? "" :
+                                                tuple.getT2().getOrDefault(recurring.getSavingsGoalId(), "");
+                                        return Mono.just(toRecurringResponse(recurring, source, destination, goalName));
+                                    }));
+                });
+    }
+    
+    private RecurringTransferResponse toRecurringResponse(RecurringTransfer recurring, Wallet source,
+                                                          Wallet destination, String goalName) {
+        return RecurringTransferResponse.builder()
                 .recurringTransferId(recurring.getId())
-                .sourceWalletNumber(tuple.getT1().getWalletNumber())
-                .destinationWalletNumber(tuple.getT2().getWalletNumber())
+                .sourceWalletNumber(source.getWalletNumber())
+                .destinationWalletNumber(destination.getWalletNumber())
                 .savingsGoalId(recurring.getSavingsGoalId())
-                .savingsGoalName(tuple.getT3())
+                .savingsGoalName(goalName)
                 .amount(recurring.getAmount())
                 .currency(recurring.getCurrency())
                 .frequency(recurring.getFrequency())
@@ -336,6 +411,6 @@ public class RecurringTransferService {
                 .maxExecutions(recurring.getMaxExecutions())
                 .description(recurring.getDescription())
                 .createdAt(recurring.getCreatedAt())
-                .build());
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,11 @@
 package com.digitalwallet.service;
 
+import com.digitalwallet.config.ReadReplica;
 import com.digitalwallet.dto.SavingsGoalRequest;
 import com.digitalwallet.dto.SavingsGoalResponse;
 import com.digitalwallet.model.SavingsGoal;
 import com.digitalwallet.model.Wallet;
+import com.digitalwallet.repository.RecurringTransferRepository;
 import com.digitalwallet.repository.SavingsGoalRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,10 +15,10 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Slf4j
 @Service
@@ -24,6 +26,7 @@ import java.time.temporal.ChronoUnit;
 public class SavingsGoalService {
     
     private final SavingsGoalRepository savingsGoalRepository;
+    private final RecurringTransferRepository recurringTransferRepository;
     private final WalletService walletService;
     private final AuditService auditService;
     
@@ -48,6 +51,8 @@ public class SavingsGoalService {
                             .createdAt(LocalDateTime.now())
                             .updatedAt(LocalDateTime.now())
                             .build();
+                    LocalDate today = LocalDate.now();
+                    GoalProjection.of(goal, List.of(), today).applyTo(goal, today);
                     
                     return savingsGoalRepository.save(goal);
                 })
@@ -86,12 +91,12 @@ public class SavingsGoalService {
     }
     
     public Flux<SavingsGoalResponse> getUserGoals(Long userId) {
-        return savingsGoalRepository.findByUserId(userId)
+        return ReadReplica.prefer(savingsGoalRepository.findByUserId(userId))
                 .map(this::buildGoalResponse);
     }
     
     public Flux<SavingsGoalResponse> getActiveUserGoals(Long userId) {
-        return savingsGoalRepository.findActiveGoalsByUserId(userId)
+        return ReadReplica.prefer(savingsGoalRepository.findActiveGoalsByUserId(userId))
                 .map(this::buildGoalResponse);
     }
     
@@ -116,10 +121,23 @@ public class SavingsGoalService {
                         return Mono.error(new IllegalStateException("Goal is not active"));
                     }
                     
-                    BigDecimal newAmount = goal.getCurrentAmount().add(amount);
+                    BigDecimal previousAmount = goal.getCurrentAmount();
+                    BigDecimal newAmount = previousAmount.add(amount);
+                    goal.setCurrentAmount(newAmount);
+                    LocalDate today = LocalDate.now();
                     
-                    return savingsGoalRepository.updateProgress(goalId, newAmount)
-                            .flatMap(updated -> savingsGoalRepository.findById(goalId))
+                    // The projection is refreshed in the same statement, so reads never compute it
+                    return recurringTransferRepository.findByGoalId(goalId).collectList()
+                            .flatMap(recurrings -> {
+                                GoalProjection projection = GoalProjection.of(goal, recurrings, today);
+                                return savingsGoalRepository.updateProgress(goalId, newAmount,
+                                                projection.progressPercentage(), projection.suggestedMonthlyContribution(),
+                                                projection.projectedCompletionDate(), today)
+                                        .map(updated -> {
+                                            projection.applyTo(goal, today);
+                                            return goal;
+                                        });
+                            })
                             .flatMap(updatedGoal -> {
                                 // Check if goal is achieved
                                 if (updatedGoal.getCurrentAmount().compareTo(updatedGoal.getTargetAmount()) >= 0) {
@@ -135,7 +153,7 @@ public class SavingsGoalService {
                             })
                             .flatMap(updatedGoal -> 
                                 auditService.logAction("SAVINGS_GOAL", goalId, "CONTRIBUTION_MADE", 
-                                        userId, goal.getCurrentAmount().toString(), newAmount.toString())
+                                        userId, previousAmount.toString(), newAmount.toString())
                                         .thenReturn(updatedGoal)
                             );
                 })
@@ -178,28 +196,24 @@ public class SavingsGoalService {
                 .then(getGoalById(goalId));
     }
     
-    private SavingsGoalResponse buildGoalResponse(SavingsGoal goal) {
-        BigDecimal progressPercentage = BigDecimal.ZERO;
-        if (goal.getTargetAmount().compareTo(BigDecimal.ZERO) > 0) {
-            progressPercentage = goal.getCurrentAmount()
-                    .divide(goal.getTargetAmount(), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100))
-                    .setScale(2, RoundingMode.HALF_UP);
-        }
-        
-        long daysRemaining = ChronoUnit.DAYS.between(LocalDate.now(), goal.getTargetDate());
-        BigDecimal amountNeeded = goal.getTargetAmount().subtract(goal.getCurrentAmount());
-        
-        // Calculate suggested monthly contribution
-        BigDecimal suggestedMonthly = BigDecimal.ZERO;
-        if (daysRemaining > 0 && amountNeeded.compareTo(BigDecimal.ZERO) > 0) {
-            long monthsRemaining = daysRemaining / 30;
-            if (monthsRemaining > 0) {
-                suggestedMonthly = amountNeeded.divide(BigDecimal.valueOf(monthsRemaining), 
-                        2, RoundingMode.HALF_UP);
-            }
-        }
-        
+    /**
+     * Recomputes the stored projection of a goal, for instance after a recurring transfer
+     * into it was created, paused or cancelled.
+     */
+    public Mono<Void> refreshProjection(Long goalId) {
+        LocalDate today = LocalDate.now();
+        return savingsGoalRepository.findById(goalId)
+                .zipWith(recurringTransferRepository.findByGoalId(goalId).collectList())
+                .flatMap(tuple -> {
+                    GoalProjection projection = GoalProjection.of(tuple.getT1(), tuple.getT2(), today);
+                    return savingsGoalRepository.updateProjection(goalId, projection.suggestedMonthlyContribution(),
+                            projection.projectedCompletionDate(), today);
+                })
+                .then();
+    }
+    
+    // Only reads stored fields; see GoalProjection for how the derived ones are kept current
+    SavingsGoalResponse buildGoalResponse(SavingsGoal goal) {
         return SavingsGoalResponse.builder()
                 .goalId(goal.getId())
                 .goalName(goal.getGoalName())
@@ -208,14 +222,15 @@ public class SavingsGoalService {
                 .targetAmount(goal.getTargetAmount())
                 .currentAmount(goal.getCurrentAmount())
                 .currency(goal.getCurrency())
-                .progressPercentage(progressPercentage)
+                .progressPercentage(goal.getProgressPercentage())
                 .targetDate(goal.getTargetDate())
                 .status(goal.getStatus())
-                .daysRemaining((int) daysRemaining)
-                .amountNeeded(amountNeeded.max(BigDecimal.ZERO))
-                .suggestedMonthlyContribution(suggestedMonthly)
+                .daysRemaining((int) ChronoUnit.DAYS.between(LocalDate.now(), goal.getTargetDate()))
+                .amountNeeded(goal.getTargetAmount().subtract(goal.getCurrentAmount()).max(BigDecimal.ZERO))
+                .suggestedMonthlyContribution(goal.getSuggestedMonthlyContribution())
+                .projectedCompletionDate(goal.getProjectedCompletionDate())
                 .createdAt(goal.getCreatedAt())
                 .achievedAt(goal.getAchievedAt())
                 .build();
     }
-}
\ No newline at end of file
+}
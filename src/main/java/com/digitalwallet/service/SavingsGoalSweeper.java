@@ -0,0 +1,136 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.config.Workload;
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkhead;
+import com.digitalwallet.jobs.JobBulkheads;
+import com.digitalwallet.model.RecurringTransfer;
+import com.digitalwallet.model.SavingsGoal;
+import com.digitalwallet.repository.RecurringTransferRepository;
+import com.digitalwallet.repository.SavingsGoalRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Daily upkeep of savings goals, in chunks of {@code novapay.goals.sweep-chunk-size}:
+ * expires active goals whose target date has passed with one set-based update per chunk,
+ * then recomputes the stored projections that were last computed before today, since the
+ * suggested monthly contribution changes as the target date draws nearer. Each chunk
+ * takes three statements however many goals it holds.
+ *
+ * <p>Runs every {@code novapay.goals.sweep-interval}; only the first run of a day finds
+ * anything to do, and a run that stopped halfway is finished by the next. Each chunk
+ * takes one permit of the sweepers' {@link JobBulkhead}.
+ */
+@Slf4j
+@Service
+public class SavingsGoalSweeper {
+
+    private final SavingsGoalRepository savingsGoalRepository;
+    private final RecurringTransferRepository recurringTransferRepository;
+    private final JobBulkhead bulkhead;
+    private final Counter expiredGoals;
+    private final Counter refreshedProjections;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final int chunkSize;
+
+    public SavingsGoalSweeper(SavingsGoalRepository savingsGoalRepository,
+                              RecurringTransferRepository recurringTransferRepository,
+                              JobBulkheads jobBulkheads,
+                              MeterRegistry meterRegistry,
+                              @Value("${novapay.goals.sweep-chunk-size:500}") int chunkSize) {
+        this.savingsGoalRepository = savingsGoalRepository;
+        this.recurringTransferRepository = recurringTransferRepository;
+        this.bulkhead = jobBulkheads.get(Job.SWEEPERS);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.expiredGoals = Counter.builder("novapay.goals.expired")
+                .description("Active savings goals expired after their target date")
+                .register(meterRegistry);
+        this.refreshedProjections = Counter.builder("novapay.goals.projections.refreshed")
+                .description("Savings goal projections recomputed by the daily sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${novapay.goals.sweep-interval:PT1H}")
+    public void sweepGoals() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        Workload.BATCH.bind(sweep(LocalDate.now()))
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        swept -> {
+                            if (swept > 0) {
+                                log.info("Swept {} savings goals", swept);
+                            }
+                        },
+                        error -> log.error("Savings goal sweep failed", error));
+    }
+
+    /**
+     * Expires the goals overdue on {@code today}, then refreshes stale projections. Emits
+     * the number of goals expired or refreshed.
+     */
+    public Mono<Long> sweep(LocalDate today) {
+        return expireOverdueGoals(today)
+                .zipWhen(expired -> refreshProjections(today))
+                .map(swept -> swept.getT1() + swept.getT2());
+    }
+
+    private Mono<Long> expireOverdueGoals(LocalDate today) {
+        return bulkhead.run(savingsGoalRepository.expireOverdueGoals(today, chunkSize))
+                .expand(expired -> expired < chunkSize ? Mono.empty()
+                        : bulkhead.run(savingsGoalRepository.expireOverdueGoals(today, chunkSize)))
+                .doOnNext(expiredGoals::increment)
+                .reduce(0L, (total, expired) -> total + expired);
+    }
+
+    private Mono<Long> refreshProjections(LocalDate today) {
+        return refreshChunk(today, 0L)
+                .expand(chunk -> chunk.size() < chunkSize ? Mono.empty() : refreshChunk(today, chunk.lastGoalId()))
+                .map(Chunk::refreshed)
+                .doOnNext(refreshedProjections::increment)
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Chunk> refreshChunk(LocalDate today, Long afterGoalId) {
+        return bulkhead.run(savingsGoalRepository.findStaleProjections(today, afterGoalId, chunkSize)
+                .collectList()
+                .flatMap(goals -> {
+                    if (goals.isEmpty()) {
+                        return Mono.just(new Chunk(0, afterGoalId, 0));
+                    }
+                    List<Long> goalIds = goals.stream().map(SavingsGoal::getId).toList();
+                    return recurringTransferRepository.findByGoalIds(goalIds)
+                            .collect(Collectors.groupingBy(RecurringTransfer::getSavingsGoalId))
+                            .flatMap(recurringsByGoal -> {
+                                project(goals, recurringsByGoal, today);
+                                return savingsGoalRepository.updateProjections(goals, today);
+                            })
+                            .map(refreshed -> new Chunk(goals.size(), goals.get(goals.size() - 1).getId(), refreshed));
+                }));
+    }
+
+    private static void project(List<SavingsGoal> goals, Map<Long, List<RecurringTransfer>> recurringsByGoal,
+                                LocalDate today) {
+        for (SavingsGoal goal : goals) {
+            GoalProjection.of(goal, recurringsByGoal.getOrDefault(goal.getId(), List.of()), today)
+                    .applyTo(goal, today);
+        }
+    }
+
+    private record Chunk(int size, Long lastGoalId, long refreshed) {
+    }
+}
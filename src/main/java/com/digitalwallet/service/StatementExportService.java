@@ -0,0 +1,209 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.archive.ArchiveStore;
+import com.digitalwallet.config.Workload;
+import com.digitalwallet.model.LedgerEntry;
+import com.digitalwallet.model.Wallet;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a wallet's ledger entries for a time range as CSV or NDJSON without holding the
+ * statement in memory. Live entries are read through a cursor ({@code fetchSize}) inside a
+ * read-only transaction, which PostgreSQL needs to keep the cursor open between fetches,
+ * and merged in time order with archived entries. Rows are rendered a chunk at a time
+ * and only pulled from the database as the client reads, so memory stays at a few chunks
+ * whatever the size of the statement.
+ */
+@Slf4j
+@Service
+public class StatementExportService {
+
+    private static final String SELECT_ENTRIES =
+            "SELECT id, transfer_id, wallet_id, entry_type, amount, balance_before, balance_after, currency, " +
+            "description, created_at, fx_rate FROM ledger_entries " +
+            "WHERE wallet_id = :walletId AND created_at >= :from AND created_at < :to ORDER BY created_at, id";
+
+    private static final Comparator<LedgerEntry> STATEMENT_ORDER = Comparator
+            .comparing(LedgerEntry::getCreatedAt)
+            .thenComparing(LedgerEntry::getId);
+
+    private final DatabaseClient databaseClient;
+    private final ArchiveStore archiveStore;
+    private final TransactionalOperator readOnlyTransaction;
+    private final int fetchSize;
+    private final int rowsPerChunk;
+
+    public StatementExportService(DatabaseClient databaseClient,
+                                  ArchiveStore archiveStore,
+                                  ReactiveTransactionManager transactionManager,
+                                  @Value("${novapay.statement.fetch-size:500}") int fetchSize,
+                                  @Value("${novapay.statement.rows-per-chunk:256}") int rowsPerChunk) {
+        this.databaseClient = databaseClient;
+        this.archiveStore = archiveStore;
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED);
+        definition.setReadOnly(true);
+        this.readOnlyTransaction = TransactionalOperator.create(transactionManager, definition);
+        this.fetchSize = fetchSize;
+        this.rowsPerChunk = rowsPerChunk;
+    }
+
+    public Flux<DataBuffer> export(Wallet wallet, LocalDateTime from, LocalDateTime to,
+                                   StatementFormat format, boolean gzip, DataBufferFactory bufferFactory) {
+        Flux<LedgerEntry> live = readOnlyTransaction.transactional(databaseClient.sql(SELECT_ENTRIES)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("walletId", wallet.getId())
+                .bind("from", from)
+                .bind("to", to)
+                .map(StatementExportService::toLedgerEntry)
+                .all());
+
+        // Both sources are ordered, so a month caught mid-archive shows up as adjacent duplicates
+        Flux<LedgerEntry> entries = Flux.mergeComparing(STATEMENT_ORDER,
+                        archiveStore.ledgerEntries(wallet.getId(), from, to), live)
+                .distinctUntilChanged(LedgerEntry::getId);
+
+        Flux<byte[]> chunks = entries.buffer(rowsPerChunk)
+                .map(rows -> render(format, rows))
+                .startWith(format.getHeader().getBytes(StandardCharsets.UTF_8))
+                .filter(chunk -> chunk.length > 0);
+
+        Flux<byte[]> encoded = gzip
+                ? Flux.using(GzipChunks::new,
+                        compressor -> chunks.map(compressor::compress).concatWith(Mono.fromCallable(compressor::finish)),
+                        GzipChunks::close)
+                : chunks;
+
+        return Workload.STREAMING.bind(encoded.map(bufferFactory::wrap))
+                .doOnComplete(() -> log.info("Exported statement for wallet {} from {} to {}",
+                        wallet.getWalletNumber(), from, to));
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} header values allow gzip: {@code gzip} or
+     * {@code x-gzip} listed with a q-value above zero or none, or, when neither is listed,
+     * {@code *} with one. {@code gzip;q=0} refuses it even after {@code *}.
+     */
+    public static boolean acceptsGzip(List<String> acceptEncoding) {
+        double gzip = -1;
+        double any = -1;
+        for (String header : acceptEncoding) {
+            for (String element : header.split(",")) {
+                String[] parameters = element.split(";");
+                String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = Math.max(gzip, quality(parameters));
+                } else if (coding.equals("*")) {
+                    any = Math.max(any, quality(parameters));
+                }
+            }
+        }
+        return (gzip >= 0 ? gzip : any) > 0;
+    }
+
+    // 1 when absent; a value that does not parse counts as 0, refusing the coding
+    private static double quality(String[] parameters) {
+        for (int index = 1; index < parameters.length; index++) {
+            String parameter = parameters[index].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] render(StatementFormat format, List<LedgerEntry> rows) {
+        StringBuilder chunk = new StringBuilder(rows.size() * 160);
+        for (LedgerEntry entry : rows) {
+            format.appendLine(chunk, entry);
+        }
+        return chunk.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static LedgerEntry toLedgerEntry(Readable row) {
+        return LedgerEntry.builder()
+                .id(row.get("id", Long.class))
+                .transferId(row.get("transfer_id", Long.class))
+                .walletId(row.get("wallet_id", Long.class))
+                .entryType(row.get("entry_type", String.class))
+                .amount(row.get("amount", BigDecimal.class))
+                .balanceBefore(row.get("balance_before", BigDecimal.class))
+                .balanceAfter(row.get("balance_after", BigDecimal.class))
+                .currency(row.get("currency", String.class))
+                .description(row.get("description", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .fxRate(row.get("fx_rate", BigDecimal.class))
+                .build();
+    }
+
+    /**
+     * One gzip stream across all chunks of a response. Each chunk is sync-flushed so the
+     * client receives it straight away instead of when the deflater's window fills.
+     */
+    private static final class GzipChunks {
+
+        private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(8192);
+        private final GZIPOutputStream gzip;
+
+        GzipChunks() throws IOException {
+            this.gzip = new GZIPOutputStream(compressed, 8192, true);
+        }
+
+        byte[] compress(byte[] chunk) {
+            try {
+                gzip.write(chunk);
+                gzip.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return drain();
+        }
+
+        byte[] finish() throws IOException {
+            gzip.finish();
+            return drain();
+        }
+
+        // Also frees the deflater when the client goes away mid-stream
+        void close() {
+            try {
+                gzip.close();
+            } catch (IOException e) {
+                log.debug("Could not close statement compressor", e);
+            }
+        }
+
+        private byte[] drain() {
+            byte[] bytes = compressed.toByteArray();
+            compressed.reset();
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.model.LedgerEntry;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Line formats of a wallet statement export. Both write one ledger entry per line with
+ * ISO-8601 timestamps and plain decimal amounts. The exchange rate is set only on entries
+ * of cross-currency transfers; the amount is always in the entry's own currency.
+ */
+public enum StatementFormat {
+
+    CSV("text/csv", "entry_id,transfer_id,created_at,entry_type,amount,balance_before,balance_after,currency,description,fx_rate\n") {
+        @Override
+        void appendLine(StringBuilder line, LedgerEntry entry) {
+            line.append(entry.getId()).append(',')
+                    .append(entry.getTransferId()).append(',')
+                    .append(entry.getCreatedAt()).append(',')
+                    .append(entry.getEntryType()).append(',')
+                    .append(entry.getAmount().toPlainString()).append(',')
+                    .append(entry.getBalanceBefore().toPlainString()).append(',')
+                    .append(entry.getBalanceAfter().toPlainString()).append(',')
+                    .append(entry.getCurrency()).append(',');
+            appendCsvField(line, entry.getDescription());
+            line.append(',');
+            if (entry.getFxRate() != null) {
+                line.append(entry.getFxRate().toPlainString());
+            }
+            line.append('\n');
+        }
+    },
+
+    NDJSON("application/x-ndjson", "") {
+        @Override
+        void appendLine(StringBuilder line, LedgerEntry entry) {
+            line.append("{\"entryId\":").append(entry.getId())
+                    .append(",\"transferId\":").append(entry.getTransferId())
+                    .append(",\"createdAt\":\"").append(entry.getCreatedAt())
+                    .append("\",\"entryType\":\"").append(entry.getEntryType())
+                    .append("\",\"amount\":").append(entry.getAmount().toPlainString())
+                    .append(",\"balanceBefore\":").append(entry.getBalanceBefore().toPlainString())
+                    .append(",\"balanceAfter\":").append(entry.getBalanceAfter().toPlainString())
+                    .append(",\"currency\":\"").append(entry.getCurrency())
+                    .append("\",\"description\":");
+            appendJsonString(line, entry.getDescription());
+            line.append(",\"fxRate\":").append(entry.getFxRate() != null ? entry.getFxRate().toPlainString() : "null")
+                    .append("}\n");
+        }
+    };
+
+    private final String contentType;
+    private final String header;
+
+    StatementFormat(String contentType, String header) {
+        this.contentType = contentType;
+        this.header = header;
+    }
+
+    public static Optional<StatementFormat> fromParameter(String format) {
+        for (StatementFormat candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(format)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    String getHeader() {
+        return header;
+    }
+
+    abstract void appendLine(StringBuilder line, LedgerEntry entry);
+
+    // Quotes when needed; a leading =, +, - or @ is defused so spreadsheets do not run it as a formula
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean formula = "=+-@".indexOf(value.charAt(0)) >= 0;
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        if (formula) {
+            line.append('\'');
+        }
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            char c = value.charAt(index);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,133 @@
+package com.digitalwallet.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel of ids keyed by deadline. Scheduling drops the id into the slot of
+ * its deadline's tick; each {@link #advance} visits only the slots of the ticks that have
+ * passed since the previous one, so finding what is due costs nothing for ids whose time
+ * has not come. Deadlines more than one revolution away stay in their slot and are
+ * skipped until the revolution that reaches them. An id is on the wheel at most once:
+ * scheduling it again replaces its deadline, and {@link #cancel} takes it off.
+ *
+ * <p>Any thread may schedule, but only one may advance. The wheel holds at most
+ * {@code capacity} ids; beyond that {@link #schedule} refuses, and an id scheduled into a
+ * slot just as it is being visited may wait a revolution, so callers need a slower
+ * fallback for anything the wheel misses.
+ */
+class TimingWheel {
+
+    private final long tickMillis;
+    private final ConcurrentLinkedQueue<Timeout>[] slots;
+    private final Map<Long, Timeout> timeouts = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Last tick advanced past; written only by the advancing thread
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(Duration tick, int slotCount, int capacity, long nowMillis) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.slots = new ConcurrentLinkedQueue[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            slots[slot] = new ConcurrentLinkedQueue<>();
+        }
+        this.capacity = capacity;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedules {@code id} to come due at {@code deadlineMillis}, in place of any deadline
+     * it already had; a deadline already past comes due at the next advance. Returns false
+     * when the wheel is full.
+     */
+    boolean schedule(long id, long deadlineMillis) {
+        cancel(id);
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout timeout = new Timeout(id, deadlineMillis, tick);
+        // Two threads scheduling the same id at once: the last one in keeps it
+        Timeout replaced = timeouts.put(id, timeout);
+        if (replaced != null) {
+            remove(replaced);
+        }
+        slots[slot(tick)].add(timeout);
+        return true;
+    }
+
+    /** Takes {@code id} off the wheel, so it neither comes due nor counts towards the capacity. */
+    void cancel(long id) {
+        Timeout timeout = timeouts.remove(id);
+        if (timeout != null) {
+            remove(timeout);
+        }
+    }
+
+    /** Removes and returns the ids whose deadline is at or before {@code nowMillis}. */
+    List<Long> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        // After a stall longer than a revolution, every slot is visited once
+        long firstTick = Math.max(currentTick + 1, nowTick - slots.length + 1);
+        List<Long> due = new ArrayList<>();
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            currentTick = tick;
+            ConcurrentLinkedQueue<Timeout> slot = slots[slot(tick)];
+            List<Timeout> notYetDue = null;
+            Timeout timeout;
+            while ((timeout = slot.poll()) != null) {
+                if (timeout.deadlineMillis <= nowMillis) {
+                    // Lost to a cancel or a reschedule that has already taken it off the count
+                    if (timeouts.remove(timeout.id, timeout)) {
+                        due.add(timeout.id);
+                        size.decrementAndGet();
+                    }
+                } else {
+                    if (notYetDue == null) {
+                        notYetDue = new ArrayList<>();
+                    }
+                    notYetDue.add(timeout);
+                }
+            }
+            if (notYetDue != null) {
+                slot.addAll(notYetDue);
+            }
+        }
+        return due;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private void remove(Timeout timeout) {
+        size.decrementAndGet();
+        slots[slot(timeout.tick)].remove(timeout);
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+
+    // Compared by identity, so removing one never takes out another with the same values
+    private static final class Timeout {
+        final long id;
+        final long deadlineMillis;
+        final long tick;
+
+        Timeout(long id, long deadlineMillis, long tick) {
+            this.id = id;
+            this.deadlineMillis = deadlineMillis;
+            this.tick = tick;
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.digitalwallet.service;
 
+import com.digitalwallet.archive.ArchiveStore;
 import com.digitalwallet.dto.TransferRequest;
 import com.digitalwallet.dto.TransferResponse;
 import com.digitalwallet.exception.InsufficientBalanceException;
+import com.digitalwallet.fx.FxRateTable;
+import com.digitalwallet.fx.FxRates;
+import com.digitalwallet.metrics.StageMetrics;
 import com.digitalwallet.model.LedgerEntry;
 import com.digitalwallet.model.Transfer;
 import com.digitalwallet.model.Wallet;
+import com.digitalwallet.partition.MonthlyPartition;
+import com.digitalwallet.reference.ReferenceGenerator;
 import com.digitalwallet.repository.LedgerEntryRepository;
 import com.digitalwallet.repository.TransferRepository;
+import com.digitalwallet.risk.RiskCheckStage;
+import com.digitalwallet.risk.TransferAttempt;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,7 +27,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.UUID;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,6 +42,18 @@ public class TransferService {
     private final WalletService walletService;
     private final AuditService auditService;
     private final EventPublisherService eventPublisher;
+    private final StageMetrics stageMetrics;
+    private final ReferenceGenerator referenceGenerator;
+    private final FxRateTable fxRateTable;
+    private final RiskCheckStage riskCheckStage;
+    private final ArchiveStore archiveStore;
+
+    private static final String METRICS_COMPONENT = "transfer";
+    static final String TRANSFER_REFERENCE_PREFIX = "TXN-";
+
+    // Built once rather than for every response
+    private static final Map<String, String> STATUS_MESSAGES = Arrays.stream(Transfer.Status.values())
+            .collect(Collectors.toUnmodifiableMap(Enum::name, status -> "Transfer " + status.name().toLowerCase()));
 
     @Value("${wallet.transfer.max-amount}")
     private BigDecimal maxTransferAmount;
@@ -41,29 +64,51 @@ public class TransferService {
     @Value("${wallet.transfer.daily-limit}")
     private BigDecimal dailyLimit;
 
+    /**
+     * Validates and records a transfer. Immediate transfers move the balances before this
+     * returns; deferred ones are left {@code QUEUED} for the netting engine, which settles
+     * them in its next window. Transfers that pass validation go through the in-memory
+     * {@link RiskCheckStage} before the daily limit query, and are counted by it once they
+     * have been queued or completed.
+     */
     @Transactional
     public Mono<TransferResponse> initiateTransfer(TransferRequest request, Long initiatedBy) {
         log.info("Initiating transfer from {} to {} amount {}",
                 request.getSourceWalletNumber(), request.getDestinationWalletNumber(), request.getAmount());
+        boolean deferred = Transfer.Settlement.DEFERRED.name().equals(request.getSettlement());
 
-        return validateTransfer(request)
-                .then(walletService.getWalletByNumber(request.getSourceWalletNumber()))
-                .zipWith(walletService.getWalletByNumber(request.getDestinationWalletNumber()))
+        Mono<TransferResponse> pipeline = validateTransfer(request)
+                .then(stageMetrics.time(METRICS_COMPONENT, "wallet_lookup",
+                        walletService.getWalletByNumber(request.getSourceWalletNumber())
+                                .zipWith(walletService.getWalletByNumber(request.getDestinationWalletNumber()))))
                 .flatMap(wallets -> {
                     Wallet sourceWallet = wallets.getT1();
                     Wallet destinationWallet = wallets.getT2();
-
-                    return validateWallets(sourceWallet, destinationWallet, request.getAmount())
-                            .then(checkDailyLimit(sourceWallet.getId(), request.getAmount()))
-                            .then(createTransfer(sourceWallet, destinationWallet, request, initiatedBy));
+                    if (!sourceWallet.getUserId().equals(initiatedBy)) {
+                        return Mono.error(new IllegalArgumentException("Source wallet does not belong to user"));
+                    }
+                    // Read once from the in-memory table, so validation and the transfer use the same rate
+                    BigDecimal fxRate = fxRateTable.rate(sourceWallet.getCurrency(), destinationWallet.getCurrency());
+
+                    TransferAttempt attempt = new TransferAttempt(initiatedBy, sourceWallet.getId(),
+                            destinationWallet.getId(), request.getAmount(), System.currentTimeMillis());
+
+                    return validateWallets(sourceWallet, destinationWallet, request, fxRate)
+                            .then(stageMetrics.time(METRICS_COMPONENT, "risk_checks", riskCheckStage.evaluate(attempt)))
+                            .then(stageMetrics.time(METRICS_COMPONENT, "daily_limit",
+                                    checkDailyLimit(sourceWallet.getId(), request.getAmount())))
+                            .then(createTransfer(sourceWallet, destinationWallet, request, initiatedBy, fxRate, deferred))
+                            .flatMap(transfer -> deferred ? Mono.just(transfer) : processTransfer(transfer))
+                            .doOnNext(transfer -> riskCheckStage.record(attempt));
                 })
-                .flatMap(this::processTransfer)
                 .map(this::buildTransferResponse)
                 .doOnSuccess(response -> log.info("Transfer initiated successfully: {}", response.getTransferReference()))
                 .doOnError(error -> log.error("Transfer initiation failed", error));
+
+        return stageMetrics.time(METRICS_COMPONENT, "initiate", pipeline);
     }
 
-    private Mono<Void> validateTransfer(TransferRequest request) {
+    Mono<Void> validateTransfer(TransferRequest request) {
         if (request.getAmount().compareTo(minTransferAmount) < 0) {
             return Mono.error(new IllegalArgumentException(
                     "Amount must be at least " + minTransferAmount));
@@ -82,7 +127,11 @@ public class TransferService {
         return Mono.empty();
     }
 
-    private Mono<Void> validateWallets(Wallet source, Wallet destination, BigDecimal amount) {
+    /**
+     * Wallets in different currencies need an exchange rate between the two, and the
+     * amount must then be given in the source wallet's currency.
+     */
+    private Mono<Void> validateWallets(Wallet source, Wallet destination, TransferRequest request, BigDecimal fxRate) {
         if (!"ACTIVE".equals(source.getStatus())) {
             return Mono.error(new IllegalStateException("Source wallet is not active"));
         }
@@ -92,12 +141,18 @@ public class TransferService {
         }
 
         if (!source.getCurrency().equals(destination.getCurrency())) {
-            return Mono.error(new IllegalArgumentException(
-                    "Currency mismatch: source " + source.getCurrency() +
-                            " vs destination " + destination.getCurrency()));
+            if (fxRate == null) {
+                return Mono.error(new IllegalArgumentException(
+                        "No exchange rate from " + source.getCurrency() + " to " + destination.getCurrency()));
+            }
+            if (!source.getCurrency().equals(request.getCurrency())) {
+                return Mono.error(new IllegalArgumentException(
+                        "Currency mismatch: a cross-currency transfer is made in the source currency " +
+                                source.getCurrency() + ", not " + request.getCurrency()));
+            }
         }
 
-        if (source.getBalance().compareTo(amount) < 0) {
+        if (WalletService.availableBalance(source).compareTo(request.getAmount()) < 0) {
             return Mono.error(new InsufficientBalanceException(
                     "Insufficient balance in source wallet"));
         }
@@ -105,7 +160,8 @@ public class TransferService {
         return Mono.empty();
     }
 
-    private Mono<Void> checkDailyLimit(Long walletId, BigDecimal amount) {
+    /** Fails when {@code amount} would take the wallet's debits today past the daily limit. */
+    Mono<Void> checkDailyLimit(Long walletId, BigDecimal amount) {
         LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MIN);
         LocalDateTime endOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MAX);
 
@@ -123,8 +179,9 @@ public class TransferService {
     }
 
     private Mono<Transfer> createTransfer(Wallet source, Wallet destination,
-                                          TransferRequest request, Long initiatedBy) {
-        String transferReference = "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                                          TransferRequest request, Long initiatedBy, BigDecimal fxRate,
+                                          boolean deferred) {
+        String transferReference = referenceGenerator.next(TRANSFER_REFERENCE_PREFIX);
 
         Transfer transfer = Transfer.builder()
                 .transferReference(transferReference)
@@ -132,14 +189,21 @@ public class TransferService {
                 .destinationWalletId(destination.getId())
                 .amount(request.getAmount())
                 .currency(request.getCurrency())
-                .status(Transfer.Status.PENDING.name())
+                .status((deferred ? Transfer.Status.QUEUED : Transfer.Status.PENDING).name())
                 .transferType(Transfer.TransferType.P2P.name())
                 .description(request.getDescription())
                 .initiatedBy(initiatedBy)
                 .createdAt(LocalDateTime.now())
                 .build();
+        if (!source.getCurrency().equals(destination.getCurrency())) {
+            transfer.setFxRate(fxRate);
+            transfer.setDestinationAmount(FxRates.convert(request.getAmount(), fxRate));
+            transfer.setDestinationCurrency(destination.getCurrency());
+        }
 
-        return transferRepository.save(transfer)
+        return stageMetrics.time(METRICS_COMPONENT, "transfer_insert",
+                        transferRepository.registerReference(transferReference, transfer.getCreatedAt())
+                                .then(transferRepository.save(transfer)))
                 .flatMap(savedTransfer ->
                         auditService.logTransferAction(savedTransfer.getId(), "TRANSFER_INITIATED",
                                         initiatedBy, "Transfer created")
@@ -151,14 +215,14 @@ public class TransferService {
     @Transactional
     private Mono<Transfer> processTransfer(Transfer transfer) {
         return Mono.just(transfer)
-                .flatMap(t -> updateTransferStatus(t.getId(), Transfer.Status.PROCESSING.name()))
+                .flatMap(t -> updateTransferStatus(t, Transfer.Status.PROCESSING.name()))
                 .flatMap(t -> walletService.debitWallet(t.getSourceWalletId(), t.getAmount(), t.getInitiatedBy())
                         .flatMap(sourceWallet -> createLedgerEntry(t, sourceWallet, LedgerEntry.EntryType.DEBIT))
                         .thenReturn(t))
-                .flatMap(t -> walletService.creditWallet(t.getDestinationWalletId(), t.getAmount(), t.getInitiatedBy())
+                .flatMap(t -> walletService.creditWallet(t.getDestinationWalletId(), creditAmount(t), t.getInitiatedBy())
                         .flatMap(destWallet -> createLedgerEntry(t, destWallet, LedgerEntry.EntryType.CREDIT))
                         .thenReturn(t))
-                .flatMap(t -> completeTransfer(t.getId()))
+                .flatMap(this::completeTransfer)
                 .flatMap(t -> {
                     auditService.logTransferAction(t.getId(), "TRANSFER_COMPLETED",
                             t.getInitiatedBy(), "Transfer completed successfully").subscribe();
@@ -167,7 +231,7 @@ public class TransferService {
                 })
                 .onErrorResume(error -> {
                     log.error("Transfer processing failed: {}", transfer.getTransferReference(), error);
-                    return failTransfer(transfer.getId(), error.getMessage())
+                    return failTransfer(transfer, error.getMessage())
                             .flatMap(failedTransfer -> {
                                 eventPublisher.publishTransferFailed(failedTransfer, error.getMessage()).subscribe();
                                 return Mono.error(error);
@@ -175,59 +239,116 @@ public class TransferService {
                 });
     }
 
+    // Each side is recorded in its wallet's currency, with the rate of a cross-currency transfer
     private Mono<LedgerEntry> createLedgerEntry(Transfer transfer, Wallet wallet, LedgerEntry.EntryType entryType) {
-        BigDecimal balanceBefore = entryType == LedgerEntry.EntryType.DEBIT ?
-                wallet.getBalance().add(transfer.getAmount()) :
-                wallet.getBalance().subtract(transfer.getAmount());
+        boolean debit = entryType == LedgerEntry.EntryType.DEBIT;
+        BigDecimal amount = debit ? transfer.getAmount() : creditAmount(transfer);
+        BigDecimal balanceBefore = debit ?
+                wallet.getBalance().add(amount) :
+                wallet.getBalance().subtract(amount);
 
         LedgerEntry entry = LedgerEntry.builder()
                 .transferId(transfer.getId())
                 .walletId(wallet.getId())
                 .entryType(entryType.name())
-                .amount(transfer.getAmount())
+                .amount(amount)
                 .balanceBefore(balanceBefore)
                 .balanceAfter(wallet.getBalance())
-                .currency(transfer.getCurrency())
+                .currency(debit || transfer.getDestinationCurrency() == null ?
+                        transfer.getCurrency() : transfer.getDestinationCurrency())
                 .description(entryType.name() + " for transfer " + transfer.getTransferReference())
                 .createdAt(LocalDateTime.now())
+                .fxRate(transfer.getFxRate())
                 .build();
 
-        return ledgerEntryRepository.save(entry);
+        return stageMetrics.time(METRICS_COMPONENT, "ledger_insert", ledgerEntryRepository.save(entry));
     }
 
-    private Mono<Transfer> updateTransferStatus(Long transferId, String status) {
-        return transferRepository.findById(transferId)
-                .flatMap(transfer -> {
-                    transfer.setStatus(status);
-                    return transferRepository.save(transfer);
-                });
+    private static BigDecimal creditAmount(Transfer transfer) {
+        return transfer.getDestinationAmount() != null ? transfer.getDestinationAmount() : transfer.getAmount();
     }
 
-    private Mono<Transfer> completeTransfer(Long transferId) {
-        return transferRepository.findById(transferId)
-                .flatMap(transfer -> {
-                    transfer.setStatus(Transfer.Status.COMPLETED.name());
-                    transfer.setCompletedAt(LocalDateTime.now());
-                    return transferRepository.save(transfer);
-                });
+    // The transfer is already in memory, so each change is a single UPDATE pruned to its partition
+    private Mono<Transfer> updateTransferStatus(Transfer transfer, String status) {
+        MonthlyPartition partition = MonthlyPartition.of(transfer.getCreatedAt());
+        return stageMetrics.time(METRICS_COMPONENT, "status_update",
+                requireUpdated(transfer, transferRepository
+                        .updateStatus(transfer.getId(), partition.from(), partition.to(), status))
+                        .map(updated -> {
+                            transfer.setStatus(status);
+                            return transfer;
+                        }));
     }
 
-    private Mono<Transfer> failTransfer(Long transferId, String reason) {
-        return transferRepository.findById(transferId)
-                .flatMap(transfer -> {
-                    transfer.setStatus(Transfer.Status.FAILED.name());
-                    transfer.setDescription(transfer.getDescription() + " | Failure reason: " + reason);
-                    return transferRepository.save(transfer);
-                });
+    private Mono<Transfer> completeTransfer(Transfer transfer) {
+        MonthlyPartition partition = MonthlyPartition.of(transfer.getCreatedAt());
+        LocalDateTime completedAt = LocalDateTime.now();
+        return stageMetrics.time(METRICS_COMPONENT, "status_update",
+                requireUpdated(transfer, transferRepository
+                        .markCompleted(transfer.getId(), partition.from(), partition.to(), completedAt))
+                        .map(updated -> {
+                            transfer.setStatus(Transfer.Status.COMPLETED.name());
+                            transfer.setCompletedAt(completedAt);
+                            return transfer;
+                        }));
+    }
+
+    private Mono<Transfer> failTransfer(Transfer transfer, String reason) {
+        MonthlyPartition partition = MonthlyPartition.of(transfer.getCreatedAt());
+        String description = transfer.getDescription() + " | Failure reason: " + reason;
+        return stageMetrics.time(METRICS_COMPONENT, "status_update",
+                requireUpdated(transfer, transferRepository
+                        .markFailed(transfer.getId(), partition.from(), partition.to(), description))
+                        .map(updated -> {
+                            transfer.setStatus(Transfer.Status.FAILED.name());
+                            transfer.setDescription(description);
+                            return transfer;
+                        }));
+    }
+
+    // A transfer read earlier in the same flow is always in its month's partition; if no row
+    // changed, going on would report a status the database does not have
+    private static Mono<Integer> requireUpdated(Transfer transfer, Mono<Integer> update) {
+        return update.flatMap(updated -> updated > 0
+                ? Mono.just(updated)
+                : Mono.error(new IllegalStateException(
+                        "Transfer " + transfer.getTransferReference() + " was not found to update")));
     }
 
+    /**
+     * Looks a transfer up in the partitions around the time encoded in its reference. The
+     * window is a day either side to absorb time zone differences between instances.
+     * References without a readable time, such as those issued before the generator was
+     * introduced, are resolved through {@code transfer_references} instead. Transfers of
+     * archived months are found in the {@link ArchiveStore}, which is only read once the
+     * database has come up empty.
+     */
     public Mono<TransferResponse> getTransferStatus(String transferReference) {
-        return transferRepository.findByTransferReference(transferReference)
+        Mono<Transfer> byRegisteredReference = transferRepository.findByRegisteredReference(transferReference);
+        Mono<Transfer> transfer = referenceGenerator.issuedAt(transferReference)
+                .map(issuedAt -> {
+                    LocalDateTime created = LocalDateTime.ofInstant(issuedAt, ZoneId.systemDefault());
+                    return transferRepository.findByTransferReference(
+                                    transferReference, created.minusDays(1), created.plusDays(1))
+                            .switchIfEmpty(byRegisteredReference);
+                })
+                .orElse(byRegisteredReference);
+
+        Mono<Transfer> archived = Mono.defer(() -> referenceGenerator.issuedAt(transferReference)
+                .map(issuedAt -> {
+                    LocalDateTime created = LocalDateTime.ofInstant(issuedAt, ZoneId.systemDefault());
+                    return archiveStore.transfer(transferReference, created.minusDays(1), created.plusDays(1));
+                })
+                .orElseGet(() -> transferRepository.findRegisteredCreatedAt(transferReference)
+                        .flatMap(created -> archiveStore.transfer(transferReference, created, created.plusNanos(1_000)))));
+
+        return transfer
+                .switchIfEmpty(archived)
                 .map(this::buildTransferResponse)
                 .switchIfEmpty(Mono.error(new RuntimeException("Transfer not found: " + transferReference)));
     }
 
-    private TransferResponse buildTransferResponse(Transfer transfer) {
+    TransferResponse buildTransferResponse(Transfer transfer) {
         return TransferResponse.builder()
                 .transferId(transfer.getId())
                 .transferReference(transfer.getTransferReference())
@@ -235,11 +356,14 @@ public class TransferService {
                 .destinationWalletNumber("****") // Masked for security
                 .amount(transfer.getAmount())
                 .currency(transfer.getCurrency())
+                .fxRate(transfer.getFxRate())
+                .destinationAmount(transfer.getDestinationAmount())
+                .destinationCurrency(transfer.getDestinationCurrency())
                 .status(transfer.getStatus())
                 .description(transfer.getDescription())
                 .initiatedAt(transfer.getCreatedAt())
                 .completedAt(transfer.getCompletedAt())
-                .message("Transfer " + transfer.getStatus().toLowerCase())
+                .message(STATUS_MESSAGES.get(transfer.getStatus()))
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkhead;
+import com.digitalwallet.jobs.JobBulkheads;
+import com.digitalwallet.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory Bloom filters over all usernames and emails, loaded at startup and extended
+ * on every registration this instance performs. "Definitely absent" answers availability
+ * checks and lets registration skip its conflict lookup without touching the database.
+ * Until loading finishes everything counts as possibly present.
+ *
+ * <p>Users created elsewhere (other instances, scripts) are picked up by a periodic
+ * refresh that reads the rows created since {@code novapay.user-filter.refresh-overlap}
+ * before the latest one seen. Ids and creation times are taken before the insert
+ * commits, so a user can become visible after others that came later; the overlap has to
+ * cover that delay and clock differences between instances. Between refreshes an
+ * "absent" answer for them is stale, so it is advisory only: the unique constraints on
+ * {@code users} remain the authority, and registration maps a conflicting insert to the
+ * right error either way.
+ */
+@Slf4j
+@Component
+public class UserExistenceFilter {
+
+    private final UserRepository userRepository;
+    private final JobBulkhead bulkhead;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private final Counter definitelyAbsent;
+    private final Counter possiblyPresent;
+
+    private final Duration refreshOverlap;
+    private final AtomicReference<LocalDateTime> latestCreatedAt = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile boolean loaded;
+
+    public UserExistenceFilter(
+            UserRepository userRepository,
+            JobBulkheads jobBulkheads,
+            MeterRegistry meterRegistry,
+            @Value("${novapay.user-filter.expected-users:1000000}") long expectedUsers,
+            @Value("${novapay.user-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${novapay.user-filter.refresh-overlap:PT5M}") Duration refreshOverlap) {
+        this.userRepository = userRepository;
+        this.bulkhead = jobBulkheads.get(Job.SWEEPERS);
+        this.refreshOverlap = refreshOverlap;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.definitelyAbsent = Counter.builder("novapay.user_filter.lookups")
+                .tag("result", "absent")
+                .description("Username and email lookups answered by the in-memory filter")
+                .register(meterRegistry);
+        this.possiblyPresent = Counter.builder("novapay.user_filter.lookups")
+                .tag("result", "maybe")
+                .description("Username and email lookups answered by the in-memory filter")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    // Skipped while a previous pass, the initial load included, is still reading
+    @Scheduled(fixedDelayString = "${novapay.user-filter.refresh-interval:PT30S}",
+            initialDelayString = "${novapay.user-filter.refresh-interval:PT30S}")
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Users read again within the overlap are already in the filters; adding them is harmless
+        LocalDateTime latest = latestCreatedAt.get();
+        // One unit of the sweepers' bulkhead, held for the whole read
+        bulkhead.run(latest == null
+                        ? userRepository.findAllUsernamesAndEmails()
+                        : userRepository.findUsernamesAndEmailsCreatedSince(latest.minus(refreshOverlap)))
+                .doOnNext(user -> {
+                    add(user.getUsername(), user.getEmail());
+                    if (user.getCreatedAt() != null) {
+                        latestCreatedAt.accumulateAndGet(user.getCreatedAt(),
+                                (current, created) -> current == null || created.isAfter(current) ? created : current);
+                    }
+                })
+                .count()
+                .doFinally(signal -> refreshing.set(false))
+                .subscribe(count -> {
+                    if (!loaded) {
+                        loaded = true;
+                        log.info("Loaded {} users into the existence filter in {} ms",
+                                count, (System.nanoTime() - start) / 1_000_000);
+                    } else if (count > 0) {
+                        log.debug("Read {} recently created users into the existence filter", count);
+                    }
+                }, error -> log.error("Could not refresh the user existence filter", error));
+    }
+
+    public void add(String username, String email) {
+        usernames.put(username);
+        emails.put(email);
+    }
+
+    public boolean mightHaveUsername(String username) {
+        return record(!loaded || usernames.mightContain(username));
+    }
+
+    public boolean mightHaveEmail(String email) {
+        return record(!loaded || emails.mightContain(email));
+    }
+
+    private boolean record(boolean possiblyPresent) {
+        (possiblyPresent ? this.possiblyPresent : definitelyAbsent).increment();
+        return possiblyPresent;
+    }
+}
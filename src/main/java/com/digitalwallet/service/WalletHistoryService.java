@@ -0,0 +1,82 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.archive.ArchiveStore;
+import com.digitalwallet.config.ReadReplica;
+import com.digitalwallet.dto.WalletHistoryEntry;
+import com.digitalwallet.model.LedgerEntry;
+import com.digitalwallet.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ledger history of a wallet over any time range, whether its entries are still in the
+ * database or already in the cold archive. Entries are returned newest first.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletHistoryService {
+
+    private static final Comparator<WalletHistoryEntry> NEWEST_FIRST = Comparator
+            .comparing(WalletHistoryEntry::getCreatedAt)
+            .thenComparing(WalletHistoryEntry::getEntryId)
+            .reversed();
+
+    private final WalletService walletService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final ArchiveStore archiveStore;
+
+    /** History of a wallet {@code userId} owns; anyone else's is reported as not found. */
+    public Flux<WalletHistoryEntry> getWalletHistory(String walletNumber, Long userId,
+                                                     LocalDateTime from, LocalDateTime to) {
+        return walletService.getOwnedWallet(walletNumber, userId)
+                .flatMapMany(wallet -> {
+                    Flux<WalletHistoryEntry> live = ReadReplica.prefer(
+                                    ledgerEntryRepository.findByWalletId(wallet.getId(), from, to))
+                            .map(entry -> toHistoryEntry(entry, false));
+                    Flux<WalletHistoryEntry> archived = archiveStore.ledgerEntries(wallet.getId(), from, to)
+                            .map(entry -> toHistoryEntry(entry, true));
+
+                    // A month being archived can briefly be in both places; the live copy wins
+                    return Flux.concat(live, archived)
+                            .collect(LinkedHashMap<Long, WalletHistoryEntry>::new,
+                                    (entries, entry) -> entries.putIfAbsent(entry.getEntryId(), entry))
+                            .flatMapIterable(Map::values)
+                            .sort(NEWEST_FIRST);
+                });
+    }
+
+    /**
+     * The latest {@code limit} ledger entries across the given wallets since {@code since},
+     * newest first. Reads the database only, so {@code since} should fall inside the hot window.
+     */
+    public Flux<WalletHistoryEntry> getRecentEntries(Collection<Long> walletIds, LocalDateTime since, int limit) {
+        if (walletIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return ReadReplica.prefer(ledgerEntryRepository.findRecentEntriesByWalletIds(walletIds, since, limit))
+                .map(entry -> toHistoryEntry(entry, false));
+    }
+
+    private static WalletHistoryEntry toHistoryEntry(LedgerEntry entry, boolean archived) {
+        return WalletHistoryEntry.builder()
+                .entryId(entry.getId())
+                .transferId(entry.getTransferId())
+                .entryType(entry.getEntryType())
+                .amount(entry.getAmount())
+                .balanceAfter(entry.getBalanceAfter())
+                .currency(entry.getCurrency())
+                .description(entry.getDescription())
+                .createdAt(entry.getCreatedAt())
+                .archived(archived)
+                .build();
+    }
+}
@@ -1,8 +1,10 @@
 package com.digitalwallet.service;
 
+import com.digitalwallet.config.ReadReplica;
 import com.digitalwallet.dto.WalletBalanceResponse;
 import com.digitalwallet.exception.InsufficientBalanceException;
 import com.digitalwallet.exception.WalletNotFoundException;
+import com.digitalwallet.metrics.StageMetrics;
 import com.digitalwallet.model.Wallet;
 import com.digitalwallet.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,8 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -22,6 +26,9 @@ public class WalletService {
 
     private final WalletRepository walletRepository;
     private final AuditService auditService;
+    private final StageMetrics stageMetrics;
+
+    private static final String METRICS_COMPONENT = "wallet";
 
     public Mono<Wallet> getWalletByNumber(String walletNumber) {
         return walletRepository.findByWalletNumber(walletNumber)
@@ -29,37 +36,77 @@ public class WalletService {
                         "Wallet not found: " + walletNumber)));
     }
 
+    /**
+     * The wallet, if it belongs to {@code userId}. Someone else's wallet is reported as not
+     * found, so wallet numbers cannot be probed for existence.
+     */
+    public Mono<Wallet> getOwnedWallet(String walletNumber, Long userId) {
+        return getWalletByNumber(walletNumber)
+                .filter(wallet -> userId.equals(wallet.getUserId()))
+                .switchIfEmpty(Mono.error(new WalletNotFoundException(
+                        "Wallet not found: " + walletNumber)));
+    }
+
     public Mono<Wallet> getActiveWalletById(Long walletId) {
         return walletRepository.findActiveWalletById(walletId)
                 .switchIfEmpty(Mono.error(new WalletNotFoundException(
                         "Active wallet not found with ID: " + walletId)));
     }
 
+    /**
+     * Loads several active wallets in one query, keyed by id. Ids without an active
+     * wallet are simply absent from the map.
+     */
+    public Mono<Map<Long, Wallet>> getActiveWalletsByIds(Collection<Long> walletIds) {
+        if (walletIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return walletRepository.findActiveWalletsByIds(walletIds).collectMap(Wallet::getId);
+    }
+
     public Flux<Wallet> getUserWallets(Long userId) {
-        return walletRepository.findActiveWalletsByUserId(userId);
+        return ReadReplica.prefer(walletRepository.findActiveWalletsByUserId(userId));
+    }
+
+    public Flux<WalletBalanceResponse> getUserWalletBalances(Long userId) {
+        return getUserWallets(userId).map(WalletService::toBalanceResponse);
     }
 
     public Mono<WalletBalanceResponse> getWalletBalance(String walletNumber) {
-        return getWalletByNumber(walletNumber)
-                .map(wallet -> WalletBalanceResponse.builder()
-                        .walletId(wallet.getId())
-                        .walletNumber(wallet.getWalletNumber())
-                        .balance(wallet.getBalance())
-                        .currency(wallet.getCurrency())
-                        .status(wallet.getStatus())
-                        .dailyLimit(wallet.getDailyLimit())
-                        .availableBalance(wallet.getBalance())
-                        .lastUpdated(wallet.getUpdatedAt())
-                        .build());
+        return ReadReplica.prefer(getWalletByNumber(walletNumber))
+                .map(WalletService::toBalanceResponse);
+    }
+
+    public static WalletBalanceResponse toBalanceResponse(Wallet wallet) {
+        return WalletBalanceResponse.builder()
+                .walletId(wallet.getId())
+                .walletNumber(wallet.getWalletNumber())
+                .balance(wallet.getBalance())
+                .currency(wallet.getCurrency())
+                .status(wallet.getStatus())
+                .dailyLimit(wallet.getDailyLimit())
+                .availableBalance(availableBalance(wallet))
+                .lastUpdated(wallet.getUpdatedAt())
+                .build();
+    }
+
+    /** What the wallet can spend: its balance less the funds its active holds reserve. */
+    public static BigDecimal availableBalance(Wallet wallet) {
+        return wallet.getHeldBalance() == null ? wallet.getBalance() : wallet.getBalance().subtract(wallet.getHeldBalance());
     }
 
     @Transactional
     public Mono<Wallet> creditWallet(Long walletId, BigDecimal amount, Long performedBy) {
+        return stageMetrics.time(METRICS_COMPONENT, "credit", credit(walletId, amount, performedBy));
+    }
+
+    private Mono<Wallet> credit(Long walletId, BigDecimal amount, Long performedBy) {
         return getActiveWalletById(walletId)
                 .flatMap(wallet -> {
                     String oldBalance = wallet.getBalance().toString();
 
-                    return walletRepository.creditWallet(walletId, amount)
+                    return stageMetrics.time(METRICS_COMPONENT, "balance_update",
+                                    walletRepository.creditWallet(walletId, amount))
                             .flatMap(rowsAffected -> {
                                 if (rowsAffected == 0) {
                                     return Mono.error(new RuntimeException("Failed to credit wallet"));
@@ -78,16 +125,21 @@ public class WalletService {
 
     @Transactional
     public Mono<Wallet> debitWallet(Long walletId, BigDecimal amount, Long performedBy) {
+        return stageMetrics.time(METRICS_COMPONENT, "debit", debit(walletId, amount, performedBy));
+    }
+
+    private Mono<Wallet> debit(Long walletId, BigDecimal amount, Long performedBy) {
         return getActiveWalletById(walletId)
                 .flatMap(wallet -> {
-                    if (wallet.getBalance().compareTo(amount) < 0) {
+                    if (availableBalance(wallet).compareTo(amount) < 0) {
                         return Mono.error(new InsufficientBalanceException(
                                 "Insufficient balance in wallet: " + wallet.getWalletNumber()));
                     }
 
                     String oldBalance = wallet.getBalance().toString();
 
-                    return walletRepository.debitWallet(walletId, amount)
+                    return stageMetrics.time(METRICS_COMPONENT, "balance_update",
+                                    walletRepository.debitWallet(walletId, amount))
                             .flatMap(rowsAffected -> {
                                 if (rowsAffected == 0) {
                                     return Mono.error(new InsufficientBalanceException(
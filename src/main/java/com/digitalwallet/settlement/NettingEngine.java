@@ -0,0 +1,238 @@
+package com.digitalwallet.settlement;
+
+import com.digitalwallet.jobs.Job;
+import com.digitalwallet.jobs.JobBulkhead;
+import com.digitalwallet.jobs.JobBulkheads;
+import com.digitalwallet.model.Transfer;
+import com.digitalwallet.model.Wallet;
+import com.digitalwallet.repository.LedgerEntryRepository;
+import com.digitalwallet.repository.TransferRepository;
+import com.digitalwallet.repository.WalletRepository;
+import com.digitalwallet.service.EventPublisherService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Settles transfers queued with {@code DEFERRED} settlement. Every window it locks the
+ * oldest queued transfers and their wallets, settles them in queue order with
+ * {@link NettingWindow}, and applies one net balance change per wallet instead of a debit
+ * and a credit per transfer; flows that cancel out within the window touch no balance at
+ * all. Every settled transfer still gets its own debit and credit ledger entries.
+ *
+ * <p>A window is a single transaction: the transfer statuses, balances and ledger entries
+ * commit together or not at all, and rolled back transfers stay queued for the next
+ * window. Queued transfers are locked with {@code SKIP LOCKED}, so instances can run the
+ * engine side by side without settling a transfer twice.
+ *
+ * <p>Only transfers queued within {@code novapay.netting.max-queue-age} are settled, which
+ * keeps the queue scan to the newest partitions. Older ones are failed instead: each drain
+ * fails those that aged out since the previous one, and the first drain after a start
+ * looks back {@link #EXPIRY_LOOKBACK} further, so a restart does not strand the transfers
+ * that expired while the engine was down.
+ */
+@Slf4j
+@Service
+public class NettingEngine {
+
+    // Ledger entries are inserted in one statement of ten parameters per row, two rows per
+    // transfer, which has to stay below the 65535 parameters a statement can carry
+    static final int MAX_TRANSFERS_PER_WINDOW = 3000;
+
+    // How far before the queue age limit the first drain looks for expired transfers
+    static final Duration EXPIRY_LOOKBACK = Duration.ofDays(31);
+
+    private final TransferRepository transferRepository;
+    private final WalletRepository walletRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final EventPublisherService eventPublisher;
+    private final TransactionalOperator transactionalOperator;
+    private final JobBulkhead bulkhead;
+    private final Counter settledTransfers;
+    private final Counter failedTransfers;
+    private final Counter walletUpdates;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final boolean enabled;
+    private final int maxTransfersPerWindow;
+    private final Duration maxQueueAge;
+
+    // Queued transfers created before this have been failed as expired; null until the first drain
+    private volatile LocalDateTime expiredBefore;
+
+    public NettingEngine(TransferRepository transferRepository,
+                         WalletRepository walletRepository,
+                         LedgerEntryRepository ledgerEntryRepository,
+                         EventPublisherService eventPublisher,
+                         TransactionalOperator transactionalOperator,
+                         JobBulkheads jobBulkheads,
+                         MeterRegistry meterRegistry,
+                         @Value("${novapay.netting.enabled:true}") boolean enabled,
+                         @Value("${novapay.netting.max-transfers-per-window:1000}") int maxTransfersPerWindow,
+                         @Value("${novapay.netting.max-queue-age:PT1H}") Duration maxQueueAge) {
+        this.transferRepository = transferRepository;
+        this.walletRepository = walletRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionalOperator = transactionalOperator;
+        this.bulkhead = jobBulkheads.get(Job.SETTLEMENT);
+        this.enabled = enabled;
+        this.maxTransfersPerWindow = Math.max(1, Math.min(maxTransfersPerWindow, MAX_TRANSFERS_PER_WINDOW));
+        this.maxQueueAge = maxQueueAge;
+        this.settledTransfers = Counter.builder("novapay.netting.transfers")
+                .tag("outcome", "settled")
+                .description("Deferred transfers settled by the netting engine")
+                .register(meterRegistry);
+        this.failedTransfers = Counter.builder("novapay.netting.transfers")
+                .tag("outcome", "failed")
+                .description("Deferred transfers the netting engine could not settle")
+                .register(meterRegistry);
+        this.walletUpdates = Counter.builder("novapay.netting.wallet.updates")
+                .description("Wallet balances changed by netting, one per wallet per window")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${novapay.netting.window:PT1S}")
+    public void settleQueuedTransfers() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        // Windows run one after another, so the drain holds one permit of the settlement bulkhead
+        bulkhead.run(settleQueue())
+                .doFinally(signal -> running.set(false))
+                .subscribe(
+                        settled -> {
+                            if (settled > 0) {
+                                log.debug("Netting settled {} transfers", settled);
+                            }
+                        },
+                        error -> log.error("Netting window failed", error));
+    }
+
+    /**
+     * Fails the transfers that outgrew the queue age limit, then runs windows until the queue
+     * is drained, so a backlog larger than one window does not wait a full interval per
+     * window. Emits the number of transfers settled or failed.
+     */
+    public Mono<Integer> settleQueue() {
+        LocalDateTime since = LocalDateTime.now().minus(maxQueueAge);
+        return expireQueue(since)
+                .flatMap(expired -> settleWindow(since)
+                        .expand(processed -> processed < maxTransfersPerWindow ? Mono.empty() : settleWindow(since))
+                        .reduce(expired, Integer::sum));
+    }
+
+    // Fails the transfers queued before since that earlier drains have not failed yet
+    private Mono<Integer> expireQueue(LocalDateTime since) {
+        LocalDateTime from = expiredBefore != null ? expiredBefore : since.minus(EXPIRY_LOOKBACK);
+        if (!from.isBefore(since)) {
+            return Mono.just(0);
+        }
+        return expireWindow(from, since)
+                .expand(expired -> expired < maxTransfersPerWindow ? Mono.empty() : expireWindow(from, since))
+                .reduce(0, Integer::sum)
+                .doOnSuccess(expired -> expiredBefore = since);
+    }
+
+    private Mono<Integer> expireWindow(LocalDateTime from, LocalDateTime to) {
+        String reason = "Not settled within " + maxQueueAge;
+        Mono<List<Transfer>> expired = transferRepository.lockQueuedBetween(from, to, maxTransfersPerWindow)
+                .collectList()
+                .filter(transfers -> !transfers.isEmpty())
+                .flatMap(transfers -> transferRepository.markAllFailed(ids(transfers), from, to, reason)
+                        .thenReturn(transfers));
+        return transactionalOperator.transactional(expired)
+                .doOnNext(transfers -> publish(NettingWindow.failed(transfers, reason)))
+                .map(List::size)
+                .defaultIfEmpty(0);
+    }
+
+    // Emits the number of queued transfers the window took, settled or failed
+    private Mono<Integer> settleWindow(LocalDateTime since) {
+        return transactionalOperator.transactional(transferRepository.lockQueued(since, maxTransfersPerWindow)
+                        .collectList()
+                        .flatMap(transfers -> transfers.isEmpty() ? Mono.empty() : settle(transfers)))
+                .doOnNext(this::publish)
+                .map(window -> window.settled().size() + window.failedCount())
+                .defaultIfEmpty(0);
+    }
+
+    private Mono<NettingWindow> settle(List<Transfer> transfers) {
+        Collection<Long> walletIds = new TreeSet<>();
+        for (Transfer transfer : transfers) {
+            walletIds.add(transfer.getSourceWalletId());
+            walletIds.add(transfer.getDestinationWalletId());
+        }
+        LocalDateTime from = transfers.get(0).getCreatedAt();
+        LocalDateTime to = transfers.get(transfers.size() - 1).getCreatedAt().plusSeconds(1);
+
+        return walletRepository.lockByIds(walletIds)
+                .collectMap(Wallet::getId, Function.identity())
+                .flatMap(wallets -> {
+                    LocalDateTime settledAt = LocalDateTime.now();
+                    NettingWindow window = NettingWindow.settle(transfers, wallets, settledAt);
+                    Map<Long, BigDecimal> netChanges = window.netChanges();
+
+                    Mono<Long> balances = walletRepository.creditAll(netChanges)
+                            .flatMap(updated -> updated < netChanges.size()
+                                    ? Mono.error(new IllegalStateException("Netting updated " + updated +
+                                            " of " + netChanges.size() + " wallets"))
+                                    : Mono.just(updated));
+                    Mono<Integer> completed = window.settled().isEmpty() ? Mono.just(0)
+                            : transferRepository.markAllCompleted(ids(window.settled()), from, to, settledAt);
+                    Mono<Integer> failed = Flux.fromIterable(window.failedByReason().entrySet())
+                            .concatMap(failure -> transferRepository.markAllFailed(
+                                    ids(failure.getValue()), from, to, failure.getKey()))
+                            .reduce(0, Integer::sum);
+
+                    return balances
+                            .flatMap(updated -> completed.then(failed)
+                                    .then(ledgerEntryRepository.insertAll(window.ledgerEntries()))
+                                    .thenReturn(window)
+                                    .doOnSuccess(settled -> {
+                                        for (Transfer transfer : window.settled()) {
+                                            transfer.setStatus(Transfer.Status.COMPLETED.name());
+                                            transfer.setCompletedAt(settledAt);
+                                        }
+                                        walletUpdates.increment(updated);
+                                    }));
+                });
+    }
+
+    // Runs after the window committed; events are not part of the settlement
+    private void publish(NettingWindow window) {
+        settledTransfers.increment(window.settled().size());
+        failedTransfers.increment(window.failedCount());
+        log.debug("Netted {} transfers into {} wallet updates", window.settled().size(), window.netChanges().size());
+
+        Flux.fromIterable(window.settled())
+                .flatMap(eventPublisher::publishTransferCompleted)
+                .subscribe();
+        Flux.fromIterable(window.failedByReason().entrySet())
+                .flatMap(failure -> Flux.fromIterable(failure.getValue())
+                        .doOnNext(transfer -> transfer.setStatus(Transfer.Status.FAILED.name()))
+                        .flatMap(transfer -> eventPublisher.publishTransferFailed(transfer, failure.getKey())))
+                .subscribe();
+    }
+
+    private static List<Long> ids(List<Transfer> transfers) {
+        return transfers.stream().map(Transfer::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,126 @@
+package com.digitalwallet.settlement;
+
+import com.digitalwallet.model.LedgerEntry;
+import com.digitalwallet.model.Transfer;
+import com.digitalwallet.model.Wallet;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settles one window of queued transfers in memory against the locked wallet balances.
+ * Transfers are applied in queue order, so a wallet may spend what an earlier transfer in
+ * the same window paid into it. Each settled transfer gets its debit and credit ledger
+ * entries with the running balances, while the wallets only receive their net change.
+ */
+final class NettingWindow {
+
+    static final String INSUFFICIENT_BALANCE = "Insufficient balance at settlement";
+    static final String SOURCE_NOT_ACTIVE = "Source wallet is not active";
+    static final String DESTINATION_NOT_ACTIVE = "Destination wallet is not active";
+
+    private final List<Transfer> settled = new ArrayList<>();
+    private final Map<String, List<Transfer>> failedByReason = new LinkedHashMap<>();
+    private final Map<Long, BigDecimal> netChanges = new HashMap<>();
+    private final List<LedgerEntry> ledgerEntries = new ArrayList<>();
+
+    private NettingWindow() {
+    }
+
+    static NettingWindow settle(List<Transfer> transfers, Map<Long, Wallet> walletsById, LocalDateTime settledAt) {
+        NettingWindow window = new NettingWindow();
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        walletsById.forEach((id, wallet) -> balances.put(id, wallet.getBalance()));
+
+        for (Transfer transfer : transfers) {
+            Wallet source = walletsById.get(transfer.getSourceWalletId());
+            Wallet destination = walletsById.get(transfer.getDestinationWalletId());
+            BigDecimal amount = transfer.getAmount();
+            // A cross-currency transfer credits the converted amount fixed when it was queued
+            BigDecimal credit = transfer.getDestinationAmount() != null ? transfer.getDestinationAmount() : amount;
+
+            String failure = null;
+            if (source == null || !"ACTIVE".equals(source.getStatus())) {
+                failure = SOURCE_NOT_ACTIVE;
+            } else if (destination == null || !"ACTIVE".equals(destination.getStatus())) {
+                failure = DESTINATION_NOT_ACTIVE;
+            } else if (spendable(source, balances).compareTo(amount) < 0) {
+                failure = INSUFFICIENT_BALANCE;
+            }
+            if (failure != null) {
+                window.failedByReason.computeIfAbsent(failure, reason -> new ArrayList<>()).add(transfer);
+                continue;
+            }
+
+            window.post(transfer, source.getId(), LedgerEntry.EntryType.DEBIT, amount, amount.negate(),
+                    transfer.getCurrency(), balances, settledAt);
+            window.post(transfer, destination.getId(), LedgerEntry.EntryType.CREDIT, credit, credit,
+                    transfer.getDestinationCurrency() != null ? transfer.getDestinationCurrency() : transfer.getCurrency(),
+                    balances, settledAt);
+            window.settled.add(transfer);
+        }
+
+        window.netChanges.values().removeIf(change -> change.signum() == 0);
+        return window;
+    }
+
+    /** A window that settles nothing and fails all of {@code transfers} for {@code reason}. */
+    static NettingWindow failed(List<Transfer> transfers, String reason) {
+        NettingWindow window = new NettingWindow();
+        window.failedByReason.put(reason, new ArrayList<>(transfers));
+        return window;
+    }
+
+    // The running balance less what the wallet's holds reserve, which netting leaves alone
+    private static BigDecimal spendable(Wallet wallet, Map<Long, BigDecimal> balances) {
+        BigDecimal balance = balances.get(wallet.getId());
+        return wallet.getHeldBalance() == null ? balance : balance.subtract(wallet.getHeldBalance());
+    }
+
+    private void post(Transfer transfer, Long walletId, LedgerEntry.EntryType entryType, BigDecimal amount,
+                      BigDecimal change, String currency, Map<Long, BigDecimal> balances, LocalDateTime settledAt) {
+        BigDecimal before = balances.get(walletId);
+        BigDecimal after = before.add(change);
+        balances.put(walletId, after);
+        netChanges.merge(walletId, change, BigDecimal::add);
+
+        ledgerEntries.add(LedgerEntry.builder()
+                .transferId(transfer.getId())
+                .walletId(walletId)
+                .entryType(entryType.name())
+                .amount(amount)
+                .balanceBefore(before)
+                .balanceAfter(after)
+                .currency(currency)
+                .description(entryType.name() + " for transfer " + transfer.getTransferReference())
+                .createdAt(settledAt)
+                .fxRate(transfer.getFxRate())
+                .build());
+    }
+
+    List<Transfer> settled() {
+        return settled;
+    }
+
+    Map<String, List<Transfer>> failedByReason() {
+        return failedByReason;
+    }
+
+    int failedCount() {
+        return failedByReason.values().stream().mapToInt(List::size).sum();
+    }
+
+    /** Net balance change per wallet, without wallets whose flows cancelled out. */
+    Map<Long, BigDecimal> netChanges() {
+        return netChanges;
+    }
+
+    List<LedgerEntry> ledgerEntries() {
+        return ledgerEntries;
+    }
+}
@@ -1,4 +1,6 @@
 -- Database schema for Digital Wallet System
+-- transfers and ledger_entries are created by V2__ledger.sql (postgresql/V2__ledger.sql on PostgreSQL)
+-- Written to be re-runnable, so databases created before versioned migrations adopt it as is
 
 -- Users table
 CREATE TABLE IF NOT EXISTS users (
@@ -25,40 +27,12 @@ CREATE TABLE IF NOT EXISTS wallets (
     daily_limit DECIMAL(19, 4) DEFAULT 50000.0000,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    CONSTRAINT positive_balance CHECK (balance >= 0)
+    held_balance DECIMAL(19, 4) NOT NULL DEFAULT 0.0000, -- sum of the wallet's active holds
+    CONSTRAINT positive_balance CHECK (balance >= 0),
+    CONSTRAINT held_within_balance CHECK (held_balance >= 0 AND held_balance <= balance)
     );
 
--- Transfers table
-CREATE TABLE IF NOT EXISTS transfers (
-                                         id BIGSERIAL PRIMARY KEY,
-                                         transfer_reference VARCHAR(100) UNIQUE NOT NULL,
-    source_wallet_id BIGINT NOT NULL REFERENCES wallets(id),
-    destination_wallet_id BIGINT NOT NULL REFERENCES wallets(id),
-    amount DECIMAL(19, 4) NOT NULL,
-    currency VARCHAR(3) NOT NULL,
-    status VARCHAR(20) DEFAULT 'PENDING',
-    transfer_type VARCHAR(20) DEFAULT 'P2P',
-    description VARCHAR(500),
-    initiated_by BIGINT NOT NULL REFERENCES users(id),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    completed_at TIMESTAMP,
-    CONSTRAINT positive_amount CHECK (amount > 0),
-    CONSTRAINT different_wallets CHECK (source_wallet_id != destination_wallet_id)
-    );
-
--- Ledger entries table (double-entry bookkeeping)
-CREATE TABLE IF NOT EXISTS ledger_entries (
-                                              id BIGSERIAL PRIMARY KEY,
-                                              transfer_id BIGINT NOT NULL REFERENCES transfers(id),
-    wallet_id BIGINT NOT NULL REFERENCES wallets(id),
-    entry_type VARCHAR(20) NOT NULL, -- DEBIT or CREDIT
-    amount DECIMAL(19, 4) NOT NULL,
-    balance_before DECIMAL(19, 4) NOT NULL,
-    balance_after DECIMAL(19, 4) NOT NULL,
-    currency VARCHAR(3) NOT NULL,
-    description VARCHAR(500),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-    );
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS held_balance DECIMAL(19, 4) NOT NULL DEFAULT 0.0000;
 
 -- Audit logs table
 CREATE TABLE IF NOT EXISTS audit_logs (
@@ -90,10 +64,17 @@ CREATE TABLE IF NOT EXISTS savings_goals (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     achieved_at TIMESTAMP,
+    suggested_monthly_contribution DECIMAL(19, 4),
+    projected_completion_date DATE, -- at the current rate of recurring contributions
+    projected_on DATE, -- day the two columns above were computed
     CONSTRAINT positive_target_amount CHECK (target_amount > 0),
     CONSTRAINT positive_current_amount CHECK (current_amount >= 0)
     );
 
+ALTER TABLE savings_goals ADD COLUMN IF NOT EXISTS suggested_monthly_contribution DECIMAL(19, 4);
+ALTER TABLE savings_goals ADD COLUMN IF NOT EXISTS projected_completion_date DATE;
+ALTER TABLE savings_goals ADD COLUMN IF NOT EXISTS projected_on DATE;
+
 -- Recurring transfers table
 CREATE TABLE IF NOT EXISTS recurring_transfers (
                                                    id BIGSERIAL PRIMARY KEY,
@@ -123,17 +104,65 @@ CREATE TABLE IF NOT EXISTS recurring_transfers (
     CONSTRAINT valid_day_of_month CHECK (day_of_month IS NULL OR (day_of_month >= 1 AND day_of_month <= 28))
     );
 
+-- Payouts: one source wallet paying many destinations; each line is a PAYOUT transfer
+-- whose parent_reference is the payout_reference
+CREATE TABLE IF NOT EXISTS payouts (
+    id BIGSERIAL PRIMARY KEY,
+    payout_reference VARCHAR(100) UNIQUE NOT NULL,
+    source_wallet_id BIGINT NOT NULL REFERENCES wallets(id),
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(30) NOT NULL DEFAULT 'PROCESSING',
+    line_count INTEGER NOT NULL DEFAULT 0,
+    completed_count INTEGER NOT NULL DEFAULT 0,
+    failed_count INTEGER NOT NULL DEFAULT 0,
+    completed_amount DECIMAL(19, 4) NOT NULL DEFAULT 0.0000,
+    description VARCHAR(500),
+    initiated_by BIGINT NOT NULL REFERENCES users(id),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP
+    );
+
+-- Holds: funds reserved on a wallet now and captured to the destination later. While a hold is
+-- ACTIVE its amount is part of wallets.held_balance; capture, release and expiry take it out
+CREATE TABLE IF NOT EXISTS wallet_holds (
+    id BIGSERIAL PRIMARY KEY,
+    hold_reference VARCHAR(100) UNIQUE NOT NULL,
+    wallet_id BIGINT NOT NULL REFERENCES wallets(id),
+    destination_wallet_id BIGINT NOT NULL REFERENCES wallets(id),
+    amount DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE', -- ACTIVE, CAPTURED, RELEASED or EXPIRED
+    captured_amount DECIMAL(19, 4),
+    transfer_reference VARCHAR(100), -- transfer created by the capture
+    description VARCHAR(500),
+    created_by BIGINT NOT NULL REFERENCES users(id),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    closed_at TIMESTAMP,
+    CONSTRAINT positive_hold_amount CHECK (amount > 0),
+    CONSTRAINT different_hold_wallets CHECK (wallet_id != destination_wallet_id)
+    );
+
+-- Exchange rates for cross-currency transfers: destination units per base unit. Only one
+-- direction of a pair is needed; the inverse is derived when the rates are loaded
+CREATE TABLE IF NOT EXISTS fx_rates (
+    id BIGSERIAL PRIMARY KEY,
+    base_currency VARCHAR(3) NOT NULL,
+    quote_currency VARCHAR(3) NOT NULL,
+    rate DECIMAL(19, 10) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT unique_fx_pair UNIQUE (base_currency, quote_currency),
+    CONSTRAINT positive_fx_rate CHECK (rate > 0)
+    );
+
 -- Indexes for performance
 CREATE INDEX IF NOT EXISTS idx_wallets_user_id ON wallets(user_id);
 CREATE INDEX IF NOT EXISTS idx_wallets_status ON wallets(status);
-CREATE INDEX IF NOT EXISTS idx_transfers_source_wallet ON transfers(source_wallet_id);
-CREATE INDEX IF NOT EXISTS idx_transfers_destination_wallet ON transfers(destination_wallet_id);
-CREATE INDEX IF NOT EXISTS idx_transfers_status ON transfers(status);
-CREATE INDEX IF NOT EXISTS idx_transfers_created_at ON transfers(created_at);
-CREATE INDEX IF NOT EXISTS idx_ledger_transfer_id ON ledger_entries(transfer_id);
-CREATE INDEX IF NOT EXISTS idx_ledger_wallet_id ON ledger_entries(wallet_id);
 CREATE INDEX IF NOT EXISTS idx_audit_entity ON audit_logs(entity_type, entity_id);
 CREATE INDEX IF NOT EXISTS idx_audit_created_at ON audit_logs(created_at);
+CREATE INDEX IF NOT EXISTS idx_payouts_source_wallet ON payouts(source_wallet_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_wallet_holds_wallet ON wallet_holds(wallet_id, status);
+CREATE INDEX IF NOT EXISTS idx_wallet_holds_expiry ON wallet_holds(status, expires_at);
 
 -- Savings goals indexes
 CREATE INDEX IF NOT EXISTS idx_savings_goals_user_id ON savings_goals(user_id);
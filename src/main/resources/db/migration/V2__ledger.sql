@@ -0,0 +1,62 @@
+-- Transfers and ledger entries for databases without declarative partitioning (H2 locally).
+-- Same columns, keys and indexes as postgresql/V2__ledger.sql, minus the partitioning.
+
+-- Transfers table
+CREATE TABLE IF NOT EXISTS transfers (
+    id BIGSERIAL,
+    transfer_reference VARCHAR(100) NOT NULL,
+    source_wallet_id BIGINT NOT NULL REFERENCES wallets(id),
+    destination_wallet_id BIGINT NOT NULL REFERENCES wallets(id),
+    amount DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) DEFAULT 'PENDING',
+    transfer_type VARCHAR(20) DEFAULT 'P2P',
+    description VARCHAR(500),
+    initiated_by BIGINT NOT NULL REFERENCES users(id),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP,
+    parent_reference VARCHAR(100), -- payout or hold a transfer belongs to
+    fx_rate DECIMAL(19, 10), -- cross-currency only: destination units per source unit
+    destination_amount DECIMAL(19, 4),
+    destination_currency VARCHAR(3),
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT positive_amount CHECK (amount > 0),
+    CONSTRAINT different_wallets CHECK (source_wallet_id != destination_wallet_id)
+    );
+
+-- One row per transfer reference; keeps references unique across all partitions
+CREATE TABLE IF NOT EXISTS transfer_references (
+    transfer_reference VARCHAR(100) PRIMARY KEY,
+    created_at TIMESTAMP NOT NULL
+    );
+
+-- Ledger entries table (double-entry bookkeeping)
+CREATE TABLE IF NOT EXISTS ledger_entries (
+    id BIGSERIAL,
+    transfer_id BIGINT NOT NULL,
+    wallet_id BIGINT NOT NULL REFERENCES wallets(id),
+    entry_type VARCHAR(20) NOT NULL, -- DEBIT or CREDIT
+    amount DECIMAL(19, 4) NOT NULL,
+    balance_before DECIMAL(19, 4) NOT NULL,
+    balance_after DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    description VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    fx_rate DECIMAL(19, 10), -- rate of a cross-currency transfer; amount is in the wallet's currency
+    PRIMARY KEY (id, created_at)
+    );
+
+-- Added after the table was introduced; a no-op on databases created with it
+ALTER TABLE transfers ADD COLUMN IF NOT EXISTS parent_reference VARCHAR(100);
+ALTER TABLE transfers ADD COLUMN IF NOT EXISTS fx_rate DECIMAL(19, 10);
+ALTER TABLE transfers ADD COLUMN IF NOT EXISTS destination_amount DECIMAL(19, 4);
+ALTER TABLE transfers ADD COLUMN IF NOT EXISTS destination_currency VARCHAR(3);
+ALTER TABLE ledger_entries ADD COLUMN IF NOT EXISTS fx_rate DECIMAL(19, 10);
+
+CREATE INDEX IF NOT EXISTS idx_transfers_reference ON transfers(transfer_reference);
+CREATE INDEX IF NOT EXISTS idx_transfers_source_wallet ON transfers(source_wallet_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_transfers_destination_wallet ON transfers(destination_wallet_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_transfers_status ON transfers(status, created_at);
+CREATE INDEX IF NOT EXISTS idx_transfers_parent_reference ON transfers(parent_reference);
+CREATE INDEX IF NOT EXISTS idx_ledger_transfer_id ON ledger_entries(transfer_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_wallet_id ON ledger_entries(wallet_id, created_at);
@@ -0,0 +1,2 @@
+-- Serves RecurringTransferRepository.findDueForExecution: active transfers by next execution date
+CREATE INDEX IF NOT EXISTS idx_recurring_transfers_due ON recurring_transfers(status, next_execution_date);
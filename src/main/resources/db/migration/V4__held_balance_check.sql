@@ -0,0 +1,4 @@
+-- Wallets tables created before holds got held_balance from V1's ADD COLUMN, but not the check
+-- that comes with it in CREATE TABLE.
+ALTER TABLE wallets ADD CONSTRAINT IF NOT EXISTS held_within_balance
+    CHECK (held_balance >= 0 AND held_balance <= balance);
@@ -0,0 +1,2 @@
+-- Serves UserRepository.findUsernamesAndEmailsCreatedSince, the user existence filter's refresh
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users(created_at);
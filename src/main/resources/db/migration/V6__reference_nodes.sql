@@ -0,0 +1,7 @@
+-- Last timestamp each reference generator node id issued, kept by ReferenceCheckpoint so that
+-- a node restarting on a clock that is behind does not issue the same references again
+CREATE TABLE IF NOT EXISTS reference_nodes (
+    node_id INTEGER PRIMARY KEY,
+    last_millis BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
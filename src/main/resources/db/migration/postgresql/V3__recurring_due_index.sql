@@ -0,0 +1,7 @@
+-- novapay:no-transaction
+-- Serves RecurringTransferRepository.findDueForExecution: only active transfers are indexed.
+-- Built concurrently so recurring_transfers stays writable meanwhile. A build that fails leaves an
+-- invalid index behind, and the migration is not recorded, so the next attempt drops it first.
+DROP INDEX CONCURRENTLY IF EXISTS idx_recurring_transfers_due;
+CREATE INDEX CONCURRENTLY idx_recurring_transfers_due ON recurring_transfers(next_execution_date)
+    WHERE status = 'ACTIVE';
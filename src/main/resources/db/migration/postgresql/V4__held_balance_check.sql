@@ -0,0 +1,15 @@
+-- novapay:no-transaction
+-- Wallets tables created before holds got held_balance from V1's ADD COLUMN, but not the check
+-- that comes with it in CREATE TABLE. PostgreSQL has no ADD CONSTRAINT IF NOT EXISTS, so the
+-- catalog is asked first. The check is added NOT VALID, which locks wallets only briefly, and
+-- the existing rows are then checked by a separate statement that does not block writes. Both
+-- statements are safe to run again.
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = ''held_within_balance'' AND conrelid = ''wallets''::regclass) THEN
+        ALTER TABLE wallets ADD CONSTRAINT held_within_balance
+            CHECK (held_balance >= 0 AND held_balance <= balance) NOT VALID;
+    END IF;
+END';
+ALTER TABLE wallets VALIDATE CONSTRAINT held_within_balance;
@@ -0,0 +1,6 @@
+-- novapay:no-transaction
+-- Serves UserRepository.findUsernamesAndEmailsCreatedSince, the user existence filter's refresh.
+-- Built concurrently so users stays writable meanwhile. A build that fails leaves an invalid index
+-- behind, and the migration is not recorded, so the next attempt drops it first.
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_created_at;
+CREATE INDEX CONCURRENTLY idx_users_created_at ON users(created_at);
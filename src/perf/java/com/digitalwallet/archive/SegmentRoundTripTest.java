@@ -0,0 +1,142 @@
+package com.digitalwallet.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rows written by {@link SegmentWriter} read back unchanged through {@link Segment}, down
+ * to nulls, decimal scales and microsecond timestamps. Times are kept to whole
+ * microseconds, the precision segments store.
+ *
+ * <p>{@code mvn -Pperf test -Dtest=SegmentRoundTripTest}
+ */
+class SegmentRoundTripTest {
+
+    private static final LocalDateTime MONTH_START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void columnCodecKeepsNullsDecimalsAndTimestamps() {
+        List<Column> columns = ArchivedTable.TRANSFERS.columns();
+        List<Object[]> rows = List.of(
+                transfer(1L, 7L, MONTH_START, new BigDecimal("0.0001")),
+                transfer(2L, 7L, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), new BigDecimal("-12345678901234567890.1234")),
+                transfer(3L, 8L, LocalDateTime.of(2026, 1, 31, 23, 59, 59, 123_456_000), new BigDecimal("1E+3")),
+                new Object[columns.size()]);
+        rows.get(2)[8] = "Überweisung – naïve 💸 \"quoted\"";
+        rows.get(2)[13] = null;
+
+        byte[] encoded = ColumnCodec.encode(columns, rows);
+        Object[][] decoded = ColumnCodec.decode(columns, ByteBuffer.wrap(encoded), rows.size());
+
+        assertEquals(rows.size(), decoded.length);
+        for (int row = 0; row < rows.size(); row++) {
+            assertArrayEquals(rows.get(row), decoded[row], "row " + row);
+        }
+        // Scale is part of the value: 1E+3 must not come back as 1000
+        assertEquals(-3, ((BigDecimal) decoded[2][4]).scale());
+    }
+
+    @Test
+    void segmentReadsBackEveryRowAcrossBlocks() throws IOException {
+        ArchivedTable table = ArchivedTable.TRANSFERS;
+        List<Object[]> rows = new ArrayList<>();
+        long id = 1;
+        for (long wallet = 1; wallet <= 5; wallet++) {
+            for (int day = 0; day < 30; day++) {
+                BigDecimal amount = day % 7 == 0 ? null : BigDecimal.valueOf(day * 1_000L + wallet, 4);
+                rows.add(transfer(id++, wallet, MONTH_START.plusDays(day).plusNanos(day * 1_000L), amount));
+            }
+        }
+        rows.sort(Comparator.<Object[], Long>comparing(row -> (Long) row[table.walletIndex()])
+                .thenComparing(row -> (LocalDateTime) row[table.createdAtIndex()])
+                .thenComparing(row -> (Long) row[table.idIndex()]));
+
+        Path path = write(table, rows, 16);
+        Segment segment = Segment.open(table, path);
+
+        assertEquals(rows.size(), segment.rowCount());
+        for (long wallet = 1; wallet <= 5; wallet++) {
+            long walletId = wallet;
+            List<Object[]> expected = rows.stream()
+                    .filter(row -> (Long) row[table.walletIndex()] == walletId)
+                    .filter(row -> !((LocalDateTime) row[table.createdAtIndex()]).isBefore(MONTH_START.plusDays(10)))
+                    .filter(row -> ((LocalDateTime) row[table.createdAtIndex()]).isBefore(MONTH_START.plusDays(20)))
+                    .toList();
+            List<Object[]> actual = segment.rows(walletId,
+                    ColumnCodec.toMicros(MONTH_START.plusDays(10)), ColumnCodec.toMicros(MONTH_START.plusDays(20)));
+            assertRowsEqual(expected, actual);
+        }
+
+        Object[] wanted = rows.get(77);
+        List<Object[]> byReference = segment.rowsMatching(table.indexOf("transfer_reference"), wanted[1]);
+        assertRowsEqual(List.<Object[]>of(wanted), byReference);
+        assertTrue(segment.rowsMatching(table.indexOf("transfer_reference"), "TXN-MISSING").isEmpty());
+    }
+
+    @Test
+    void emptySegmentHasNoRows() throws IOException {
+        Segment segment = Segment.open(ArchivedTable.LEDGER_ENTRIES, write(ArchivedTable.LEDGER_ENTRIES, List.of(), 16));
+
+        assertEquals(0, segment.rowCount());
+        assertTrue(segment.rows(1L, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void unfinishedSegmentLeavesNothingBehind() throws IOException {
+        Path target = directory.resolve(ArchivedTable.TRANSFERS.fileName(YearMonth.of(2026, 1)));
+        try (SegmentWriter writer = new SegmentWriter(ArchivedTable.TRANSFERS, target)) {
+            writer.writeBlock(List.<Object[]>of(transfer(1L, 1L, MONTH_START, BigDecimal.ONE)));
+        }
+
+        assertFalse(Files.exists(target));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private Path write(ArchivedTable table, List<Object[]> rows, int blockRows) throws IOException {
+        Path target = directory.resolve(table.fileName(YearMonth.of(2026, 1)));
+        try (SegmentWriter writer = new SegmentWriter(table, target)) {
+            for (int from = 0; from < rows.size(); from += blockRows) {
+                writer.writeBlock(rows.subList(from, Math.min(rows.size(), from + blockRows)));
+            }
+            assertEquals(rows.size(), writer.finish());
+        }
+        return target;
+    }
+
+    private static Object[] transfer(long id, long wallet, LocalDateTime createdAt, BigDecimal amount) {
+        return new Object[]{
+                id, "TXN-" + id, wallet, wallet + 100, amount, "USD", "COMPLETED", "P2P",
+                id % 3 == 0 ? null : "Transfer " + id, id % 5 == 0 ? null : wallet,
+                createdAt, id % 4 == 0 ? null : createdAt.plusSeconds(1), null,
+                id % 2 == 0 ? new BigDecimal("1.08250000") : null, null, null};
+    }
+
+    private static void assertRowsEqual(List<Object[]> expected, List<Object[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertArrayEquals(expected.get(row), actual.get(row), "row " + row);
+        }
+    }
+}
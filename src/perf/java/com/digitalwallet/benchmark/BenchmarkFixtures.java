@@ -0,0 +1,78 @@
+package com.digitalwallet.benchmark;
+
+import com.digitalwallet.dto.TransferRequest;
+import com.digitalwallet.model.SavingsGoal;
+import com.digitalwallet.model.Transfer;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Shared sample data and wiring helpers for benchmarks that exercise beans outside a
+ * Spring context.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Sets a field that Spring would normally populate through {@code @Value}.
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    public static TransferRequest transferRequest() {
+        return TransferRequest.builder()
+                .sourceWalletNumber("WLT-1001")
+                .destinationWalletNumber("WLT-1002")
+                .amount(new BigDecimal("250.00"))
+                .currency("USD")
+                .description("Benchmark transfer")
+                .build();
+    }
+
+    public static Transfer completedTransfer() {
+        return Transfer.builder()
+                .id(42L)
+                .transferReference("TXN-1A2B3C4D")
+                .sourceWalletId(1L)
+                .destinationWalletId(2L)
+                .amount(new BigDecimal("250.0000"))
+                .currency("USD")
+                .status(Transfer.Status.COMPLETED.name())
+                .transferType(Transfer.TransferType.P2P.name())
+                .description("Benchmark transfer")
+                .initiatedBy(1L)
+                .createdAt(LocalDateTime.of(2026, 1, 15, 10, 30))
+                .completedAt(LocalDateTime.of(2026, 1, 15, 10, 30, 1))
+                .build();
+    }
+
+    public static SavingsGoal activeGoal() {
+        return SavingsGoal.builder()
+                .id(7L)
+                .userId(1L)
+                .savingsWalletId(2L)
+                .goalName("Emergency Fund")
+                .description("Six months of expenses")
+                .targetAmount(new BigDecimal("10000.0000"))
+                .currentAmount(new BigDecimal("3250.5000"))
+                .currency("USD")
+                .targetDate(LocalDate.now().plusMonths(14))
+                .status(SavingsGoal.Status.ACTIVE.name())
+                .progressPercentage(new BigDecimal("32.51"))
+                .suggestedMonthlyContribution(new BigDecimal("518.29"))
+                .createdAt(LocalDateTime.of(2026, 1, 1, 9, 0))
+                .build();
+    }
+}
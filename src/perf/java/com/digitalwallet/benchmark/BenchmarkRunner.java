@@ -0,0 +1,28 @@
+package com.digitalwallet.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler attached so every result carries
+ * allocation rate ({@code gc.alloc.rate.norm}) next to its score. Accepts the
+ * regular JMH command line, e.g. a benchmark regex followed by {@code -wi 1 -i 3}.
+ *
+ * <p>Usage: {@code mvn -Pperf test-compile exec:exec@benchmarks -Dbenchmark.include=Jwt}
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(options).run();
+    }
+}
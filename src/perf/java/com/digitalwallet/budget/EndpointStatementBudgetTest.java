@@ -0,0 +1,435 @@
+package com.digitalwallet.budget;
+
+import com.digitalwallet.NovaPayApplication;
+import com.digitalwallet.loadtest.LoadTestConfiguration;
+import com.digitalwallet.loadtest.LoadTestSeeder;
+import com.digitalwallet.loadtest.LoadTestSeeder.SeededUser;
+import com.digitalwallet.model.RecurringTransfer;
+import com.digitalwallet.model.SavingsGoal;
+import com.digitalwallet.repository.RecurringTransferRepository;
+import com.digitalwallet.repository.SavingsGoalRepository;
+import com.digitalwallet.repository.UserRepository;
+import com.digitalwallet.repository.WalletRepository;
+import com.digitalwallet.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pins the number of SQL statements each endpoint may run per request. A change that
+ * adds a round trip (another {@code findById} after a save, a lookup inside a loop)
+ * fails here with the full list of statements instead of showing up later as latency.
+ * Lowering a budget after an optimisation is encouraged; raising one should come with
+ * a reason in the commit. Most budgets are ceilings; the balance lookup (one query), the
+ * availability check and a cached dashboard (none) must run exactly their count. Each
+ * test starts from freshly seeded rows.
+ *
+ * <p>Runs against H2 in PostgreSQL mode with the in-process Kafka sender:
+ * {@code mvn -Pperf test -Dtest=EndpointStatementBudgetTest}
+ */
+@SpringBootTest(
+        classes = {NovaPayApplication.class, LoadTestConfiguration.class,
+                EndpointStatementBudgetTest.RecorderConfiguration.class},
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.r2dbc.url=r2dbc:h2:mem:///novapay-budget;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "novapay.reference.node-id=0",
+                // Keeps the periodic save out of the statements counted per request
+                "novapay.reference.checkpoint-interval=PT1H",
+                "logging.level.com.digitalwallet=WARN",
+                "logging.level.org.springframework.r2dbc=WARN",
+                "logging.level.io.r2dbc.h2=ERROR"
+        })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointStatementBudgetTest {
+
+    private static final int LOGIN_BUDGET = 2;
+    private static final int REGISTER_BUDGET = 2;
+    private static final int AVAILABILITY_BUDGET = 0;
+    private static final int BALANCE_BUDGET = 1;
+    private static final int USER_WALLETS_BUDGET = 1;
+    private static final int WALLET_HISTORY_BUDGET = 2;
+    private static final int STATEMENT_EXPORT_BUDGET = 2;
+    private static final int DASHBOARD_BUDGET = 6;
+    private static final int TRANSFER_INITIATE_BUDGET = 18;
+    private static final int TRANSFER_STATUS_BUDGET = 1;
+    private static final int DEFERRED_TRANSFER_BUDGET = 6;
+    private static final int PAYOUT_BUDGET = 14;
+    private static final int HOLD_PLACE_BUDGET = 4;
+    private static final int HOLD_CAPTURE_BUDGET = 9;
+    private static final int HOLD_RELEASE_BUDGET = 4;
+    private static final int GOAL_LISTING_BUDGET = 1;
+    private static final int GOAL_CONTRIBUTE_BUDGET = 4;
+    private static final int RECURRING_LISTING_BUDGET = 3;
+
+    // Children before parents; fx_rates and the bookkeeping tables are left alone
+    private static final List<String> FIXTURE_TABLES = List.of(
+            "ledger_entries", "transfer_references", "transfers", "wallet_holds", "payouts",
+            "recurring_transfers", "savings_goals", "audit_logs", "wallets", "users");
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private SavingsGoalRepository savingsGoalRepository;
+
+    @Autowired
+    private RecurringTransferRepository recurringTransferRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private List<SeededUser> users;
+
+    // Every test starts from the same rows, so balances, goals and recurring transfers left
+    // by one test cannot change what another counts
+    @BeforeEach
+    void resetFixtures() {
+        Flux.fromIterable(FIXTURE_TABLES)
+                .concatMap(table -> databaseClient.sql("DELETE FROM " + table).then())
+                .blockLast();
+        users = new LoadTestSeeder(userRepository, walletRepository, savingsGoalRepository,
+                recurringTransferRepository, passwordEncoder).seed(4);
+        recorder.reset();
+    }
+
+    @Test
+    void login() {
+        SeededUser user = users.get(0);
+        post("/api/auth/login", null,
+                Map.of("username", user.username(), "password", LoadTestSeeder.PASSWORD), HttpStatus.OK);
+
+        recorder.assertWithinBudget("POST /api/auth/login", LOGIN_BUDGET);
+    }
+
+    @Test
+    void register() {
+        post("/api/auth/register", null, Map.of(
+                "username", "budget.user", "email", "budget.user@budget.local", "password", "budget-password",
+                "firstName", "Budget", "lastName", "User"), HttpStatus.CREATED);
+
+        recorder.assertWithinBudget("POST /api/auth/register", REGISTER_BUDGET);
+    }
+
+    @Test
+    void usernameAvailability() {
+        recorder.reset();
+        client.get().uri("/api/auth/availability?username=never.registered")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.usernameAvailable").isEqualTo(true)
+                .jsonPath("$.emailAvailable").doesNotExist();
+
+        recorder.assertExactly("GET /api/auth/availability", AVAILABILITY_BUDGET);
+    }
+
+    @Test
+    void walletBalance() {
+        SeededUser user = users.get(0);
+        get("/api/wallets/" + user.walletNumber() + "/balance", user);
+
+        recorder.assertExactly("GET /api/wallets/{walletNumber}/balance", BALANCE_BUDGET);
+    }
+
+    @Test
+    void userWallets() {
+        SeededUser user = users.get(0);
+        get("/api/wallets/user/" + user.userId(), user);
+
+        recorder.assertWithinBudget("GET /api/wallets/user/{userId}", USER_WALLETS_BUDGET);
+    }
+
+    @Test
+    void walletHistory() {
+        SeededUser user = users.get(0);
+        get("/api/wallets/" + user.walletNumber() + "/history", user);
+
+        recorder.assertExactly("GET /api/wallets/{walletNumber}/history", WALLET_HISTORY_BUDGET);
+    }
+
+    @Test
+    void walletHistoryOfAnotherUsersWalletIsNotFound() {
+        client.get().uri("/api/wallets/" + users.get(1).walletNumber() + "/history")
+                .header("Authorization", bearer(users.get(0)))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void statementExport() {
+        SeededUser user = users.get(0);
+        recorder.reset();
+        client.get().uri("/api/wallets/" + user.walletNumber() + "/statement?format=ndjson")
+                .header("Authorization", bearer(user))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult();
+
+        recorder.assertWithinBudget("GET /api/wallets/{walletNumber}/statement", STATEMENT_EXPORT_BUDGET);
+    }
+
+    @Test
+    void statementExportOfAnotherUsersWalletIsNotFound() {
+        client.get().uri("/api/wallets/" + users.get(1).walletNumber() + "/statement?format=ndjson")
+                .header("Authorization", bearer(users.get(0)))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void dashboardIsServedFromCacheUntilTheUserWrites() {
+        SeededUser user = users.get(3);
+        addGoalLinkedRecurringTransfers(user, users.get(0), 3);
+
+        get("/api/dashboard", user);
+        recorder.assertWithinBudget("GET /api/dashboard", DASHBOARD_BUDGET);
+
+        get("/api/dashboard", user);
+        recorder.assertExactly("GET /api/dashboard (cached)", 0);
+
+        post("/api/transfers/initiate", user, Map.of(
+                "sourceWalletNumber", user.walletNumber(),
+                "destinationWalletNumber", users.get(0).walletNumber(),
+                "amount", new BigDecimal("1.00"),
+                "currency", "USD"), HttpStatus.CREATED);
+        get("/api/dashboard", user);
+        recorder.assertWithinBudget("GET /api/dashboard (after a write)", DASHBOARD_BUDGET);
+    }
+
+    @Test
+    void transferInitiateAndStatus() {
+        SeededUser source = users.get(1);
+        SeededUser destination = users.get(2);
+        Map<?, ?> transfer = post("/api/transfers/initiate", source, Map.of(
+                "sourceWalletNumber", source.walletNumber(),
+                "destinationWalletNumber", destination.walletNumber(),
+                "amount", new BigDecimal("5.00"),
+                "currency", "USD",
+                "description", "budget test"), HttpStatus.CREATED);
+
+        recorder.assertWithinBudget("POST /api/transfers/initiate", TRANSFER_INITIATE_BUDGET);
+
+        get("/api/transfers/" + transfer.get("transferReference") + "/status", source);
+
+        recorder.assertWithinBudget("GET /api/transfers/{transferReference}/status", TRANSFER_STATUS_BUDGET);
+    }
+
+    @Test
+    void deferredTransferInitiate() {
+        SeededUser source = users.get(2);
+        SeededUser destination = users.get(1);
+        Map<?, ?> transfer = post("/api/transfers/initiate", source, Map.of(
+                "sourceWalletNumber", source.walletNumber(),
+                "destinationWalletNumber", destination.walletNumber(),
+                "amount", new BigDecimal("5.00"),
+                "currency", "USD",
+                "settlement", "DEFERRED"), HttpStatus.ACCEPTED);
+
+        recorder.assertWithinBudget("POST /api/transfers/initiate (deferred)", DEFERRED_TRANSFER_BUDGET);
+    }
+
+    @Test
+    void payoutIsConstantInLineCount() {
+        SeededUser source = users.get(2);
+        payout(source, 2);
+        List<String> few = recorder.assertWithinBudget("POST /api/transfers/payouts (2 lines)", PAYOUT_BUDGET);
+
+        payout(source, 40);
+        List<String> many = recorder.assertWithinBudget("POST /api/transfers/payouts (40 lines)", PAYOUT_BUDGET);
+
+        assertEquals(few.size(), many.size(), () -> StatementRecorder.describe(
+                "Payout ran " + few.size() + " statements for 2 lines but " + many.size() + " for 40", many));
+    }
+
+    private void payout(SeededUser source, int lines) {
+        StringBuilder body = new StringBuilder();
+        for (int line = 0; line < lines; line++) {
+            SeededUser destination = users.get(line % 2 == 0 ? 0 : 3);
+            body.append("{\"destinationWalletNumber\":\"").append(destination.walletNumber())
+                    .append("\",\"amount\":1.00}\n");
+        }
+
+        recorder.reset();
+        String results = client.post().uri("/api/transfers/payouts?sourceWalletNumber=" + source.walletNumber())
+                .header("Authorization", bearer(source))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body.toString())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(lines, results.lines().filter(result -> result.contains("\"COMPLETED\"")).count(), results);
+    }
+
+    @Test
+    void holdPlaceCaptureAndRelease() {
+        SeededUser source = users.get(3);
+        SeededUser destination = users.get(0);
+        Map<String, Object> hold = Map.of(
+                "walletNumber", source.walletNumber(),
+                "destinationWalletNumber", destination.walletNumber(),
+                "amount", new BigDecimal("5.00"),
+                "currency", "USD");
+        Map<?, ?> captured = post("/api/holds", source, hold, HttpStatus.CREATED);
+
+        recorder.assertWithinBudget("POST /api/holds", HOLD_PLACE_BUDGET);
+
+        post("/api/holds/" + captured.get("holdReference") + "/capture", source, null, HttpStatus.OK);
+
+        recorder.assertWithinBudget("POST /api/holds/{holdReference}/capture", HOLD_CAPTURE_BUDGET);
+
+        Map<?, ?> released = post("/api/holds", source, hold, HttpStatus.CREATED);
+        post("/api/holds/" + released.get("holdReference") + "/release", source, null, HttpStatus.OK);
+
+        recorder.assertWithinBudget("POST /api/holds/{holdReference}/release", HOLD_RELEASE_BUDGET);
+    }
+
+    @Test
+    void savingsGoals() {
+        SeededUser user = users.get(0);
+        get("/api/savings-goals/user", user);
+
+        recorder.assertWithinBudget("GET /api/savings-goals/user", GOAL_LISTING_BUDGET);
+
+        Long goalId = savingsGoalRepository.findByUserId(user.userId()).blockFirst().getId();
+        post("/api/savings-goals/" + goalId + "/contribute?amount=5.00", user, null, HttpStatus.OK);
+
+        recorder.assertWithinBudget("POST /api/savings-goals/{goalId}/contribute", GOAL_CONTRIBUTE_BUDGET);
+    }
+
+    @Test
+    void recurringListingIsConstantInRowCount() {
+        SeededUser user = users.get(3);
+        SeededUser counterparty = users.get(0);
+
+        addGoalLinkedRecurringTransfers(user, counterparty, 1);
+        int rows = ((List<?>) get("/api/recurring-transfers/user/active", user)).size();
+        List<String> few = recorder.assertWithinBudget(
+                "GET /api/recurring-transfers/user/active (" + rows + " rows)", RECURRING_LISTING_BUDGET);
+
+        addGoalLinkedRecurringTransfers(user, counterparty, 8);
+        int moreRows = ((List<?>) get("/api/recurring-transfers/user/active", user)).size();
+        List<String> many = recorder.assertWithinBudget(
+                "GET /api/recurring-transfers/user/active (" + moreRows + " rows)", RECURRING_LISTING_BUDGET);
+
+        assertEquals(few.size(), many.size(), () -> StatementRecorder.describe(
+                "Recurring listing ran " + few.size() + " statements for " + rows + " rows but "
+                        + many.size() + " for " + moreRows, many));
+    }
+
+    private void addGoalLinkedRecurringTransfers(SeededUser user, SeededUser counterparty, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate start = LocalDate.now().plusMonths(1);
+
+        Flux.range(0, count)
+                .concatMap(index -> savingsGoalRepository.save(SavingsGoal.builder()
+                                .userId(user.userId())
+                                .savingsWalletId(counterparty.walletId())
+                                .goalName("Budget goal " + index)
+                                .targetAmount(new BigDecimal("1000.0000"))
+                                .currentAmount(BigDecimal.ZERO)
+                                .currency("USD")
+                                .targetDate(LocalDate.now().plusYears(1))
+                                .status(SavingsGoal.Status.ACTIVE.name())
+                                .progressPercentage(BigDecimal.ZERO)
+                                .createdAt(now)
+                                .updatedAt(now)
+                                .build())
+                        .flatMap(goal -> recurringTransferRepository.save(RecurringTransfer.builder()
+                                .userId(user.userId())
+                                .sourceWalletId(user.walletId())
+                                .destinationWalletId(counterparty.walletId())
+                                .savingsGoalId(goal.getId())
+                                .amount(new BigDecimal("1.0000"))
+                                .currency("USD")
+                                .frequency(RecurringTransfer.Frequency.MONTHLY.name())
+                                .dayOfMonth(1)
+                                .executionTime(LocalTime.of(9, 0))
+                                .startDate(start)
+                                .nextExecutionDate(start.withDayOfMonth(1).plusMonths(1))
+                                .status(RecurringTransfer.Status.ACTIVE.name())
+                                .executionCount(0)
+                                .description("Budget recurring " + index)
+                                .createdAt(now)
+                                .updatedAt(now)
+                                .build())))
+                .blockLast();
+    }
+
+    private Object get(String uri, SeededUser user) {
+        recorder.reset();
+        return client.get().uri(uri)
+                .header("Authorization", bearer(user))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Object.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Map<?, ?> post(String uri, SeededUser user, Object body, HttpStatus expectedStatus) {
+        recorder.reset();
+        WebTestClient.RequestBodySpec request = client.post().uri(uri).contentType(MediaType.APPLICATION_JSON);
+        if (user != null) {
+            request.header("Authorization", bearer(user));
+        }
+        WebTestClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        return spec.exchange()
+                .expectStatus().isEqualTo(expectedStatus)
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private String bearer(SeededUser user) {
+        return "Bearer " + jwtUtil.generateToken(user.username(), user.userId());
+    }
+
+    @TestConfiguration
+    static class RecorderConfiguration {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.digitalwallet.budget;
+
+import com.digitalwallet.metrics.RequestTimings;
+import com.digitalwallet.metrics.StatementListener;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Records the SQL of every statement that runs inside an HTTP request, as seen by the
+ * {@code TimingConnectionFactory} proxy around the R2DBC connection factory. Background
+ * work (detached subscribes, scheduled jobs) carries no request context and is ignored,
+ * so a test can {@link #reset()}, fire one request and read back exactly its statements.
+ */
+public class StatementRecorder implements StatementListener {
+
+    private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void beforeExecute(String sql, ContextView context) {
+        if (RequestTimings.current(context) != null) {
+            statements.add(sql);
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    /**
+     * Fails when more than {@code budget} statements were recorded since the last
+     * {@link #reset()}, listing every statement that ran.
+     */
+    public List<String> assertWithinBudget(String request, int budget) {
+        List<String> executed = statements();
+        if (executed.size() > budget) {
+            fail(describe(request + " ran " + executed.size() + " statements, budget is " + budget, executed));
+        }
+        return executed;
+    }
+
+    /**
+     * Fails unless exactly {@code expected} statements were recorded since the last
+     * {@link #reset()}, for endpoints whose count is part of their design rather than a
+     * ceiling, listing every statement that ran.
+     */
+    public List<String> assertExactly(String request, int expected) {
+        List<String> executed = statements();
+        if (executed.size() != expected) {
+            fail(describe(request + " ran " + executed.size() + " statements, expected exactly " + expected, executed));
+        }
+        return executed;
+    }
+
+    static String describe(String headline, List<String> executed) {
+        StringBuilder message = new StringBuilder(headline).append(':');
+        for (int i = 0; i < executed.size(); i++) {
+            message.append(System.lineSeparator()).append(String.format("  %2d. ", i + 1))
+                    .append(executed.get(i).replaceAll("\\s+", " ").trim());
+        }
+        return message.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.digitalwallet.codec;
+
+import com.digitalwallet.dto.SavingsGoalResponse;
+import com.digitalwallet.dto.TransferResponse;
+import com.digitalwallet.dto.WalletBalanceResponse;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One response body per operation, from each encoder into pooled Netty buffers as the
+ * server writes them. The GC profiler's {@code gc.alloc.rate.norm} is the heap allocated
+ * per response; the buffer itself comes from the pool. Setup fails if the two encoders
+ * disagree on a single byte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncoderBenchmark {
+
+    @Param({"transfer", "walletBalance", "savingsGoal"})
+    private String response;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final Map<String, Object> hints = Map.of();
+    private Encoder<Object> jackson;
+    private Encoder<Object> handWritten;
+    private Object value;
+    private ResolvableType valueType;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        // The encoder WebFluxConfig's codecs fall back to: @EnableWebFlux leaves Jackson at Spring's defaults
+        jackson = (Encoder<Object>) (Encoder<?>) new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+        switch (response) {
+            case "transfer" -> {
+                value = TransferResponse.builder()
+                        .transferId(42L)
+                        .transferReference("TXN-0A91CVEVC0000")
+                        .sourceWalletNumber("****")
+                        .destinationWalletNumber("****")
+                        .amount(new BigDecimal("250.0000"))
+                        .currency("USD")
+                        .status("COMPLETED")
+                        .description("Benchmark transfer")
+                        .initiatedAt(LocalDateTime.of(2026, 1, 15, 10, 30, 0, 348007409))
+                        .completedAt(LocalDateTime.of(2026, 1, 15, 10, 30, 1, 550772927))
+                        .message("Transfer completed")
+                        .build();
+                handWritten = (Encoder<Object>) (Encoder<?>) new TransferResponseEncoder();
+            }
+            case "walletBalance" -> {
+                value = WalletBalanceResponse.builder()
+                        .walletId(1L)
+                        .walletNumber("WLT-1001")
+                        .balance(new BigDecimal("10000.0000"))
+                        .currency("USD")
+                        .status("ACTIVE")
+                        .dailyLimit(new BigDecimal("50000.0000"))
+                        .availableBalance(new BigDecimal("9750.0000"))
+                        .lastUpdated(LocalDateTime.of(2026, 1, 15, 10, 30, 1, 381569000))
+                        .build();
+                handWritten = (Encoder<Object>) (Encoder<?>) new WalletBalanceResponseEncoder();
+            }
+            case "savingsGoal" -> {
+                value = SavingsGoalResponse.builder()
+                        .goalId(7L)
+                        .goalName("Emergency Fund")
+                        .description("Six months of expenses")
+                        .savingsWalletNumber("****")
+                        .targetAmount(new BigDecimal("10000.0000"))
+                        .currentAmount(new BigDecimal("3250.5000"))
+                        .currency("USD")
+                        .progressPercentage(new BigDecimal("32.51"))
+                        .targetDate(LocalDate.of(2027, 3, 1))
+                        .status("ACTIVE")
+                        .daysRemaining(410)
+                        .amountNeeded(new BigDecimal("6749.5000"))
+                        .suggestedMonthlyContribution(new BigDecimal("518.29"))
+                        .projectedCompletionDate(LocalDate.of(2027, 2, 1))
+                        .createdAt(LocalDateTime.of(2026, 1, 1, 9, 0))
+                        .build();
+                handWritten = (Encoder<Object>) (Encoder<?>) new SavingsGoalResponseEncoder();
+            }
+            default -> throw new IllegalArgumentException(response);
+        }
+        valueType = ResolvableType.forInstance(value);
+
+        String expected = text(jackson);
+        String actual = text(handWritten);
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Encoders disagree:\n" + expected + "\n" + actual);
+        }
+    }
+
+    @Benchmark
+    public int jackson() {
+        return encode(jackson);
+    }
+
+    @Benchmark
+    public int handWritten() {
+        return encode(handWritten);
+    }
+
+    private int encode(Encoder<Object> encoder) {
+        DataBuffer buffer = encoder.encodeValue(value, bufferFactory, valueType, MediaType.APPLICATION_JSON, hints);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    private String text(Encoder<Object> encoder) {
+        DataBuffer buffer = encoder.encodeValue(value, bufferFactory, valueType, MediaType.APPLICATION_JSON, hints);
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.digitalwallet.codec;
+
+import com.digitalwallet.dto.SavingsGoalResponse;
+import com.digitalwallet.dto.TransferResponse;
+import com.digitalwallet.dto.WalletBalanceResponse;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Each hand-written encoder writes the same bytes as the Jackson encoder WebFlux would
+ * otherwise use, for single values, JSON arrays, NDJSON and empty streams, on heap and on
+ * Netty buffers. Responses are filled field by field through reflection, so a property
+ * added to a DTO gets a value here and fails the comparison until its encoder writes it;
+ * a property of a type with no samples below fails outright.
+ *
+ * <p>{@code mvn -Pperf test -Dtest=ResponseEncoderConformanceTest}
+ */
+class ResponseEncoderConformanceTest {
+
+    private static final List<String> STRINGS = List.of(
+            "TXN-0A91CVEVC0000",
+            "",
+            "say \"hi\" \\ back/slash",
+            "\u0000\u0001\b\t\n\u000b\f\r\u001f\u007f",
+            "Überweisung – naïve",
+            "💸 savings 🐷",
+            "\u00a0\u2028\u2029\ufeff");
+
+    private static final List<Long> LONGS = List.of(42L, 0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE);
+
+    private static final List<Integer> INTEGERS = List.of(410, 0, -3, Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+    private static final List<BigDecimal> DECIMALS = List.of(
+            new BigDecimal("250.0000"), BigDecimal.ZERO, new BigDecimal("-0.0001"), new BigDecimal("1E+3"),
+            new BigDecimal("12345678901234567890.123456789"), new BigDecimal("1.08250000"));
+
+    private static final List<LocalDateTime> DATE_TIMES = List.of(
+            LocalDateTime.of(2026, 1, 15, 10, 30),
+            LocalDateTime.of(2026, 1, 15, 10, 30, 1),
+            LocalDateTime.of(2026, 1, 15, 10, 30, 0, 500_000_000),
+            LocalDateTime.of(2026, 1, 15, 10, 30, 1, 550_772_927),
+            LocalDateTime.of(2026, 12, 31, 0, 0, 0, 1_000),
+            LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999));
+
+    private static final List<LocalDate> DATES = List.of(
+            LocalDate.of(2027, 3, 1), LocalDate.of(1970, 1, 1), LocalDate.of(2026, 12, 31));
+
+    private static final Map<Class<?>, List<?>> SAMPLES = Map.of(
+            String.class, STRINGS,
+            Long.class, LONGS,
+            Integer.class, INTEGERS,
+            BigDecimal.class, DECIMALS,
+            LocalDateTime.class, DATE_TIMES,
+            LocalDate.class, DATES);
+
+    // Enough responses for every field to take every sample of its type
+    private static final int VARIANTS = SAMPLES.values().stream().mapToInt(List::size).max().orElseThrow();
+
+    // The encoder WebFluxConfig's codecs fall back to: @EnableWebFlux leaves Jackson at Spring's defaults
+    private static final Encoder<Object> JACKSON = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+
+    private static final Map<String, Object> HINTS = Map.of();
+
+    static Stream<Arguments> encoders() {
+        List<Arguments> arguments = new ArrayList<>();
+        List<JsonResponseEncoder<?>> encoders = List.of(
+                new TransferResponseEncoder(), new WalletBalanceResponseEncoder(), new SavingsGoalResponseEncoder());
+        List<Class<?>> types = List.of(TransferResponse.class, WalletBalanceResponse.class, SavingsGoalResponse.class);
+        for (int i = 0; i < encoders.size(); i++) {
+            for (DataBufferFactory factory : List.of(DefaultDataBufferFactory.sharedInstance,
+                    new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT))) {
+                arguments.add(Arguments.of(types.get(i).getSimpleName(), factory.getClass().getSimpleName(),
+                        types.get(i), encoders.get(i), factory));
+            }
+        }
+        return arguments.stream();
+    }
+
+    @ParameterizedTest(name = "{0} on {1}")
+    @MethodSource("encoders")
+    void singleValuesMatchJackson(String name, String buffers, Class<?> type,
+                                  Encoder<Object> encoder, DataBufferFactory factory) throws Exception {
+        for (Object response : responses(type)) {
+            assertSameBytes(encoder, factory, type, Mono.just(response), MediaType.APPLICATION_JSON);
+            assertEquals(text(JACKSON.encodeValue(response, factory, ResolvableType.forClass(type),
+                            MediaType.APPLICATION_JSON, HINTS)),
+                    text(encoder.encodeValue(response, factory, ResolvableType.forClass(type),
+                            MediaType.APPLICATION_JSON, HINTS)));
+        }
+    }
+
+    @ParameterizedTest(name = "{0} on {1}")
+    @MethodSource("encoders")
+    void arraysMatchJackson(String name, String buffers, Class<?> type,
+                            Encoder<Object> encoder, DataBufferFactory factory) throws Exception {
+        List<Object> responses = responses(type);
+        assertSameBytes(encoder, factory, type, Flux.fromIterable(responses), MediaType.APPLICATION_JSON);
+        assertSameBytes(encoder, factory, type, Flux.just(responses.get(0)), MediaType.APPLICATION_JSON);
+        assertSameBytes(encoder, factory, type, Flux.empty(), MediaType.APPLICATION_JSON);
+    }
+
+    @ParameterizedTest(name = "{0} on {1}")
+    @MethodSource("encoders")
+    void ndjsonMatchesJackson(String name, String buffers, Class<?> type,
+                              Encoder<Object> encoder, DataBufferFactory factory) throws Exception {
+        List<Object> responses = responses(type);
+        assertSameBytes(encoder, factory, type, Flux.fromIterable(responses), MediaType.APPLICATION_NDJSON);
+        assertSameBytes(encoder, factory, type, Flux.empty(), MediaType.APPLICATION_NDJSON);
+    }
+
+    private static void assertSameBytes(Encoder<Object> encoder, DataBufferFactory factory, Class<?> type,
+                                        Publisher<Object> input, MimeType mimeType) {
+        ResolvableType elementType = ResolvableType.forClass(type);
+        String expected = join(JACKSON.encode(input, factory, elementType, mimeType, HINTS));
+        String actual = join(encoder.encode(input, factory, elementType, mimeType, HINTS));
+        assertEquals(expected, actual, () -> type.getSimpleName() + " as " + mimeType);
+    }
+
+    /** Every field set, each sample of its type used at least once, then one with every field null. */
+    private static List<Object> responses(Class<?> type) throws Exception {
+        List<Field> fields = Stream.of(type.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .toList();
+        List<Object> responses = new ArrayList<>();
+        for (int variant = 0; variant < VARIANTS; variant++) {
+            Object response = type.getDeclaredConstructor().newInstance();
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                List<?> samples = SAMPLES.get(field.getType());
+                assertNotNull(samples, () -> type.getSimpleName() + "." + field.getName() + " is a "
+                        + field.getType().getSimpleName() + ", which its encoder and this test do not handle yet");
+                field.setAccessible(true);
+                field.set(response, samples.get((variant + i) % samples.size()));
+            }
+            responses.add(response);
+        }
+        responses.add(type.getDeclaredConstructor().newInstance());
+        return responses;
+    }
+
+    private static String join(Flux<DataBuffer> buffers) {
+        return DataBufferUtils.join(buffers)
+                .map(ResponseEncoderConformanceTest::text)
+                .defaultIfEmpty("")
+                .block();
+    }
+
+    private static String text(DataBuffer buffer) {
+        try {
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.digitalwallet.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the same serializer {@code KafkaConfig} configures for the producer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferEventSerializationBenchmark {
+
+    private JsonSerializer<TransferEvent> serializer;
+    private TransferEvent event;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        event = TransferEvent.builder()
+                .transferId(42L)
+                .transferReference("TXN-1A2B3C4D")
+                .eventType(TransferEventType.TRANSFER_COMPLETED)
+                .sourceWalletId(1L)
+                .destinationWalletId(2L)
+                .amount(new BigDecimal("250.0000"))
+                .currency("USD")
+                .status("COMPLETED")
+                .initiatedBy(1L)
+                .timestamp(LocalDateTime.of(2026, 1, 15, 10, 30, 1))
+                .message("Transfer completed successfully")
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize("wallet-transfers", event);
+    }
+}
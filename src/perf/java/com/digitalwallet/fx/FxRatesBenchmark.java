@@ -0,0 +1,75 @@
+package com.digitalwallet.fx;
+
+import com.digitalwallet.model.FxRate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The conversion a cross-currency transfer pays on its request path. Run with the GC
+ * profiler to see the allocation per conversion: the lookup should allocate nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FxRatesBenchmark {
+
+    private static final String[] CURRENCIES = {
+            "USD", "EUR", "GBP", "JPY", "CHF", "CAD", "AUD", "NZD", "SEK", "NOK",
+            "DKK", "PLN", "CZK", "HUF", "SGD", "HKD", "ZAR", "KES", "NGN", "INR"};
+
+    private FxRates rates;
+    private String from;
+    private String to;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        // Every currency quoted against USD, as rate feeds usually are; the other direction is derived
+        List<FxRate> quotes = new ArrayList<>();
+        for (int index = 1; index < CURRENCIES.length; index++) {
+            quotes.add(FxRate.builder()
+                    .baseCurrency("USD")
+                    .quoteCurrency(CURRENCIES[index])
+                    .rate(new BigDecimal("0.8712").add(BigDecimal.valueOf(index)))
+                    .build());
+        }
+        rates = FxRates.of(quotes);
+        from = "KES";
+        to = "USD";
+        amount = new BigDecimal("1250.75");
+    }
+
+    @Benchmark
+    public BigDecimal lookupRate() {
+        return rates.rate(from, to);
+    }
+
+    @Benchmark
+    public BigDecimal convert() {
+        return FxRates.convert(amount, rates.rate(from, to));
+    }
+
+    // Rebuilding the snapshot is what a refresh pays, off the request path
+    @Benchmark
+    public FxRates buildSnapshot() {
+        return FxRates.of(List.of(
+                FxRate.builder().baseCurrency("USD").quoteCurrency("EUR").rate(new BigDecimal("0.9214")).build(),
+                FxRate.builder().baseCurrency("USD").quoteCurrency("GBP").rate(new BigDecimal("0.7893")).build()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.digitalwallet.loadtest;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaOutbound;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.kafka.sender.TransactionManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Broker stand-in for load tests: acknowledges every record after an optional fixed
+ * delay and counts records per topic, without leaving the JVM.
+ */
+public class InProcessKafkaSender<K, V> implements KafkaSender<K, V> {
+
+    private final Duration ackLatency;
+    private final Map<String, LongAdder> recordsByTopic = new ConcurrentHashMap<>();
+
+    public InProcessKafkaSender(Duration ackLatency) {
+        this.ackLatency = ackLatency;
+    }
+
+    @Override
+    public <T> Flux<SenderResult<T>> send(Publisher<? extends SenderRecord<K, V, T>> records) {
+        Flux<SenderResult<T>> results = Flux.from(records).map(this::acknowledge);
+        return ackLatency.isZero() ? results : results.delayElements(ackLatency);
+    }
+
+    @Override
+    public <T> Flux<Flux<SenderResult<T>>> sendTransactionally(
+            Publisher<? extends Publisher<? extends SenderRecord<K, V, T>>> records) {
+        return Flux.from(records).map(this::send);
+    }
+
+    @Override
+    public TransactionManager transactionManager() {
+        throw new UnsupportedOperationException("Transactions are not supported by the in-process sender");
+    }
+
+    @Override
+    public KafkaOutbound<K, V> createOutbound() {
+        throw new UnsupportedOperationException("Outbound is not supported by the in-process sender");
+    }
+
+    @Override
+    public <T> Mono<T> doOnProducer(Function<Producer<K, V>, ? extends T> function) {
+        return Mono.error(new UnsupportedOperationException("No producer behind the in-process sender"));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    public Map<String, Long> recordCounts() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        recordsByTopic.forEach((topic, adder) -> counts.put(topic, adder.sum()));
+        return counts;
+    }
+
+    private <T> SenderResult<T> acknowledge(SenderRecord<K, V, T> record) {
+        LongAdder counter = recordsByTopic.computeIfAbsent(record.topic(), topic -> new LongAdder());
+        counter.increment();
+
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0),
+                counter.sum(), 0, System.currentTimeMillis(), 0, 0);
+        T correlation = record.correlationMetadata();
+
+        return new SenderResult<>() {
+            @Override
+            public RecordMetadata recordMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public Exception exception() {
+                return null;
+            }
+
+            @Override
+            public T correlationMetadata() {
+                return correlation;
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.digitalwallet.loadtest;
+
+import com.digitalwallet.event.TransferEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+
+import java.time.Duration;
+
+/**
+ * Replaces the Kafka producer with {@link InProcessKafkaSender} so the application can
+ * run without a broker.
+ */
+@TestConfiguration
+public class LoadTestConfiguration {
+
+    @Bean
+    public InProcessKafkaSender<String, TransferEvent> inProcessKafkaSender(
+            @Value("${loadtest.kafka-latency-ms:0}") long kafkaLatencyMs) {
+        return new InProcessKafkaSender<>(Duration.ofMillis(kafkaLatencyMs));
+    }
+
+    @Bean
+    @Primary
+    public ReactiveKafkaProducerTemplate<String, TransferEvent> inProcessKafkaProducerTemplate(
+            InProcessKafkaSender<String, TransferEvent> sender) {
+        return new ReactiveKafkaProducerTemplate<>(sender);
+    }
+}
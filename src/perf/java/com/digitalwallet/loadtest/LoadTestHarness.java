@@ -0,0 +1,214 @@
+package com.digitalwallet.loadtest;
+
+import com.digitalwallet.NovaPayApplication;
+import com.digitalwallet.event.TransferEvent;
+import com.digitalwallet.loadtest.LoadTestSeeder.SeededUser;
+import com.digitalwallet.loadtest.LoadTestSettings.Endpoint;
+import com.digitalwallet.repository.RecurringTransferRepository;
+import com.digitalwallet.repository.SavingsGoalRepository;
+import com.digitalwallet.repository.UserRepository;
+import com.digitalwallet.repository.WalletRepository;
+import com.digitalwallet.security.JwtUtil;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-JVM end-to-end load harness. Boots the application against an in-memory H2
+ * database (PostgreSQL mode) and an in-process Kafka stand-in, seeds users and
+ * wallets, then drives a weighted endpoint mix through {@link WebTestClient}.
+ *
+ * <p>Arrivals are open-loop: a pacer schedules request {@code i} at
+ * {@code start + i / rate} regardless of how earlier requests are doing, and latency
+ * is measured from that intended start. Queueing inside the server (or in the client
+ * pool) therefore shows up in the percentiles instead of silently lowering the
+ * offered rate (coordinated omission).
+ *
+ * <p>Usage: {@code mvn -Pperf test-compile exec:exec@loadtest -Dload.rate=500 -Dload.users=1000}
+ */
+public class LoadTestHarness {
+
+    private static final String TRANSFER_BODY =
+            "{\"sourceWalletNumber\":\"%s\",\"destinationWalletNumber\":\"%s\","
+                    + "\"amount\":1.00,\"currency\":\"USD\",\"description\":\"load test\"}";
+
+    private final LoadTestSettings settings;
+    private final WebTestClient client;
+    private final List<SeededUser> users;
+    private final List<String> tokens;
+    private final Endpoint[] weightedEndpoints;
+    private final LatencyReport report = new LatencyReport();
+
+    LoadTestHarness(LoadTestSettings settings, WebTestClient client, List<SeededUser> users, List<String> tokens) {
+        this.settings = settings;
+        this.client = client;
+        this.users = users;
+        this.tokens = tokens;
+        this.weightedEndpoints = expandMix(settings.mix());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        System.out.println("Load test settings: " + settings);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                NovaPayApplication.class, LoadTestConfiguration.class)
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///novapay-load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--novapay.reference.node-id=0",
+                        "--logging.level.com.digitalwallet=WARN",
+                        "--logging.level.org.springframework.r2dbc=WARN",
+                        "--logging.level.io.r2dbc.h2=ERROR",
+                        "--novapay.rate-limit.enabled=false",
+                        "--novapay.risk.enabled=false",
+                        "--loadtest.kafka-latency-ms=" + settings.kafkaLatencyMs());
+
+        int exitCode = 0;
+        try {
+            LoadTestSeeder seeder = new LoadTestSeeder(
+                    context.getBean(UserRepository.class),
+                    context.getBean(WalletRepository.class),
+                    context.getBean(SavingsGoalRepository.class),
+                    context.getBean(RecurringTransferRepository.class),
+                    context.getBean(PasswordEncoder.class));
+            List<SeededUser> users = seeder.seed(settings.users());
+
+            JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+            List<String> tokens = new ArrayList<>(users.size());
+            users.forEach(user -> tokens.add(jwtUtil.generateToken(user.username(), user.userId())));
+
+            String port = context.getEnvironment().getProperty("local.server.port");
+            WebTestClient client = WebTestClient.bindToServer()
+                    .baseUrl("http://localhost:" + port)
+                    .responseTimeout(Duration.ofSeconds(60))
+                    .build();
+
+            new LoadTestHarness(settings, client, users, tokens).run();
+
+            @SuppressWarnings("unchecked")
+            InProcessKafkaSender<String, TransferEvent> sender = context.getBean(InProcessKafkaSender.class);
+            System.out.println("Events published: " + sender.recordCounts());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    void run() throws InterruptedException {
+        ExecutorService clientPool = Executors.newFixedThreadPool(settings.clientThreads());
+        try {
+            if (settings.warmupSeconds() > 0) {
+                System.out.printf("Warming up for %ds at %d req/s%n", settings.warmupSeconds(), settings.rate());
+                drive(clientPool, settings.warmupSeconds());
+                report.reset();
+            }
+
+            System.out.printf("Measuring for %ds at %d req/s%n", settings.durationSeconds(), settings.rate());
+            long start = System.nanoTime();
+            drive(clientPool, settings.durationSeconds());
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            report.print(System.out, elapsedSeconds);
+        } finally {
+            clientPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Issues {@code rate * seconds} requests on a fixed schedule and waits for the
+     * stragglers. The pacer never waits on a response.
+     */
+    private void drive(ExecutorService clientPool, int seconds) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long requests = (long) settings.rate() * seconds;
+        long start = System.nanoTime();
+        List<Future<?>> inFlight = new ArrayList<>();
+
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = weightedEndpoints[ThreadLocalRandom.current().nextInt(weightedEndpoints.length)];
+            inFlight.add(clientPool.submit(() -> execute(endpoint, intendedStart)));
+        }
+
+        for (Future<?> future : inFlight) {
+            try {
+                future.get(2, TimeUnit.MINUTES);
+            } catch (Exception e) {
+                // Failures are already counted against the endpoint.
+            }
+        }
+    }
+
+    private void execute(Endpoint endpoint, long intendedStart) {
+        boolean success;
+        try {
+            success = send(endpoint).getStatus().is2xxSuccessful();
+        } catch (Throwable error) {
+            success = false;
+        }
+        report.record(endpoint, System.nanoTime() - intendedStart, success);
+    }
+
+    private EntityExchangeResult<byte[]> send(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = random.nextInt(users.size());
+        SeededUser user = users.get(index);
+        String bearer = "Bearer " + tokens.get(index);
+
+        WebTestClient.RequestHeadersSpec<?> request = switch (endpoint) {
+            case LOGIN -> client.method(HttpMethod.POST).uri("/api/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"username\":\"" + user.username() + "\",\"password\":\""
+                            + LoadTestSeeder.PASSWORD + "\"}");
+            case TRANSFER -> {
+                SeededUser destination = users.get((index + 1 + random.nextInt(users.size() - 1)) % users.size());
+                yield client.method(HttpMethod.POST).uri("/api/transfers/initiate")
+                        .header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(String.format(TRANSFER_BODY, user.walletNumber(), destination.walletNumber()));
+            }
+            case BALANCE -> client.get().uri("/api/wallets/{walletNumber}/balance", user.walletNumber())
+                    .header("Authorization", bearer);
+            case SAVINGS -> client.get().uri("/api/savings-goals/user/active")
+                    .header("Authorization", bearer);
+            case RECURRING -> client.get().uri("/api/recurring-transfers/user/active")
+                    .header("Authorization", bearer);
+        };
+
+        return request.exchange().expectBody().returnResult();
+    }
+
+    private static Endpoint[] expandMix(Map<Endpoint, Integer> mix) {
+        List<Endpoint> expanded = new ArrayList<>();
+        mix.forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                expanded.add(endpoint);
+            }
+        });
+        return expanded.toArray(Endpoint[]::new);
+    }
+}
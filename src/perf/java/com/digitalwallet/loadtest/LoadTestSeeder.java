@@ -0,0 +1,124 @@
+package com.digitalwallet.loadtest;
+
+import com.digitalwallet.model.RecurringTransfer;
+import com.digitalwallet.model.SavingsGoal;
+import com.digitalwallet.model.User;
+import com.digitalwallet.model.Wallet;
+import com.digitalwallet.repository.RecurringTransferRepository;
+import com.digitalwallet.repository.SavingsGoalRepository;
+import com.digitalwallet.repository.UserRepository;
+import com.digitalwallet.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Seeds users, funded wallets, one savings goal and one recurring transfer per user.
+ * Recurring transfers start well in the future so the hourly job leaves them alone
+ * during a run.
+ */
+@RequiredArgsConstructor
+public class LoadTestSeeder {
+
+    public static final String PASSWORD = "loadtest-password";
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000.0000");
+
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+    private final SavingsGoalRepository savingsGoalRepository;
+    private final RecurringTransferRepository recurringTransferRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public List<SeededUser> seed(int users) {
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<SeededUser> seeded = Flux.range(0, users)
+                .flatMap(index -> userRepository.save(User.builder()
+                                .username(username(index))
+                                .password(passwordHash)
+                                .email(username(index) + "@loadtest.local")
+                                .firstName("Load")
+                                .lastName("User " + index)
+                                .status(User.Status.ACTIVE.name())
+                                .createdAt(now)
+                                .updatedAt(now)
+                                .build())
+                        .flatMap(user -> walletRepository.save(Wallet.builder()
+                                        .userId(user.getId())
+                                        .walletNumber(walletNumber(index))
+                                        .balance(OPENING_BALANCE)
+                                        .currency("USD")
+                                        .status(Wallet.Status.ACTIVE.name())
+                                        .walletType(Wallet.WalletType.STANDARD.name())
+                                        .dailyLimit(new BigDecimal("50000.0000"))
+                                        .createdAt(now)
+                                        .updatedAt(now)
+                                        .build())
+                                .map(wallet -> new SeededUser(user.getId(), user.getUsername(),
+                                        wallet.getId(), wallet.getWalletNumber()))), 16)
+                .collectSortedList((a, b) -> a.walletNumber().compareTo(b.walletNumber()))
+                .block();
+
+        Flux.range(0, seeded.size())
+                .flatMap(index -> seedSavingsAndRecurring(seeded.get(index),
+                        seeded.get((index + 1) % seeded.size()), now), 16)
+                .blockLast();
+
+        return seeded;
+    }
+
+    private Flux<RecurringTransfer> seedSavingsAndRecurring(SeededUser owner, SeededUser counterparty,
+                                                            LocalDateTime now) {
+        LocalDate start = LocalDate.now().plusMonths(1);
+
+        return savingsGoalRepository.save(SavingsGoal.builder()
+                        .userId(owner.userId())
+                        .savingsWalletId(owner.walletId())
+                        .goalName("Load goal " + owner.username())
+                        .targetAmount(new BigDecimal("5000.0000"))
+                        .currentAmount(BigDecimal.ZERO)
+                        .currency("USD")
+                        .targetDate(LocalDate.now().plusYears(1))
+                        .status(SavingsGoal.Status.ACTIVE.name())
+                        .progressPercentage(BigDecimal.ZERO)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .thenMany(recurringTransferRepository.save(RecurringTransfer.builder()
+                        .userId(owner.userId())
+                        .sourceWalletId(owner.walletId())
+                        .destinationWalletId(counterparty.walletId())
+                        .amount(new BigDecimal("10.0000"))
+                        .currency("USD")
+                        .frequency(RecurringTransfer.Frequency.MONTHLY.name())
+                        .dayOfMonth(1)
+                        .executionTime(LocalTime.of(9, 0))
+                        .startDate(start)
+                        .nextExecutionDate(start.withDayOfMonth(1).plusMonths(1))
+                        .status(RecurringTransfer.Status.ACTIVE.name())
+                        .executionCount(0)
+                        .description("Load recurring " + owner.username())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build()));
+    }
+
+    private static String username(int index) {
+        return String.format("load.user.%06d", index);
+    }
+
+    private static String walletNumber(int index) {
+        return String.format("LT-%07d", index);
+    }
+
+    public record SeededUser(Long userId, String username, Long walletId, String walletNumber) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.digitalwallet.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Harness parameters, parsed from {@code key=value} program arguments.
+ *
+ * @param users          number of seeded users, each with one funded wallet
+ * @param rate           target arrivals per second across all endpoints
+ * @param durationSeconds length of the measured phase
+ * @param warmupSeconds  length of the unmeasured warm-up phase
+ * @param mix            relative weight per {@link Endpoint}
+ * @param clientThreads  threads available to the blocking {@code WebTestClient}
+ * @param kafkaLatencyMs simulated broker acknowledgement latency
+ */
+public record LoadTestSettings(int users, int rate, int durationSeconds, int warmupSeconds,
+                               Map<Endpoint, Integer> mix, int clientThreads, long kafkaLatencyMs) {
+
+    public static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+
+        return new LoadTestSettings(
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Integer.parseInt(values.getOrDefault("duration", "30")),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                parseMix(values.getOrDefault("mix", "login:5,transfer:40,balance:35,savings:10,recurring:10")),
+                Integer.parseInt(values.getOrDefault("clientThreads", "256")),
+                Long.parseLong(values.getOrDefault("kafkaLatencyMs", "0")));
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Load mix must contain at least one endpoint with a positive weight");
+        }
+        return weights;
+    }
+
+    public enum Endpoint {
+        LOGIN, TRANSFER, BALANCE, SAVINGS, RECURRING
+    }
+}
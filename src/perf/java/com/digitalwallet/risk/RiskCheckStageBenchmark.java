@@ -0,0 +1,72 @@
+package com.digitalwallet.risk;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the risk-check stage adds to a transfer, with the default rules and limits raised
+ * so nothing is rejected. Sampled rather than averaged so the report shows p99: it should
+ * stay in the low microseconds. {@code hotWallet} counts every transfer against one
+ * wallet; {@code manyWallets} spreads them over 50,000 wallets, so most lookups miss the
+ * CPU cache. Pass JMH's {@code -t} to add threads contending on the same counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskCheckStageBenchmark {
+
+    private static final int WALLETS = 50_000;
+    private static final BigDecimal AMOUNT = new BigDecimal("25.00");
+
+    private RiskCheckStage stage;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Duration minute = Duration.ofMinutes(1);
+        TransferCounters counters = new TransferCounters(meterRegistry, 12, 200_000,
+                minute, minute, Duration.ofMinutes(10), Duration.ofDays(30));
+        VelocityCheck velocity = new VelocityCheck(counters, Long.MAX_VALUE,
+                new BigDecimal("1000000000"), Long.MAX_VALUE, Long.MAX_VALUE);
+        // Amounts stay under the new-destination limit, so its query is never needed
+        NewDestinationCheck newDestination = new NewDestinationCheck(counters, null,
+                new BigDecimal("1000.00"), Duration.ofDays(30));
+        stage = new RiskCheckStage(List.of(velocity, newDestination), counters, meterRegistry, true);
+    }
+
+    @Benchmark
+    public void hotWallet(Blackhole blackhole) {
+        check(new TransferAttempt(1L, 1L, 2L, AMOUNT, System.currentTimeMillis()), blackhole);
+    }
+
+    @Benchmark
+    public void manyWallets(Blackhole blackhole) {
+        long wallet = ThreadLocalRandom.current().nextLong(WALLETS);
+        check(new TransferAttempt(wallet, wallet, wallet + 1, AMOUNT, System.currentTimeMillis()), blackhole);
+    }
+
+    // Checked and then counted, as a transfer that goes through is
+    private void check(TransferAttempt attempt, Blackhole blackhole) {
+        stage.evaluate(attempt).subscribe(blackhole::consume, blackhole::consume);
+        stage.record(attempt);
+    }
+}
@@ -0,0 +1,42 @@
+package com.digitalwallet.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecurringTransferServiceBenchmark {
+
+    @Param({"DAILY", "WEEKLY", "BIWEEKLY", "MONTHLY", "QUARTERLY"})
+    private String frequency;
+
+    private RecurringTransferService recurringTransferService;
+    private LocalDate startDate;
+
+    @Setup
+    public void setUp() {
+        recurringTransferService = new RecurringTransferService(null, null, null, null, null, null, null, null);
+        startDate = LocalDate.now().plusDays(3);
+    }
+
+    @Benchmark
+    public LocalDate calculateNextExecutionDate() {
+        return recurringTransferService.calculateNextExecutionDate(startDate, frequency, 3, 15);
+    }
+}
@@ -0,0 +1,48 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.benchmark.BenchmarkFixtures;
+import com.digitalwallet.dto.SavingsGoalResponse;
+import com.digitalwallet.model.SavingsGoal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SavingsGoalServiceBenchmark {
+
+    private SavingsGoalService savingsGoalService;
+    private SavingsGoal goal;
+
+    @Setup
+    public void setUp() {
+        savingsGoalService = new SavingsGoalService(null, null, null, null);
+        goal = BenchmarkFixtures.activeGoal();
+    }
+
+    @Benchmark
+    public SavingsGoalResponse buildGoalResponse() {
+        return savingsGoalService.buildGoalResponse(goal);
+    }
+
+    // What a contribution or the daily sweep now pays instead of every read
+    @Benchmark
+    public GoalProjection computeProjection() {
+        return GoalProjection.of(goal, List.of(), LocalDate.now());
+    }
+}
@@ -0,0 +1,53 @@
+package com.digitalwallet.service;
+
+import com.digitalwallet.benchmark.BenchmarkFixtures;
+import com.digitalwallet.dto.TransferRequest;
+import com.digitalwallet.dto.TransferResponse;
+import com.digitalwallet.model.Transfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferServiceBenchmark {
+
+    private TransferService transferService;
+    private TransferRequest request;
+    private Transfer transfer;
+
+    @Setup
+    public void setUp() {
+        transferService = new TransferService(null, null, null, null, null, null, null, null, null, null);
+        BenchmarkFixtures.inject(transferService, "maxTransferAmount", new BigDecimal("10000.00"));
+        BenchmarkFixtures.inject(transferService, "minTransferAmount", new BigDecimal("0.01"));
+        BenchmarkFixtures.inject(transferService, "dailyLimit", new BigDecimal("50000.00"));
+        request = BenchmarkFixtures.transferRequest();
+        transfer = BenchmarkFixtures.completedTransfer();
+    }
+
+    @Benchmark
+    public void validateTransfer(Blackhole blackhole) {
+        transferService.validateTransfer(request).subscribe(blackhole::consume, blackhole::consume);
+    }
+
+    @Benchmark
+    public TransferResponse buildTransferResponse() {
+        return transferService.buildTransferResponse(transfer);
+    }
+}